@@ -3,12 +3,14 @@ package fh.bswe.bookmanager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The main entry point for the Book Manager application.
  */
 @SpringBootApplication
 @ConfigurationPropertiesScan("fh.bswe.bookmanager.config")
+@EnableScheduling
 public class BookManagerApplication {
 
     /**
@@ -0,0 +1,74 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration class that maps the reconciliation properties of the book statistics from the application configuration.
+ * <ul>
+ *     <li>{@code bookstats.chunk-size} – number of book IDs rebuilt per transaction</li>
+ *     <li>{@code bookstats.parallelism} – number of chunks rebuilt at the same time</li>
+ *     <li>{@code bookstats.reconcile-interval} – delay between two rebuilds of all statistics</li>
+ * </ul>
+ */
+@ConfigurationProperties("bookstats")
+public class BookStatsConfig {
+    private int chunkSize = 1000;
+    private int parallelism = 4;
+    private Duration reconcileInterval = Duration.ofHours(24);
+
+    /**
+     * Returns the number of book IDs rebuilt per transaction.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the number of book IDs rebuilt per transaction.
+     *
+     * @param chunkSize the chunk size to set
+     */
+    public void setChunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the number of chunks rebuilt at the same time.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of chunks rebuilt at the same time.
+     *
+     * @param parallelism the parallelism to set
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the delay between two rebuilds of all statistics.
+     *
+     * @return the reconciliation interval
+     */
+    public Duration getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    /**
+     * Sets the delay between two rebuilds of all statistics.
+     *
+     * @param reconcileInterval the reconciliation interval to set
+     */
+    public void setReconcileInterval(final Duration reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+}
@@ -0,0 +1,93 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration class that maps the off-heap cover cache properties from the application configuration.
+ * <ul>
+ *     <li>{@code covercache.enabled} – whether covers are cached at all</li>
+ *     <li>{@code covercache.max-size} – the byte budget of all cached covers</li>
+ *     <li>{@code covercache.max-entry-size} – larger covers are never cached</li>
+ *     <li>{@code covercache.stripes} – number of independently locked segments of the index</li>
+ * </ul>
+ */
+@ConfigurationProperties("covercache")
+public class CoverCacheConfig {
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    private DataSize maxEntrySize = DataSize.ofMegabytes(2);
+    private int stripes = 16;
+
+    /**
+     * Returns whether covers are cached.
+     *
+     * @return {@code true} if the cover cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether covers are cached.
+     *
+     * @param enabled {@code true} to enable the cover cache
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the byte budget of all cached covers.
+     *
+     * @return the maximum cache size
+     */
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the byte budget of all cached covers.
+     *
+     * @param maxSize the maximum cache size to set
+     */
+    public void setMaxSize(final DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the size above which covers are not cached.
+     *
+     * @return the maximum entry size
+     */
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Sets the size above which covers are not cached.
+     *
+     * @param maxEntrySize the maximum entry size to set
+     */
+    public void setMaxEntrySize(final DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Returns the number of independently locked segments of the cache index.
+     *
+     * @return the number of stripes
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * Sets the number of independently locked segments of the cache index.
+     *
+     * @param stripes the number of stripes to set
+     */
+    public void setStripes(final int stripes) {
+        this.stripes = stripes;
+    }
+}
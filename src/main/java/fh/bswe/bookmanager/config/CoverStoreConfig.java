@@ -0,0 +1,139 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class that maps the cover store properties from the application configuration.
+ * <ul>
+ *     <li>{@code coverstore.directory} – the root directory of the on-disk cover store</li>
+ *     <li>{@code coverstore.shard-levels} – number of two-character directory levels per hash</li>
+ *     <li>{@code coverstore.orphan-grace-period} – minimum age of an unreferenced file
+ *     before the consistency check removes it</li>
+ *     <li>{@code coverstore.placeholder-max-size} – images up to this size in bytes are
+ *     treated as placeholders and stored as "no cover"</li>
+ *     <li>{@code coverstore.placeholder-hashes} – content hashes of known placeholder images</li>
+ *     <li>{@code coverstore.migration-batch-size} – number of legacy database covers moved into the
+ *     store per transaction</li>
+ * </ul>
+ */
+@ConfigurationProperties("coverstore")
+public class CoverStoreConfig {
+    private String directory;
+    private int shardLevels = 2;
+    private Duration orphanGracePeriod = Duration.ofHours(1);
+    private int placeholderMaxSize = 1024;
+    private List<String> placeholderHashes = new ArrayList<>();
+    private int migrationBatchSize = 100;
+
+    /**
+     * Returns the root directory of the cover store.
+     *
+     * @return the cover store directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the root directory of the cover store.
+     *
+     * @param directory the cover store directory to set
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the number of directory levels a cover file is sharded into.
+     *
+     * @return the number of shard levels
+     */
+    public int getShardLevels() {
+        return shardLevels;
+    }
+
+    /**
+     * Sets the number of directory levels a cover file is sharded into.
+     *
+     * @param shardLevels the number of shard levels to set
+     */
+    public void setShardLevels(final int shardLevels) {
+        this.shardLevels = shardLevels;
+    }
+
+    /**
+     * Returns the minimum age of an unreferenced cover file before it is removed.
+     *
+     * @return the orphan grace period
+     */
+    public Duration getOrphanGracePeriod() {
+        return orphanGracePeriod;
+    }
+
+    /**
+     * Sets the minimum age of an unreferenced cover file before it is removed.
+     *
+     * @param orphanGracePeriod the orphan grace period to set
+     */
+    public void setOrphanGracePeriod(final Duration orphanGracePeriod) {
+        this.orphanGracePeriod = orphanGracePeriod;
+    }
+
+    /**
+     * Returns the maximum size in bytes up to which an image is treated as placeholder.
+     *
+     * @return the placeholder size threshold
+     */
+    public int getPlaceholderMaxSize() {
+        return placeholderMaxSize;
+    }
+
+    /**
+     * Sets the maximum size in bytes up to which an image is treated as placeholder.
+     *
+     * @param placeholderMaxSize the placeholder size threshold to set
+     */
+    public void setPlaceholderMaxSize(final int placeholderMaxSize) {
+        this.placeholderMaxSize = placeholderMaxSize;
+    }
+
+    /**
+     * Returns the content hashes of known placeholder images.
+     *
+     * @return the placeholder hashes
+     */
+    public List<String> getPlaceholderHashes() {
+        return placeholderHashes;
+    }
+
+    /**
+     * Sets the content hashes of known placeholder images.
+     *
+     * @param placeholderHashes the placeholder hashes to set
+     */
+    public void setPlaceholderHashes(final List<String> placeholderHashes) {
+        this.placeholderHashes = placeholderHashes;
+    }
+
+    /**
+     * Returns the number of legacy database covers moved into the store per transaction.
+     *
+     * @return the migration batch size
+     */
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    /**
+     * Sets the number of legacy database covers moved into the store per transaction.
+     *
+     * @param migrationBatchSize the migration batch size to set
+     */
+    public void setMigrationBatchSize(final int migrationBatchSize) {
+        this.migrationBatchSize = migrationBatchSize;
+    }
+}
@@ -0,0 +1,132 @@
+package fh.bswe.bookmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import fh.bswe.bookmanager.helper.ReadWriteRoutingDataSource;
+import fh.bswe.bookmanager.helper.ReadYourWritesFilter;
+import fh.bswe.bookmanager.helper.ReplicaLagMonitor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the read/write routing between the primary database and a read replica.
+ * <p>
+ * Only active if {@code datasource.replica.url} is set; otherwise the single data source
+ * of Spring Boot is used. The primary is configured with the regular {@code spring.datasource.*}
+ * properties, the replica with {@link ReplicaDataSourceConfig}. Read-only transactions are
+ * routed to the replica while its lag is within {@code datasource.replica.max-lag}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class DataSourceRoutingConfiguration {
+
+    /**
+     * Creates the connection pool of the primary database.
+     *
+     * @param properties the {@code spring.datasource} properties
+     * @return the primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the read-only connection pool of the replica.
+     *
+     * @param config the replica properties
+     * @return the replica data source
+     */
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(final ReplicaDataSourceConfig config) {
+        final HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(config.getUrl())
+                .username(config.getUsername())
+                .password(config.getPassword())
+                .build();
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * Creates the monitor measuring the replica lag.
+     *
+     * @param replicaDataSource the replica data source
+     * @param config            the replica properties
+     * @return the replica lag monitor
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") final DataSource replicaDataSource,
+                                               final ReplicaDataSourceConfig config) {
+        return new ReplicaLagMonitor(replicaDataSource, config.getLagQuery(), config.getMaxLag());
+    }
+
+    /**
+     * Creates the routing data source used by JPA, Flyway and JDBC.
+     * <p>
+     * The lazy proxy fetches the physical connection only for the first statement,
+     * after the transaction has been marked read-only.
+     * </p>
+     *
+     * @param primaryDataSource the primary data source
+     * @param replicaDataSource the replica data source
+     * @param lagMonitor        the replica lag monitor
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") final DataSource replicaDataSource,
+                                 final ReplicaLagMonitor lagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                ReadWriteRoutingDataSource.of(primaryDataSource, replicaDataSource, lagMonitor));
+    }
+
+    /**
+     * Releases the JDBC connection of a session at the end of every transaction instead of the session.
+     * <p>
+     * With the session kept open for the whole request, the connection of the first transaction would
+     * otherwise be reused by all later ones, so a request starting with a read-only transaction would
+     * write to the replica and a request starting with a read-write transaction would never read from it.
+     * </p>
+     *
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Registers the read-your-writes filter ahead of all other filters.
+     *
+     * @param config the replica properties
+     * @return the filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "datasource.replica", name = "read-your-writes", matchIfMissing = true)
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(final ReplicaDataSourceConfig config) {
+        final FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(config.getMaxLag()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,199 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration class that maps the properties of library imports from the application configuration.
+ * <ul>
+ *     <li>{@code libraryimport.batch-size} – number of rows resolved and written per transaction</li>
+ *     <li>{@code libraryimport.fetch-parallelism} – number of books fetched from OpenLibrary at the same
+ *     time, over all imports</li>
+ *     <li>{@code libraryimport.max-concurrent-jobs} – number of imports running at the same time;
+ *     further imports wait</li>
+ *     <li>{@code libraryimport.queue-capacity} – number of imports waiting to run; further uploads
+ *     are rejected</li>
+ *     <li>{@code libraryimport.max-jobs-per-user} – number of unfinished imports per user</li>
+ *     <li>{@code libraryimport.max-job-duration} – time after which an unfinished import is cancelled,
+ *     including the time it waited</li>
+ *     <li>{@code libraryimport.cleanup-interval} – delay between two checks for overdue and expired
+ *     imports</li>
+ *     <li>{@code libraryimport.max-errors} – number of failed rows reported per import</li>
+ *     <li>{@code libraryimport.retention} – time a finished import can still be polled</li>
+ * </ul>
+ */
+@ConfigurationProperties("libraryimport")
+public class LibraryImportConfig {
+    private int batchSize = 500;
+    private int fetchParallelism = 4;
+    private int maxConcurrentJobs = 2;
+    private int queueCapacity = 8;
+    private int maxJobsPerUser = 1;
+    private Duration maxJobDuration = Duration.ofHours(2);
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+    private int maxErrors = 100;
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * Returns the number of rows resolved and written per transaction.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of rows resolved and written per transaction.
+     *
+     * @param batchSize the batch size to set
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the number of books fetched from OpenLibrary at the same time.
+     *
+     * @return the fetch parallelism
+     */
+    public int getFetchParallelism() {
+        return fetchParallelism;
+    }
+
+    /**
+     * Sets the number of books fetched from OpenLibrary at the same time.
+     *
+     * @param fetchParallelism the fetch parallelism to set
+     */
+    public void setFetchParallelism(final int fetchParallelism) {
+        this.fetchParallelism = fetchParallelism;
+    }
+
+    /**
+     * Returns the number of imports running at the same time.
+     *
+     * @return the maximum number of concurrent imports
+     */
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    /**
+     * Sets the number of imports running at the same time.
+     *
+     * @param maxConcurrentJobs the maximum number of concurrent imports to set
+     */
+    public void setMaxConcurrentJobs(final int maxConcurrentJobs) {
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+
+    /**
+     * Returns the number of imports waiting to run.
+     *
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets the number of imports waiting to run.
+     *
+     * @param queueCapacity the queue capacity to set
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Returns the number of unfinished imports per user.
+     *
+     * @return the maximum number of unfinished imports per user
+     */
+    public int getMaxJobsPerUser() {
+        return maxJobsPerUser;
+    }
+
+    /**
+     * Sets the number of unfinished imports per user.
+     *
+     * @param maxJobsPerUser the maximum number of unfinished imports per user to set
+     */
+    public void setMaxJobsPerUser(final int maxJobsPerUser) {
+        this.maxJobsPerUser = maxJobsPerUser;
+    }
+
+    /**
+     * Returns the time after which an unfinished import is cancelled.
+     *
+     * @return the maximum duration of an import
+     */
+    public Duration getMaxJobDuration() {
+        return maxJobDuration;
+    }
+
+    /**
+     * Sets the time after which an unfinished import is cancelled.
+     *
+     * @param maxJobDuration the maximum duration of an import to set
+     */
+    public void setMaxJobDuration(final Duration maxJobDuration) {
+        this.maxJobDuration = maxJobDuration;
+    }
+
+    /**
+     * Returns the delay between two checks for overdue and expired imports.
+     *
+     * @return the cleanup interval
+     */
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    /**
+     * Sets the delay between two checks for overdue and expired imports.
+     *
+     * @param cleanupInterval the cleanup interval to set
+     */
+    public void setCleanupInterval(final Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    /**
+     * Returns the number of failed rows reported per import.
+     *
+     * @return the maximum number of reported errors
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Sets the number of failed rows reported per import.
+     *
+     * @param maxErrors the maximum number of reported errors to set
+     */
+    public void setMaxErrors(final int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Returns the time a finished import can still be polled.
+     *
+     * @return the retention
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Sets the time a finished import can still be polled.
+     *
+     * @param retention the retention to set
+     */
+    public void setRetention(final Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,74 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration class that maps the per-request query statistics properties from the application configuration.
+ * <ul>
+ *     <li>{@code querystatistics.enabled} – whether the database work of requests is measured at all</li>
+ *     <li>{@code querystatistics.max-statements} – requests executing more statements are logged</li>
+ *     <li>{@code querystatistics.max-jdbc-time} – requests spending more time in JDBC are logged</li>
+ * </ul>
+ */
+@ConfigurationProperties("querystatistics")
+public class QueryStatisticsConfig {
+    private boolean enabled = true;
+    private int maxStatements = 20;
+    private Duration maxJdbcTime = Duration.ofMillis(500);
+
+    /**
+     * Returns whether the database work of requests is measured.
+     *
+     * @return {@code true} if the query statistics are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the database work of requests is measured.
+     *
+     * @param enabled {@code true} to enable the query statistics
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the number of statements above which a request is logged.
+     *
+     * @return the maximum number of statements
+     */
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * Sets the number of statements above which a request is logged.
+     *
+     * @param maxStatements the maximum number of statements to set
+     */
+    public void setMaxStatements(final int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Returns the JDBC time above which a request is logged.
+     *
+     * @return the maximum JDBC time
+     */
+    public Duration getMaxJdbcTime() {
+        return maxJdbcTime;
+    }
+
+    /**
+     * Sets the JDBC time above which a request is logged.
+     *
+     * @param maxJdbcTime the maximum JDBC time to set
+     */
+    public void setMaxJdbcTime(final Duration maxJdbcTime) {
+        this.maxJdbcTime = maxJdbcTime;
+    }
+}
@@ -0,0 +1,61 @@
+package fh.bswe.bookmanager.config;
+
+import fh.bswe.bookmanager.helper.QueryStatisticsFactory;
+import fh.bswe.bookmanager.helper.QueryStatisticsFilter;
+import fh.bswe.bookmanager.helper.QueryStatisticsSessionListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration of the per-request query statistics.
+ * <p>
+ * Every Hibernate session reports its statements to {@link QueryStatisticsSessionListener}, and the
+ * statistics of the session factory report the fetched rows; both add them to the measurement of
+ * the request opened by {@link QueryStatisticsFilter}. The rows are only counted while
+ * {@code hibernate.generate_statistics} is enabled.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "querystatistics", name = "enabled", matchIfMissing = true)
+public class QueryStatisticsConfiguration {
+    /**
+     * Setting of the factory building the statistics of the session factory.
+     */
+    private static final String STATISTICS_FACTORY = "hibernate.stats.factory";
+
+    /**
+     * Registers the session listener and the statistics factory with Hibernate.
+     *
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    QueryStatisticsSessionListener.class.getName());
+            properties.put(STATISTICS_FACTORY, new QueryStatisticsFactory());
+        };
+    }
+
+    /**
+     * Registers the filter measuring every request, right after the read-your-writes filter.
+     *
+     * @param registry the registry of the metrics
+     * @param config   the query statistics properties
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter(final MeterRegistry registry,
+                                                                               final QueryStatisticsConfig config) {
+        final FilterRegistrationBean<QueryStatisticsFilter> registration = new FilterRegistrationBean<>(
+                new QueryStatisticsFilter(registry, config.getMaxStatements(), config.getMaxJdbcTime()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
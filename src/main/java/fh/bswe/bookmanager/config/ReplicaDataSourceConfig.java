@@ -0,0 +1,156 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration class that maps the read replica properties from the application configuration.
+ * <ul>
+ *     <li>{@code datasource.replica.url} – JDBC URL of the replica; routing is only enabled if it is set</li>
+ *     <li>{@code datasource.replica.username} / {@code datasource.replica.password} – replica credentials</li>
+ *     <li>{@code datasource.replica.max-lag} – reads go to the primary while the replica lags more than this</li>
+ *     <li>{@code datasource.replica.lag-query} – query returning the replica lag in seconds;
+ *     without it the replica is assumed to be up to date</li>
+ *     <li>{@code datasource.replica.lag-check-interval} – how often the lag is measured</li>
+ *     <li>{@code datasource.replica.read-your-writes} – whether clients read from the primary
+ *     for {@code max-lag} after their own writes</li>
+ * </ul>
+ * The connection pool of the replica is configured under {@code datasource.replica.hikari}.
+ */
+@ConfigurationProperties("datasource.replica")
+public class ReplicaDataSourceConfig {
+    private String url;
+    private String username;
+    private String password;
+    private Duration maxLag = Duration.ofSeconds(5);
+    private String lagQuery;
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+    private boolean readYourWrites = true;
+
+    /**
+     * Returns the JDBC URL of the replica.
+     *
+     * @return the replica URL, or {@code null} if no replica is configured
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Sets the JDBC URL of the replica.
+     *
+     * @param url the replica URL to set
+     */
+    public void setUrl(final String url) {
+        this.url = url;
+    }
+
+    /**
+     * Returns the username for the replica.
+     *
+     * @return the replica username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Sets the username for the replica.
+     *
+     * @param username the replica username to set
+     */
+    public void setUsername(final String username) {
+        this.username = username;
+    }
+
+    /**
+     * Returns the password for the replica.
+     *
+     * @return the replica password
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Sets the password for the replica.
+     *
+     * @param password the replica password to set
+     */
+    public void setPassword(final String password) {
+        this.password = password;
+    }
+
+    /**
+     * Returns the replica lag up to which reads are still sent to the replica.
+     *
+     * @return the tolerated replica lag
+     */
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * Sets the replica lag up to which reads are still sent to the replica.
+     *
+     * @param maxLag the tolerated replica lag to set
+     */
+    public void setMaxLag(final Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Returns the query measuring the replica lag in seconds.
+     *
+     * @return the lag query, or {@code null} if the lag is not measured
+     */
+    public String getLagQuery() {
+        return lagQuery;
+    }
+
+    /**
+     * Sets the query measuring the replica lag in seconds.
+     *
+     * @param lagQuery the lag query to set
+     */
+    public void setLagQuery(final String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Returns how often the replica lag is measured.
+     *
+     * @return the lag check interval
+     */
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    /**
+     * Sets how often the replica lag is measured.
+     *
+     * @param lagCheckInterval the lag check interval to set
+     */
+    public void setLagCheckInterval(final Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    /**
+     * Returns whether clients read from the primary for {@code max-lag} after their own writes.
+     *
+     * @return {@code true} if read-your-writes is enabled
+     */
+    public boolean isReadYourWrites() {
+        return readYourWrites;
+    }
+
+    /**
+     * Sets whether clients read from the primary for {@code max-lag} after their own writes.
+     *
+     * @param readYourWrites {@code true} to enable read-your-writes
+     */
+    public void setReadYourWrites(final boolean readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+}
@@ -0,0 +1,162 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class that maps the sharding properties of the library entries from the application configuration.
+ * <ul>
+ *     <li>{@code datasource.sharding.shards} – the additional shards holding library entries, each with
+ *     {@code url}, {@code username} and {@code password}; sharding is only enabled if at least one is set.
+ *     The regular {@code spring.datasource.*} database is shard {@code 0} and the reference store of the
+ *     catalog and the user accounts</li>
+ *     <li>{@code datasource.sharding.migration-locations} – Flyway locations migrating the additional shards</li>
+ *     <li>{@code datasource.sharding.rebalance-on-startup} – whether entries on the wrong shard are moved
+ *     at startup, e.g. after a shard was added</li>
+ *     <li>{@code datasource.sharding.rebalance-batch-size} – maximum number of entries moved per transaction</li>
+ * </ul>
+ */
+@ConfigurationProperties("datasource.sharding")
+public class ShardingConfig {
+    private List<Shard> shards = new ArrayList<>();
+    private String migrationLocations = "classpath:db/migration/{vendor}";
+    private boolean rebalanceOnStartup;
+    private int rebalanceBatchSize = 1000;
+
+    /**
+     * Returns the additional shards, which are numbered from {@code 1} in the configured order.
+     *
+     * @return the additional shards, empty if sharding is disabled
+     */
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Sets the additional shards.
+     *
+     * @param shards the additional shards to set
+     */
+    public void setShards(final List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Returns the Flyway locations migrating the additional shards.
+     *
+     * @return the migration locations, {@code {vendor}} is replaced by the database of each shard
+     */
+    public String getMigrationLocations() {
+        return migrationLocations;
+    }
+
+    /**
+     * Sets the Flyway locations migrating the additional shards.
+     *
+     * @param migrationLocations the migration locations to set
+     */
+    public void setMigrationLocations(final String migrationLocations) {
+        this.migrationLocations = migrationLocations;
+    }
+
+    /**
+     * Returns whether entries on the wrong shard are moved at startup.
+     *
+     * @return {@code true} if the shards are rebalanced at startup
+     */
+    public boolean isRebalanceOnStartup() {
+        return rebalanceOnStartup;
+    }
+
+    /**
+     * Sets whether entries on the wrong shard are moved at startup.
+     *
+     * @param rebalanceOnStartup {@code true} to rebalance the shards at startup
+     */
+    public void setRebalanceOnStartup(final boolean rebalanceOnStartup) {
+        this.rebalanceOnStartup = rebalanceOnStartup;
+    }
+
+    /**
+     * Returns the maximum number of entries moved per transaction.
+     *
+     * @return the rebalance batch size
+     */
+    public int getRebalanceBatchSize() {
+        return rebalanceBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of entries moved per transaction.
+     *
+     * @param rebalanceBatchSize the rebalance batch size to set
+     */
+    public void setRebalanceBatchSize(final int rebalanceBatchSize) {
+        this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+
+    /**
+     * Connection properties of one additional shard.
+     */
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+
+        /**
+         * Returns the JDBC URL of the shard.
+         *
+         * @return the shard URL
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Sets the JDBC URL of the shard.
+         *
+         * @param url the shard URL to set
+         */
+        public void setUrl(final String url) {
+            this.url = url;
+        }
+
+        /**
+         * Returns the username for the shard.
+         *
+         * @return the shard username
+         */
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * Sets the username for the shard.
+         *
+         * @param username the shard username to set
+         */
+        public void setUsername(final String username) {
+            this.username = username;
+        }
+
+        /**
+         * Returns the password for the shard.
+         *
+         * @return the shard password
+         */
+        public String getPassword() {
+            return password;
+        }
+
+        /**
+         * Sets the password for the shard.
+         *
+         * @param password the shard password to set
+         */
+        public void setPassword(final String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package fh.bswe.bookmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.helper.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the sharding of the library entries over several databases.
+ * <p>
+ * Only active if {@code datasource.sharding.shards[0].url} is set; otherwise the single data source
+ * of Spring Boot is used. Shard {@code 0} is configured with the regular {@code spring.datasource.*}
+ * properties and holds the catalog and the user accounts; the additional shards are configured with
+ * {@link ShardingConfig}. Every additional shard is migrated to the full schema at startup and allocates
+ * the IDs of library entries from its own range, so IDs stay unique across all shards.
+ * Sharding cannot be combined with a read replica yet.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "datasource.sharding", name = "shards[0].url")
+public class ShardingConfiguration {
+    /**
+     * Size of the ID range of library entries reserved for every shard.
+     */
+    public static final long ID_RANGE = 1L << 40;
+
+    /**
+     * Creates the connection pool of the reference shard.
+     *
+     * @param properties the {@code spring.datasource} properties
+     * @return the reference data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the routing data source used by JPA, Flyway and JDBC.
+     * <p>
+     * The additional shards are migrated and their ID ranges reserved before the data source
+     * is handed to JPA.
+     * </p>
+     *
+     * @param primaryDataSource the reference data source
+     * @param config            the sharding properties
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(@Qualifier("primaryDataSource") final DataSource primaryDataSource,
+                                             final ShardingConfig config) {
+        final List<DataSource> shards = new ArrayList<>();
+        shards.add(primaryDataSource);
+        for (final ShardingConfig.Shard shard : config.getShards()) {
+            final HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shards.size());
+            migrate(dataSource, shard.getUrl(), config.getMigrationLocations());
+            reserveIdRange(dataSource, shard.getUrl(), shards.size());
+            shards.add(dataSource);
+        }
+        return ShardRoutingDataSource.of(shards);
+    }
+
+    /**
+     * Releases the JDBC connection of a session at the end of every transaction instead of the session,
+     * so each transaction of a request with an open session obtains its connection from its own shard.
+     *
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static void migrate(final DataSource dataSource, final String url, final String locations) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations.replace("{vendor}", DatabaseDriver.fromJdbcUrl(url).getId()).split(","))
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Moves the ID sequence of library entries of the given shard to the start of its range,
+     * unless it is already inside. Blocks of the pooled generator are used on any shard, so
+     * disjoint ranges keep the IDs of all shards unique.
+     */
+    private static void reserveIdRange(final DataSource dataSource, final String url, final int shard) {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        final String nextValue = DatabaseDriver.fromJdbcUrl(url) == DatabaseDriver.POSTGRESQL
+                ? "select nextval('%s')".formatted(UserBook.SEQUENCE)
+                : "select next value for %s".formatted(UserBook.SEQUENCE);
+        final Long next = jdbcTemplate.queryForObject(nextValue, Long.class);
+        final long first = shard * ID_RANGE + 1;
+        if (next == null || next < first) {
+            jdbcTemplate.execute("alter sequence %s restart with %d".formatted(UserBook.SEQUENCE, first));
+        }
+    }
+}
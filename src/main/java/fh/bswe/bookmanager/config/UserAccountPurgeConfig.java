@@ -0,0 +1,76 @@
+package fh.bswe.bookmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration class that maps the purge properties of deleted user accounts from the application configuration.
+ * <ul>
+ *     <li>{@code useraccounts.purge.batch-size} – maximum number of accounts per run and of
+ *     library entries removed per statement</li>
+ *     <li>{@code useraccounts.purge.max-batches-per-run} – maximum number of library batches removed
+ *     per run; larger libraries are continued by the next run</li>
+ *     <li>{@code useraccounts.purge.interval} – delay between two purge runs</li>
+ * </ul>
+ */
+@ConfigurationProperties("useraccounts.purge")
+public class UserAccountPurgeConfig {
+    private int batchSize = 1000;
+    private int maxBatchesPerRun = 100;
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Returns the maximum number of accounts per run and of library entries removed per statement.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of accounts per run and of library entries removed per statement.
+     *
+     * @param batchSize the batch size to set
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the maximum number of library batches removed per run.
+     *
+     * @return the maximum number of batches per run
+     */
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    /**
+     * Sets the maximum number of library batches removed per run.
+     *
+     * @param maxBatchesPerRun the maximum number of batches per run to set
+     */
+    public void setMaxBatchesPerRun(final int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Returns the delay between two purge runs.
+     *
+     * @return the purge interval
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the delay between two purge runs.
+     *
+     * @param interval the purge interval to set
+     */
+    public void setInterval(final Duration interval) {
+        this.interval = interval;
+    }
+}
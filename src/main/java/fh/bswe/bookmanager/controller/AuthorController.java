@@ -0,0 +1,70 @@
+package fh.bswe.bookmanager.controller;
+
+import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.exception.AuthorNotFoundException;
+import fh.bswe.bookmanager.service.AuthorService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for reading authors.
+ * <p>
+ * This controller handles incoming HTTP requests related to the authors stored
+ * with the books, identified by their OpenLibrary author key.
+ * </p>
+ */
+@CrossOrigin(origins = "*")
+@Validated
+@RestController
+@RequestMapping("/api/authors")
+public class AuthorController {
+    private final AuthorService authorService;
+
+    /**
+     * Constructs a new {@code AuthorController} with the given service.
+     *
+     * @param authorService the service used for author operations
+     */
+    public AuthorController(final AuthorService authorService) {
+        this.authorService = authorService;
+    }
+
+    /**
+     * Retrieves all stored books of an author.
+     * <p>
+     * Only books that were already fetched from OpenLibrary are returned; the author
+     * is not looked up at OpenLibrary.
+     * </p>
+     *
+     * @param key the OpenLibrary key of the author, e.g. {@code OL23919A}
+     * @return {@link ResponseEntity} containing the list of {@link BookDto}s and HTTP status:
+     *         <ul>
+     *             <li>{@code 200 OK} with the books of the author</li>
+     *             <li>{@code 400 BAD_REQUEST} if the author is not known</li>
+     *             <li>{@code 422 Unprocessable Entity} if the key fails validation rules.</li>
+     *         </ul>
+     */
+    @GetMapping("/{key}/books")
+    public ResponseEntity<?> readAuthorBooks(
+            @NotBlank
+            @PathVariable("key")
+            @Pattern(regexp = "^OL[0-9]{1,15}A$", message = "Author key must be an OpenLibrary author key like OL23919A")
+            final String key) {
+        try {
+            final List<BookDto> books = authorService.findBooksByAuthorKey(key);
+            return new ResponseEntity<>(books, HttpStatus.OK);
+        } catch (AuthorNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package fh.bswe.bookmanager.controller;
 
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.BookStatsDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.helper.CachedCover;
+import fh.bswe.bookmanager.service.BookStatsService;
+import fh.bswe.bookmanager.service.CoverService;
 import fh.bswe.bookmanager.service.OpenLibraryService;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * REST controller for managing books.
  * <p>
@@ -29,16 +47,24 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
+    private static final Duration COVER_MAX_AGE = Duration.ofDays(30);
 
     private final OpenLibraryService openLibraryService;
+    private final CoverService coverService;
+    private final BookStatsService bookStatsService;
 
     /**
-     * Constructs a new {@code BookController} with the given service.
+     * Constructs a new {@code BookController} with the given services.
      *
      * @param openLibraryService   the service used for open library operations
+     * @param coverService         the service used for reading book covers
+     * @param bookStatsService     the service used for reading book statistics
      */
-    public BookController(final OpenLibraryService openLibraryService) {
+    public BookController(final OpenLibraryService openLibraryService, final CoverService coverService,
+                          final BookStatsService bookStatsService) {
         this.openLibraryService = openLibraryService;
+        this.coverService = coverService;
+        this.bookStatsService = bookStatsService;
     }
 
     /**
@@ -46,11 +72,13 @@ public class BookController {
      * <p>
      * This endpoint attempts to fetch book metadata from the OpenLibrary API and store it
      * in the application's database (if not already present). The result is returned as a
-     * {@link BookDto} object in JSON format.
+     * {@link BookDto} object in JSON format. The cover image is only inlined if
+     * {@code includeCover} is set; otherwise it is available at {@code /api/books/{isbn}/cover}.
      * </p>
      *
      * @param isbn the ISBN of the book to be retrieved. Must be 10 to 13 digits long
      *             and contain only digits.
+     * @param includeCover whether the cover image should be inlined as base64 (default {@code false})
      * @return {@link ResponseEntity} containing the {@link BookDto} and HTTP status:
      *         <ul>
      *             <li>{@code 200 OK} if the book was found successfully</li>
@@ -65,9 +93,11 @@ public class BookController {
             @PathVariable("isbn")
             @Size(min = 10, max = 13, message = "The length must be between 10 and 13 digits")
             @Pattern(regexp = "^[0-9]{10,13}$", message = "ISBN must be 10 or 13 digits and contain only digits")
-            final String isbn) {
+            final String isbn,
+            @RequestParam(name = "includeCover", required = false, defaultValue = "false")
+            final boolean includeCover) {
         try {
-            final BookDto bookDto = openLibraryService.findAndStoreBookByIsbnToDto(isbn);
+            final BookDto bookDto = openLibraryService.findAndStoreBookByIsbnToDto(isbn, includeCover);
             return new ResponseEntity<>(bookDto, HttpStatus.OK);
         } catch (BookNotFoundException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -75,4 +105,141 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
+
+    /**
+     * Retrieves the readers and ratings of a stored book by its ISBN.
+     * <p>
+     * The statistics are read from a single row maintained with every library change, so the
+     * cost does not depend on the number of readers. Unknown books are not fetched from OpenLibrary.
+     * </p>
+     *
+     * @param isbn the ISBN of the book (10 or 13 digits)
+     * @return {@link ResponseEntity} with the {@link BookStatsDto} or status {@code 400} if the book
+     *         is not stored, {@code 422} if the input fails validation and {@code 500} for unexpected errors
+     */
+    @GetMapping("/{isbn}/stats")
+    public ResponseEntity<?> readBookStats(
+            @NotBlank
+            @PathVariable("isbn")
+            @Size(min = 10, max = 13, message = "The length must be between 10 and 13 digits")
+            @Pattern(regexp = "^[0-9]{10,13}$", message = "ISBN must be 10 or 13 digits and contain only digits")
+            final String isbn) {
+        try {
+            return ResponseEntity.ok(bookStatsService.findStatsByIsbn(isbn));
+        } catch (BookNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the cover image of a book by its ISBN.
+     * <p>
+     * The cover is returned as {@code image/jpeg} with a strong {@code ETag} derived from
+     * the content hash and a long {@code Cache-Control} lifetime. Requests carrying a
+     * matching {@code If-None-Match} header are answered with {@code 304 Not Modified}, a
+     * single byte {@code Range} with {@code 206 Partial Content} unless {@code If-Range} names
+     * another cover, and a range outside the cover with {@code 416}. {@code HEAD} requests get
+     * the headers only. Bytes are streamed in chunks from the off-heap cover cache or the
+     * memory-mapped cover store.
+     * </p>
+     *
+     * @param isbn    the ISBN of the book whose cover should be retrieved (10 or 13 digits)
+     * @param range   the optional {@code Range} header
+     * @param ifRange the optional {@code If-Range} header
+     * @param method  the HTTP method, either {@code GET} or {@code HEAD}
+     * @return {@link ResponseEntity} with the cover or status {@code 400} if the book was not
+     *         found, {@code 404} if it has no cover, {@code 422} if the input fails validation
+     *         and {@code 500} for unexpected errors
+     */
+    @GetMapping("/{isbn}/cover")
+    public ResponseEntity<?> readBookCover(
+            @NotBlank
+            @PathVariable("isbn")
+            @Size(min = 10, max = 13, message = "The length must be between 10 and 13 digits")
+            @Pattern(regexp = "^[0-9]{10,13}$", message = "ISBN must be 10 or 13 digits and contain only digits")
+            final String isbn,
+            @RequestHeader(name = HttpHeaders.RANGE, required = false) final String range,
+            @RequestHeader(name = HttpHeaders.IF_RANGE, required = false) final String ifRange,
+            final HttpMethod method) {
+        try {
+            CachedCover cover = coverService.findCachedCover(isbn);
+            if (cover == null) {
+                final Book book = openLibraryService.findAndStoreBookByIsbn(isbn);
+                cover = coverService.cacheCover(isbn, book);
+            }
+            final HttpRange httpRange = findApplicableRange(range, ifRange, cover.hash());
+            return createCoverResponse(cover, httpRange, HttpMethod.HEAD.equals(method));
+        } catch (BookNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (CoverNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the full or partial cover response.
+     * <p>
+     * The body is an {@link InputStreamResource} so that Spring does not apply the
+     * {@code Range} header a second time; the length is set explicitly instead.
+     * </p>
+     */
+    private static ResponseEntity<?> createCoverResponse(final CachedCover cover, final HttpRange range,
+                                                         final boolean headOnly) {
+        final CoverImage image = cover.image();
+        final ResponseEntity.BodyBuilder builder;
+        final CoverImage body;
+
+        if (range == null) {
+            builder = ResponseEntity.ok();
+            body = image;
+        } else {
+            final long start = range.getRangeStart(image.size());
+            final long end = range.getRangeEnd(image.size());
+            if (start >= image.size() || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size())
+                        .build();
+            }
+            builder = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.size());
+            body = CoverImage.wrap(image.asByteBuffer().slice((int) start, (int) (end - start + 1)));
+        }
+
+        builder.contentType(MediaType.IMAGE_JPEG)
+                .contentLength(body.size())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(cover.hash())
+                .cacheControl(CacheControl.maxAge(COVER_MAX_AGE).cachePublic());
+
+        if (headOnly) {
+            return builder.build();
+        }
+        return builder.body(new InputStreamResource(body.asInputStream()));
+    }
+
+    /**
+     * Returns the single byte range to serve, or {@code null} if the full cover should be served.
+     * <p>
+     * Malformed and multi-part ranges are ignored, as are ranges whose {@code If-Range}
+     * validator does not match the current entity tag; {@code If-Range} dates never match,
+     * as covers carry no {@code Last-Modified} date.
+     * </p>
+     */
+    private static HttpRange findApplicableRange(final String range, final String ifRange, final String hash) {
+        if (range == null || ifRange != null && !ifRange.equals("\"" + hash + "\"")) {
+            return null;
+        }
+
+        final List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
 }
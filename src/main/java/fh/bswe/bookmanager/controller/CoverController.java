@@ -0,0 +1,53 @@
+package fh.bswe.bookmanager.controller;
+
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.service.CoverService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for information about the stored book covers.
+ * <p>
+ * This controller handles incoming HTTP requests related to the cover store.
+ * </p>
+ */
+@CrossOrigin(origins = "*")
+@Validated
+@RestController
+@RequestMapping("/api/covers")
+public class CoverController {
+    private final CoverService coverService;
+
+    /**
+     * Constructs a new {@code CoverController} with the given service.
+     *
+     * @param coverService the service used for cover operations
+     */
+    public CoverController(final CoverService coverService) {
+        this.coverService = coverService;
+    }
+
+    /**
+     * Retrieves a report of the storage used by covers and the storage saved
+     * by de-duplication and placeholder detection.
+     *
+     * @return {@link ResponseEntity} containing the {@link CoverStorageReportDto} and HTTP status:
+     *         <ul>
+     *             <li>{@code 200 OK} if the report was created successfully</li>
+     *             <li>{@code 500 INTERNAL_SERVER_ERROR} for unexpected errors</li>
+     *         </ul>
+     */
+    @GetMapping("/report")
+    public ResponseEntity<?> readStorageReport() {
+        try {
+            return ResponseEntity.ok(coverService.createStorageReport());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package fh.bswe.bookmanager.controller;
 
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.LibraryExportFormat;
+import fh.bswe.bookmanager.dto.LibraryImportJobDto;
 import fh.bswe.bookmanager.dto.UserAccountDto;
 import fh.bswe.bookmanager.dto.UserAccountUpdateDto;
 import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
 import fh.bswe.bookmanager.entity.UserBook;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.ImportJobNotFoundException;
+import fh.bswe.bookmanager.exception.ImportLimitExceededException;
+import fh.bswe.bookmanager.exception.ImportQueueFullException;
+import fh.bswe.bookmanager.exception.InvalidImportFileException;
+import fh.bswe.bookmanager.exception.InvalidCursorException;
 import fh.bswe.bookmanager.exception.UserBookExistsException;
 import fh.bswe.bookmanager.exception.UserBookNotFoundException;
+import fh.bswe.bookmanager.exception.UserBookVersionConflictException;
 import fh.bswe.bookmanager.exception.UserExistsException;
 import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.service.LibraryImportService;
 import fh.bswe.bookmanager.service.UserAccountService;
 import fh.bswe.bookmanager.service.UserBookService;
 import jakarta.validation.Valid;
@@ -18,7 +30,10 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -29,11 +44,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.List;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * REST controller for managing user accounts.
@@ -49,20 +72,26 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/users")
 public class UserAccountController {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String DEFAULT_PAGE_SIZE = "50";
 
     private final UserAccountService userAccountService;
     private final UserBookService userBookService;
+    private final LibraryImportService libraryImportService;
 
     /**
      * Constructs a new {@code UserAccountController} with the given service.
      *
-     * @param userAccountService the service used for user account operations
-     * @param userBookService    the service used for user-book operations.
+     * @param userAccountService   the service used for user account operations
+     * @param userBookService      the service used for user-book operations.
+     * @param libraryImportService the service used for importing library files
      */
     public UserAccountController(final UserAccountService userAccountService,
-                                 final UserBookService userBookService) {
+                                 final UserBookService userBookService,
+                                 final LibraryImportService libraryImportService) {
         this.userAccountService = userAccountService;
         this.userBookService = userBookService;
+        this.libraryImportService = libraryImportService;
     }
 
     /**
@@ -195,11 +224,11 @@ public class UserAccountController {
      *                 Must be 5–20 characters long and contain only letters, numbers, and underscores.
      * @param isbn     the ISBN number of the book to add.
      *                 Must be 10 or 13 digits long and consist only of digits.
+     * @param includeCover whether the cover image should be inlined as base64 (default {@code false})
      * @return a {@link ResponseEntity} and the added book data or error message
      *         with HTTP status code:
      *         <ul>
-     *             <li>{@code 201 CREATED} with the {@link BookDto} if the book is
-     *                 successfully added</li>
+     *             <li>{@code 201 CREATED} with the {@link BookDto} if the book is successfully added</li>
      *             <li>{@code 400 BAD REQUEST} if the user or book was not found</li>
      *             <li>{@code 409 CONFLICT} if the book already exists in the user's library</li>
      *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
@@ -217,9 +246,11 @@ public class UserAccountController {
             @PathVariable("isbn")
             @Size(min = 10, max = 13, message = "The length must be between 10 and 13 digits")
             @Pattern(regexp = "^[0-9]{10,13}$", message = "ISBN must be 10 or 13 digits and contain only digits")
-            final String isbn) {
+            final String isbn,
+            @RequestParam(name = "includeCover", required = false, defaultValue = "false")
+            final boolean includeCover) {
         try {
-            final BookDto bookDto = userBookService.storeBookToUserLibrary(username, isbn);
+            final BookDto bookDto = userBookService.storeBookToUserLibrary(username, isbn, includeCover);
             return new ResponseEntity<>(bookDto, HttpStatus.CREATED);
         } catch (UserNotFoundException | BookNotFoundException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -247,6 +278,7 @@ public class UserAccountController {
      *             <li>{@code 200 OK} if the removal was successful</li>
      *             <li>{@code 400 Bad Request} with an error message if the user, book,
      *             or association was not found</li>
+     *             <li>{@code 409 Conflict} if concurrent updates of the entry exhausted all retries</li>
      *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
      *         </ul>
      */
@@ -267,24 +299,40 @@ public class UserAccountController {
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (UserNotFoundException | BookNotFoundException | UserBookNotFoundException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (UserBookVersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
     }
 
     /**
      * Retrieves the list of books associated with a specific user.
-     * If a rating filter is provided, only those books will be shown.
+     * If filters are provided, only the matching books will be shown.
      * <p>
      * This endpoint returns a list of {@link UserBookDto}
      * entries representing the books stored in a user's personal library.
+     * Filtering, sorting and paging are performed by the database; pages are returned
+     * by keyset pagination, so deep pages are as cheap as the first one.
      * </p>
      *
-     * @param username the username of the user whose book library is to be retrieved;
-     *                 must be 5–20 characters long and contain only letters, numbers, and underscores
-     * @param rating   the rating of the books to filter (1-5). If null no filter will be applied.
+     * @param username    the username of the user whose book library is to be retrieved;
+     *                    must be 5–20 characters long and contain only letters, numbers, and underscores
+     * @param rating      the rating of the books to filter (1-5). If null no filter will be applied.
+     * @param minRating   the lowest rating of the books to filter (1-5), optional
+     * @param maxRating   the highest rating of the books to filter (1-5), optional
+     * @param language    the language code of the books to filter, optional
+     * @param publishYear the publication year of the books to filter, optional
+     * @param title       a case-insensitive part of the title to filter, optional
+     * @param author      a case-insensitive part of the authors to filter, optional
+     * @param sort        the sort order: {@code added} (default), {@code title}, {@code author},
+     *                    {@code rating} or {@code publishYear}
+     * @param direction   the sort direction: {@code asc} (default) or {@code desc}
+     * @param cursor      the opaque cursor from the {@code Link} header of the previous page, optional
+     * @param limit       the maximum number of books per page (1-100, default 50)
      * @return {@link ResponseEntity} with:
      *         <ul>
-     *             <li>{@code 200 OK} and an array of {@link UserBookDto} if successful</li>
-     *             <li>{@code 400 Bad Request} if the user does not exist</li>
+     *             <li>{@code 200 OK} and an array of {@link UserBookDto} if successful, with a
+     *                 {@code Link: <...>; rel="next"} header if more books follow</li>
+     *             <li>{@code 400 Bad Request} if the user does not exist or the cursor is invalid</li>
      *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
      *         </ul>
      */
@@ -298,13 +346,190 @@ public class UserAccountController {
             @Min(value = 1, message = "Must be between 1 and 5")
             @Max(value = 5, message = "Must be between 1 and 5")
             @RequestParam(name = "rating", required = false)
-            final Integer rating) {
+            final Integer rating,
+            @Min(value = 1, message = "Must be between 1 and 5")
+            @Max(value = 5, message = "Must be between 1 and 5")
+            @RequestParam(name = "minRating", required = false)
+            final Integer minRating,
+            @Min(value = 1, message = "Must be between 1 and 5")
+            @Max(value = 5, message = "Must be between 1 and 5")
+            @RequestParam(name = "maxRating", required = false)
+            final Integer maxRating,
+            @Size(max = 10, message = "Must be at most 10 characters")
+            @RequestParam(name = "language", required = false)
+            final String language,
+            @RequestParam(name = "publishYear", required = false)
+            final Integer publishYear,
+            @Size(max = 100, message = "Must be at most 100 characters")
+            @RequestParam(name = "title", required = false)
+            final String title,
+            @Size(max = 100, message = "Must be at most 100 characters")
+            @RequestParam(name = "author", required = false)
+            final String author,
+            @Pattern(regexp = UserBookSort.PARAMETER_PATTERN,
+                    message = "Must be one of added, title, author, rating, publishYear")
+            @RequestParam(name = "sort", required = false, defaultValue = "added")
+            final String sort,
+            @Pattern(regexp = "^(asc|desc)$", message = "Must be asc or desc")
+            @RequestParam(name = "direction", required = false, defaultValue = "asc")
+            final String direction,
+            @Size(max = 1024, message = "Must be at most 1024 characters")
+            @RequestParam(name = "cursor", required = false)
+            final String cursor,
+            @Min(value = 1, message = "Must be between 1 and " + MAX_PAGE_SIZE)
+            @Max(value = MAX_PAGE_SIZE, message = "Must be between 1 and " + MAX_PAGE_SIZE)
+            @RequestParam(name = "limit", required = false, defaultValue = DEFAULT_PAGE_SIZE)
+            final Integer limit) {
+        final UserBookFilterDto filter = new UserBookFilterDto(rating, minRating, maxRating, language, publishYear,
+                title, author, UserBookSort.fromParameter(sort), "desc".equals(direction));
+
         try {
-            final List<UserBookDto> userBookDtos = userBookService.readUserBooks(username, rating);
-            return new ResponseEntity<>(userBookDtos.toArray(), HttpStatus.OK);
+            final UserBookPageDto page = userBookService.readUserBooks(username, filter, cursor, limit);
+            final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+            if (page.nextCursor() != null) {
+                final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                        .replaceQueryParam("cursor", page.nextCursor())
+                        .toUriString();
+                response.header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next));
+            }
+
+            return response.body(page.items());
+        } catch (UserNotFoundException | InvalidCursorException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Exports the whole library of a user as a file.
+     * <p>
+     * The entries are streamed from the database straight to the response, which is flushed
+     * periodically, so the export needs the same memory for any size of library. Each entry holds
+     * ISBN, title, authors, rating and comment.
+     * </p>
+     *
+     * @param username the username of the user whose library is exported;
+     *                 must be 5–20 characters long and contain only letters, numbers, and underscores
+     * @param format   the format of the export: {@code csv} (default) or {@code ndjson}
+     * @return {@link ResponseEntity} with:
+     *         <ul>
+     *             <li>{@code 200 OK} and the export as attachment if the user exists</li>
+     *             <li>{@code 400 Bad Request} if the user does not exist</li>
+     *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
+     *         </ul>
+     */
+    @GetMapping("/{username}/books/export")
+    public ResponseEntity<?> exportUserBooksLibrary(
+            @NotBlank
+            @PathVariable("username")
+            @Size(min = 5, max = 20, message = "The length must be between 5 and 20 characters")
+            @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Username must be 5-20 characters and contain only letters, numbers, and underscores")
+            final String username,
+            @Pattern(regexp = LibraryExportFormat.PARAMETER_PATTERN, message = "Must be one of csv, ndjson")
+            @RequestParam(name = "format", required = false, defaultValue = "csv")
+            final String format) {
+        try {
+            userAccountService.findUserAccountByUsername(username);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
+
+        final LibraryExportFormat exportFormat = LibraryExportFormat.fromParameter(format);
+        final StreamingResponseBody body = outputStream -> {
+            try {
+                userBookService.exportUserBooks(username, exportFormat, outputStream);
+            } catch (UserNotFoundException e) {
+                throw new IOException("User " + username + " was deleted during the export", e);
+            }
+        };
+        final ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(username + "-library." + exportFormat.getFileExtension())
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    /**
+     * Imports a library file into the library of a user in the background.
+     * <p>
+     * The file is a CSV file with a header holding an {@code isbn} column and optionally
+     * {@code rating} and {@code comment} columns, e.g. a library export. The rows are imported in
+     * batches; books missing from the catalog are fetched from OpenLibrary, and books already in
+     * the library are skipped. The progress is polled at the URL returned as {@code Location}.
+     * </p>
+     *
+     * @param username the username of the user whose library is imported into;
+     *                 must be 5–20 characters long and contain only letters, numbers, and underscores
+     * @param file     the CSV file, sent as multipart part {@code file}
+     * @return {@link ResponseEntity} with:
+     *         <ul>
+     *             <li>{@code 202 Accepted} with the {@link LibraryImportJobDto} of the queued import</li>
+     *             <li>{@code 400 Bad Request} if the user does not exist or the file cannot be imported</li>
+     *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
+     *             <li>{@code 429 Too Many Requests} if the user already has the maximum number of
+     *             unfinished imports</li>
+     *             <li>{@code 500 INTERNAL SERVER ERROR} if the file cannot be stored</li>
+     *             <li>{@code 503 Service Unavailable} if the maximum number of imports is already
+     *             running or waiting</li>
+     *         </ul>
+     */
+    @PostMapping(path = "/{username}/books/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importUserBooksLibrary(
+            @NotBlank
+            @PathVariable("username")
+            @Size(min = 5, max = 20, message = "The length must be between 5 and 20 characters")
+            @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Username must be 5-20 characters and contain only letters, numbers, and underscores")
+            final String username,
+            @RequestParam("file")
+            final MultipartFile file) {
+        try {
+            final LibraryImportJobDto job = libraryImportService.startImport(username, file);
+            final URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .path("/{id}")
+                    .buildAndExpand(job.id())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(job);
+        } catch (UserNotFoundException | InvalidImportFileException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (ImportLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        } catch (ImportQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the progress of a library import.
+     *
+     * @param username the username of the user whose library is imported into;
+     *                 must be 5–20 characters long and contain only letters, numbers, and underscores
+     * @param id       the ID of the import
+     * @return {@link ResponseEntity} with:
+     *         <ul>
+     *             <li>{@code 200 OK} with the {@link LibraryImportJobDto} of the import</li>
+     *             <li>{@code 404 Not Found} if the user has no import with this ID, or it expired</li>
+     *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
+     *         </ul>
+     */
+    @GetMapping("/{username}/books/import/{id}")
+    public ResponseEntity<?> readUserBooksImport(
+            @NotBlank
+            @PathVariable("username")
+            @Size(min = 5, max = 20, message = "The length must be between 5 and 20 characters")
+            @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Username must be 5-20 characters and contain only letters, numbers, and underscores")
+            final String username,
+            @PathVariable("id")
+            final UUID id) {
+        try {
+            return ResponseEntity.ok(libraryImportService.findImport(username, id));
+        } catch (ImportJobNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
 
     /**
@@ -314,14 +539,23 @@ public class UserAccountController {
      * for a given user and book identified by the ISBN. The input must include a valid {@link UserBookDto}
      * containing a rating (e.g. 1–5) and an optional comment.
      * </p>
+     * <p>
+     * The version of the entry is returned as {@code ETag}. If the request carries an
+     * {@code If-Match} header with one or more such versions, the entry is only updated if it still
+     * has one of them; tags are compared strongly, so weak tags never match. Without the header,
+     * concurrent updates are retried a bounded number of times.
+     * </p>
      *
      * @param userBookDto the DTO containing the rating and comment to be added
      * @param username    the username of the user whose library is being modified
      * @param isbn        the ISBN of the book to rate
+     * @param ifMatch     the expected versions as entity tags, or {@code null}/{@code *} for any version
      * @return {@link ResponseEntity} with:
      *         <ul>
-     *             <li>{@code 200 OK} with the updated {@link UserBookDto} on success</li>
+     *             <li>{@code 200 OK} with the updated {@link UserBookDto} and its {@code ETag} on success</li>
      *             <li>{@code 400 Bad Request} if the user, book or relation is not found</li>
+     *             <li>{@code 409 Conflict} if concurrent updates exhausted all retries</li>
+     *             <li>{@code 412 Precondition Failed} if the entry does not match {@code If-Match}</li>
      *             <li>{@code 422 Unprocessable Entity} if the input fails validation rules.</li>
      *         </ul>
      */
@@ -339,12 +573,53 @@ public class UserAccountController {
             @PathVariable("isbn")
             @Size(min = 10, max = 13, message = "The length must be between 10 and 13 digits")
             @Pattern(regexp = "^[0-9]{10,13}$", message = "ISBN must be 10 or 13 digits and contain only digits")
-            final String isbn) {
+            final String isbn,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            final String ifMatch) {
+        final boolean anyVersion = ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.strip());
+        final Set<Long> expectedVersions = anyVersion ? null : parseVersions(ifMatch);
+        if (expectedVersions != null && expectedVersions.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("No matching entity tag in " + ifMatch);
+        }
+
         try {
-            final UserBookDto saveUserBookDto = userBookService.addRating(username, isbn, userBookDto);
-            return new ResponseEntity<>(saveUserBookDto, HttpStatus.OK);
+            final UserBookDto saveUserBookDto = userBookService.addRating(username, isbn, userBookDto, expectedVersions);
+            final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (saveUserBookDto.getVersion() != null) {
+                response.eTag(String.valueOf(saveUserBookDto.getVersion()));
+            }
+            return response.body(saveUserBookDto);
         } catch (UserNotFoundException | BookNotFoundException | UserBookNotFoundException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (UserBookVersionConflictException e) {
+            final HttpStatus status = expectedVersions == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+            return ResponseEntity.status(status).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Parses the versions of a library entry from an {@code If-Match} header.
+     * <p>
+     * {@code If-Match} uses the strong comparison (RFC 9110, section 13.1.1), so weak tags such as
+     * {@code W/"3"} never match and are left out, as are tags that are no version.
+     * </p>
+     *
+     * @param ifMatch the header value, e.g. {@code "3"} or {@code "2", "3"}
+     * @return the versions of the strong tags, empty if no tag can match
+     */
+    private static Set<Long> parseVersions(final String ifMatch) {
+        final Set<Long> versions = new HashSet<>();
+        for (final String part : ifMatch.split(",")) {
+            final String tag = part.strip();
+            if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+                continue;
+            }
+            try {
+                versions.add(Long.valueOf(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException e) {
+                // a tag that is no version matches no entry
+            }
         }
+        return versions;
     }
 }
@@ -1,9 +1,13 @@
 package fh.bswe.bookmanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fh.bswe.bookmanager.entity.CoverImage;
+
 /**
  * Data Transfer Object (DTO) representing the metadata of a book.
  * This class encapsulates information such as ISBN, title, authors,
  * publication details, cover image data, and language.
+ * The cover image is only serialized if it was explicitly requested.
  */
 public class BookDto {
     private Integer id;
@@ -14,7 +18,7 @@ public class BookDto {
     private String publishers;
     private String coverKey;
     private String coverLink;
-    private byte[] coverImage;
+    private CoverImage coverImage;
     private String language;
 
     /**
@@ -162,33 +166,30 @@ public class BookDto {
     }
 
     /**
-     * Returns a defensive copy of the cover image byte array.
+     * Returns the cover image.
+     * The cover is shared, not copied, and serialized as Base64 string straight from its buffer.
+     * An empty cover image is omitted from the JSON representation.
      *
-     * @return the cover image data, or an empty array if none
+     * @return the cover image, or the empty cover image if none
      */
-    public byte[] getCoverImage() {
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public CoverImage getCoverImage() {
         if (coverImage == null) {
-            return new byte[0];
-        } else {
-            final byte[] tempCoverImage = new byte[coverImage.length];
-            System.arraycopy(coverImage, 0, tempCoverImage, 0, coverImage.length);
-            return tempCoverImage;
+            return CoverImage.empty();
         }
+        return coverImage;
     }
 
     /**
-     * Sets the cover image as a byte array.
-     * A defensive copy is created to avoid external modifications.
+     * Sets the cover image.
      *
-     * @param coverImage the cover image data to set
+     * @param coverImage the cover image to set, {@code null} is treated as no cover
      */
-    public void setCoverImage(final byte[] coverImage) {
+    public void setCoverImage(final CoverImage coverImage) {
         if (coverImage == null) {
-            this.coverImage = new byte[0];
+            this.coverImage = CoverImage.empty();
         } else {
-            final byte[] tempCoverImage = new byte[coverImage.length];
-            System.arraycopy(coverImage, 0, tempCoverImage, 0, coverImage.length);
-            this.coverImage = tempCoverImage;
+            this.coverImage = coverImage;
         }
     }
 
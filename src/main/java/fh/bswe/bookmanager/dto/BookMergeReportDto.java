@@ -0,0 +1,24 @@
+package fh.bswe.bookmanager.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the result of merging books stored more than once.
+ *
+ * @param duplicateIsbns   the ISBNs that were stored more than once
+ * @param removedBooks     the number of duplicate book rows that were removed
+ * @param movedUserBooks   the number of user book entries moved to the remaining book
+ * @param removedUserBooks the number of user book entries removed as the user already had the book
+ */
+public record BookMergeReportDto(List<String> duplicateIsbns,
+                                 long removedBooks,
+                                 long movedUserBooks,
+                                 long removedUserBooks) {
+
+    /**
+     * Creates a new report with an unmodifiable copy of the given ISBN list.
+     */
+    public BookMergeReportDto {
+        duplicateIsbns = List.copyOf(duplicateIsbns);
+    }
+}
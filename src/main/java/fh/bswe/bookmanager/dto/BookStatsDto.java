@@ -0,0 +1,19 @@
+package fh.bswe.bookmanager.dto;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) holding the readers and ratings of a book.
+ *
+ * @param isbn          the ISBN of the book
+ * @param readers       number of libraries holding the book
+ * @param ratingCount   number of ratings of the book
+ * @param averageRating average rating, or {@code null} if the book has not been rated
+ * @param histogram     number of ratings per star, keyed by the stars from one to five
+ */
+public record BookStatsDto(String isbn,
+                           long readers,
+                           long ratingCount,
+                           Double averageRating,
+                           Map<Integer, Long> histogram) {
+}
@@ -0,0 +1,11 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) summarizing a rebuild of the book statistics.
+ *
+ * @param chunks       number of book ID ranges rebuilt
+ * @param failedChunks number of ranges whose rebuild failed and kept their previous statistics
+ * @param books        number of books whose statistics were rebuilt
+ */
+public record BookStatsRebuildReportDto(int chunks, int failedChunks, long books) {
+}
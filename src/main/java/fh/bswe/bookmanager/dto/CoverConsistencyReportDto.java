@@ -0,0 +1,40 @@
+package fh.bswe.bookmanager.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the result of a cover store consistency check.
+ *
+ * @param referencedCovers the number of distinct cover hashes referenced by books
+ * @param storedCovers     the number of cover files found on disk
+ * @param missingCovers    hashes referenced by books whose file is missing on disk
+ * @param orphanedCovers   hashes of files on disk that no book references
+ * @param wrongReferenceCounts the number of stored covers with a wrong reference count
+ * @param migratedCovers   the number of legacy database covers moved into the cover store
+ * @param repaired         whether the inconsistencies were repaired or only reported
+ */
+public record CoverConsistencyReportDto(int referencedCovers,
+                                        int storedCovers,
+                                        List<String> missingCovers,
+                                        List<String> orphanedCovers,
+                                        long wrongReferenceCounts,
+                                        long migratedCovers,
+                                        boolean repaired) {
+
+    /**
+     * Creates a new report with unmodifiable copies of the given hash lists.
+     */
+    public CoverConsistencyReportDto {
+        missingCovers = List.copyOf(missingCovers);
+        orphanedCovers = List.copyOf(orphanedCovers);
+    }
+
+    /**
+     * Checks whether the database references and the files on disk were consistent.
+     *
+     * @return {@code true} if no missing or orphaned covers and no wrong reference counts were found
+     */
+    public boolean isConsistent() {
+        return missingCovers.isEmpty() && orphanedCovers.isEmpty() && wrongReferenceCounts == 0;
+    }
+}
@@ -0,0 +1,20 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) summarizing the storage used by book covers
+ * and the storage saved by de-duplication and placeholder detection.
+ *
+ * @param storedCovers          number of distinct cover files kept in the cover store
+ * @param storedBytes           total size of the distinct cover files
+ * @param coverReferences       number of books referencing a stored cover
+ * @param placeholderReferences number of received placeholder images stored as "no cover"
+ * @param referencedBytes       size all received covers would take if each were stored separately
+ * @param savedBytes            bytes saved compared to storing every received cover separately
+ */
+public record CoverStorageReportDto(long storedCovers,
+                                    long storedBytes,
+                                    long coverReferences,
+                                    long placeholderReferences,
+                                    long referencedBytes,
+                                    long savedBytes) {
+}
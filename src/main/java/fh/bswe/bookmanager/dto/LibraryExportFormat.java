@@ -0,0 +1,70 @@
+package fh.bswe.bookmanager.dto;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * File formats available for exporting a user's library.
+ * <p>
+ * Each format is identified by the value of the {@code format} query parameter.
+ * </p>
+ */
+public enum LibraryExportFormat {
+    /**
+     * Comma-separated values as in RFC 4180, with a header line.
+     */
+    CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+
+    /**
+     * Newline-delimited JSON, one object per entry.
+     */
+    NDJSON("ndjson", new MediaType("application", "x-ndjson"));
+
+    /**
+     * Regular expression matching all valid query parameter values.
+     */
+    public static final String PARAMETER_PATTERN = "^(csv|ndjson)$";
+
+    private final String parameter;
+    private final MediaType mediaType;
+
+    LibraryExportFormat(final String parameter, final MediaType mediaType) {
+        this.parameter = parameter;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the media type of exports in this format.
+     *
+     * @return the media type
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the file extension of exports in this format, without dot.
+     *
+     * @return the file extension
+     */
+    public String getFileExtension() {
+        return parameter;
+    }
+
+    /**
+     * Returns the format identified by the given query parameter value.
+     *
+     * @param parameter the query parameter value, case-insensitive
+     * @return the matching format
+     * @throws IllegalArgumentException if no format matches
+     */
+    public static LibraryExportFormat fromParameter(final String parameter) {
+        for (LibraryExportFormat format : values()) {
+            if (format.parameter.equalsIgnoreCase(parameter)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + parameter);
+    }
+}
@@ -0,0 +1,11 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) describing a row of a library import that could not be imported.
+ *
+ * @param line    the line of the file the row starts on
+ * @param isbn    the ISBN of the row as given in the file
+ * @param message the reason the row was not imported
+ */
+public record LibraryImportErrorDto(long line, String isbn, String message) {
+}
@@ -0,0 +1,25 @@
+package fh.bswe.bookmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) reporting the progress of a library import.
+ *
+ * @param id         the ID of the import, used to poll its progress
+ * @param username   the username of the user whose library is imported into
+ * @param status     the state of the import
+ * @param rowsRead   number of rows read from the file so far
+ * @param imported   number of rows added to the library
+ * @param skipped    number of rows skipped because their book already is in the library or the file
+ * @param failed     number of rows that could not be imported
+ * @param errors     the first failed rows with the reason, at most {@code libraryimport.max-errors}
+ * @param message    the reason a failed import stopped, or {@code null}
+ * @param createdAt  the time the file was accepted
+ * @param finishedAt the time the import finished, or {@code null} while it runs
+ */
+public record LibraryImportJobDto(UUID id, String username, LibraryImportStatus status, long rowsRead,
+                                  long imported, long skipped, long failed, List<LibraryImportErrorDto> errors,
+                                  String message, Instant createdAt, Instant finishedAt) {
+}
@@ -0,0 +1,12 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) holding one row of an uploaded library file before validation.
+ *
+ * @param line    the line of the file the row starts on
+ * @param isbn    the ISBN column, or {@code null} if the row has none
+ * @param rating  the rating column, or {@code null} if the file has none
+ * @param comment the comment column, or {@code null} if the file has none
+ */
+public record LibraryImportRowDto(long line, String isbn, String rating, String comment) {
+}
@@ -0,0 +1,26 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * States of a library import.
+ */
+public enum LibraryImportStatus {
+    /**
+     * The import waits for other imports to finish.
+     */
+    QUEUED,
+
+    /**
+     * The file is being imported.
+     */
+    RUNNING,
+
+    /**
+     * The whole file was read; rows that could not be imported are listed as errors.
+     */
+    COMPLETED,
+
+    /**
+     * The import stopped before the end of the file; the rows imported so far are kept.
+     */
+    FAILED
+}
@@ -0,0 +1,11 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) summarizing a rebalancing of the library entries over the shards.
+ *
+ * @param movedUsers   number of users whose library was moved to their shard
+ * @param movedEntries number of library entries moved to another shard
+ * @param failedUsers  number of users whose library could not be moved completely and stays split
+ */
+public record ShardRebalanceReportDto(int movedUsers, long movedEntries, int failedUsers) {
+}
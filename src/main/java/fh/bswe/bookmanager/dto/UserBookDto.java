@@ -1,8 +1,11 @@
 package fh.bswe.bookmanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import fh.bswe.bookmanager.entity.UserBook;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 /**
  * Data Transfer Object (DTO) that represents a user's interaction with a book.
@@ -21,8 +24,59 @@ public class UserBookDto {
     @Min(value = 1, message = "Rating must be at least 1")
     @Max(value = 5, message = "Rating must be at most 5")
     private Integer rating;
+
+    @Size(max = UserBook.COMMENT_LENGTH, message = "Comment must be at most {max} characters")
     private String comment;
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Creates an empty {@code UserBookDto}, e.g. for deserialization of request bodies.
+     */
+    public UserBookDto() {
+    }
+
+    /**
+     * Creates a {@code UserBookDto} with all fields set.
+     * <p>
+     * Used as constructor expression by the library projection query.
+     * </p>
+     *
+     * @param isbn    the book's ISBN
+     * @param title   the book's title
+     * @param author  the book's authors
+     * @param rating  the user's rating
+     * @param comment the user's comment
+     */
+    public UserBookDto(final String isbn, final String title, final String author,
+                       final Integer rating, final String comment) {
+        this(isbn, title, author, rating, comment, null);
+    }
+
+    /**
+     * Creates a {@code UserBookDto} with all fields set, including the version of the entry.
+     * <p>
+     * Used as constructor expression by the library projection queries.
+     * </p>
+     *
+     * @param isbn    the book's ISBN
+     * @param title   the book's title
+     * @param author  the book's authors
+     * @param rating  the user's rating
+     * @param comment the user's comment
+     * @param version the version of the library entry
+     */
+    public UserBookDto(final String isbn, final String title, final String author,
+                       final Integer rating, final String comment, final Long version) {
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.rating = rating;
+        this.comment = comment;
+        this.version = version;
+    }
+
     /**
      * Returns the ISBN of the book.
      *
@@ -112,4 +166,23 @@ public class UserBookDto {
     public void setComment(final String comment) {
         this.comment = comment;
     }
+
+    /**
+     * Returns the version of the library entry, sent as {@code ETag} and expected in {@code If-Match}.
+     * It is only written to responses and ignored in request bodies.
+     *
+     * @return the version, or {@code null} if unknown
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the library entry.
+     *
+     * @param version the version to set
+     */
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
 }
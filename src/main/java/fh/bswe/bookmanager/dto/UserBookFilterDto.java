@@ -0,0 +1,57 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) describing which entries of a user's library should be listed and how.
+ * <p>
+ * All filter fields are optional; a {@code null} value does not restrict the result.
+ * Text filters match case-insensitively anywhere in the title or authors.
+ * </p>
+ *
+ * @param rating      the exact rating (1-5)
+ * @param minRating   the lowest rating (1-5)
+ * @param maxRating   the highest rating (1-5)
+ * @param language    the language code of the book, e.g. {@code "en"}
+ * @param publishYear the year the book was published
+ * @param title       a part of the title
+ * @param author      a part of the authors
+ * @param sort        the sort order, {@link UserBookSort#ADDED} if {@code null}
+ * @param descending  whether to sort in descending order
+ */
+public record UserBookFilterDto(Integer rating,
+                                Integer minRating,
+                                Integer maxRating,
+                                String language,
+                                Integer publishYear,
+                                String title,
+                                String author,
+                                UserBookSort sort,
+                                boolean descending) {
+
+    /**
+     * Creates a new filter, defaulting to the order in which the books were added.
+     */
+    public UserBookFilterDto {
+        if (sort == null) {
+            sort = UserBookSort.ADDED;
+        }
+    }
+
+    /**
+     * Creates a filter that lists the whole library in the order the books were added.
+     *
+     * @return the unrestricted filter
+     */
+    public static UserBookFilterDto none() {
+        return new UserBookFilterDto(null, null, null, null, null, null, null, null, false);
+    }
+
+    /**
+     * Creates a filter that lists only entries with the given rating.
+     *
+     * @param rating the exact rating, or {@code null} for no restriction
+     * @return the rating filter
+     */
+    public static UserBookFilterDto ofRating(final Integer rating) {
+        return new UserBookFilterDto(rating, null, null, null, null, null, null, null, false);
+    }
+}
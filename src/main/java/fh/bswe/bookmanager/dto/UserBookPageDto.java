@@ -0,0 +1,19 @@
+package fh.bswe.bookmanager.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) holding one page of a user's library.
+ *
+ * @param items      the entries of this page
+ * @param nextCursor the opaque cursor of the next page, or {@code null} if this is the last page
+ */
+public record UserBookPageDto(List<UserBookDto> items, String nextCursor) {
+
+    /**
+     * Creates a new page with an unmodifiable copy of the given entries.
+     */
+    public UserBookPageDto {
+        items = List.copyOf(items);
+    }
+}
@@ -0,0 +1,13 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) holding the user-owned columns of a library entry,
+ * used to move the entry to another shard.
+ *
+ * @param id      the ID of the library entry
+ * @param bookId  the ID of the book of the entry
+ * @param rating  the rating, or {@code null} if the entry is not rated
+ * @param comment the comment, or {@code null} if there is none
+ */
+public record UserBookRowDto(Long id, Integer bookId, Integer rating, String comment) {
+}
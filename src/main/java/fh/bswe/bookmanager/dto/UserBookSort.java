@@ -0,0 +1,72 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Sort orders available for listing a user's library.
+ * <p>
+ * Each order is identified by the value of the {@code sort} query parameter.
+ * </p>
+ */
+public enum UserBookSort {
+    /**
+     * Order in which the books were added to the library.
+     */
+    ADDED("added", true),
+
+    /**
+     * Title of the book, case-insensitive.
+     */
+    TITLE("title", false),
+
+    /**
+     * Authors of the book, case-insensitive.
+     */
+    AUTHOR("author", false),
+
+    /**
+     * Rating given by the user.
+     */
+    RATING("rating", true),
+
+    /**
+     * Year the book was published.
+     */
+    PUBLISH_YEAR("publishYear", true);
+
+    /**
+     * Regular expression matching all valid query parameter values.
+     */
+    public static final String PARAMETER_PATTERN = "^(added|title|author|rating|publishYear)$";
+
+    private final String parameter;
+    private final boolean numeric;
+
+    UserBookSort(final String parameter, final boolean numeric) {
+        this.parameter = parameter;
+        this.numeric = numeric;
+    }
+
+    /**
+     * Returns whether the sort key of this order is a number rather than text.
+     *
+     * @return {@code true} for numeric sort keys
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Returns the sort order identified by the given query parameter value.
+     *
+     * @param parameter the query parameter value, case-insensitive
+     * @return the matching sort order
+     * @throws IllegalArgumentException if no sort order matches
+     */
+    public static UserBookSort fromParameter(final String parameter) {
+        for (UserBookSort sort : values()) {
+            if (sort.parameter.equalsIgnoreCase(parameter)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort order: " + parameter);
+    }
+}
@@ -0,0 +1,13 @@
+package fh.bswe.bookmanager.dto;
+
+/**
+ * Data Transfer Object (DTO) holding the current state of a library entry that is needed
+ * to change it and to keep the statistics of its book in step.
+ *
+ * @param id      the ID of the library entry
+ * @param bookId  the ID of the book of the entry
+ * @param rating  the current rating, or {@code null} if the entry is not rated
+ * @param version the current version of the entry
+ */
+public record UserBookStateDto(Long id, Integer bookId, Integer rating, long version) {
+}
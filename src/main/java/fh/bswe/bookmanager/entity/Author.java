@@ -0,0 +1,92 @@
+package fh.bswe.bookmanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.Objects;
+
+/**
+ * Represents an author as known to OpenLibrary.
+ * <p>
+ * This entity is mapped to the database table {@code author} and is keyed by the
+ * OpenLibrary author key (e.g. {@code OL23919A}), so the name of an author is fetched
+ * from OpenLibrary only once, whatever the number of editions written by the author.
+ * Books reference their authors through the join table {@code book_author}.
+ * </p>
+ */
+@Entity
+@Table(name = "author")
+public class Author {
+    @Id
+    @Column(name = "author_key", length = 20, updatable = false, nullable = false)
+    private String authorKey;
+
+    @Column(nullable = false)
+    private String name;
+
+    /**
+     * Returns the OpenLibrary key of the author (primary key).
+     *
+     * @return the author key, e.g. {@code OL23919A}
+     */
+    public String getAuthorKey() {
+        return authorKey;
+    }
+
+    /**
+     * Sets the OpenLibrary key of the author.
+     *
+     * @param authorKey the author key to set
+     */
+    public void setAuthorKey(final String authorKey) {
+        this.authorKey = authorKey;
+    }
+
+    /**
+     * Returns the name of the author.
+     *
+     * @return the name of the author
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the author.
+     *
+     * @param name the name to set
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Checks whether this {@code Author} is equal to another object.
+     * <p>
+     * Two authors are equal if they have the same author key.
+     * </p>
+     *
+     * @param o the object to compare with this instance
+     * @return {@code true} if the given object is an {@code Author} with the same key
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Author that = (Author) o;
+        return Objects.equals(authorKey, that.authorKey);
+    }
+
+    /**
+     * Computes the hash code of this {@code Author} from its author key.
+     *
+     * @return the computed hash code for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(authorKey);
+    }
+}
@@ -2,60 +2,139 @@ package fh.bswe.bookmanager.entity;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Represents a book entity in the system.
  * <p>
  * This entity stores metadata about a book, including its ISBN, title, authors,
- * publisher, cover information, and language. It is mapped to the database table {@code book}.
+ * publisher, cover information, and language. It is mapped to the database table {@code book},
+ * in which the ISBN is unique. The authors are referenced as {@link Author} entities
+ * through the join table {@code book_author}.
+ * </p>
+ * <p>
+ * Title, authors, publishers and cover link are bounded {@code VARCHAR} columns, so they are stored
+ * in the row and read without a separate LOB access; longer texts are truncated at ingest, longer
+ * cover links are not stored.
+ * </p>
+ * <p>
+ * The ISBN is the immutable natural ID of a book. Books and the resolution of ISBNs to IDs
+ * are kept in the second-level cache, as the catalog is read far more often than it changes.
  * </p>
  */
 @Entity
-@Table(name = "book")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@NaturalIdCache(region = Book.NATURAL_ID_CACHE_REGION)
+@Table(name = "book", uniqueConstraints = @UniqueConstraint(name = Book.ISBN_CONSTRAINT, columnNames = "isbn"),
+        indexes = {
+            @Index(name = "idx_book_title", columnList = "title"),
+            @Index(name = "idx_book_authors", columnList = "authors"),
+            @Index(name = "idx_book_publish_year", columnList = "publish_year")
+        })
 public class Book {
+    /**
+     * Name of the unique constraint on the ISBN column.
+     */
+    public static final String ISBN_CONSTRAINT = "uk_book_isbn";
+
+    /**
+     * Name of the sequence the IDs are allocated from, in blocks of 50 to allow batched inserts.
+     */
+    public static final String SEQUENCE = "book_seq";
+
+    /**
+     * Name of the second-level cache region holding books by ID.
+     */
+    public static final String CACHE_REGION = "book";
+
+    /**
+     * Name of the second-level cache region resolving ISBNs to book IDs.
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "book_isbn";
+
+    /**
+     * Maximum length of the title.
+     */
+    public static final int TITLE_LENGTH = 500;
+
+    /**
+     * Maximum length of the comma-separated author names.
+     */
+    public static final int AUTHORS_LENGTH = 1000;
+
+    /**
+     * Maximum length of the comma-separated publishers.
+     */
+    public static final int PUBLISHERS_LENGTH = 500;
+
+    /**
+     * Maximum length of the link to the cover image.
+     */
+    public static final int COVER_LINK_LENGTH = 255;
+
+    private static final Pattern YEAR = Pattern.compile("\\b(\\d{4})\\b");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Book.SEQUENCE)
+    @SequenceGenerator(name = Book.SEQUENCE, sequenceName = Book.SEQUENCE, allocationSize = 50)
     @Column(updatable = false, nullable = false)
     private Integer id;
 
+    @NaturalId
     @Column(length = 13, nullable = false)
     private String isbn;
 
-    @Lob
-    @Column
+    @Column(length = TITLE_LENGTH)
     private String title;
 
-    @Lob
-    @Column
+    @Column(length = AUTHORS_LENGTH)
     private String authors;
 
     @Column(name = "publish_date", length = 30)
     private String publishDate;
 
-    @Lob
-    @Column
+    @Column(name = "publish_year")
+    private Integer publishYear;
+
+    @Column(length = PUBLISHERS_LENGTH)
     private String publishers;
 
     @Column(name = "cover_key", length = 30)
     private String coverKey;
 
-    @Lob
-    @Column(name = "cover_link")
+    @Column(name = "cover_link", length = COVER_LINK_LENGTH)
     private String coverLink;
 
     @Lob
+    @Convert(converter = CoverImageConverter.class)
     @Column(name = "cover_image")
-    private byte[] coverImage;
+    private CoverImage coverImage;
+
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash;
 
     @Column(length = 10)
     private String language;
@@ -63,6 +142,14 @@ public class Book {
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<UserBook> userBooks;
 
+    @ManyToMany
+    @JoinTable(name = "book_author",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_key"),
+            indexes = @Index(name = "idx_book_author_author", columnList = "author_key, book_id"))
+    @OrderColumn(name = "author_order")
+    private List<Author> authorList;
+
     /**
      * Returns the ID of the book (primary key).
      *
@@ -151,6 +238,20 @@ public class Book {
      */
     public void setPublishDate(final String publishDate) {
         this.publishDate = publishDate;
+        this.publishYear = extractYear(publishDate);
+    }
+
+    /**
+     * Gets the year the book was published.
+     * <p>
+     * The year is derived from the free-text publication date whenever it is set,
+     * so libraries can be filtered and sorted by it in the database.
+     * </p>
+     *
+     * @return the publication year, or {@code null} if the date contains no year
+     */
+    public Integer getPublishYear() {
+        return publishYear;
     }
 
     /**
@@ -208,41 +309,54 @@ public class Book {
     }
 
     /**
-     * Returns the binary image data of the book cover.
+     * Returns the binary image data of the book cover stored inside the database.
      * <p>
-     * A defensive copy is returned to prevent external modification.
+     * The immutable {@link CoverImage} is returned as is, without copying its bytes.
+     * New covers are kept in the on-disk cover store and referenced by
+     * {@link #getCoverHash()}; this column only holds covers of legacy rows
+     * that have not been migrated yet.
      * </p>
      *
-     * @return byte array of the cover image, or an empty array if none
+     * @return the cover image, or the empty cover image if none
      */
-    public byte[] getCoverImage() {
+    public CoverImage getCoverImage() {
         if (coverImage == null) {
-            return new byte[0];
-        } else {
-            final byte[] tempCoverImage = new byte[coverImage.length];
-            System.arraycopy(coverImage, 0, tempCoverImage, 0, coverImage.length);
-            return tempCoverImage;
+            return CoverImage.empty();
         }
+        return coverImage;
     }
 
     /**
      * Sets the cover image data.
-     * <p>
-     * A defensive copy is created to avoid exposing internal state.
-     * </p>
      *
-     * @param coverImage the cover image byte array
+     * @param coverImage the cover image, {@code null} is treated as no cover
      */
-    public void setCoverImage(final byte[] coverImage) {
+    public void setCoverImage(final CoverImage coverImage) {
         if (coverImage == null) {
-            this.coverImage = new byte[0];
+            this.coverImage = CoverImage.empty();
         } else {
-            final byte[] tempCoverImage = new byte[coverImage.length];
-            System.arraycopy(coverImage, 0, tempCoverImage, 0, coverImage.length);
-            this.coverImage = tempCoverImage;
+            this.coverImage = coverImage;
         }
     }
 
+    /**
+     * Gets the SHA-256 content hash referencing the cover in the on-disk cover store.
+     *
+     * @return the cover hash, or {@code null} if the book has no stored cover
+     */
+    public String getCoverHash() {
+        return coverHash;
+    }
+
+    /**
+     * Sets the SHA-256 content hash referencing the cover in the on-disk cover store.
+     *
+     * @param coverHash the cover hash to set
+     */
+    public void setCoverHash(final String coverHash) {
+        this.coverHash = coverHash;
+    }
+
     /**
      * Gets the language code of the book (e.g., "en", "de").
      *
@@ -261,6 +375,27 @@ public class Book {
         this.language = language;
     }
 
+    /**
+     * Returns the authors of the book in the order given by OpenLibrary.
+     * <p>
+     * The names are also kept joined in {@link #getAuthors()} for display and filtering.
+     * </p>
+     *
+     * @return the list of authors of this book
+     */
+    public List<Author> getAuthorList() {
+        return authorList;
+    }
+
+    /**
+     * Sets the authors of the book.
+     *
+     * @param authorList the authors in the order given by OpenLibrary
+     */
+    public void setAuthorList(final List<Author> authorList) {
+        this.authorList = authorList;
+    }
+
     /**
      * Returns the list of {@link UserBook} entries associated with this book.
      * <p>
@@ -316,4 +451,23 @@ public class Book {
     public int hashCode() {
         return Objects.hash(id, isbn);
     }
-}
\ No newline at end of file
+
+    /**
+     * Extracts the last four-digit year of a publication date such as {@code "March 5, 2008"}.
+     *
+     * @param publishDate the publication date, may be {@code null}
+     * @return the year, or {@code null} if none is found
+     */
+    private static Integer extractYear(final String publishDate) {
+        if (publishDate == null) {
+            return null;
+        }
+
+        Integer year = null;
+        final Matcher matcher = YEAR.matcher(publishDate);
+        while (matcher.find()) {
+            year = Integer.valueOf(matcher.group(1));
+        }
+        return year;
+    }
+}
@@ -0,0 +1,96 @@
+package fh.bswe.bookmanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Represents the aggregated readers and ratings of a {@link Book}.
+ * <p>
+ * This entity is mapped to the database table {@code book_stats}, which holds one row per book
+ * with the number of readers, the number and sum of ratings and the number of ratings per star.
+ * The row is kept up to date in the same transaction as every change of a {@link UserBook}, so the
+ * average rating of a book is read from one row instead of from all library entries. Rows are
+ * written with native delta statements only, never through the entity, and have no foreign key
+ * to {@code book}, so they can be rebuilt independently of the books.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "book_stats")
+public class BookStats {
+    @Id
+    @Column(name = "book_id", nullable = false)
+    private Integer bookId;
+
+    @Column(nullable = false)
+    private long readers;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    /**
+     * Returns the ID of the book the statistics belong to (primary key).
+     *
+     * @return the book ID
+     */
+    public Integer getBookId() {
+        return bookId;
+    }
+
+    /**
+     * Returns the number of libraries holding the book.
+     *
+     * @return the number of readers
+     */
+    public long getReaders() {
+        return readers;
+    }
+
+    /**
+     * Returns the number of library entries of the book with a rating.
+     *
+     * @return the number of ratings
+     */
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    /**
+     * Returns the sum of all ratings of the book.
+     *
+     * @return the rating sum
+     */
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    /**
+     * Returns the number of ratings per star, from one to five stars.
+     *
+     * @return an array of five counts, index {@code 0} holding the one-star ratings
+     */
+    public long[] getHistogram() {
+        return new long[] {rating1, rating2, rating3, rating4, rating5};
+    }
+}
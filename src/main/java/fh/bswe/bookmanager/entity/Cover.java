@@ -0,0 +1,133 @@
+package fh.bswe.bookmanager.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.Objects;
+
+/**
+ * Represents a distinct cover image known to the system, identified by its content hash.
+ * <p>
+ * Real covers are stored once in the on-disk cover store and count how many books
+ * reference them. Placeholder images returned by OpenLibrary for books without art are
+ * never stored; their row only counts how often they were received instead of a cover.
+ * It is mapped to the database table {@code cover}.
+ * </p>
+ */
+@Entity
+@Table(name = "cover")
+public class Cover {
+    @Id
+    @Column(length = 64, updatable = false, nullable = false)
+    private String hash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "reference_count", nullable = false)
+    private int referenceCount;
+
+    @Column(nullable = false)
+    private boolean placeholder;
+
+    /**
+     * Returns the SHA-256 content hash of the cover (primary key).
+     *
+     * @return the cover hash
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Sets the SHA-256 content hash of the cover.
+     *
+     * @param hash the cover hash to set
+     */
+    public void setHash(final String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the size of the cover image in bytes.
+     *
+     * @return the cover size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the size of the cover image in bytes.
+     *
+     * @param size the cover size to set
+     */
+    public void setSize(final long size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns how many books reference the cover, or how often a placeholder was received.
+     *
+     * @return the reference count
+     */
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * Sets how many books reference the cover, or how often a placeholder was received.
+     *
+     * @param referenceCount the reference count to set
+     */
+    public void setReferenceCount(final int referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    /**
+     * Checks whether the image is a placeholder that is treated as "no cover".
+     *
+     * @return {@code true} if the image is a placeholder
+     */
+    public boolean isPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Sets whether the image is a placeholder that is treated as "no cover".
+     *
+     * @param placeholder {@code true} if the image is a placeholder
+     */
+    public void setPlaceholder(final boolean placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Compares this cover to another object for equality based on the content hash.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if both objects are covers with the same hash
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(hash, ((Cover) o).hash);
+    }
+
+    /**
+     * Computes a hash code based on the content hash.
+     *
+     * @return the computed hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(hash);
+    }
+}
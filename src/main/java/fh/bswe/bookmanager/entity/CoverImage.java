@@ -0,0 +1,170 @@
+package fh.bswe.bookmanager.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import fh.bswe.bookmanager.helper.CoverImageSerializer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable, shareable representation of the binary data of a book cover.
+ * <p>
+ * A {@code CoverImage} wraps its bytes in a read-only {@link ByteBuffer}, so the same
+ * instance can be passed from entity to DTO to serializer without defensive copies.
+ * The bytes may live on the heap, in a direct buffer or in a memory-mapped file.
+ * Copies are only made when {@link #toByteArray()} is called explicitly.
+ * </p>
+ */
+@JsonSerialize(using = CoverImageSerializer.class)
+public final class CoverImage {
+    private static final CoverImage NO_COVER = new CoverImage(null, ByteBuffer.allocate(0));
+
+    private final byte[] array;
+    private final ByteBuffer content;
+
+    private CoverImage(final byte[] array, final ByteBuffer content) {
+        this.array = array;
+        this.content = content.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the shared empty cover image.
+     *
+     * @return a cover image without content
+     */
+    public static CoverImage empty() {
+        return NO_COVER;
+    }
+
+    /**
+     * Wraps the given array without copying it.
+     * <p>
+     * Ownership of the array is transferred to the cover image; the caller must not
+     * modify it afterwards.
+     * </p>
+     *
+     * @param bytes the cover image bytes, may be {@code null}
+     * @return the cover image, or the empty cover image if {@code bytes} is null or empty
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    public static CoverImage wrap(final byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return NO_COVER;
+        }
+
+        return new CoverImage(bytes, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Wraps the remaining content of the given buffer without copying it.
+     * <p>
+     * The position and limit of the given buffer are not changed. The caller must not
+     * modify the buffer content afterwards.
+     * </p>
+     *
+     * @param buffer the buffer holding the cover image bytes, may be {@code null}
+     * @return the cover image, or the empty cover image if the buffer has no remaining bytes
+     */
+    public static CoverImage wrap(final ByteBuffer buffer) {
+        if (buffer == null || !buffer.hasRemaining()) {
+            return NO_COVER;
+        }
+
+        return new CoverImage(null, buffer.slice());
+    }
+
+    /**
+     * Returns the number of bytes of the cover image.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        return content.remaining();
+    }
+
+    /**
+     * Checks whether the cover image has no content.
+     *
+     * @return {@code true} if the cover image is empty
+     */
+    public boolean isEmpty() {
+        return !content.hasRemaining();
+    }
+
+    /**
+     * Returns a read-only view of the cover image bytes.
+     * <p>
+     * Each call returns an independent view, so callers may move its position freely.
+     * </p>
+     *
+     * @return a read-only {@link ByteBuffer} positioned at the first byte
+     */
+    public ByteBuffer asByteBuffer() {
+        return content.duplicate();
+    }
+
+    /**
+     * Returns an input stream reading the cover image bytes without copying them.
+     *
+     * @return a new {@link InputStream} over the cover image
+     */
+    public InputStream asInputStream() {
+        return new ByteBufferBackedInputStream(asByteBuffer());
+    }
+
+    /**
+     * Returns a copy of the cover image bytes.
+     *
+     * @return a new byte array holding the cover image
+     */
+    public byte[] toByteArray() {
+        final byte[] copy = new byte[size()];
+        asByteBuffer().get(copy);
+        return copy;
+    }
+
+    /**
+     * Returns the backing array if the cover image wraps a complete array, otherwise a copy.
+     * <p>
+     * Only meant for persistence, where the array is handed to JDBC and never modified.
+     * </p>
+     *
+     * @return the backing array or a copy of the bytes
+     */
+    @SuppressWarnings("PMD.MethodReturnsInternalArray")
+    byte[] backingArray() {
+        if (array != null) {
+            return array;
+        }
+
+        return toByteArray();
+    }
+
+    /**
+     * Checks whether this cover image has the same content as another object.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if the other object is a cover image with identical bytes
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return content.equals(((CoverImage) o).content);
+    }
+
+    /**
+     * Computes a hash code based on the cover image bytes.
+     *
+     * @return the computed hash code
+     */
+    @Override
+    public int hashCode() {
+        return content.hashCode();
+    }
+}
@@ -0,0 +1,45 @@
+package fh.bswe.bookmanager.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * JPA converter persisting a {@link CoverImage} as binary column.
+ * <p>
+ * The converter is marked {@link Immutable}, so Hibernate neither copies the cover
+ * for dirty checking snapshots nor compares its bytes on flush. Empty covers are
+ * stored as {@code NULL}.
+ * </p>
+ */
+@Converter
+@Immutable
+public class CoverImageConverter implements AttributeConverter<CoverImage, byte[]> {
+
+    /**
+     * Converts a cover image into the byte array written to the database.
+     *
+     * @param coverImage the cover image of the entity
+     * @return the bytes to store, or {@code null} for an empty cover
+     */
+    @Override
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    public byte[] convertToDatabaseColumn(final CoverImage coverImage) {
+        if (coverImage == null || coverImage.isEmpty()) {
+            return null;
+        }
+
+        return coverImage.backingArray();
+    }
+
+    /**
+     * Converts the byte array read from the database into a cover image without copying it.
+     *
+     * @param bytes the bytes read from the database
+     * @return the cover image, or the empty cover image for {@code NULL}
+     */
+    @Override
+    public CoverImage convertToEntityAttribute(final byte[] bytes) {
+        return CoverImage.wrap(bytes);
+    }
+}
@@ -6,9 +6,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 
@@ -19,17 +28,49 @@ import java.util.Objects;
  *
  * <p>
  * The {@code id} field is the primary key and is automatically generated.
- * The {@code username} is unique and required.
+ * The {@code username} is unique and required. It is the immutable natural ID of the account,
+ * and accounts are cached by ID and by username in the second-level cache.
+ * </p>
+ * <p>
+ * Deleted accounts are only marked with {@code deletedAt} and hidden from all reads,
+ * until a background job purges them together with their library. Their username is
+ * replaced by {@code #} and the ID on deletion, so it is free for new accounts.
  * </p>
  */
 @Entity
-@Table(name = "user_account")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = UserAccount.CACHE_REGION)
+@NaturalIdCache(region = UserAccount.NATURAL_ID_CACHE_REGION)
+@Table(name = "user_account", uniqueConstraints = @UniqueConstraint(name = UserAccount.USERNAME_CONSTRAINT,
+        columnNames = "username"),
+        indexes = @Index(name = "idx_user_account_deleted_at", columnList = "deleted_at"))
 public class UserAccount {
+    /**
+     * Name of the unique constraint on the username column.
+     */
+    public static final String USERNAME_CONSTRAINT = "uk_user_account_username";
+
+    /**
+     * Name of the ID sequence; IDs are reserved in blocks so new accounts can be inserted in batches.
+     */
+    public static final String SEQUENCE = "user_account_seq";
+
+    /**
+     * Name of the second-level cache region holding user accounts by ID.
+     */
+    public static final String CACHE_REGION = "user_account";
+
+    /**
+     * Name of the second-level cache region resolving usernames to user account IDs.
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "user_account_username";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = UserAccount.SEQUENCE)
+    @SequenceGenerator(name = UserAccount.SEQUENCE, sequenceName = UserAccount.SEQUENCE, allocationSize = 50)
     private Integer id;
 
-    @Column(length = 20, nullable = false, unique = true)
+    @NaturalId
+    @Column(length = 20, nullable = false)
     private String username;
 
     @Column(length = 20, nullable = false)
@@ -38,6 +79,13 @@ public class UserAccount {
     @Column(length = 20, nullable = false)
     private String lastname;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @OneToMany(mappedBy = "userAccount", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<UserBook> userBooks;
 
@@ -115,6 +163,42 @@ public class UserAccount {
         this.lastname = lastname;
     }
 
+    /**
+     * Returns the version used for optimistic concurrency control.
+     *
+     * @return the version, incremented with every update
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version used for optimistic concurrency control.
+     *
+     * @param version the version to set
+     */
+    public void setVersion(final long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the time the account was deleted.
+     *
+     * @return the deletion time, or {@code null} if the account is not deleted
+     */
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    /**
+     * Sets the time the account was deleted.
+     *
+     * @param deletedAt the deletion time, or {@code null} for an active account
+     */
+    public void setDeletedAt(final Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     /**
      * Returns the list of {@link UserBook} entries associated with this user.
      * <p>
@@ -5,23 +5,50 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 /**
  * Represents the relationship between a {@link UserAccount} and a {@link Book}.
  * <p>
  * This entity models a user's interaction with a book, including user-specific metadata
- * such as rating and comment. It is mapped to the {@code user_book} table in the database.
+ * such as rating and comment. It is mapped to the {@code user_book} table in the database,
+ * in which a user can hold every book only once. Libraries are filtered and sorted by rating and
+ * listed in insertion order through composite indexes leading with the user. Concurrent ratings are
+ * detected by the {@code version} column instead of locks.
  * </p>
  */
 @Entity
-@Table(name = "user_book")
+@Table(name = "user_book", uniqueConstraints = @UniqueConstraint(name = UserBook.USER_BOOK_CONSTRAINT,
+        columnNames = {"user_account_id", "book_id"}),
+        indexes = {
+            @Index(name = "idx_user_book_user_rating", columnList = "user_account_id, rating, id"),
+            @Index(name = "idx_user_book_user_id", columnList = "user_account_id, id")
+        })
 public class UserBook {
+    /**
+     * Name of the unique constraint on the user and book columns.
+     */
+    public static final String USER_BOOK_CONSTRAINT = "uk_user_book";
+
+    /**
+     * Name of the ID sequence, pooled so that bulk imports of entries are written with batched inserts.
+     */
+    public static final String SEQUENCE = "user_book_seq";
+
+    /**
+     * Maximum length of the comment.
+     */
+    public static final int COMMENT_LENGTH = 2000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = UserBook.SEQUENCE)
+    @SequenceGenerator(name = UserBook.SEQUENCE, sequenceName = UserBook.SEQUENCE, allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -35,10 +62,13 @@ public class UserBook {
     @Column
     private Integer rating;
 
-    @Lob
-    @Column
+    @Column(length = COMMENT_LENGTH)
     private String comment;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /**
      * Returns the unique ID of the user-book entry.
      *
@@ -128,4 +158,22 @@ public class UserBook {
     public void setComment(final String comment) {
         this.comment = comment;
     }
+
+    /**
+     * Returns the version used for optimistic concurrency control.
+     *
+     * @return the version, incremented with every update
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version used for optimistic concurrency control.
+     *
+     * @param version the version to set
+     */
+    public void setVersion(final long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
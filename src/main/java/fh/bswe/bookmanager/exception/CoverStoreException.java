@@ -0,0 +1,19 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that the on-disk cover store could not read or write a cover file.
+ * <p>
+ * This exception wraps the underlying I/O error so callers do not have to deal
+ * with checked exceptions from the file system.
+ */
+public class CoverStoreException extends RuntimeException {
+    /**
+     * Constructs a new {@code CoverStoreException} with the specified detail message and cause.
+     *
+     * @param message the detail message explaining the reason for the exception
+     * @param cause   the underlying I/O error
+     */
+    public CoverStoreException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
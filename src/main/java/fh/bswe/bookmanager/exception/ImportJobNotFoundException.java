@@ -0,0 +1,16 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that a library import does not exist for the given user,
+ * or finished longer than {@code libraryimport.retention} ago.
+ */
+public class ImportJobNotFoundException extends RuntimeException {
+    /**
+     * Constructs a new {@code ImportJobNotFoundException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ImportJobNotFoundException(final String message) {
+        super(message);
+    }
+}
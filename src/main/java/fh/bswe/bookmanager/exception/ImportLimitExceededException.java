@@ -0,0 +1,16 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that a user already has {@code libraryimport.max-jobs-per-user} unfinished
+ * library imports.
+ */
+public class ImportLimitExceededException extends RuntimeException {
+    /**
+     * Constructs a new {@code ImportLimitExceededException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ImportLimitExceededException(final String message) {
+        super(message);
+    }
+}
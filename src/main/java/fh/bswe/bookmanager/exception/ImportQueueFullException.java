@@ -0,0 +1,16 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that all import threads are busy and {@code libraryimport.queue-capacity}
+ * imports are already waiting.
+ */
+public class ImportQueueFullException extends RuntimeException {
+    /**
+     * Constructs a new {@code ImportQueueFullException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ImportQueueFullException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that a pagination cursor could not be decoded or does not
+ * belong to the requested sort order.
+ * <p>
+ * Cursors are opaque tokens handed out with a page; clients must pass them back unchanged
+ * together with the same {@code sort} and {@code direction} parameters.
+ */
+public class InvalidCursorException extends RuntimeException {
+    /**
+     * Constructs a new {@code InvalidCursorException} with the specified detail message.
+     *
+     * @param message the detail message explaining why the cursor is invalid
+     */
+    public InvalidCursorException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that an uploaded library file cannot be imported at all,
+ * e.g. because it is empty or has no {@code isbn} column.
+ * <p>
+ * Problems of single rows do not throw; they are reported with the progress of the import.
+ */
+public class InvalidImportFileException extends RuntimeException {
+    /**
+     * Constructs a new {@code InvalidImportFileException} with the specified detail message.
+     *
+     * @param message the detail message explaining why the file is invalid
+     */
+    public InvalidImportFileException(final String message) {
+        super(message);
+    }
+}
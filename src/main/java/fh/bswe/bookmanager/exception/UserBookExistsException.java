@@ -17,4 +17,14 @@ public class UserBookExistsException extends RuntimeException {
     public UserBookExistsException(final String message) {
         super(message);
     }
+
+  /**
+   * Constructs a new {@code UserBookExistsException} with the specified detail message and cause.
+   *
+   * @param message the detail message explaining the cause of the exception
+   * @param cause   the constraint violation that detected the existing entry
+   */
+    public UserBookExistsException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
 }
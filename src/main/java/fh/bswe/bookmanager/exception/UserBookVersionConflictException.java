@@ -0,0 +1,18 @@
+package fh.bswe.bookmanager.exception;
+
+/**
+ * Thrown to indicate that a {@code UserBook} entry was changed concurrently.
+ * <p>
+ * Either the entry no longer has the version the client expected ({@code If-Match}),
+ * or concurrent updates kept changing it until the retries were exhausted.
+ */
+public class UserBookVersionConflictException extends RuntimeException {
+    /**
+     * Constructs a new {@code UserBookVersionConflictException} with the specified detail message.
+     *
+     * @param message the detail message explaining the conflict
+     */
+    public UserBookVersionConflictException(final String message) {
+        super(message);
+    }
+}
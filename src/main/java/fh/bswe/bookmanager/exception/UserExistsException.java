@@ -11,4 +11,14 @@ public class UserExistsException extends Exception {
     public UserExistsException() {
         super("User already exists");
     }
+
+    /**
+     * Constructs a new {@code UserExistsException} with the default message and the
+     * constraint violation that detected the existing user.
+     *
+     * @param cause the underlying cause of the exception
+     */
+    public UserExistsException(final Throwable cause) {
+        super("User already exists", cause);
+    }
 }
@@ -0,0 +1,12 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.entity.CoverImage;
+
+/**
+ * A cover held in the {@link CoverCache}.
+ *
+ * @param hash  the content hash of the cover, used as entity tag
+ * @param image the off-heap cover image
+ */
+public record CachedCover(String hash, CoverImage image) {
+}
@@ -0,0 +1,38 @@
+package fh.bswe.bookmanager.helper;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Utility class for recognising which database constraint a failed write violated.
+ * <p>
+ * Write paths insert directly and let unique constraints detect duplicates instead of
+ * checking beforehand. The name reported by the database may be decorated, e.g. H2 reports
+ * the index {@code PUBLIC.UK_BOOK_ISBN_INDEX_1} for the constraint {@code uk_book_isbn},
+ * so names are matched case-insensitively as a part of the reported name.
+ * </p>
+ */
+public class ConstraintViolations {
+
+    /**
+     * Checks whether a data integrity violation was caused by the given constraint.
+     *
+     * @param exception  the exception thrown by the failed write
+     * @param constraint the name of the constraint as declared on the entity
+     * @return {@code true} if the given constraint was violated
+     */
+    public static boolean isViolated(final DataIntegrityViolationException exception, final String constraint) {
+        final String name = constraint.toLowerCase(Locale.ROOT);
+
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name);
+            }
+        }
+
+        return exception.getMessage() != null && exception.getMessage().toLowerCase(Locale.ROOT).contains(name);
+    }
+}
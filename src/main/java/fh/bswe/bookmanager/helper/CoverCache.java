@@ -0,0 +1,280 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.config.CoverCacheConfig;
+import fh.bswe.bookmanager.entity.CoverImage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded cache of book covers held outside the Java heap.
+ * <p>
+ * Covers are kept in direct or memory-mapped buffers, so cached covers neither count
+ * against the heap nor add GC pressure. The index is split into independently locked
+ * stripes; each stripe owns an equal share of the byte budget and evicts its least
+ * recently used covers when the share is exceeded. Sizes, hits, misses and evictions
+ * are exported as Micrometer metrics.
+ * </p>
+ */
+@Component
+public class CoverCache implements MeterBinder {
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new {@code CoverCache} with the provided cache configuration.
+     *
+     * @param coverCacheConfig the configuration containing the byte budget and the number of stripes
+     */
+    public CoverCache(final CoverCacheConfig coverCacheConfig) {
+        final int stripeCount = Math.max(1, coverCacheConfig.getStripes());
+        final long stripeBytes = coverCacheConfig.getMaxSize().toBytes() / stripeCount;
+
+        this.enabled = coverCacheConfig.isEnabled();
+        this.maxBytes = stripeBytes * stripeCount;
+        this.maxEntryBytes = Math.min(coverCacheConfig.getMaxEntrySize().toBytes(), stripeBytes);
+        this.stripes = new Stripe[stripeCount];
+        Arrays.setAll(stripes, i -> new Stripe(stripeBytes));
+    }
+
+    /**
+     * Returns the cached cover for the given key and marks it as recently used.
+     *
+     * @param key the cache key, usually the ISBN the cover was requested for
+     * @return the cached cover, or {@code null} if it is not cached
+     */
+    public CachedCover get(final String key) {
+        final CachedCover cover = stripeFor(key).get(key);
+
+        if (cover == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return cover;
+    }
+
+    /**
+     * Caches a cover, evicting the least recently used covers of its stripe if needed.
+     * <p>
+     * Heap covers are copied once into a direct buffer; direct and memory-mapped covers are
+     * cached as they are. Covers larger than the configured entry size are not cached.
+     * </p>
+     *
+     * @param key   the cache key, usually the ISBN the cover was requested for
+     * @param hash  the content hash of the cover
+     * @param image the cover image
+     * @return the cover to serve, backed by the cached buffer if it was cached
+     */
+    public CachedCover put(final String key, final String hash, final CoverImage image) {
+        if (!enabled || image.isEmpty() || image.size() > maxEntryBytes) {
+            return new CachedCover(hash, image);
+        }
+
+        final CachedCover cover = new CachedCover(hash, toOffHeap(image));
+        evictions.add(stripeFor(key).put(key, cover));
+        puts.increment();
+
+        return cover;
+    }
+
+    /**
+     * Removes all covers from the cache.
+     */
+    public void invalidateAll() {
+        for (final Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached covers.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        long size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes currently held by cached covers.
+     *
+     * @return the used off-heap bytes
+     */
+    public long getUsedBytes() {
+        long bytes = 0;
+        for (final Stripe stripe : stripes) {
+            bytes += stripe.currentBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the byte budget of the cache.
+     *
+     * @return the maximum number of off-heap bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the ratio of lookups that were answered from the cache.
+     *
+     * @return the hit ratio between {@code 0} and {@code 1}
+     */
+    public double getHitRatio() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Registers the cache metrics with the given registry.
+     *
+     * @param registry the registry to bind the metrics to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("covercache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Cover cache lookups that found a cached cover")
+                .register(registry);
+        FunctionCounter.builder("covercache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Cover cache lookups that did not find a cached cover")
+                .register(registry);
+        FunctionCounter.builder("covercache.puts", puts, LongAdder::sum)
+                .description("Covers added to the cover cache")
+                .register(registry);
+        FunctionCounter.builder("covercache.evictions", evictions, LongAdder::sum)
+                .description("Covers evicted from the cover cache")
+                .register(registry);
+        Gauge.builder("covercache.entries", this, CoverCache::size)
+                .description("Number of cached covers")
+                .register(registry);
+        Gauge.builder("covercache.offheap.used", this, CoverCache::getUsedBytes)
+                .baseUnit("bytes")
+                .description("Off-heap bytes held by cached covers")
+                .register(registry);
+        Gauge.builder("covercache.offheap.max", this, CoverCache::getMaxBytes)
+                .baseUnit("bytes")
+                .description("Off-heap byte budget of the cover cache")
+                .register(registry);
+        Gauge.builder("covercache.hit.ratio", this, CoverCache::getHitRatio)
+                .description("Ratio of cover cache lookups that found a cached cover")
+                .register(registry);
+    }
+
+    private Stripe stripeFor(final String key) {
+        final int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static CoverImage toOffHeap(final CoverImage image) {
+        final ByteBuffer source = image.asByteBuffer();
+        if (source.isDirect()) {
+            return image;
+        }
+
+        final ByteBuffer copy = ByteBuffer.allocateDirect(source.remaining());
+        copy.put(source).flip();
+        return CoverImage.wrap(copy);
+    }
+
+    /**
+     * One independently locked segment of the cache index with its own share of the byte budget.
+     * The access-ordered map is only touched while holding the stripe lock.
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap")
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CachedCover> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxBytes;
+        private long bytes;
+
+        private Stripe(final long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private CachedCover get(final String key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int put(final String key, final CachedCover cover) {
+            lock.lock();
+            try {
+                final CachedCover previous = entries.put(key, cover);
+                if (previous != null) {
+                    bytes -= previous.image().size();
+                }
+                bytes += cover.image().size();
+
+                int evicted = 0;
+                final Iterator<CachedCover> eldest = entries.values().iterator();
+                while (bytes > maxBytes && entries.size() > 1) {
+                    bytes -= eldest.next().image().size();
+                    eldest.remove();
+                    evicted++;
+                }
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+                bytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long currentBytes() {
+            lock.lock();
+            try {
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fh.bswe.bookmanager.helper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import fh.bswe.bookmanager.entity.CoverImage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Jackson serializer writing a {@link CoverImage} as Base64 string.
+ * <p>
+ * The cover is streamed from its buffer through the generator's recycled Base64 buffer,
+ * so neither the raw bytes nor the encoded string are materialized on the heap.
+ * </p>
+ */
+public class CoverImageSerializer extends StdSerializer<CoverImage> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new {@code CoverImageSerializer}.
+     */
+    public CoverImageSerializer() {
+        super(CoverImage.class);
+    }
+
+    /**
+     * Writes the cover image as Base64 encoded JSON string.
+     *
+     * @param value     the cover image to serialize
+     * @param generator the generator to write to
+     * @param provider  the serializer provider
+     * @throws IOException if writing to the generator fails
+     */
+    @Override
+    public void serialize(final CoverImage value, final JsonGenerator generator,
+                          final SerializerProvider provider) throws IOException {
+        try (InputStream in = value.asInputStream()) {
+            generator.writeBinary(provider.getConfig().getBase64Variant(), in, value.size());
+        }
+    }
+
+    /**
+     * Checks whether the cover image is empty, so that {@code NON_EMPTY} inclusion can omit it.
+     *
+     * @param provider the serializer provider
+     * @param value    the cover image
+     * @return {@code true} if there is no cover image content
+     */
+    @Override
+    public boolean isEmpty(final SerializerProvider provider, final CoverImage value) {
+        return value == null || value.isEmpty();
+    }
+}
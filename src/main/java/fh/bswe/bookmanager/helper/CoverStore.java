@@ -0,0 +1,346 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.config.CoverStoreConfig;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.exception.CoverStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cover image store on the local file system.
+ * <p>
+ * Every cover is stored once under the SHA-256 hash of its content. Files are sharded
+ * into nested directories named after the leading characters of the hash
+ * (e.g. {@code ab/cd/abcd…}) so that no single directory grows unbounded.
+ * Covers are served straight from the file via {@link Resource} regions or
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so the image bytes
+ * do not have to be loaded onto the heap.
+ * </p>
+ */
+@Component
+@SuppressWarnings({
+        "PMD.TooManyMethods"
+})
+public class CoverStore {
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final int SHARD_WIDTH = 2;
+
+    private final Path root;
+    private final int shardLevels;
+    private final Logger logger = LoggerFactory.getLogger(CoverStore.class);
+
+    /**
+     * Constructs a new {@code CoverStore} with the provided cover store configuration.
+     *
+     * @param coverStoreConfig the configuration containing the store directory and sharding
+     */
+    public CoverStore(final CoverStoreConfig coverStoreConfig) {
+        this.root = Path.of(coverStoreConfig.getDirectory()).toAbsolutePath().normalize();
+        this.shardLevels = coverStoreConfig.getShardLevels();
+    }
+
+    /**
+     * Computes the SHA-256 content hash used as key of a cover.
+     *
+     * @param content the cover image bytes
+     * @return the lower-case hex encoded SHA-256 hash
+     */
+    public static String hash(final byte[] content) {
+        return hash(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Computes the SHA-256 content hash of the remaining bytes of a buffer.
+     * <p>
+     * The position of the given buffer is advanced to its limit.
+     * </p>
+     *
+     * @param content the buffer holding the cover image bytes
+     * @return the lower-case hex encoded SHA-256 hash
+     */
+    public static String hash(final ByteBuffer content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Checks whether the given string is a well-formed cover hash.
+     *
+     * @param hash the hash to check
+     * @return {@code true} if the hash consists of 64 lower-case hex characters
+     */
+    public static boolean isValidHash(final String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches();
+    }
+
+    /**
+     * Stores a cover image and returns its content hash.
+     * <p>
+     * If a cover with the same content is already stored, nothing is written.
+     * New files are written to a temporary file first and then atomically moved
+     * into place, so readers never observe a partially written cover.
+     * </p>
+     *
+     * @param content the cover image bytes
+     * @return the content hash referencing the stored cover
+     * @throws CoverStoreException if the cover could not be written
+     */
+    public String store(final byte[] content) {
+        final String hash = hash(content);
+        final Path target = resolve(hash);
+
+        if (Files.exists(target)) {
+            return hash;
+        }
+
+        try {
+            Files.createDirectories(target.getParent());
+            final Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (FileAlreadyExistsException e) {
+            logger.debug("Cover {} was stored concurrently", hash);
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not store cover " + hash, e);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Checks whether a cover with the given hash is stored.
+     *
+     * @param hash the content hash of the cover
+     * @return {@code true} if the cover file exists
+     */
+    public boolean exists(final String hash) {
+        return isValidHash(hash) && Files.isRegularFile(resolve(hash));
+    }
+
+    /**
+     * Returns the size of a stored cover in bytes.
+     *
+     * @param hash the content hash of the cover
+     * @return the size of the cover file in bytes
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     * @throws CoverStoreException    if the file size could not be determined
+     */
+    public long size(final String hash) {
+        requireExisting(hash);
+
+        try {
+            return Files.size(resolve(hash));
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not determine size of cover " + hash, e);
+        }
+    }
+
+    /**
+     * Returns the stored cover as a file-backed {@link Resource}.
+     * <p>
+     * Spring writes file resources to the response in small chunks, so the cover
+     * is never loaded completely onto the heap.
+     * </p>
+     *
+     * @param hash the content hash of the cover
+     * @return the cover file as {@link Resource}
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     */
+    public Resource load(final String hash) {
+        requireExisting(hash);
+        return new FileSystemResource(resolve(hash));
+    }
+
+    /**
+     * Returns a region of the stored cover for partial delivery.
+     *
+     * @param hash     the content hash of the cover
+     * @param position the offset of the first byte of the region
+     * @param count    the number of bytes of the region
+     * @return the requested {@link ResourceRegion}
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     */
+    public ResourceRegion loadRegion(final String hash, final long position, final long count) {
+        return new ResourceRegion(load(hash), position, count);
+    }
+
+    /**
+     * Transfers a region of the stored cover to the given channel.
+     * <p>
+     * Uses {@link FileChannel#transferTo(long, long, WritableByteChannel)} so the
+     * operating system can copy the bytes from the page cache without passing them
+     * through the JVM heap.
+     * </p>
+     *
+     * @param hash     the content hash of the cover
+     * @param position the offset of the first byte to transfer
+     * @param count    the maximum number of bytes to transfer
+     * @param target   the channel to write to
+     * @return the number of bytes transferred
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     * @throws CoverStoreException    if the transfer failed
+     */
+    public long transferTo(final String hash, final long position, final long count,
+                           final WritableByteChannel target) {
+        requireExisting(hash);
+
+        try (FileChannel channel = FileChannel.open(resolve(hash), StandardOpenOption.READ)) {
+            final long end = Math.min(channel.size(), position + count);
+            long offset = position;
+
+            while (offset < end) {
+                final long transferred = channel.transferTo(offset, end - offset, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                offset += transferred;
+            }
+
+            return Math.max(0, offset - position);
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not transfer cover " + hash, e);
+        }
+    }
+
+    /**
+     * Reads the complete stored cover into a byte array.
+     *
+     * @param hash the content hash of the cover
+     * @return the cover image bytes
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     * @throws CoverStoreException    if the cover could not be read
+     */
+    public byte[] read(final String hash) {
+        requireExisting(hash);
+
+        try {
+            return Files.readAllBytes(resolve(hash));
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not read cover " + hash, e);
+        }
+    }
+
+    /**
+     * Maps the stored cover read-only into memory.
+     * <p>
+     * The returned {@link CoverImage} is backed by the page cache instead of the heap,
+     * so it can be serialized without the image bytes ever being copied onto the heap.
+     * </p>
+     *
+     * @param hash the content hash of the cover
+     * @return the memory-mapped cover image
+     * @throws CoverNotFoundException if no cover with the given hash is stored
+     * @throws CoverStoreException    if the cover could not be mapped
+     */
+    public CoverImage map(final String hash) {
+        requireExisting(hash);
+
+        try (FileChannel channel = FileChannel.open(resolve(hash), StandardOpenOption.READ)) {
+            return CoverImage.wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not map cover " + hash, e);
+        }
+    }
+
+    /**
+     * Deletes the stored cover with the given hash.
+     *
+     * @param hash the content hash of the cover
+     * @return {@code true} if a file was deleted, {@code false} if it did not exist
+     * @throws CoverStoreException if the file could not be deleted
+     */
+    public boolean delete(final String hash) {
+        if (!isValidHash(hash)) {
+            return false;
+        }
+
+        try {
+            return Files.deleteIfExists(resolve(hash));
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not delete cover " + hash, e);
+        }
+    }
+
+    /**
+     * Lists all covers in the store together with their last modification time.
+     *
+     * @return a map from content hash to last modification time of the cover file
+     * @throws CoverStoreException if the store directory could not be scanned
+     */
+    public Map<String, FileTime> listCovers() {
+        final Map<String, FileTime> covers = new ConcurrentHashMap<>();
+
+        if (!Files.isDirectory(root)) {
+            return covers;
+        }
+
+        try (Stream<Path> files = Files.walk(root, shardLevels + 1)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> isValidHash(file.getFileName().toString()))
+                    .forEach(file -> covers.put(file.getFileName().toString(), lastModified(file)));
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not scan cover store " + root, e);
+        }
+
+        return covers;
+    }
+
+    private FileTime lastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new CoverStoreException("Could not read modification time of " + file, e);
+        }
+    }
+
+    private void requireExisting(final String hash) {
+        if (!exists(hash)) {
+            throw new CoverNotFoundException("Cover not found: " + hash);
+        }
+    }
+
+    private Path resolve(final String hash) {
+        if (!isValidHash(hash)) {
+            throw new CoverNotFoundException("Invalid cover hash: " + hash);
+        }
+
+        Path directory = root;
+        for (int level = 0; level < shardLevels; level++) {
+            directory = directory.resolve(hash.substring(level * SHARD_WIDTH, (level + 1) * SHARD_WIDTH));
+        }
+
+        return directory.resolve(hash);
+    }
+}
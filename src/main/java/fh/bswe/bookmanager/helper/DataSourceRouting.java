@@ -0,0 +1,59 @@
+package fh.bswe.bookmanager.helper;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of the read/write routing of {@link ReadWriteRoutingDataSource}.
+ * <p>
+ * Read-only transactions normally go to the replica. Code that must see its own
+ * recent writes runs them inside {@link #onPrimary(Supplier)}, which sends all
+ * transactions started by the current thread to the primary.
+ * </p>
+ */
+public final class DataSourceRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Runs the given action with all transactions routed to the primary.
+     *
+     * @param action the action to run
+     * @param <T>    the type of the result
+     * @return the result of the action
+     */
+    public static <T> T onPrimary(final Supplier<T> action) {
+        final boolean previous = forcePrimary(true);
+        try {
+            return action.get();
+        } finally {
+            forcePrimary(previous);
+        }
+    }
+
+    /**
+     * Checks whether the current thread is forced to use the primary.
+     *
+     * @return {@code true} if read-only transactions must not use the replica
+     */
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+
+    /**
+     * Sets whether the current thread is forced to use the primary.
+     *
+     * @param forced {@code true} to force the primary
+     * @return the previous setting, to be restored afterwards
+     */
+    static boolean forcePrimary(final boolean forced) {
+        final boolean previous = PRIMARY_FORCED.get();
+        if (forced) {
+            PRIMARY_FORCED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_FORCED.remove();
+        }
+        return previous;
+    }
+}
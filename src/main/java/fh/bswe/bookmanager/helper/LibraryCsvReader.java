@@ -0,0 +1,178 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.dto.LibraryImportRowDto;
+import fh.bswe.bookmanager.exception.InvalidImportFileException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the rows of an uploaded library file in CSV format (RFC 4180) one at a time.
+ * <p>
+ * The first line is the header. The ISBN is taken from the column {@code isbn13}, falling back to
+ * {@code isbn} if {@code isbn13} holds no digits; the rating from {@code rating} or
+ * {@code my rating} and the comment from {@code comment} or {@code my review}. Other columns are
+ * ignored, so both the library export and the exports of common reading trackers can be read. Only the current row is kept in memory,
+ * and rows longer than {@value #MAX_RECORD_LENGTH} characters are rejected, so a file of any size
+ * is read with the same memory.
+ * </p>
+ */
+public class LibraryCsvReader implements Closeable {
+    /**
+     * Maximum number of characters of a row, including quoted line breaks.
+     */
+    public static final int MAX_RECORD_LENGTH = 65_536;
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final List<String> ISBN_COLUMNS = List.of("isbn13", "isbn");
+    private static final List<String> RATING_COLUMNS = List.of("rating", "my rating");
+    private static final List<String> COMMENT_COLUMNS = List.of("comment", "my review");
+
+    private final BufferedReader reader;
+    private final List<Integer> isbnColumns = new ArrayList<>();
+    private final int ratingColumn;
+    private final int commentColumn;
+    private long line = 1;
+    private long recordLine;
+
+    /**
+     * Constructs a new {@code LibraryCsvReader} and reads the header of the file.
+     *
+     * @param inputStream the UTF-8 encoded file, closed with this reader
+     * @throws IOException                 if the file cannot be read
+     * @throws InvalidImportFileException  if the file is empty or has no ISBN column
+     */
+    public LibraryCsvReader(final InputStream inputStream) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        final List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidImportFileException("The file is empty");
+        }
+        final List<String> names = header.stream()
+                .map(name -> name.replace(String.valueOf(BYTE_ORDER_MARK), "").trim().toLowerCase(Locale.ROOT))
+                .toList();
+        for (final String column : ISBN_COLUMNS) {
+            if (names.contains(column)) {
+                isbnColumns.add(names.indexOf(column));
+            }
+        }
+        if (isbnColumns.isEmpty()) {
+            throw new InvalidImportFileException("The header has no isbn column");
+        }
+        this.ratingColumn = indexOf(names, RATING_COLUMNS);
+        this.commentColumn = indexOf(names, COMMENT_COLUMNS);
+    }
+
+    /**
+     * Reads the next row, skipping blank lines.
+     *
+     * @return the next row, or {@code null} at the end of the file
+     * @throws IOException                if the file cannot be read
+     * @throws InvalidImportFileException if the row is too long or a quote is not closed
+     */
+    public LibraryImportRowDto next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isBlank());
+
+        String isbn = null;
+        for (final int column : isbnColumns) {
+            isbn = field(fields, column);
+            if (isbn != null && isbn.chars().anyMatch(Character::isDigit)) {
+                break;
+            }
+        }
+        return new LibraryImportRowDto(recordLine, isbn, field(fields, ratingColumn), field(fields, commentColumn));
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRecord() throws IOException {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        int length = 0;
+        recordLine = line;
+
+        int c = reader.read();
+        while (c != -1) {
+            empty = false;
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new InvalidImportFileException("The row in line %d is longer than %d characters"
+                        .formatted(recordLine, MAX_RECORD_LENGTH));
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    final int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+
+        if (empty) {
+            return null;
+        }
+        if (quoted) {
+            throw new InvalidImportFileException("The quote opened in line %d is not closed".formatted(recordLine));
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int indexOf(final List<String> names, final List<String> columns) {
+        for (final String column : columns) {
+            if (names.contains(column)) {
+                return names.indexOf(column);
+            }
+        }
+        return -1;
+    }
+
+    private static String field(final List<String> fields, final int column) {
+        return column < 0 || column >= fields.size() ? null : fields.get(column);
+    }
+}
@@ -0,0 +1,70 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.dto.UserBookSort;
+import fh.bswe.bookmanager.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a user's library after which the next page starts.
+ * <p>
+ * A cursor holds the sort key and the ID of the last entry of a page, so the next page
+ * is found by seeking past that key instead of skipping rows with {@code OFFSET}.
+ * It is handed to clients as an opaque URL-safe token.
+ * </p>
+ *
+ * @param sort       the sort order the cursor was created for
+ * @param descending whether the cursor was created for descending order
+ * @param id         the ID of the last entry of the previous page
+ * @param key        the sort key of the last entry, empty for {@link UserBookSort#ADDED}, or {@code null}
+ *                   if the last entry has no value for the sort key
+ */
+public record LibraryCursor(UserBookSort sort, boolean descending, long id, String key) {
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes this cursor as an opaque token.
+     *
+     * @return the URL-safe token
+     */
+    public String encode() {
+        final String value = sort.name() + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + id
+                + (key == null ? "" : SEPARATOR + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()} and checks that it belongs to the given sort order.
+     *
+     * @param token      the token passed by the client
+     * @param sort       the requested sort order
+     * @param descending whether descending order is requested
+     * @return the decoded cursor
+     * @throws InvalidCursorException if the token is malformed or was created for another sort order
+     */
+    public static LibraryCursor decode(final String token, final UserBookSort sort, final boolean descending) {
+        final String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("The cursor is malformed.");
+        }
+
+        if (parts.length < 3 || !sort.name().equals(parts[0])
+                || !(descending ? "desc" : "asc").equals(parts[1])) {
+            throw new InvalidCursorException("The cursor does not match the requested sort order.");
+        }
+
+        try {
+            final long id = Long.parseLong(parts[2]);
+            final String key = parts.length == 4 ? parts[3] : null;
+            if (key != null && sort != UserBookSort.ADDED && sort.isNumeric()) {
+                Integer.parseInt(key);
+            }
+            return new LibraryCursor(sort, descending, id, key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("The cursor is malformed.");
+        }
+    }
+}
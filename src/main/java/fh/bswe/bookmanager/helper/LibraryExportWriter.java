@@ -0,0 +1,137 @@
+package fh.bswe.bookmanager.helper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import fh.bswe.bookmanager.dto.LibraryExportFormat;
+import fh.bswe.bookmanager.dto.UserBookDto;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the entries of a library to an output stream in one of the {@link LibraryExportFormat}s.
+ * <p>
+ * Every entry is written as soon as it is passed in, and nothing is kept after it, so an export
+ * needs the same memory for any number of entries. The output is buffered and pushed to the
+ * stream every {@code flushInterval} entries and by {@link #flush()}. The stream is not closed.
+ * </p>
+ */
+public class LibraryExportWriter implements Flushable {
+    private static final String CSV_HEADER = "isbn,title,author,rating,comment";
+    private static final String CSV_LINE_END = "\r\n";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Writer writer;
+    private final int flushInterval;
+    private final JsonGenerator json;
+    private long written;
+
+    /**
+     * Constructs a new {@code LibraryExportWriter} and writes the header of the format, if any.
+     *
+     * @param outputStream  the stream to write to
+     * @param format        the format of the export
+     * @param flushInterval the number of entries after which the output is flushed
+     * @throws IOException if the header cannot be written
+     */
+    public LibraryExportWriter(final OutputStream outputStream, final LibraryExportFormat format,
+                               final int flushInterval) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.flushInterval = flushInterval;
+        if (format == LibraryExportFormat.NDJSON) {
+            this.json = JSON_FACTORY.createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writer.write(CSV_HEADER);
+            writer.write(CSV_LINE_END);
+        }
+    }
+
+    /**
+     * Writes one entry, and flushes the output if the flush interval is reached.
+     *
+     * @param entry the entry to write
+     * @throws IOException if the entry cannot be written
+     */
+    public void write(final UserBookDto entry) throws IOException {
+        if (json == null) {
+            writeCsv(entry);
+        } else {
+            writeJson(entry);
+        }
+
+        if (++written % flushInterval == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the number of entries written so far.
+     *
+     * @return the number of entries
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Pushes all buffered output to the stream.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(final UserBookDto entry) throws IOException {
+        writer.write(csvField(entry.getIsbn()));
+        writer.write(',');
+        writer.write(csvField(entry.getTitle()));
+        writer.write(',');
+        writer.write(csvField(entry.getAuthor()));
+        writer.write(',');
+        writer.write(entry.getRating() == null ? "" : entry.getRating().toString());
+        writer.write(',');
+        writer.write(csvField(entry.getComment()));
+        writer.write(CSV_LINE_END);
+    }
+
+    private void writeJson(final UserBookDto entry) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("isbn", entry.getIsbn());
+        json.writeStringField("title", entry.getTitle());
+        json.writeStringField("author", entry.getAuthor());
+        if (entry.getRating() == null) {
+            json.writeNullField("rating");
+        } else {
+            json.writeNumberField("rating", entry.getRating());
+        }
+        json.writeStringField("comment", entry.getComment());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, quote or line break, doubling its quotes.
+     */
+    private static String csvField(final String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,261 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.dto.LibraryImportErrorDto;
+import fh.bswe.bookmanager.dto.LibraryImportJobDto;
+import fh.bswe.bookmanager.dto.LibraryImportStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progress of one library import, updated by the thread running it and read by the requests
+ * polling it.
+ * <p>
+ * Only the first {@code maxErrors} failed rows are kept with their reason; further failures are
+ * only counted. An import finishes once: after it completed, failed or was cancelled, later
+ * changes of its state are ignored.
+ * </p>
+ */
+public class LibraryImportJob {
+    private final UUID id;
+    private final String username;
+    private final int maxErrors;
+    private final Instant createdAt = Instant.now();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final List<LibraryImportErrorDto> errors = new ArrayList<>();
+    private LibraryImportStatus status = LibraryImportStatus.QUEUED;
+    private String message;
+    private Instant finishedAt;
+    private Future<?> task;
+
+    /**
+     * Constructs a new queued {@code LibraryImportJob} with a random ID.
+     *
+     * @param username  the username of the user whose library is imported into
+     * @param maxErrors the number of failed rows kept with their reason
+     */
+    public LibraryImportJob(final String username, final int maxErrors) {
+        this.id = UUID.randomUUID();
+        this.username = username;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Returns the ID of the import.
+     *
+     * @return the ID
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Returns the username of the user whose library is imported into.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Marks the import as running, unless it was cancelled while it was queued.
+     *
+     * @return {@code true} if the import should run
+     */
+    public boolean start() {
+        lock.lock();
+        try {
+            if (finishedAt != null) {
+                return false;
+            }
+            status = LibraryImportStatus.RUNNING;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts a row read from the file.
+     */
+    public void rowRead() {
+        rowsRead.increment();
+    }
+
+    /**
+     * Counts rows added to the library.
+     *
+     * @param count the number of rows
+     */
+    public void imported(final long count) {
+        imported.add(count);
+    }
+
+    /**
+     * Counts rows skipped because their book already is in the library.
+     *
+     * @param count the number of rows
+     */
+    public void skipped(final long count) {
+        skipped.add(count);
+    }
+
+    /**
+     * Counts a row that could not be imported and keeps the reason, unless enough reasons are kept.
+     *
+     * @param line    the line of the file the row starts on
+     * @param isbn    the ISBN of the row as given in the file
+     * @param message the reason the row was not imported
+     */
+    public void failed(final long line, final String isbn, final String message) {
+        failed.increment();
+        lock.lock();
+        try {
+            if (errors.size() < maxErrors) {
+                errors.add(new LibraryImportErrorDto(line, isbn, message));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the import as finished after the whole file was read.
+     */
+    public void complete() {
+        lock.lock();
+        try {
+            if (finishedAt == null) {
+                status = LibraryImportStatus.COMPLETED;
+                finishedAt = Instant.now();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the import as stopped before the end of the file.
+     *
+     * @param reason the reason the import stopped
+     */
+    public void abort(final String reason) {
+        lock.lock();
+        try {
+            if (finishedAt == null) {
+                status = LibraryImportStatus.FAILED;
+                message = reason;
+                finishedAt = Instant.now();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the task running the import, so the import can be cancelled.
+     *
+     * @param task the task running the import
+     */
+    public void setTask(final Future<?> task) {
+        lock.lock();
+        try {
+            this.task = task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the import as failed and interrupts its task if it is running.
+     * <p>
+     * A queued import is not removed from the queue; its task ends right away once it is run.
+     * </p>
+     *
+     * @param reason the reason the import is cancelled
+     */
+    public void cancel(final String reason) {
+        lock.lock();
+        try {
+            final boolean running = status == LibraryImportStatus.RUNNING;
+            abort(reason);
+            if (running && task != null) {
+                task.cancel(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the import completed, failed or was cancelled.
+     *
+     * @return {@code true} if the import finished
+     */
+    public boolean isFinished() {
+        lock.lock();
+        try {
+            return finishedAt != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the import is still unfinished longer than the given time after it was accepted.
+     *
+     * @param now         the current time
+     * @param maxDuration the time an import may take from upload to end, including the time queued
+     * @return {@code true} if the import should be cancelled
+     */
+    public boolean isOverdue(final Instant now, final Duration maxDuration) {
+        lock.lock();
+        try {
+            return finishedAt == null && createdAt.plus(maxDuration).isBefore(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the import finished longer than the given time ago.
+     *
+     * @param now       the current time
+     * @param retention the time a finished import is kept
+     * @return {@code true} if the import can be forgotten
+     */
+    public boolean isExpired(final Instant now, final Duration retention) {
+        lock.lock();
+        try {
+            return finishedAt != null && finishedAt.plus(retention).isBefore(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the progress.
+     *
+     * @return the progress as {@link LibraryImportJobDto}
+     */
+    public LibraryImportJobDto toDto() {
+        lock.lock();
+        try {
+            return new LibraryImportJobDto(id, username, status, rowsRead.sum(), imported.sum(), skipped.sum(),
+                    failed.sum(), List.copyOf(errors), message, createdAt, finishedAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import fh.bswe.bookmanager.dto.BookDto;
 import fh.bswe.bookmanager.dto.UserAccountDto;
 import fh.bswe.bookmanager.dto.UserBookDto;
 import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
 import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.entity.UserBook;
 
@@ -19,6 +20,9 @@ public class Mapper {
 
     /**
      * Maps a {@link Book} entity to a {@link BookDto}.
+     * <p>
+     * The cover image is not included; it is served separately by the cover endpoint.
+     * </p>
      *
      * @param book the Book entity to map
      * @return the mapped BookDto
@@ -32,12 +36,27 @@ public class Mapper {
         bookDto.setLanguage(book.getLanguage());
         bookDto.setPublishDate(book.getPublishDate());
         bookDto.setPublishers(book.getPublishers());
-        bookDto.setCoverImage(book.getCoverImage());
         bookDto.setCoverKey(book.getCoverKey());
         bookDto.setCoverLink(book.getCoverLink());
         return bookDto;
     }
 
+    /**
+     * Maps a {@link Book} entity to a {@link BookDto} including the given cover image.
+     * <p>
+     * Used when a client explicitly asks for the cover to be inlined into the response.
+     * </p>
+     *
+     * @param book       the Book entity to map
+     * @param coverImage the cover image of the book, shared without copying
+     * @return the mapped BookDto
+     */
+    public static BookDto mapToDto(final Book book, final CoverImage coverImage) {
+        final BookDto bookDto = mapToDto(book);
+        bookDto.setCoverImage(coverImage);
+        return bookDto;
+    }
+
     /**
      * Maps a {@link UserBook} entity to a {@link UserBookDto}.
      * <p>
@@ -0,0 +1,127 @@
+package fh.bswe.bookmanager.helper;
+
+import java.time.Duration;
+
+/**
+ * Per-thread statistics of the database work of a unit of work, e.g. an HTTP request.
+ * <p>
+ * A measurement is opened with {@link #start()} and closed with {@link #close()}. While it is open,
+ * {@link QueryStatisticsSessionListener} and {@link QueryStatisticsFactory} add the JDBC statements,
+ * the fetched rows and the time spent in JDBC of all Hibernate sessions of the thread. Measurements
+ * can be nested; a closed measurement is added to the one it was started in. Work outside a
+ * measurement, e.g. of scheduled jobs, is not recorded.
+ * </p>
+ */
+public final class QueryStatistics implements AutoCloseable {
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final QueryStatistics parent;
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private boolean closed;
+
+    private QueryStatistics(final QueryStatistics parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a new measurement on the current thread.
+     *
+     * @return the new measurement, to be closed by the same thread
+     */
+    public static QueryStatistics start() {
+        final QueryStatistics statistics = new QueryStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Records an executed JDBC statement or batch with the time it took.
+     *
+     * @param nanos the execution time in nanoseconds
+     */
+    public static void recordStatement(final long nanos) {
+        final QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.jdbcNanos += nanos;
+        }
+    }
+
+    /**
+     * Records time spent in JDBC without executing a statement, e.g. preparing one.
+     *
+     * @param nanos the time in nanoseconds
+     */
+    public static void recordJdbcTime(final long nanos) {
+        final QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.jdbcNanos += nanos;
+        }
+    }
+
+    /**
+     * Records fetched rows.
+     *
+     * @param count the number of rows
+     */
+    public static void recordRows(final long count) {
+        final QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.rows += count;
+        }
+    }
+
+    /**
+     * Returns the number of executed JDBC statements and batches.
+     *
+     * @return the number of statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns the number of fetched rows: the rows returned by queries and the entities and
+     * collections fetched with statements of their own, e.g. lazy associations.
+     *
+     * @return the number of rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the time spent preparing and executing JDBC statements.
+     *
+     * @return the JDBC time
+     */
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    /**
+     * Closes this measurement and adds it to the measurement it was started in.
+     *
+     * @throws IllegalStateException if another measurement started later is still open
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("A nested query statistics measurement is still open");
+        }
+        closed = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            parent.statements += statements;
+            parent.rows += rows;
+            parent.jdbcNanos += jdbcNanos;
+            CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fh.bswe.bookmanager.helper;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Builds the Hibernate statistics of the session factory, which additionally add the fetched rows
+ * to the {@link QueryStatistics} of the current thread.
+ * <p>
+ * The statistics Hibernate builds by default are wrapped behind the {@link StatisticsImplementor}
+ * SPI: every call is passed on unchanged, so the factory-wide statistics stay the same for the
+ * Hibernate metrics, and only the notifications of fetched rows are read on the way. The rows
+ * returned by queries are counted, as well as every entity and collection fetched with a statement
+ * of its own, so lazy loading in a loop shows up as one row per statement.
+ * </p>
+ */
+public class QueryStatisticsFactory implements StatisticsFactory {
+
+    /**
+     * Builds the statistics of the given session factory.
+     *
+     * @param sessionFactory the session factory
+     * @return the statistics
+     */
+    @Override
+    public StatisticsImplementor buildStatistics(final SessionFactoryImplementor sessionFactory) {
+        return wrap(new StatisticsImpl(sessionFactory));
+    }
+
+    /**
+     * Wraps statistics so that the rows they are notified of are added to the current thread.
+     *
+     * @param statistics the statistics to pass all calls on to
+     * @return the wrapping statistics
+     */
+    public static StatisticsImplementor wrap(final StatisticsImplementor statistics) {
+        return (StatisticsImplementor) Proxy.newProxyInstance(StatisticsImplementor.class.getClassLoader(),
+                new Class<?>[] {StatisticsImplementor.class}, new RowCountingHandler(statistics));
+    }
+
+    /**
+     * Passes every call on to the wrapped statistics and records the rows of the fetch notifications.
+     */
+    private static final class RowCountingHandler implements InvocationHandler {
+        private final StatisticsImplementor delegate;
+
+        private RowCountingHandler(final StatisticsImplementor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final Object result;
+            try {
+                result = method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            switch (method.getName()) {
+                case "queryExecuted" -> QueryStatistics.recordRows((Integer) args[1]);
+                case "fetchEntity", "fetchCollection" -> QueryStatistics.recordRows(1);
+                default -> {
+                    // every other call only reaches the wrapped statistics
+                }
+            }
+            return result;
+        }
+    }
+}
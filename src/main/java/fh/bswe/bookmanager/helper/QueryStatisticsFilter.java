@@ -0,0 +1,95 @@
+package fh.bswe.bookmanager.helper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Servlet filter measuring the database work of every request with {@link QueryStatistics}.
+ * <p>
+ * The number of statements, the fetched rows and the time spent in JDBC are recorded per request
+ * as the metrics {@code hibernate.request.statements}, {@code hibernate.request.rows} and
+ * {@code hibernate.request.jdbc}, tagged with the method and URI pattern. Requests executing more
+ * statements or spending more time in JDBC than configured are logged as warnings, so N+1 queries
+ * are noticed before they become slow.
+ * </p>
+ */
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final int maxStatements;
+    private final Duration maxJdbcTime;
+
+    /**
+     * Constructs a new {@code QueryStatisticsFilter}.
+     *
+     * @param registry      the registry of the metrics
+     * @param maxStatements the number of statements above which a request is logged
+     * @param maxJdbcTime   the JDBC time above which a request is logged
+     */
+    public QueryStatisticsFilter(final MeterRegistry registry, final int maxStatements, final Duration maxJdbcTime) {
+        this.registry = registry;
+        this.maxStatements = maxStatements;
+        this.maxJdbcTime = maxJdbcTime;
+    }
+
+    /**
+     * Measures the database work of the request and records it.
+     *
+     * @param request     the current request
+     * @param response    the current response
+     * @param filterChain the remaining filter chain
+     * @throws ServletException if the chain fails
+     * @throws IOException      if the chain fails
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final QueryStatistics statistics = QueryStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statistics.close();
+            record(request, statistics);
+        }
+    }
+
+    private void record(final HttpServletRequest request, final QueryStatistics statistics) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        final Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("hibernate.request.statements")
+                .description("JDBC statements executed per request")
+                .tags(tags)
+                .register(registry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("hibernate.request.rows")
+                .description("Rows fetched per request")
+                .tags(tags)
+                .register(registry)
+                .record(statistics.getRows());
+        Timer.builder("hibernate.request.jdbc")
+                .description("Time spent in JDBC per request")
+                .tags(tags)
+                .register(registry)
+                .record(statistics.getJdbcTime());
+
+        if (statistics.getStatements() > maxStatements || statistics.getJdbcTime().compareTo(maxJdbcTime) > 0) {
+            logger.warn("%s %s executed %d statements fetching %d rows in %d ms of JDBC time".formatted(
+                    request.getMethod(), request.getRequestURI(), statistics.getStatements(), statistics.getRows(),
+                    statistics.getJdbcTime().toMillis()));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package fh.bswe.bookmanager.helper;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener adding the JDBC statements of a session and their time to the
+ * {@link QueryStatistics} of the current thread.
+ * <p>
+ * Hibernate creates one instance per session, which is used by one thread at a time.
+ * </p>
+ */
+public class QueryStatisticsSessionListener implements SessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private long prepareStart;
+    private long executeStart;
+    private long batchStart;
+
+    /**
+     * Marks the start of preparing a statement.
+     */
+    @Override
+    public void jdbcPrepareStatementStart() {
+        prepareStart = System.nanoTime();
+    }
+
+    /**
+     * Records the time spent preparing a statement.
+     */
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        QueryStatistics.recordJdbcTime(System.nanoTime() - prepareStart);
+    }
+
+    /**
+     * Marks the start of executing a statement.
+     */
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    /**
+     * Records an executed statement with its time.
+     */
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStatistics.recordStatement(System.nanoTime() - executeStart);
+    }
+
+    /**
+     * Marks the start of executing a batch.
+     */
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    /**
+     * Records an executed batch as one statement with its time.
+     */
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStatistics.recordStatement(System.nanoTime() - batchStart);
+    }
+}
@@ -0,0 +1,86 @@
+package fh.bswe.bookmanager.helper;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Data source sending read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * A connection goes to the replica only if it is requested by a read-only transaction,
+ * the current thread is not forced to the primary by {@link DataSourceRouting} and the
+ * {@link ReplicaLagMonitor} reports the replica as usable. The routing data source must be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * so the connection is fetched after the read-only flag of the transaction is known.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * The target data sources of the routing.
+     */
+    public enum Target {
+        /**
+         * The primary database receiving all writes.
+         */
+        PRIMARY,
+        /**
+         * The read replica receiving read-only transactions.
+         */
+        REPLICA
+    }
+
+    /**
+     * Constructs a new {@code ReadWriteRoutingDataSource}.
+     *
+     * @param lagMonitor the monitor deciding whether the replica is current enough
+     */
+    public ReadWriteRoutingDataSource(final ReplicaLagMonitor lagMonitor) {
+        super();
+        this.lagMonitor = lagMonitor;
+    }
+
+    /**
+     * Creates an initialized routing data source for the given primary and replica.
+     *
+     * @param primary    the primary data source
+     * @param replica    the replica data source
+     * @param lagMonitor the monitor deciding whether the replica is current enough
+     * @return the routing data source
+     */
+    public static ReadWriteRoutingDataSource of(final DataSource primary, final DataSource replica,
+                                                final ReplicaLagMonitor lagMonitor) {
+        final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(lagMonitor);
+        routing.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * Determines the target for the connection requested by the current thread.
+     *
+     * @return the routing target
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    /**
+     * Determines the target a connection requested by the current thread would be routed to.
+     *
+     * @return the routing target
+     */
+    public Target currentTarget() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !DataSourceRouting.isPrimaryForced()
+                && lagMonitor.isUsable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
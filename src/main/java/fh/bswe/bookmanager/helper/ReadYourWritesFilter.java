@@ -0,0 +1,90 @@
+package fh.bswe.bookmanager.helper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Servlet filter giving clients read-your-writes consistency with a lagging replica.
+ * <p>
+ * Every modifying request sets a short-lived cookie that expires after the tolerated
+ * replica lag. While a client sends this cookie, its requests are routed to the primary
+ * by {@link DataSourceRouting}, so it sees its own writes even before the replica has
+ * caught up. Clients that did not write recently keep reading from the replica.
+ * </p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    /**
+     * Name of the cookie marking clients that wrote recently.
+     */
+    public static final String COOKIE = "bookmanager-recent-write";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final int maxAgeSeconds;
+
+    /**
+     * Constructs a new {@code ReadYourWritesFilter}.
+     *
+     * @param maxLag the tolerated replica lag, used as lifetime of the cookie
+     */
+    public ReadYourWritesFilter(final Duration maxLag) {
+        this.maxAgeSeconds = (int) Math.max(1, (maxLag.toMillis() + 999) / 1000);
+    }
+
+    /**
+     * Marks writing clients and routes clients that wrote recently to the primary.
+     *
+     * @param request     the current request
+     * @param response    the current response
+     * @param filterChain the remaining filter chain
+     * @throws ServletException if the chain fails
+     * @throws IOException      if the chain fails
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final boolean writes = !SAFE_METHODS.contains(request.getMethod());
+
+        if (writes) {
+            final Cookie cookie = new Cookie(COOKIE, "1");
+            cookie.setMaxAge(maxAgeSeconds);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+
+        if (!writes && !hasRecentWrite(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final boolean previous = DataSourceRouting.forcePrimary(true);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.forcePrimary(previous);
+        }
+    }
+
+    private static boolean hasRecentWrite(final HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+
+        for (final Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package fh.bswe.bookmanager.helper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Periodically measures how far the read replica lags behind the primary.
+ * <p>
+ * The lag is read with a configurable query returning seconds, e.g. on PostgreSQL
+ * {@code select extract(epoch from now() - pg_last_xact_replay_timestamp())}. While the
+ * lag exceeds the tolerance, or the replica cannot be queried, the replica is reported
+ * as unusable and reads fall back to the primary. Without a query the replica is
+ * assumed to be up to date. The last measured lag is exported as a Micrometer gauge.
+ * </p>
+ */
+public class ReplicaLagMonitor implements MeterBinder {
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicReference<Duration> lag = new AtomicReference<>(Duration.ZERO);
+    private final AtomicBoolean available = new AtomicBoolean(true);
+
+    /**
+     * Constructs a new {@code ReplicaLagMonitor}.
+     *
+     * @param replica  the replica data source
+     * @param lagQuery the query returning the lag in seconds, or {@code null} to not measure it
+     * @param maxLag   the tolerated lag
+     */
+    public ReplicaLagMonitor(final DataSource replica, final String lagQuery, final Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Measures the current replica lag.
+     */
+    @Scheduled(initialDelayString = "${datasource.replica.lag-check-interval:PT5S}",
+            fixedDelayString = "${datasource.replica.lag-check-interval:PT5S}")
+    public void refresh() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return;
+        }
+
+        try {
+            final Number seconds = replica.queryForObject(lagQuery, Number.class);
+            lag.set(seconds == null ? Duration.ZERO
+                    : Duration.ofMillis(Math.round(seconds.doubleValue() * MILLIS_PER_SECOND)));
+            if (!available.getAndSet(true)) {
+                logger.info("Replica is reachable again");
+            }
+        } catch (DataAccessException e) {
+            if (available.getAndSet(false)) {
+                logger.warn("Replica lag could not be measured, reading from the primary", e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether reads may be sent to the replica.
+     *
+     * @return {@code true} if the replica is reachable and its lag is within the tolerance
+     */
+    public boolean isUsable() {
+        return available.get() && lag.get().compareTo(maxLag) <= 0;
+    }
+
+    /**
+     * Returns the last measured replica lag.
+     *
+     * @return the replica lag
+     */
+    public Duration getLag() {
+        return lag.get();
+    }
+
+    /**
+     * Registers the replica lag gauge.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.getLag().toMillis() / MILLIS_PER_SECOND)
+                .baseUnit("seconds")
+                .description("Last measured lag of the read replica")
+                .register(registry);
+    }
+}
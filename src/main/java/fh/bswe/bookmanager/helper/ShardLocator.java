@@ -0,0 +1,83 @@
+package fh.bswe.bookmanager.helper;
+
+import fh.bswe.bookmanager.config.ShardingConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps user accounts to the shard holding their library entries.
+ * <p>
+ * The shard is derived from the ID of the user account with jump consistent hashing, so it needs
+ * no lookup table, and adding a shard moves only the users mapped to the new shard, about one in
+ * {@code n} of all users. Without configured shards, every user is mapped to the reference shard.
+ * </p>
+ */
+@Component
+public class ShardLocator {
+    private static final long JUMP_MULTIPLIER = 2_862_933_555_777_941_757L;
+    private static final double JUMP_SCALE = 1L << 31;
+
+    private final int shardCount;
+
+    /**
+     * Constructs a new {@code ShardLocator} for the reference shard and the configured shards.
+     *
+     * @param config the sharding configuration
+     */
+    public ShardLocator(final ShardingConfig config) {
+        this.shardCount = 1 + config.getShards().size();
+    }
+
+    /**
+     * Returns the number of shards, including the reference shard.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Checks whether library entries are distributed over more than one shard.
+     *
+     * @return {@code true} if at least one shard is configured besides the reference shard
+     */
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Returns the shard holding the library entries of the given user account.
+     *
+     * @param userAccountId the ID of the user account
+     * @return the index of the shard
+     */
+    public int shardOf(final Integer userAccountId) {
+        if (!isSharded()) {
+            return ShardRouting.REFERENCE_SHARD;
+        }
+        return jumpHash(userAccountId, shardCount);
+    }
+
+    /**
+     * Maps a key to one of the given number of buckets with the jump consistent hash of Lamping and Veach.
+     * <p>
+     * Growing the number of buckets from {@code n} to {@code n + 1} moves a key only to the new bucket,
+     * and only with a probability of {@code 1 / (n + 1)}.
+     * </p>
+     *
+     * @param key     the key to map
+     * @param buckets the number of buckets, at least {@code 1}
+     * @return the bucket of the key, between {@code 0} and {@code buckets - 1}
+     */
+    public static int jumpHash(final long key, final int buckets) {
+        long state = key;
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            state = state * JUMP_MULTIPLIER + 1;
+            next = (long) ((bucket + 1) * (JUMP_SCALE / ((state >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
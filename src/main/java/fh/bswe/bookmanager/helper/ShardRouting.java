@@ -0,0 +1,66 @@
+package fh.bswe.bookmanager.helper;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread selection of the shard used by {@link ShardRoutingDataSource}.
+ * <p>
+ * Without a selection, connections go to shard {@value #REFERENCE_SHARD}, the reference store
+ * of the catalog and the user accounts. Library entries are read and written inside
+ * {@link #onShard(int, Supplier)} with the shard of their user. A transaction is bound to the
+ * shard it started on, so the shard must not change while a transaction is active.
+ * </p>
+ */
+public final class ShardRouting {
+    /**
+     * The shard holding the catalog and the user accounts, and the entries of the users mapped to it.
+     */
+    public static final int REFERENCE_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = ThreadLocal.withInitial(() -> REFERENCE_SHARD);
+
+    private ShardRouting() {
+    }
+
+    /**
+     * Runs the given action with all transactions routed to the given shard.
+     *
+     * @param shard  the shard to use
+     * @param action the action to run
+     * @param <T>    the type of the result
+     * @return the result of the action
+     * @throws IllegalStateException if a transaction on another shard is active
+     */
+    public static <T> T onShard(final int shard, final Supplier<T> action) {
+        final int previous = currentShard();
+        if (shard != previous && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                    "Cannot switch from shard %d to shard %d within a transaction".formatted(previous, shard));
+        }
+        select(shard);
+        try {
+            return action.get();
+        } finally {
+            select(previous);
+        }
+    }
+
+    /**
+     * Returns the shard selected by the current thread.
+     *
+     * @return the current shard, {@value #REFERENCE_SHARD} if none was selected
+     */
+    public static int currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    private static void select(final int shard) {
+        if (shard == REFERENCE_SHARD) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+}
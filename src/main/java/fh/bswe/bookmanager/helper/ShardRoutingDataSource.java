@@ -0,0 +1,63 @@
+package fh.bswe.bookmanager.helper;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data source sending every connection to the shard selected by {@link ShardRouting}.
+ * <p>
+ * The shards are addressed by their index in the list passed to {@link #of(List)};
+ * shard {@value ShardRouting#REFERENCE_SHARD} is also the default target. Closing the routing
+ * data source closes the pools of all other shards; the reference pool is managed by its owner.
+ * </p>
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * Creates an initialized routing data source for the given shards.
+     *
+     * @param shards the data sources of the shards, the reference store first
+     * @return the routing data source
+     */
+    public static ShardRoutingDataSource of(final List<DataSource> shards) {
+        final Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        final ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(ShardRouting.REFERENCE_SHARD));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * Determines the shard for the connection requested by the current thread.
+     *
+     * @return the index of the current shard
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouting.currentShard();
+    }
+
+    /**
+     * Closes the connection pools of all shards except the reference shard.
+     *
+     * @throws Exception if a pool cannot be closed
+     */
+    @Override
+    public void close() throws Exception {
+        for (final Map.Entry<Object, DataSource> shard : getResolvedDataSources().entrySet()) {
+            if (!shard.getKey().equals(ShardRouting.REFERENCE_SHARD)
+                    && shard.getValue() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
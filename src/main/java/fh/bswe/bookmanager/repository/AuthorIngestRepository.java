@@ -0,0 +1,20 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Author;
+
+/**
+ * Repository fragment for inserting authors without creating duplicates.
+ */
+public interface AuthorIngestRepository {
+
+    /**
+     * Inserts the author in a single statement unless an author with the same key exists.
+     * <p>
+     * Concurrent inserts of the same author key do not fail; exactly one of them inserts.
+     * </p>
+     *
+     * @param author the author to insert
+     * @return {@code 1} if the author was inserted, {@code 0} if the key was already present
+     */
+    int insertIfAbsent(Author author);
+}
@@ -0,0 +1,50 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Author;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of {@link AuthorIngestRepository} with one native statement per database,
+ * following {@link BookIngestRepositoryImpl}.
+ */
+public class AuthorIngestRepositoryImpl implements AuthorIngestRepository {
+    private static final String H2_INSERT = """
+            merge into author a
+            using (select cast(:authorKey as varchar(20)) as author_key) s on a.author_key = s.author_key
+            when not matched then
+                insert (author_key, name) values (:authorKey, :name)
+            """;
+
+    private static final String POSTGRESQL_INSERT = """
+            insert into author (author_key, name) values (:authorKey, :name)
+            on conflict (author_key) do nothing
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int insertIfAbsent(final Author author) {
+        final Query query = entityManager.createNativeQuery(isPostgreSql() ? POSTGRESQL_INSERT : H2_INSERT);
+        query.setParameter("authorKey", author.getAuthorKey());
+        query.setParameter("name", author.getName());
+        // an insert cannot make cached entries stale, so no cache region is invalidated
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        return query.executeUpdate();
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
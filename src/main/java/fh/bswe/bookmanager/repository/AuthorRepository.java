@@ -0,0 +1,24 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Author;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing {@link Author} entities.
+ * <p>
+ * Extends {@link CrudRepository} to provide standard CRUD operations and
+ * {@link AuthorIngestRepository} for inserting authors without duplicates.
+ * </p>
+ */
+public interface AuthorRepository extends CrudRepository<Author, String>, AuthorIngestRepository {
+    /**
+     * Finds all authors with one of the given keys in a single query.
+     *
+     * @param authorKeys the OpenLibrary author keys to search for
+     * @return the known authors, in no particular order
+     */
+    List<Author> findByAuthorKeyIn(Collection<String> authorKeys);
+}
@@ -0,0 +1,40 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Author;
+import fh.bswe.bookmanager.entity.Book;
+
+import java.util.List;
+
+/**
+ * Repository fragment for ingesting books fetched from OpenLibrary.
+ * <p>
+ * The check for an existing ISBN and the insert are a single atomic statement, so
+ * concurrent ingestion of the same ISBN never creates duplicate rows.
+ * </p>
+ */
+public interface BookIngestRepository {
+
+    /**
+     * Inserts a book unless a book with the same ISBN already exists.
+     * <p>
+     * The cover is only stored by hash. The ID is drawn from the book sequence;
+     * every inserted row reserves a whole pooled block.
+     * </p>
+     *
+     * @param book the book to insert
+     * @return {@code 1} if the book was inserted, {@code 0} if the ISBN already existed
+     */
+    int insertIfAbsent(Book book);
+
+    /**
+     * Links the book with the given ISBN to its authors, in the given order.
+     * <p>
+     * Only called for a book that was just inserted, whose authors are stored already.
+     * </p>
+     *
+     * @param isbn    the ISBN of the book
+     * @param authors the authors of the book
+     * @return the number of created links
+     */
+    int linkAuthors(String isbn, List<Author> authors);
+}
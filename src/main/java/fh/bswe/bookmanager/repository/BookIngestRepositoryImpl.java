@@ -0,0 +1,93 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Author;
+import fh.bswe.bookmanager.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link BookIngestRepository} with one native statement per database.
+ * <p>
+ * H2 inserts with {@code MERGE}; PostgreSQL inserts with {@code ON CONFLICT DO NOTHING},
+ * which also resolves concurrent inserts of the same ISBN without an error.
+ * </p>
+ */
+public class BookIngestRepositoryImpl implements BookIngestRepository {
+    private static final String H2_INSERT = """
+            merge into book b
+            using (select cast(:isbn as varchar(13)) as isbn) s on b.isbn = s.isbn
+            when not matched then
+                insert (id, isbn, title, authors, publish_date, publish_year, publishers, cover_key, cover_link,
+                        cover_hash, language)
+                values (next value for book_seq, :isbn, :title, :authors, :publishDate, :publishYear, :publishers,
+                        :coverKey, :coverLink, :coverHash, :language)
+            """;
+
+    private static final String POSTGRESQL_INSERT = """
+            insert into book (id, isbn, title, authors, publish_date, publish_year, publishers, cover_key,
+                              cover_link, cover_hash, language)
+            values (nextval('book_seq'), :isbn, :title, :authors, :publishDate, :publishYear, :publishers,
+                    :coverKey, :coverLink, :coverHash, :language)
+            on conflict (isbn) do nothing
+            """;
+
+    private static final String LINK_AUTHOR = """
+            insert into book_author (book_id, author_key, author_order)
+            select b.id, :authorKey, :authorOrder from book b where b.isbn = :isbn
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int insertIfAbsent(final Book book) {
+        final Query query = entityManager.createNativeQuery(isPostgreSql() ? POSTGRESQL_INSERT : H2_INSERT);
+        query.setParameter("isbn", book.getIsbn());
+        query.setParameter("title", book.getTitle());
+        query.setParameter("authors", book.getAuthors());
+        query.setParameter("publishDate", book.getPublishDate());
+        query.setParameter("publishYear", book.getPublishYear());
+        query.setParameter("publishers", book.getPublishers());
+        query.setParameter("coverKey", book.getCoverKey());
+        query.setParameter("coverLink", book.getCoverLink());
+        query.setParameter("coverHash", book.getCoverHash());
+        query.setParameter("language", book.getLanguage());
+        // an insert cannot make cached entries stale, so no cache region is invalidated
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int linkAuthors(final String isbn, final List<Author> authors) {
+        int linked = 0;
+        for (int i = 0; i < authors.size(); i++) {
+            final Query query = entityManager.createNativeQuery(LINK_AUTHOR);
+            query.setParameter("isbn", isbn);
+            query.setParameter("authorKey", authors.get(i).getAuthorKey());
+            query.setParameter("authorOrder", i);
+            query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+            linked += query.executeUpdate();
+        }
+        return linked;
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,23 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Book;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment for looking up books by their natural ID.
+ * <p>
+ * Lookups by ISBN are resolved through the natural ID cache and the book cache,
+ * so repeated lookups of the same ISBN do not reach the database.
+ * </p>
+ */
+public interface BookLookupRepository {
+
+    /**
+     * Finds a book by its ISBN.
+     *
+     * @param isbn the ISBN to search for
+     * @return an {@link Optional} containing the matching {@link Book} if found, or empty if not
+     */
+    Optional<Book> findByIsbn(String isbn);
+}
@@ -0,0 +1,26 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Implementation of {@link BookLookupRepository} loading books by their {@code @NaturalId}.
+ */
+public class BookLookupRepositoryImpl implements BookLookupRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Optional<Book> findByIsbn(final String isbn) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class).loadOptional(isbn);
+    }
+}
@@ -0,0 +1,21 @@
+package fh.bswe.bookmanager.repository;
+
+/**
+ * Repository fragment for merging books stored more than once under the same ISBN.
+ */
+public interface BookMergeRepository {
+
+    /**
+     * Moves the author links of a book to another book.
+     * <p>
+     * Links the other book already has, at the same position or to the same author, are
+     * deleted instead, so the book can be deleted afterwards without violating the
+     * foreign key of {@code book_author}.
+     * </p>
+     *
+     * @param fromBookId the ID of the book whose author links should be moved
+     * @param toBookId   the ID of the book the links should point to
+     * @return the number of moved links
+     */
+    int moveAuthorLinks(Integer fromBookId, Integer toBookId);
+}
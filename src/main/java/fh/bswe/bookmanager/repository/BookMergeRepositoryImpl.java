@@ -0,0 +1,51 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of {@link BookMergeRepository} with native statements on the {@code book_author}
+ * join table, which has no entity of its own.
+ */
+public class BookMergeRepositoryImpl implements BookMergeRepository {
+    private static final String DELETE_DUPLICATE_AUTHOR_LINKS = """
+            delete from book_author d
+            where d.book_id = :from
+              and exists (select 1 from book_author k
+                          where k.book_id = :to
+                            and (k.author_order = d.author_order or k.author_key = d.author_key))
+            """;
+
+    private static final String MOVE_AUTHOR_LINKS = "update book_author set book_id = :to where book_id = :from";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int moveAuthorLinks(final Integer fromBookId, final Integer toBookId) {
+        final Query delete = createQuery(DELETE_DUPLICATE_AUTHOR_LINKS);
+        delete.setParameter("from", fromBookId);
+        delete.setParameter("to", toBookId);
+        delete.executeUpdate();
+
+        final Query move = createQuery(MOVE_AUTHOR_LINKS);
+        move.setParameter("from", fromBookId);
+        move.setParameter("to", toBookId);
+        return move.executeUpdate();
+    }
+
+    private Query createQuery(final String sql) {
+        final Query query = entityManager.createNativeQuery(sql);
+        // the author lists belong to the books, so only the book cache region is invalidated
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Book.class);
+        return query;
+    }
+}
@@ -1,22 +1,149 @@
 package fh.bswe.bookmanager.repository;
 
 import fh.bswe.bookmanager.entity.Book;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Repository interface for accessing and managing {@link Book} entities.
  * <p>
- * Extends {@link CrudRepository} to provide standard CRUD operations.
+ * Extends {@link CrudRepository} to provide standard CRUD operations,
+ * {@link BookLookupRepository} for cached lookups by ISBN,
+ * {@link BookIngestRepository} for inserting books without duplicates and
+ * {@link BookMergeRepository} for merging books stored more than once.
  * </p>
  */
-public interface BookRepository extends CrudRepository<Book, Long> {
+public interface BookRepository extends CrudRepository<Book, Long>, BookLookupRepository, BookIngestRepository,
+        BookMergeRepository {
     /**
-     * Finds a book by its ISBN.
+     * Checks whether a book with the given ISBN exists, without loading it.
+     *
+     * @param isbn the ISBN to check
+     * @return {@code true} if such a book exists, otherwise {@code false}
+     */
+    boolean existsByIsbn(String isbn);
+
+    /**
+     * Finds all books written by the author with the given key, oldest first.
+     * <p>
+     * The books are found through the index on {@code book_author(author_key, book_id)}.
+     * </p>
+     *
+     * @param authorKey the OpenLibrary key of the author
+     * @return the books of the author ordered by ID
+     */
+    @Query("select b from Book b join b.authorList a where a.authorKey = :authorKey order by b.id")
+    List<Book> findByAuthorKey(@Param("authorKey") String authorKey);
+
+    /**
+     * Returns the highest ID of all books.
+     *
+     * @return the highest book ID, or {@code 0} if there are no books
+     */
+    @Query("select coalesce(max(b.id), 0) from Book b")
+    int findMaxId();
+
+    /**
+     * Finds the books with the given IDs.
+     *
+     * @param ids the IDs of the books
+     * @return the books that exist, in no particular order
+     */
+    @Query("select b from Book b where b.id in :ids")
+    List<Book> findByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Finds the books with the given ISBNs with one query.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books that are in the catalog, in no particular order
+     */
+    @Query("select b from Book b where b.isbn in :isbns")
+    List<Book> findByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Returns all ISBNs that are stored more than once.
+     *
+     * @return the duplicated ISBNs in ascending order
+     */
+    @Query("select b.isbn from Book b group by b.isbn having count(b) > 1 order by b.isbn")
+    List<String> findDuplicateIsbns();
+
+    /**
+     * Finds all books with the given ISBN, oldest first.
      *
      * @param isbn the ISBN to search for
-     * @return an {@link Optional} containing the matching {@link Book} if found, or empty if not
+     * @return the books with the ISBN ordered by ID
+     */
+    List<Book> findByIsbnOrderByIdAsc(String isbn);
+
+    /**
+     * Deletes a book without cascading to its user book entries.
+     * <p>
+     * The entries and author links of the book must have been moved or deleted before.
+     * </p>
+     *
+     * @param id the ID of the book
+     * @return the number of deleted books
+     */
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteBookById(@Param("id") Integer id);
+
+    /**
+     * Returns all distinct cover hashes referenced by books.
+     *
+     * @return the set of referenced cover hashes
+     */
+    @Query("select distinct b.coverHash from Book b where b.coverHash is not null")
+    Set<String> findAllCoverHashes();
+
+    /**
+     * Removes the reference to the given cover hash from all books.
+     *
+     * @param coverHash the cover hash whose references should be cleared
+     * @return the number of updated books
+     */
+    @Modifying
+    @Query("update Book b set b.coverHash = null where b.coverHash = :coverHash")
+    int clearCoverHash(@Param("coverHash") String coverHash);
+
+    /**
+     * Finds the next books whose cover is still stored inside the database, in ID order.
+     *
+     * @param afterId the ID after which to continue, {@code 0} for the first books
+     * @param limit   the maximum number of books to return
+     * @return the books with a legacy cover column but no cover store reference
+     */
+    @Query("""
+            select b from Book b
+            where b.coverHash is null and b.coverImage is not null and b.id > :afterId
+            order by b.id
+            """)
+    List<Book> findLegacyCoversAfter(@Param("afterId") Integer afterId, Limit limit);
+
+    /**
+     * Counts all books whose cover is still stored inside the database.
+     *
+     * @return the number of books with a legacy cover column but no cover store reference
+     */
+    long countByCoverHashIsNullAndCoverImageIsNotNull();
+
+    /**
+     * Replaces the legacy cover column of a book with a reference into the cover store.
+     *
+     * @param id        the ID of the book
+     * @param coverHash the cover hash to reference, or {@code null} if the legacy cover was empty
+     * @return the number of updated books
      */
-    Optional<Book> findByIsbn(String isbn);
+    @Modifying
+    @Query("update Book b set b.coverHash = :coverHash, b.coverImage = null where b.id = :id")
+    int moveCoverToStore(@Param("id") Integer id, @Param("coverHash") String coverHash);
 }
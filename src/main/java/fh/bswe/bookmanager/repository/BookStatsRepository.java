@@ -0,0 +1,23 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.BookStats;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository interface for accessing {@link BookStats} entities.
+ * <p>
+ * Extends {@link CrudRepository} to read the statistics and {@link BookStatsUpdateRepository}
+ * for maintaining them with delta statements.
+ * </p>
+ */
+public interface BookStatsRepository extends CrudRepository<BookStats, Integer>, BookStatsUpdateRepository {
+
+    /**
+     * Returns the highest book ID of all statistics rows.
+     *
+     * @return the highest book ID, or {@code 0} if there are no statistics
+     */
+    @Query("select coalesce(max(s.bookId), 0) from BookStats s")
+    int findMaxBookId();
+}
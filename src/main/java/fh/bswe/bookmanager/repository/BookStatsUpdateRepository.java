@@ -0,0 +1,60 @@
+package fh.bswe.bookmanager.repository;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment for maintaining the {@code book_stats} rows with native delta statements.
+ */
+public interface BookStatsUpdateRepository {
+
+    /**
+     * Applies the change of a single library entry to the statistics of its book in a single statement.
+     * <p>
+     * The row of the book is created if it does not exist yet. Concurrent changes of the same book
+     * are serialized by the row lock of the update and cannot overwrite each other.
+     * </p>
+     *
+     * @param bookId    the ID of the book of the changed entry
+     * @param readers   {@code 1} if the entry was added, {@code -1} if it was removed, otherwise {@code 0}
+     * @param oldRating the rating before the change, or {@code null} if there was none
+     * @param newRating the rating after the change, or {@code null} if there is none
+     * @return the number of written rows
+     */
+    int applyChange(Integer bookId, int readers, Integer oldRating, Integer newRating);
+
+    /**
+     * Subtracts the library entries with the given IDs from the statistics of their books.
+     * <p>
+     * Must be called in the same transaction as, and before, the entries are deleted.
+     * </p>
+     *
+     * @param ids the IDs of the library entries about to be deleted
+     * @return the number of updated rows
+     */
+    int removeEntries(Collection<Long> ids);
+
+    /**
+     * Adds the library entries with the given IDs to the statistics of their books.
+     * <p>
+     * Must be called in the same transaction as, and after, the entries are inserted,
+     * e.g. when they are moved from another shard. Missing rows are created.
+     * </p>
+     *
+     * @param ids the IDs of the library entries just inserted
+     * @return the number of written rows
+     */
+    int addEntries(Collection<Long> ids);
+
+    /**
+     * Rebuilds the statistics of all books with an ID in the given range from the library entries.
+     * <p>
+     * The existing rows of the range are locked and replaced within one transaction, so changes
+     * of entries in the range wait for the rebuild and are applied to the rebuilt rows.
+     * </p>
+     *
+     * @param fromBookId the lowest book ID of the range, inclusive
+     * @param toBookId   the highest book ID of the range, inclusive
+     * @return the number of rebuilt rows
+     */
+    int rebuildRange(int fromBookId, int toBookId);
+}
@@ -0,0 +1,198 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.entity.UserBook;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+
+/**
+ * Implementation of {@link BookStatsUpdateRepository} with one native statement per database.
+ * <p>
+ * H2 applies deltas with {@code MERGE}; PostgreSQL with {@code ON CONFLICT DO UPDATE} and
+ * {@code UPDATE ... FROM}. Rebuilding a range uses the same aggregate query on both databases.
+ * </p>
+ */
+public class BookStatsUpdateRepositoryImpl implements BookStatsUpdateRepository {
+    private static final String COLUMNS =
+            "book_id, readers, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5";
+
+    private static final String DELTAS =
+            ":bookId, :readers, :ratingCount, :ratingSum, :rating1, :rating2, :rating3, :rating4, :rating5";
+
+    private static final String AGGREGATES = """
+            select ub.book_id, count(*) as readers, count(ub.rating) as rating_count,
+                   coalesce(sum(ub.rating), 0) as rating_sum,
+                   sum(case when ub.rating = 1 then 1 else 0 end) as rating_1,
+                   sum(case when ub.rating = 2 then 1 else 0 end) as rating_2,
+                   sum(case when ub.rating = 3 then 1 else 0 end) as rating_3,
+                   sum(case when ub.rating = 4 then 1 else 0 end) as rating_4,
+                   sum(case when ub.rating = 5 then 1 else 0 end) as rating_5
+            from user_book ub
+            """;
+
+    private static final String H2_APPLY = """
+            merge into book_stats s
+            using (select cast(:bookId as integer) as book_id) d on s.book_id = d.book_id
+            when matched then
+                update set readers = s.readers + :readers, rating_count = s.rating_count + :ratingCount,
+                           rating_sum = s.rating_sum + :ratingSum, rating_1 = s.rating_1 + :rating1,
+                           rating_2 = s.rating_2 + :rating2, rating_3 = s.rating_3 + :rating3,
+                           rating_4 = s.rating_4 + :rating4, rating_5 = s.rating_5 + :rating5
+            when not matched then
+                insert (%s) values (%s)
+            """.formatted(COLUMNS, DELTAS);
+
+    private static final String ADD_EXCLUDED = """
+            on conflict (book_id) do update
+                set readers = s.readers + excluded.readers, rating_count = s.rating_count + excluded.rating_count,
+                    rating_sum = s.rating_sum + excluded.rating_sum, rating_1 = s.rating_1 + excluded.rating_1,
+                    rating_2 = s.rating_2 + excluded.rating_2, rating_3 = s.rating_3 + excluded.rating_3,
+                    rating_4 = s.rating_4 + excluded.rating_4, rating_5 = s.rating_5 + excluded.rating_5
+            """;
+
+    private static final String POSTGRESQL_APPLY = """
+            insert into book_stats as s (%s) values (%s)
+            %s""".formatted(COLUMNS, DELTAS, ADD_EXCLUDED);
+
+    private static final String SUBTRACTED = """
+            readers = s.readers - d.readers, rating_count = s.rating_count - d.rating_count,
+            rating_sum = s.rating_sum - d.rating_sum, rating_1 = s.rating_1 - d.rating_1,
+            rating_2 = s.rating_2 - d.rating_2, rating_3 = s.rating_3 - d.rating_3,
+            rating_4 = s.rating_4 - d.rating_4, rating_5 = s.rating_5 - d.rating_5
+            """;
+
+    private static final String H2_REMOVE = """
+            merge into book_stats s
+            using (%s where ub.id in (:ids) group by ub.book_id) d on s.book_id = d.book_id
+            when matched then update set %s
+            """.formatted(AGGREGATES, SUBTRACTED);
+
+    private static final String POSTGRESQL_REMOVE = """
+            update book_stats s set %s
+            from (%s where ub.id in (:ids) group by ub.book_id) d
+            where s.book_id = d.book_id
+            """.formatted(SUBTRACTED, AGGREGATES);
+
+    private static final String ADDED = """
+            readers = s.readers + d.readers, rating_count = s.rating_count + d.rating_count,
+            rating_sum = s.rating_sum + d.rating_sum, rating_1 = s.rating_1 + d.rating_1,
+            rating_2 = s.rating_2 + d.rating_2, rating_3 = s.rating_3 + d.rating_3,
+            rating_4 = s.rating_4 + d.rating_4, rating_5 = s.rating_5 + d.rating_5
+            """;
+
+    private static final String H2_ADD = """
+            merge into book_stats s
+            using (%s where ub.id in (:ids) group by ub.book_id) d on s.book_id = d.book_id
+            when matched then update set %s
+            when not matched then
+                insert (%s)
+                values (d.book_id, d.readers, d.rating_count, d.rating_sum, d.rating_1, d.rating_2, d.rating_3,
+                        d.rating_4, d.rating_5)
+            """.formatted(AGGREGATES, ADDED, COLUMNS);
+
+    private static final String POSTGRESQL_ADD = """
+            insert into book_stats as s (%s)
+            %s where ub.id in (:ids) group by ub.book_id
+            %s""".formatted(COLUMNS, AGGREGATES, ADD_EXCLUDED);
+
+    private static final String LOCK_RANGE =
+            "select book_id from book_stats where book_id between :from and :to for update";
+
+    private static final String DELETE_RANGE = "delete from book_stats where book_id between :from and :to";
+
+    private static final String INSERT_RANGE = """
+            insert into book_stats (%s)
+            %s where ub.book_id between :from and :to group by ub.book_id
+            """.formatted(COLUMNS, AGGREGATES);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int applyChange(final Integer bookId, final int readers, final Integer oldRating,
+                           final Integer newRating) {
+        final Query query = createQuery(isPostgreSql() ? POSTGRESQL_APPLY : H2_APPLY);
+        query.setParameter("bookId", bookId);
+        query.setParameter("readers", readers);
+        query.setParameter("ratingCount", (newRating == null ? 0 : 1) - (oldRating == null ? 0 : 1));
+        query.setParameter("ratingSum", (newRating == null ? 0 : newRating) - (oldRating == null ? 0 : oldRating));
+        for (int stars = 1; stars <= 5; stars++) {
+            query.setParameter("rating" + stars,
+                    (isRating(newRating, stars) ? 1 : 0) - (isRating(oldRating, stars) ? 1 : 0));
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int removeEntries(final Collection<Long> ids) {
+        final Query query = createQuery(isPostgreSql() ? POSTGRESQL_REMOVE : H2_REMOVE);
+        query.setParameter("ids", ids);
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int addEntries(final Collection<Long> ids) {
+        final Query query = createQuery(isPostgreSql() ? POSTGRESQL_ADD : H2_ADD);
+        // reads the entries just inserted, so their pending inserts must be flushed first
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(UserBook.class);
+        query.setParameter("ids", ids);
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int rebuildRange(final int fromBookId, final int toBookId) {
+        final Query lock = createQuery(LOCK_RANGE);
+        lock.setParameter("from", fromBookId);
+        lock.setParameter("to", toBookId);
+        lock.getResultList();
+
+        final Query delete = createQuery(DELETE_RANGE);
+        delete.setParameter("from", fromBookId);
+        delete.setParameter("to", toBookId);
+        delete.executeUpdate();
+
+        final Query insert = createQuery(INSERT_RANGE);
+        insert.setParameter("from", fromBookId);
+        insert.setParameter("to", toBookId);
+        return insert.executeUpdate();
+    }
+
+    private Query createQuery(final String sql) {
+        final Query query = entityManager.createNativeQuery(sql);
+        // only book_stats is written, which is not cached, so no other cache region is invalidated
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(BookStats.class);
+        return query;
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static boolean isRating(final Integer rating, final int stars) {
+        return rating != null && rating == stars;
+    }
+}
@@ -0,0 +1,21 @@
+package fh.bswe.bookmanager.repository;
+
+/**
+ * Repository fragment for counting the references to covers.
+ * <p>
+ * The check for an existing cover and the insert or increment are a single atomic statement,
+ * so concurrent ingestion of the same new cover counts both references instead of failing.
+ * </p>
+ */
+public interface CoverReferenceRepository {
+
+    /**
+     * Adds a reference to the cover with the given hash, creating the cover with one reference
+     * if it is not known yet.
+     *
+     * @param hash        the content hash of the cover
+     * @param size        the size of the cover image in bytes
+     * @param placeholder whether the image is a placeholder instead of real cover art
+     */
+    void addReference(String hash, long size, boolean placeholder);
+}
@@ -0,0 +1,72 @@
+package fh.bswe.bookmanager.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Implementation of {@link CoverReferenceRepository} with one native statement per database.
+ * <p>
+ * H2 upserts with {@code MERGE}; PostgreSQL upserts with {@code ON CONFLICT DO UPDATE}, which
+ * also resolves concurrent inserts of the same cover without an error. H2 reports a concurrent
+ * insert of the same cover as a unique violation once the other transaction has committed, so
+ * the statement is repeated once and then finds the row. The statement runs on the connection
+ * of the session, so the repeated statement does not mark the transaction for rollback.
+ * </p>
+ */
+public class CoverReferenceRepositoryImpl implements CoverReferenceRepository {
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String H2_ADD_REFERENCE = """
+            merge into cover c
+            using (select cast(? as varchar(64)) as hash, cast(? as bigint) as size,
+                          cast(? as boolean) as placeholder) s on c.hash = s.hash
+            when matched then
+                update set reference_count = c.reference_count + 1
+            when not matched then
+                insert (hash, size, reference_count, placeholder) values (s.hash, s.size, 1, s.placeholder)
+            """;
+
+    private static final String POSTGRESQL_ADD_REFERENCE = """
+            insert into cover (hash, size, reference_count, placeholder) values (?, ?, 1, ?)
+            on conflict (hash) do update set reference_count = cover.reference_count + 1
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void addReference(final String hash, final long size, final boolean placeholder) {
+        final String sql = isPostgreSql() ? POSTGRESQL_ADD_REFERENCE : H2_ADD_REFERENCE;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, hash);
+                statement.setLong(2, size);
+                statement.setBoolean(3, placeholder);
+                try {
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        });
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,82 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.entity.Cover;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Set;
+
+/**
+ * Repository interface for performing CRUD operations on {@link Cover} entities.
+ * <p>
+ * Besides the basic methods inherited from {@link CrudRepository}, it provides
+ * atomic reference counting, with the upsert of new references inherited from
+ * {@link CoverReferenceRepository}, and the aggregation of the cover storage report.
+ * </p>
+ */
+public interface CoverRepository extends CrudRepository<Cover, String>, CoverReferenceRepository {
+    /**
+     * Atomically decrements the reference count of a cover.
+     *
+     * @param hash the content hash of the cover
+     * @return the number of updated rows, {@code 0} if the cover is not referenced
+     */
+    @Modifying
+    @Query("update Cover c set c.referenceCount = c.referenceCount - 1 where c.hash = :hash and c.referenceCount > 0")
+    int decrementReferenceCount(@Param("hash") String hash);
+
+    /**
+     * Returns the content hashes of all known covers and placeholders.
+     *
+     * @return the set of cover hashes
+     */
+    @Query("select c.hash from Cover c")
+    Set<String> findAllHashes();
+
+    /**
+     * Counts the stored covers whose reference count differs from the number of books referencing them.
+     *
+     * @return the number of covers with a wrong reference count
+     */
+    @Query("""
+            select count(c) from Cover c
+            where c.placeholder = false
+              and c.referenceCount <> (select count(b) from Book b where b.coverHash = c.hash)
+            """)
+    long countWrongReferenceCounts();
+
+    /**
+     * Sets the reference count of every stored cover to the number of books referencing it.
+     *
+     * @return the number of corrected covers
+     */
+    @Modifying
+    @Query("""
+            update Cover c set c.referenceCount = (select count(b) from Book b where b.coverHash = c.hash)
+            where c.placeholder = false
+              and c.referenceCount <> (select count(b) from Book b where b.coverHash = c.hash)
+            """)
+    int fixWrongReferenceCounts();
+
+    /**
+     * Aggregates the storage used by covers and the storage saved by de-duplication
+     * and placeholder detection.
+     *
+     * @return the cover storage report
+     */
+    @Query("""
+            select new fh.bswe.bookmanager.dto.CoverStorageReportDto(
+                coalesce(sum(case when c.placeholder = false then 1L else 0L end), 0L),
+                coalesce(sum(case when c.placeholder = false then c.size else 0L end), 0L),
+                coalesce(sum(case when c.placeholder = false then c.referenceCount * 1L else 0L end), 0L),
+                coalesce(sum(case when c.placeholder = true then c.referenceCount * 1L else 0L end), 0L),
+                coalesce(sum(c.size * c.referenceCount), 0L),
+                coalesce(sum(c.size * c.referenceCount), 0L)
+                    - coalesce(sum(case when c.placeholder = false then c.size else 0L end), 0L))
+            from Cover c
+            """)
+    CoverStorageReportDto createStorageReport();
+}
@@ -0,0 +1,48 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+
+/**
+ * Repository fragment for the copies of reference rows on the shard selected by
+ * {@link fh.bswe.bookmanager.helper.ShardRouting}.
+ * <p>
+ * Library entries reference their user account and book by foreign key, so a shard holds
+ * a copy of every account and book used by its entries, with the ID of the reference row.
+ * Copies are never updated; all reads of accounts and books go to the reference shard,
+ * except the catalog columns joined into the library listings.
+ * </p>
+ */
+public interface ShardCopyRepository {
+
+    /**
+     * Copies the given user account onto the current shard unless it already has a row with its ID.
+     * <p>
+     * A copy of a deleted account still holding the username is renamed first, as on the reference shard.
+     * </p>
+     *
+     * @param userAccount the user account as read from the reference shard
+     * @return {@code 1} if the account was copied, {@code 0} if the copy already existed
+     */
+    int copyUserAccount(UserAccount userAccount);
+
+    /**
+     * Copies the given book onto the current shard unless it already has a row with its ID.
+     * <p>
+     * The cover is only copied by hash.
+     * </p>
+     *
+     * @param book the book as read from the reference shard
+     * @return {@code 1} if the book was copied, {@code 0} if the copy already existed
+     */
+    int copyBook(Book book);
+
+    /**
+     * Deletes the copy of the user account with the given ID from the current shard,
+     * unless the shard still holds entries of the account.
+     *
+     * @param userAccountId the ID of the user account
+     * @return {@code 1} if the copy was deleted, otherwise {@code 0}
+     */
+    int deleteUserAccountCopy(Integer userAccountId);
+}
@@ -0,0 +1,138 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Implementation of {@link ShardCopyRepository} with one native statement per database.
+ * <p>
+ * H2 inserts with {@code MERGE} on the ID; PostgreSQL inserts with {@code ON CONFLICT DO NOTHING}.
+ * A user account copy first frees its username on the shard from the copy of a deleted account,
+ * as on the reference shard.
+ * </p>
+ */
+public class ShardCopyRepositoryImpl implements ShardCopyRepository {
+    private static final String USER_ACCOUNT_COLUMNS = "id, username, firstname, lastname, version, deleted_at";
+
+    private static final String USER_ACCOUNT_VALUES = ":id, :username, :firstname, :lastname, :version, :deletedAt";
+
+    private static final String BOOK_COLUMNS = """
+            id, isbn, title, authors, publish_date, publish_year, publishers, cover_key, cover_link, cover_hash, language
+            """;
+
+    private static final String H2_COPY_USER_ACCOUNT = """
+            merge into user_account u
+            using (select cast(:id as integer) as id) s on u.id = s.id
+            when not matched then
+                insert (%s) values (%s)
+            """.formatted(USER_ACCOUNT_COLUMNS, USER_ACCOUNT_VALUES);
+
+    private static final String POSTGRESQL_COPY_USER_ACCOUNT = """
+            insert into user_account (%s) values (%s)
+            on conflict do nothing
+            """.formatted(USER_ACCOUNT_COLUMNS, USER_ACCOUNT_VALUES);
+
+    private static final String BOOK_VALUES = """
+            :id, :isbn, :title, :authors, :publishDate, :publishYear, :publishers, :coverKey, :coverLink, :coverHash,
+            :language
+            """;
+
+    private static final String H2_COPY_BOOK = """
+            merge into book b
+            using (select cast(:id as integer) as id) s on b.id = s.id
+            when not matched then
+                insert (%s) values (%s)
+            """.formatted(BOOK_COLUMNS, BOOK_VALUES);
+
+    private static final String POSTGRESQL_COPY_BOOK = """
+            insert into book (%s) values (%s)
+            on conflict do nothing
+            """.formatted(BOOK_COLUMNS, BOOK_VALUES);
+
+    private static final String FREE_USERNAME = """
+            update user_account set username = '#' || id
+            where username = :username and id <> :id
+            """;
+
+    private static final String DELETE_USER_ACCOUNT = """
+            delete from user_account u
+            where u.id = :id and not exists (select 1 from user_book ub where ub.user_account_id = u.id)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int copyUserAccount(final UserAccount userAccount) {
+        final Query free = createQuery(FREE_USERNAME);
+        free.setParameter("username", userAccount.getUsername());
+        free.setParameter("id", userAccount.getId());
+        free.executeUpdate();
+
+        final Query query = createQuery(isPostgreSql() ? POSTGRESQL_COPY_USER_ACCOUNT : H2_COPY_USER_ACCOUNT);
+        query.setParameter("id", userAccount.getId());
+        query.setParameter("username", userAccount.getUsername());
+        query.setParameter("firstname", userAccount.getFirstname());
+        query.setParameter("lastname", userAccount.getLastname());
+        query.setParameter("version", userAccount.getVersion());
+        query.unwrap(NativeQuery.class).setParameter("deletedAt", userAccount.getDeletedAt(),
+                StandardBasicTypes.INSTANT);
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int copyBook(final Book book) {
+        final Query query = createQuery(isPostgreSql() ? POSTGRESQL_COPY_BOOK : H2_COPY_BOOK);
+        query.setParameter("id", book.getId());
+        query.setParameter("isbn", book.getIsbn());
+        query.setParameter("title", book.getTitle());
+        query.setParameter("authors", book.getAuthors());
+        query.setParameter("publishDate", book.getPublishDate());
+        query.setParameter("publishYear", book.getPublishYear());
+        query.setParameter("publishers", book.getPublishers());
+        query.setParameter("coverKey", book.getCoverKey());
+        query.setParameter("coverLink", book.getCoverLink());
+        query.setParameter("coverHash", book.getCoverHash());
+        query.setParameter("language", book.getLanguage());
+        return query.executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int deleteUserAccountCopy(final Integer userAccountId) {
+        final Query query = createQuery(DELETE_USER_ACCOUNT);
+        query.setParameter("id", userAccountId);
+        return query.executeUpdate();
+    }
+
+    private Query createQuery(final String sql) {
+        final Query query = entityManager.createNativeQuery(sql);
+        // copies equal their reference rows, so writing them cannot make cached entries stale
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        return query;
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
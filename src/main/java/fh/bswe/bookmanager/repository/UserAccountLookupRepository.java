@@ -0,0 +1,25 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.UserAccount;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment for looking up user accounts by their natural ID.
+ * <p>
+ * Lookups by username are resolved through the natural ID cache and the user account cache,
+ * so the accounts of active users are not read from the database on every request.
+ * Deleted accounts are not found.
+ * </p>
+ */
+public interface UserAccountLookupRepository {
+
+    /**
+     * Finds a user account by its username.
+     *
+     * @param username the username to search for (must not be {@code null})
+     * @return an {@link Optional} containing the matching {@link UserAccount},
+     *         or an empty {@code Optional} if no match is found or the account is deleted
+     */
+    Optional<UserAccount> findByUsername(String username);
+}
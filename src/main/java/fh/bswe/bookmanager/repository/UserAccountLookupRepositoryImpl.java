@@ -0,0 +1,27 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.entity.UserAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Implementation of {@link UserAccountLookupRepository} loading user accounts by their {@code @NaturalId}.
+ */
+public class UserAccountLookupRepositoryImpl implements UserAccountLookupRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Optional<UserAccount> findByUsername(final String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(UserAccount.class).loadOptional(username)
+                .filter(userAccount -> userAccount.getDeletedAt() == null);
+    }
+}
@@ -1,8 +1,15 @@
 package fh.bswe.bookmanager.repository;
 
 import fh.bswe.bookmanager.entity.UserAccount;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -10,16 +17,109 @@ import java.util.Optional;
  * <p>
  * This interface extends {@link CrudRepository}, which provides basic methods for
  * saving, finding, deleting, and updating entities. Spring Data automatically
- * generates the implementation at runtime.
+ * generates the implementation at runtime. Lookups by username are inherited from
+ * {@link UserAccountLookupRepository} and served from the second-level cache.
+ * </p>
+ * <p>
+ * Accounts marked as deleted are ignored by all lookups and updates by username;
+ * they are only visible to the purge of deleted accounts and to the rebalancing of shards.
  * </p>
  */
-public interface UserAccountRepository extends CrudRepository<UserAccount, Long> {
+public interface UserAccountRepository extends CrudRepository<UserAccount, Long>, UserAccountLookupRepository {
+    /**
+     * Checks whether a user account with the given username exists, without loading it.
+     *
+     * @param username the username to check
+     * @return {@code true} if such a user exists, otherwise {@code false}
+     */
+    @Query("select count(u) > 0 from UserAccount u where u.username = :username and u.deletedAt is null")
+    boolean existsByUsername(@Param("username") String username);
+
+    /**
+     * Returns the ID of the user account with the given username.
+     *
+     * @param username the username to search for
+     * @return an {@link Optional} containing the ID, or empty if no such user exists
+     */
+    @Query("select u.id from UserAccount u where u.username = :username and u.deletedAt is null")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
+    /**
+     * Updates the first and last name of the user account with the given username
+     * in a single statement, without loading the account, and increments its version.
+     *
+     * @param username  the username of the account to update
+     * @param firstname the new first name
+     * @param lastname  the new last name
+     * @return the number of updated accounts, {@code 0} if no such user exists
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update UserAccount u set u.firstname = :firstname, u.lastname = :lastname, u.version = u.version + 1
+            where u.username = :username and u.deletedAt is null
+            """)
+    int updateNamesByUsername(@Param("username") String username,
+                              @Param("firstname") String firstname,
+                              @Param("lastname") String lastname);
+
+    /**
+     * Marks the user account with the given username as deleted in a single statement,
+     * without loading the account or its library, and increments its version.
+     * <p>
+     * The username is replaced by {@code #} and the ID, which no valid username can take,
+     * so it can be registered again right away.
+     * </p>
+     *
+     * @param username  the username of the account to delete
+     * @param deletedAt the time of deletion
+     * @return the number of deleted accounts, {@code 0} if no such user exists
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update UserAccount u
+            set u.deletedAt = :deletedAt, u.username = concat('#', cast(u.id as String)), u.version = u.version + 1
+            where u.username = :username and u.deletedAt is null
+            """)
+    int markDeletedByUsername(@Param("username") String username, @Param("deletedAt") Instant deletedAt);
+
+    /**
+     * Returns the IDs of the accounts marked as deleted, the longest deleted first.
+     *
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of deleted accounts
+     */
+    @Query("select u.id from UserAccount u where u.deletedAt is not null order by u.deletedAt, u.id")
+    List<Integer> findDeletedIds(Limit limit);
+
+    /**
+     * Counts the accounts marked as deleted that have not been purged yet.
+     *
+     * @return the number of deleted accounts
+     */
+    long countByDeletedAtIsNotNull();
+
+    /**
+     * Removes the account with the given ID, if it is marked as deleted.
+     * <p>
+     * The library of the account must have been removed before.
+     * </p>
+     *
+     * @param id the ID of the account
+     * @return the number of removed accounts, {@code 0} if the account is not marked as deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from UserAccount u where u.id = :id and u.deletedAt is not null")
+    int purgeDeletedById(@Param("id") Integer id);
+
     /**
-     * Finds a user account by its username.
+     * Finds the account with the given ID, even if it is marked as deleted.
      *
-     * @param username the username to search for (must not be {@code null})
-     * @return an {@link Optional} containing the matching {@link UserAccount},
-     *         or an empty {@code Optional} if no match is found
+     * @param id the ID of the account
+     * @return an {@link Optional} containing the account, or empty if it does not exist or was purged
      */
-    Optional<UserAccount> findByUsername(String username);
+    @Query("select u from UserAccount u where u.id = :id")
+    Optional<UserAccount> findIncludingDeletedById(@Param("id") Integer id);
 }
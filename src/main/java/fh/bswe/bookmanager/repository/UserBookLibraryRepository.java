@@ -0,0 +1,28 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.helper.LibraryCursor;
+
+/**
+ * Repository fragment for reading filtered and sorted user libraries page by page.
+ * <p>
+ * The filters and the sort order are applied in the database, and pages are found by
+ * seeking past the sort key of the previous page, so every page costs the same,
+ * independent of the size of the library and the depth of the page.
+ * </p>
+ */
+public interface UserBookLibraryRepository {
+
+    /**
+     * Reads one page of the entries of a user's library that match the given filter.
+     *
+     * @param userAccount the user account whose library should be read
+     * @param filter      the filters and sort order to apply
+     * @param after       the cursor of the previous page, or {@code null} for the first page
+     * @param limit       the maximum number of entries of the page
+     * @return the page with the cursor of the next page, if there is one
+     */
+    UserBookPageDto findLibraryPage(UserAccount userAccount, UserBookFilterDto filter, LibraryCursor after, int limit);
+}
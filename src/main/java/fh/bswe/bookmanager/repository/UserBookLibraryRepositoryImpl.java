@@ -0,0 +1,147 @@
+package fh.bswe.bookmanager.repository;
+
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.helper.LibraryCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Implementation of {@link UserBookLibraryRepository} building the library query from the filter.
+ * <p>
+ * Only the filters that are set become predicates, so the database can use the
+ * {@code user_book} indexes instead of evaluating {@code :param is null} alternatives.
+ * Entries are ordered by their sort key and ID; a page starts after the key and ID of the
+ * cursor, and one entry more than requested is read to find out whether a next page exists.
+ * Entries without a sort key form a block of their own at the end (ascending) or start
+ * (descending), which the cursor seeks in by ID alone.
+ * </p>
+ */
+public class UserBookLibraryRepositoryImpl implements UserBookLibraryRepository {
+    private static final String SELECT = """
+            select ub.id, %s, b.isbn, b.title, b.authors, ub.rating, ub.comment, ub.version
+            from UserBook ub join ub.book b
+            where ub.userAccount = :userAccount
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UserBookPageDto findLibraryPage(final UserAccount userAccount, final UserBookFilterDto filter,
+                                           final LibraryCursor after, final int limit) {
+        final String key = sortKey(filter);
+        final StringBuilder jpql = new StringBuilder(SELECT.formatted(key));
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("userAccount", userAccount);
+
+        addPredicate(jpql, parameters, "ub.rating = :rating", "rating", filter.rating());
+        addPredicate(jpql, parameters, "ub.rating >= :minRating", "minRating", filter.minRating());
+        addPredicate(jpql, parameters, "ub.rating <= :maxRating", "maxRating", filter.maxRating());
+        addPredicate(jpql, parameters, "b.language = :language", "language", filter.language());
+        addPredicate(jpql, parameters, "b.publishYear = :publishYear", "publishYear", filter.publishYear());
+        addPredicate(jpql, parameters, "lower(b.title) like :title escape '\\'",
+                "title", containsPattern(filter.title()));
+        addPredicate(jpql, parameters, "lower(b.authors) like :author escape '\\'",
+                "author", containsPattern(filter.author()));
+
+        final String comparison = filter.descending() ? "<" : ">";
+        if (after != null) {
+            parameters.put("afterId", after.id());
+            if (filter.sort() == UserBookSort.ADDED) {
+                jpql.append("and ub.id ").append(comparison).append(" :afterId\n");
+            } else if (after.key() == null) {
+                jpql.append((filter.descending()
+                        ? "and (%1$s is not null or ub.id < :afterId)\n"
+                        : "and %1$s is null and ub.id > :afterId\n").formatted(key));
+            } else {
+                jpql.append((filter.descending()
+                        ? "and (%1$s < :afterKey or (%1$s = :afterKey and ub.id < :afterId))\n"
+                        : "and (%1$s > :afterKey or (%1$s = :afterKey and ub.id > :afterId) or %1$s is null)\n")
+                        .formatted(key));
+                parameters.put("afterKey", filter.sort().isNumeric() ? Integer.valueOf(after.key()) : after.key());
+            }
+        }
+
+        final String direction = filter.descending() ? " desc" : " asc";
+        jpql.append("order by ").append(key).append(direction);
+        if (filter.sort() != UserBookSort.ADDED) {
+            jpql.append(filter.descending() ? " nulls first" : " nulls last").append(", ub.id").append(direction);
+        }
+
+        final TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+
+        final List<Object[]> rows = query.getResultList();
+        final List<UserBookDto> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            final Object[] row = rows.get(i);
+            items.add(new UserBookDto((String) row[2], (String) row[3], (String) row[4],
+                    (Integer) row[5], (String) row[6], (Long) row[7]));
+        }
+
+        if (rows.size() <= limit) {
+            return new UserBookPageDto(items, null);
+        }
+
+        final Object[] last = rows.get(limit - 1);
+        final String lastKey;
+        if (filter.sort() == UserBookSort.ADDED) {
+            lastKey = "";
+        } else {
+            lastKey = last[1] == null ? null : String.valueOf(last[1]);
+        }
+        final LibraryCursor next = new LibraryCursor(filter.sort(), filter.descending(), (Long) last[0], lastKey);
+        return new UserBookPageDto(items, next.encode());
+    }
+
+    private static void addPredicate(final StringBuilder jpql, final Map<String, Object> parameters,
+                                     final String predicate, final String name, final Object value) {
+        if (value != null) {
+            jpql.append("and ").append(predicate).append('\n');
+            parameters.put(name, value);
+        }
+    }
+
+    private static String containsPattern(final String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+
+        final String escaped = text.strip().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Returns the column entries are ordered by, before the ID. Each is a plain column with an index,
+     * {@code user_book(user_account_id, rating, id)} or one on {@code book}, so the order can be
+     * read from the index. Missing values come last in ascending and first in descending order,
+     * which is the order of the indexes in both scan directions.
+     */
+    private static String sortKey(final UserBookFilterDto filter) {
+        return switch (filter.sort()) {
+            case ADDED -> "ub.id";
+            case TITLE -> "b.title";
+            case AUTHOR -> "b.authors";
+            case RATING -> "ub.rating";
+            case PUBLISH_YEAR -> "b.publishYear";
+        };
+    }
+}
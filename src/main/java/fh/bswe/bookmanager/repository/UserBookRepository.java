@@ -1,59 +1,216 @@
 package fh.bswe.bookmanager.repository;
 
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookRowDto;
+import fh.bswe.bookmanager.dto.UserBookStateDto;
 import fh.bswe.bookmanager.entity.Book;
-import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.entity.UserBook;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link fh.bswe.bookmanager.entity.UserBook} entities.
  * <p>
  * This interface extends {@link org.springframework.data.repository.CrudRepository}
- * to provide basic CRUD operations for the {@code user_book} table.
+ * to provide basic CRUD operations for the {@code user_book} table. Filtered library
+ * listings are provided by {@link UserBookLibraryRepository}, the reference rows of sharded
+ * entries by {@link ShardCopyRepository}.
  * </p>
  *
  * @author
  */
-public interface UserBookRepository extends CrudRepository<UserBook, Long> {
+public interface UserBookRepository extends CrudRepository<UserBook, Long>, UserBookLibraryRepository,
+        ShardCopyRepository {
 
     /**
-     * Checks if a {@link UserBook} entry exists for the given user and book.
+     * Sets rating and comment of the entry of the book with the given ISBN in the library of
+     * the given user in a single statement, without loading any entity.
+     * <p>
+     * The update only applies if the entry still has the expected version, and increments
+     * the version, so concurrent updates based on the same version cannot overwrite each other.
+     * </p>
      *
-     * @param userAccount the user account to check
-     * @param book        the book to check
-     * @return {@code true} if a mapping exists, otherwise {@code false}
+     * @param username the username of the user whose entry should be updated
+     * @param isbn     the ISBN of the rated book
+     * @param rating   the new rating
+     * @param comment  the new comment
+     * @param version  the version the update is based on
+     * @return the number of updated entries, {@code 0} if the user does not hold the book
+     *         or the entry has another version
      */
-    boolean existsByUserAccountAndBook(UserAccount userAccount, Book book);
+    @Transactional
+    @Modifying
+    @Query("""
+            update UserBook ub set ub.rating = :rating, ub.comment = :comment, ub.version = ub.version + 1
+            where ub.userAccount.id in (select u.id from UserAccount u where u.username = :username
+                                          and u.deletedAt is null)
+              and ub.book.id in (select b.id from Book b where b.isbn = :isbn)
+              and ub.version = :version
+            """)
+    int updateRatingByUsernameAndIsbn(@Param("username") String username, @Param("isbn") String isbn,
+                                      @Param("rating") Integer rating, @Param("comment") String comment,
+                                      @Param("version") long version);
 
     /**
-     * Deletes the {@link UserBook} entry that associates the given user account with the given book.
+     * Returns ID, book ID, rating and version of the entry of the book with the given ISBN
+     * in the library of the given user.
      *
-     * @param userAccount the user account whose association should be removed
-     * @param book        the book to disassociate from the user
+     * @param username the username of the user
+     * @param isbn     the ISBN of the book
+     * @return an {@link Optional} containing the state, or empty if the user does not hold the book
      */
-    void deleteByUserAccountAndBook(UserAccount userAccount, Book book);
+    @Query("""
+            select new fh.bswe.bookmanager.dto.UserBookStateDto(ub.id, b.id, ub.rating, ub.version)
+            from UserBook ub join ub.book b join ub.userAccount u
+            where u.username = :username and b.isbn = :isbn and u.deletedAt is null
+            """)
+    Optional<UserBookStateDto> findState(@Param("username") String username, @Param("isbn") String isbn);
 
     /**
-     * Find all {@link UserBook} entries that associates the given user account.
+     * Deletes the entry with the given ID if it still has the expected version.
      *
-     * @param userAccount   the user account whose association should be found
-     * @return              all books associates the given user account
+     * @param id      the ID of the entry
+     * @param version the version the deletion is based on
+     * @return the number of deleted entries, {@code 0} if the entry is gone or has another version
      */
-    List<UserBook> findByUserAccount(UserAccount userAccount);
+    @Transactional
+    @Modifying
+    @Query("delete from UserBook ub where ub.id = :id and ub.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") long version);
 
     /**
-     * Retrieves a {@link UserBook} entry that associates the specified user account with a specific book.
+     * Reads the entry of the book with the given ISBN in the library of the given user
+     * as {@link UserBookDto} projection, without loading the book or its cover.
+     *
+     * @param username the username of the user
+     * @param isbn     the ISBN of the book
+     * @return an {@link Optional} containing the entry, or empty if the user does not hold the book
+     */
+    @Query("""
+            select new fh.bswe.bookmanager.dto.UserBookDto(b.isbn, b.title, b.authors, ub.rating, ub.comment,
+                                                   ub.version)
+            from UserBook ub join ub.book b join ub.userAccount u
+            where u.username = :username and b.isbn = :isbn and u.deletedAt is null
+            """)
+    Optional<UserBookDto> findLibraryEntry(@Param("username") String username, @Param("isbn") String isbn);
+
+    /**
+     * Streams the library of the given user account as {@link UserBookDto} projections, for exports.
      * <p>
-     * This method is typically used to fetch a user's specific interaction with a book,
-     * such as for checking or updating metadata like ratings or comments.
+     * The rows are read forward-only in chunks of 500, and projections are not
+     * kept by the persistence context, so the memory needed does not grow with the size of the library.
+     * The stream must be consumed and closed within a transaction.
      * </p>
      *
-     * @param userAccount the user account to look up
-     * @param book        the book to look up
-     * @return an {@link Optional} containing the matching {@link UserBook} if found, or empty if not
+     * @param userAccountId the ID of the user account whose library should be read
+     * @return the entries of the library in insertion order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new fh.bswe.bookmanager.dto.UserBookDto(b.isbn, b.title, b.authors, ub.rating, ub.comment,
+                                                   ub.version)
+            from UserBook ub join ub.book b
+            where ub.userAccount.id = :userAccountId
+            order by ub.id
+            """)
+    Stream<UserBookDto> streamLibraryByUserAccountId(@Param("userAccountId") Integer userAccountId);
+
+    /**
+     * Moves the entries of a book to another book, unless the user already has an entry for that book.
+     *
+     * @param from the book whose entries should be moved
+     * @param to   the book the entries should point to
+     * @return the number of moved entries
+     */
+    @Modifying
+    @Query("""
+            update UserBook ub set ub.book = :to
+            where ub.book = :from
+              and not exists (select 1 from UserBook o where o.book = :to and o.userAccount = ub.userAccount)
+            """)
+    int repointBook(@Param("from") Book from, @Param("to") Book to);
+
+    /**
+     * Deletes all entries of a book.
+     *
+     * @param book the book whose entries should be deleted
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("delete from UserBook ub where ub.book = :book")
+    int deleteByBook(@Param("book") Book book);
+
+    /**
+     * Returns the IDs of the entries in the library of the given user account, in insertion order.
+     *
+     * @param userAccountId the ID of the user account
+     * @param limit         the maximum number of IDs to return
+     * @return the IDs of the entries
+     */
+    @Query("select ub.id from UserBook ub where ub.userAccount.id = :userAccountId order by ub.id")
+    List<Long> findIdsByUserAccountId(@Param("userAccountId") Integer userAccountId, Limit limit);
+
+    /**
+     * Deletes the entries with the given IDs in a single statement.
+     *
+     * @param ids the IDs of the entries to delete
+     * @return the number of deleted entries
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from UserBook ub where ub.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the IDs of the user accounts holding entries, in ascending order, starting after the given ID.
+     *
+     * @param after the ID to start after, {@code 0} for the first page
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of the user accounts
+     */
+    @Query("""
+            select distinct ub.userAccount.id from UserBook ub
+            where ub.userAccount.id > :after
+            order by ub.userAccount.id
+            """)
+    List<Integer> findUserAccountIdsAfter(@Param("after") Integer after, Limit limit);
+
+    /**
+     * Reads the entries in the library of the given user account as {@link UserBookRowDto} projections,
+     * in insertion order.
+     *
+     * @param userAccountId the ID of the user account
+     * @param limit         the maximum number of entries to return
+     * @return the entries
+     */
+    @Query("""
+            select new fh.bswe.bookmanager.dto.UserBookRowDto(ub.id, ub.book.id, ub.rating, ub.comment)
+            from UserBook ub
+            where ub.userAccount.id = :userAccountId
+            order by ub.id
+            """)
+    List<UserBookRowDto> findRowsByUserAccountId(@Param("userAccountId") Integer userAccountId, Limit limit);
+
+    /**
+     * Returns which of the given books are in the library of the given user account.
+     *
+     * @param userAccountId the ID of the user account
+     * @param bookIds       the IDs of the books to check
+     * @return the IDs of the books the user already holds
      */
-    Optional<UserBook> findByUserAccountAndBook(UserAccount userAccount, Book book);
-}
\ No newline at end of file
+    @Query("select ub.book.id from UserBook ub where ub.userAccount.id = :userAccountId and ub.book.id in :bookIds")
+    List<Integer> findBookIdsByUserAccountIdAndBookIdIn(@Param("userAccountId") Integer userAccountId,
+                                                        @Param("bookIds") Collection<Integer> bookIds);
+}
@@ -0,0 +1,54 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.entity.Author;
+import fh.bswe.bookmanager.exception.AuthorNotFoundException;
+import fh.bswe.bookmanager.helper.Mapper;
+import fh.bswe.bookmanager.repository.AuthorRepository;
+import fh.bswe.bookmanager.repository.BookRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service class for reading the stored {@link Author}s and their books.
+ */
+@Service
+public class AuthorService {
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+
+    /**
+     * Constructs a new {@code AuthorService} with the given repositories.
+     *
+     * @param authorRepository the author repository
+     * @param bookRepository   the book repository
+     */
+    public AuthorService(final AuthorRepository authorRepository, final BookRepository bookRepository) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Finds all stored books of the author with the given OpenLibrary key.
+     * <p>
+     * The books are looked up through the {@code book_author} index, not by searching
+     * the joined author names.
+     * </p>
+     *
+     * @param authorKey the OpenLibrary key of the author, e.g. {@code OL23919A}
+     * @return the books of the author as {@link BookDto}s, oldest first
+     * @throws AuthorNotFoundException if no author with the given key is stored
+     */
+    @Transactional(readOnly = true)
+    public List<BookDto> findBooksByAuthorKey(final String authorKey) {
+        if (!authorRepository.existsById(authorKey)) {
+            throw new AuthorNotFoundException("Author (key: " + authorKey + ") not found");
+        }
+
+        return bookRepository.findByAuthorKey(authorKey).stream()
+                .map(Mapper::mapToDto)
+                .toList();
+    }
+}
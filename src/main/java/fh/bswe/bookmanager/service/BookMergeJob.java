@@ -0,0 +1,39 @@
+package fh.bswe.bookmanager.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off job that merges duplicate books once at application startup.
+ * <p>
+ * The job only runs if {@code books.merge-duplicates-on-startup} is {@code true}. It is meant
+ * for databases created before the ISBN became unique; the unique constraint can only be added
+ * once the duplicates are gone.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "books", name = "merge-duplicates-on-startup", havingValue = "true")
+public class BookMergeJob implements ApplicationRunner {
+    private final BookMergeService bookMergeService;
+
+    /**
+     * Constructs a new {@code BookMergeJob}.
+     *
+     * @param bookMergeService the service merging the duplicate books
+     */
+    public BookMergeJob(final BookMergeService bookMergeService) {
+        this.bookMergeService = bookMergeService;
+    }
+
+    /**
+     * Merges the duplicate books.
+     *
+     * @param args the application arguments, not used
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        bookMergeService.mergeDuplicates();
+    }
+}
@@ -0,0 +1,93 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.dto.BookMergeReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service class that merges books stored more than once under the same ISBN.
+ * <p>
+ * Before the ISBN was unique, concurrent ingestion could store a book several times.
+ * For every duplicated ISBN the oldest book is kept: user book entries of the other
+ * books are moved to it, or removed if the user already has the kept book. Their author links
+ * are moved as well, unless the kept book already has the author or position. The statistics
+ * of the kept book are rebuilt from its entries and those of the removed books deleted, in the
+ * same transaction. A cover of a removed book is taken over if the kept book has none, and the
+ * cover reference counts are recalculated afterwards.
+ * </p>
+ */
+@Service
+public class BookMergeService {
+    private final BookRepository bookRepository;
+    private final UserBookRepository userBookRepository;
+    private final CoverRepository coverRepository;
+    private final BookStatsRepository bookStatsRepository;
+    private final Logger logger = LoggerFactory.getLogger(BookMergeService.class);
+
+    /**
+     * Constructs a new {@code BookMergeService}.
+     *
+     * @param bookRepository      the repository for accessing {@link Book} entities
+     * @param userBookRepository  the repository for moving user book entries
+     * @param coverRepository     the repository for recalculating cover reference counts
+     * @param bookStatsRepository the repository for rebuilding the statistics of merged books
+     */
+    public BookMergeService(final BookRepository bookRepository,
+                            final UserBookRepository userBookRepository,
+                            final CoverRepository coverRepository,
+                            final BookStatsRepository bookStatsRepository) {
+        this.bookRepository = bookRepository;
+        this.userBookRepository = userBookRepository;
+        this.coverRepository = coverRepository;
+        this.bookStatsRepository = bookStatsRepository;
+    }
+
+    /**
+     * Merges all books stored more than once into the oldest book with the same ISBN.
+     *
+     * @return a report of the merged books and moved user book entries
+     */
+    @Transactional
+    public BookMergeReportDto mergeDuplicates() {
+        final List<String> duplicateIsbns = bookRepository.findDuplicateIsbns();
+        long removedBooks = 0;
+        long movedUserBooks = 0;
+        long removedUserBooks = 0;
+
+        for (final String isbn : duplicateIsbns) {
+            final List<Book> books = bookRepository.findByIsbnOrderByIdAsc(isbn);
+            final Book kept = books.getFirst();
+
+            for (final Book duplicate : books.subList(1, books.size())) {
+                movedUserBooks += userBookRepository.repointBook(duplicate, kept);
+                removedUserBooks += userBookRepository.deleteByBook(duplicate);
+                bookRepository.moveAuthorLinks(duplicate.getId(), kept.getId());
+                if (kept.getCoverHash() == null) {
+                    kept.setCoverHash(duplicate.getCoverHash());
+                }
+                removedBooks += bookRepository.deleteBookById(duplicate.getId());
+                bookStatsRepository.rebuildRange(duplicate.getId(), duplicate.getId());
+            }
+            bookStatsRepository.rebuildRange(kept.getId(), kept.getId());
+        }
+
+        if (removedBooks > 0) {
+            coverRepository.fixWrongReferenceCounts();
+        }
+
+        logger.info("Book merge: {} duplicated ISBNs, {} books removed, {} user books moved, "
+                        + "{} user books removed",
+                duplicateIsbns.size(), removedBooks, movedUserBooks, removedUserBooks);
+
+        return new BookMergeReportDto(duplicateIsbns, removedBooks, movedUserBooks, removedUserBooks);
+    }
+}
@@ -7,6 +7,7 @@ import fh.bswe.bookmanager.exception.BookNotFoundException;
 import fh.bswe.bookmanager.helper.Mapper;
 import fh.bswe.bookmanager.repository.BookRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -38,6 +39,7 @@ public class BookService {
      * @return the found {@link Book} entity
      * @throws BookNotFoundException if no book is found with the given ISBN
      */
+    @Transactional(readOnly = true)
     public Book findBookByIsbn(final String isbn) {
         final Optional<Book> book = bookRepository.findByIsbn(isbn);
 
@@ -51,17 +53,19 @@ public class BookService {
     /**
      * Saves a new book to the repository.
      * <p>
-     * If a book with the same ISBN already exists, a {@link BookExistsException} is thrown.
+     * The book is inserted with a single atomic insert-if-absent statement. If a book with
+     * the same ISBN already exists, a {@link BookExistsException} is thrown.
      *
      * @param book the {@link Book} entity to save
      * @return a {@link BookDto} representing the saved book
      * @throws BookExistsException if a book with the same ISBN already exists
      */
+    @Transactional
     public BookDto save(final Book book) {
-        if (bookRepository.findByIsbn(book.getIsbn()).isPresent()) {
+        if (bookRepository.insertIfAbsent(book) == 0) {
             throw new BookExistsException();
         }
 
-        return Mapper.mapToDto(bookRepository.save(book));
+        return Mapper.mapToDto(findBookByIsbn(book.getIsbn()));
     }
 }
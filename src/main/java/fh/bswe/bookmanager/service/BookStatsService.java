@@ -0,0 +1,171 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.BookStatsConfig;
+import fh.bswe.bookmanager.dto.BookStatsDto;
+import fh.bswe.bookmanager.dto.BookStatsRebuildReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service class for reading and reconciling the {@link BookStats} of the books.
+ * <p>
+ * The statistics are maintained incrementally by every change of a library entry. As a safety
+ * net against drift, e.g. from entries changed by the merge of duplicate books, they are
+ * periodically rebuilt from scratch: the book IDs are split into chunks of
+ * {@code bookstats.chunk-size} IDs, which are rebuilt in parallel, each in its own transaction.
+ * </p>
+ * <p>
+ * With sharded library entries, every shard keeps the statistics of its own entries. Reads sum
+ * the rows of all shards, and every shard is rebuilt from its own entries.
+ * </p>
+ */
+@Service
+public class BookStatsService {
+    private static final int MAX_STARS = 5;
+
+    private final BookStatsRepository bookStatsRepository;
+    private final BookRepository bookRepository;
+    private final BookStatsConfig config;
+    private final ShardLocator shardLocator;
+    private final Logger logger = LoggerFactory.getLogger(BookStatsService.class);
+
+    /**
+     * Constructs a new {@code BookStatsService}.
+     *
+     * @param bookStatsRepository the repository for maintaining {@link BookStats}
+     * @param bookRepository      the book repository
+     * @param config              the reconciliation configuration
+     * @param shardLocator        the mapping of users to the shards holding their entries
+     */
+    public BookStatsService(final BookStatsRepository bookStatsRepository,
+                            final BookRepository bookRepository,
+                            final BookStatsConfig config,
+                            final ShardLocator shardLocator) {
+        this.bookStatsRepository = bookStatsRepository;
+        this.bookRepository = bookRepository;
+        this.config = config;
+        this.shardLocator = shardLocator;
+    }
+
+    /**
+     * Reads the readers and ratings of the book with the given ISBN from a single row per shard.
+     * <p>
+     * The book is resolved from the natural ID cache, then its row is read by ID from every shard.
+     * </p>
+     *
+     * @param isbn the ISBN of the book
+     * @return the statistics of the book, all zero if it has never been added to a library
+     * @throws BookNotFoundException if the book is not in the database
+     */
+    public BookStatsDto findStatsByIsbn(final String isbn) {
+        final Book book = bookRepository.findByIsbn(isbn).orElseThrow(
+                () -> new BookNotFoundException("The book %s is not in the database.".formatted(isbn)));
+
+        long readers = 0;
+        long ratingCount = 0;
+        long ratingSum = 0;
+        final long[] histogram = new long[MAX_STARS];
+        for (int shard = 0; shard < shardLocator.getShardCount(); shard++) {
+            final Optional<BookStats> stats = ShardRouting.onShard(shard,
+                    () -> bookStatsRepository.findById(book.getId()));
+            if (stats.isPresent()) {
+                readers += stats.get().getReaders();
+                ratingCount += stats.get().getRatingCount();
+                ratingSum += stats.get().getRatingSum();
+                final long[] counts = stats.get().getHistogram();
+                for (int stars = 0; stars < MAX_STARS; stars++) {
+                    histogram[stars] += counts[stars];
+                }
+            }
+        }
+
+        final Double average = ratingCount == 0 ? null : (double) ratingSum / ratingCount;
+        return new BookStatsDto(isbn, readers, ratingCount, average, toHistogram(histogram));
+    }
+
+    /**
+     * Periodically rebuilds all statistics and logs the result.
+     */
+    @Scheduled(initialDelayString = "${bookstats.reconcile-interval:PT24H}",
+            fixedDelayString = "${bookstats.reconcile-interval:PT24H}")
+    public void scheduledRebuild() {
+        final BookStatsRebuildReportDto report = rebuild();
+        logger.info("Book statistics rebuilt: {} books in {} chunks, {} chunks failed",
+                report.books(), report.chunks(), report.failedChunks());
+    }
+
+    /**
+     * Rebuilds the statistics of all books from the library entries.
+     * <p>
+     * Chunks are rebuilt by {@code bookstats.parallelism} threads; every shard is split into
+     * the same chunks. A failed chunk keeps its previous statistics and is logged; the other
+     * chunks are rebuilt regardless.
+     * </p>
+     *
+     * @return a report of the rebuilt chunks and books
+     */
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    public BookStatsRebuildReportDto rebuild() {
+        int maxBookId = bookRepository.findMaxId();
+        for (int shard = 0; shard < shardLocator.getShardCount(); shard++) {
+            maxBookId = Math.max(maxBookId, ShardRouting.onShard(shard, bookStatsRepository::findMaxBookId));
+        }
+        final int chunkSize = config.getChunkSize();
+        final List<Callable<Integer>> chunks = new ArrayList<>();
+        for (int shard = 0; shard < shardLocator.getShardCount(); shard++) {
+            final int target = shard;
+            for (long from = 1; from <= maxBookId; from += chunkSize) {
+                final int first = (int) from;
+                final int last = (int) Math.min(from + chunkSize - 1, maxBookId);
+                chunks.add(() -> ShardRouting.onShard(target, () -> bookStatsRepository.rebuildRange(first, last)));
+            }
+        }
+
+        final int threads = Math.max(1, Math.min(config.getParallelism(), chunks.size()));
+        long books = 0;
+        int failed = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("bookstats-rebuild-", 0).factory())) {
+            for (final Future<Integer> chunk : executor.invokeAll(chunks)) {
+                try {
+                    books += chunk.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.warn("Book statistics chunk could not be rebuilt", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebuild of the book statistics was interrupted", e);
+        }
+        return new BookStatsRebuildReportDto(chunks.size(), failed, books);
+    }
+
+    private static Map<Integer, Long> toHistogram(final long[] counts) {
+        final Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int stars = 1; stars <= MAX_STARS; stars++) {
+            histogram.put(stars, counts[stars - 1]);
+        }
+        return histogram;
+    }
+}
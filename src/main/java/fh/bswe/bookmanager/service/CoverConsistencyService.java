@@ -0,0 +1,207 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.CoverStoreConfig;
+import fh.bswe.bookmanager.dto.CoverConsistencyReportDto;
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.Cover;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.helper.CoverStore;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class that reconciles the cover references stored in the database
+ * with the cover files in the on-disk {@link CoverStore}.
+ * <p>
+ * A check detects books referencing a cover file that does not exist and cover files
+ * that no book references anymore, and reference counts that do not match the books.
+ * When repairing, dangling references are cleared, orphaned files older than the
+ * configured grace period are deleted, reference counts are recalculated and covers
+ * still stored in the legacy database column are moved into the cover store.
+ * </p>
+ * <p>
+ * Legacy covers are moved in batches of {@code coverstore.migration-batch-size} books in ID order,
+ * each in its own transaction, so only one batch of cover images is held in memory at a time.
+ * </p>
+ */
+@Service
+public class CoverConsistencyService {
+    private final BookRepository bookRepository;
+    private final CoverRepository coverRepository;
+    private final CoverService coverService;
+    private final CoverStore coverStore;
+    private final CoverStoreConfig coverStoreConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(CoverConsistencyService.class);
+
+    /**
+     * Constructs a new {@code CoverConsistencyService}.
+     *
+     * @param bookRepository     the repository for accessing {@link Book} entities
+     * @param coverRepository    the repository for accessing {@link Cover} entities
+     * @param coverService       the cover service used to move legacy covers into the store
+     * @param coverStore         the on-disk store holding the cover files
+     * @param coverStoreConfig   the cover store configuration
+     * @param transactionManager the transaction manager for the check and each migration batch
+     */
+    public CoverConsistencyService(final BookRepository bookRepository,
+                                   final CoverRepository coverRepository,
+                                   final CoverService coverService,
+                                   final CoverStore coverStore,
+                                   final CoverStoreConfig coverStoreConfig,
+                                   final PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.coverRepository = coverRepository;
+        this.coverService = coverService;
+        this.coverStore = coverStore;
+        this.coverStoreConfig = coverStoreConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Periodically repairs the cover store and logs the result.
+     */
+    @Scheduled(initialDelayString = "${coverstore.consistency-check-interval:PT6H}",
+            fixedDelayString = "${coverstore.consistency-check-interval:PT6H}")
+    public void scheduledCheck() {
+        final CoverConsistencyReportDto report = check(true);
+        final CoverStorageReportDto storage = coverService.createStorageReport();
+        logger.info("Cover consistency check: {} referenced, {} stored, {} missing, {} orphaned, "
+                        + "{} wrong reference counts, {} migrated, {} bytes saved",
+                report.referencedCovers(), report.storedCovers(), report.missingCovers().size(),
+                report.orphanedCovers().size(), report.wrongReferenceCounts(), report.migratedCovers(),
+                storage.savedBytes());
+    }
+
+    /**
+     * Compares the cover references in the database with the files on disk.
+     * <p>
+     * When repairing, the legacy covers are migrated first, batch by batch; the remaining
+     * checks and repairs run in one transaction.
+     * </p>
+     *
+     * @param repair {@code true} to repair the found inconsistencies, {@code false} to only report them
+     * @return a report of the found inconsistencies
+     */
+    public CoverConsistencyReportDto check(final boolean repair) {
+        final long migrated = repair ? migrateLegacyCovers() : 0;
+
+        return transactionTemplate.execute(status -> checkReferences(repair,
+                repair ? migrated : bookRepository.countByCoverHashIsNullAndCoverImageIsNotNull()));
+    }
+
+    private CoverConsistencyReportDto checkReferences(final boolean repair, final long migrated) {
+        final Set<String> referenced = bookRepository.findAllCoverHashes();
+        final Map<String, FileTime> stored = coverStore.listCovers();
+        final Instant orphanDeadline = Instant.now().minus(coverStoreConfig.getOrphanGracePeriod());
+
+        final List<String> missing = referenced.stream()
+                .filter(hash -> !stored.containsKey(hash))
+                .sorted()
+                .toList();
+        final List<String> orphaned = stored.entrySet().stream()
+                .filter(entry -> !referenced.contains(entry.getKey()))
+                .filter(entry -> entry.getValue().toInstant().isBefore(orphanDeadline))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+
+        if (repair) {
+            missing.forEach(this::removeMissing);
+            orphaned.forEach(this::removeOrphan);
+            if (!missing.isEmpty() || migrated > 0) {
+                coverService.evictCachedCovers();
+            }
+        }
+
+        final long wrongReferenceCounts = checkReferenceCounts(referenced, stored, repair);
+
+        return new CoverConsistencyReportDto(referenced.size(), stored.size(), missing, orphaned,
+                wrongReferenceCounts, migrated, repair);
+    }
+
+    private Cover createUncountedCover(final String hash) {
+        final Cover cover = new Cover();
+        cover.setHash(hash);
+        cover.setSize(coverStore.size(hash));
+        return cover;
+    }
+
+    private void removeMissing(final String hash) {
+        bookRepository.clearCoverHash(hash);
+        coverRepository.deleteById(hash);
+    }
+
+    private void removeOrphan(final String hash) {
+        coverStore.delete(hash);
+        coverRepository.deleteById(hash);
+    }
+
+    private long checkReferenceCounts(final Set<String> referenced, final Map<String, FileTime> stored,
+                                      final boolean repair) {
+        final Set<String> known = coverRepository.findAllHashes();
+        final List<String> unknown = referenced.stream()
+                .filter(stored::containsKey)
+                .filter(hash -> !known.contains(hash))
+                .toList();
+
+        if (!repair) {
+            return unknown.size() + coverRepository.countWrongReferenceCounts();
+        }
+
+        coverRepository.saveAll(unknown.stream().map(this::createUncountedCover).toList());
+
+        return coverRepository.fixWrongReferenceCounts();
+    }
+
+    private long migrateLegacyCovers() {
+        final int batchSize = coverStoreConfig.getMigrationBatchSize();
+        long migrated = 0;
+        MigrationBatch batch = new MigrationBatch(0, batchSize, 0);
+
+        while (batch.books() == batchSize) {
+            final int afterId = batch.lastId();
+            batch = transactionTemplate.execute(status -> migrateLegacyCovers(afterId, batchSize));
+            migrated += batch.migrated();
+        }
+
+        return migrated;
+    }
+
+    private MigrationBatch migrateLegacyCovers(final int afterId, final int batchSize) {
+        final List<Book> books = bookRepository.findLegacyCoversAfter(afterId, Limit.of(batchSize));
+        long migrated = 0;
+
+        for (final Book book : books) {
+            final CoverImage image = book.getCoverImage();
+            final String coverHash = image.isEmpty() ? null : coverService.storeCover(image.toByteArray());
+            migrated += bookRepository.moveCoverToStore(book.getId(), coverHash);
+        }
+
+        return new MigrationBatch(books.isEmpty() ? afterId : books.getLast().getId(), books.size(), migrated);
+    }
+
+    /**
+     * Result of one batch of the legacy cover migration.
+     *
+     * @param lastId   the highest book ID of the batch, from which the next batch continues
+     * @param books    the number of books read in the batch
+     * @param migrated the number of books whose cover was moved into the store
+     */
+    private record MigrationBatch(int lastId, int books, long migrated) {
+    }
+}
@@ -0,0 +1,211 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.CoverStoreConfig;
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.Cover;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.exception.CoverStoreException;
+import fh.bswe.bookmanager.helper.CachedCover;
+import fh.bswe.bookmanager.helper.CoverCache;
+import fh.bswe.bookmanager.helper.CoverStore;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Service class for storing and reading book covers.
+ * <p>
+ * Covers are kept in the content-addressed {@link CoverStore} and referenced from
+ * {@link Book} by their content hash. Identical covers are stored once and reference
+ * counted in the {@link Cover} table; placeholder images are recognised at ingest and
+ * treated as "no cover". Books that still carry their cover inside the database are
+ * served from the legacy column until they are migrated.
+ * </p>
+ */
+@Service
+public class CoverService {
+    private final CoverStore coverStore;
+    private final CoverRepository coverRepository;
+    private final CoverCache coverCache;
+    private final int placeholderMaxSize;
+    private final Set<String> placeholderHashes;
+    private final Logger logger = LoggerFactory.getLogger(CoverService.class);
+
+    /**
+     * Constructs a new {@code CoverService}.
+     *
+     * @param coverStore       the on-disk store holding the cover files
+     * @param coverRepository  the repository for accessing {@link Cover} entities
+     * @param coverCache       the off-heap cache of frequently requested covers
+     * @param coverStoreConfig the cover store configuration defining placeholder images
+     */
+    public CoverService(final CoverStore coverStore, final CoverRepository coverRepository,
+                        final CoverCache coverCache, final CoverStoreConfig coverStoreConfig) {
+        this.coverStore = coverStore;
+        this.coverRepository = coverRepository;
+        this.coverCache = coverCache;
+        this.placeholderMaxSize = coverStoreConfig.getPlaceholderMaxSize();
+        this.placeholderHashes = Set.copyOf(coverStoreConfig.getPlaceholderHashes());
+    }
+
+    /**
+     * Stores a cover image and returns the hash referencing it.
+     * <p>
+     * Empty images and placeholders are not stored. A cover already in the store is not
+     * written again, only its reference count is incremented. Storage errors are logged
+     * and treated as "no cover", so a failing disk does not prevent a book from being added.
+     * </p>
+     *
+     * @param image the cover image bytes
+     * @return the content hash of the stored cover, or {@code null} if nothing was stored
+     */
+    @Transactional
+    public String storeCover(final byte[] image) {
+        if (image == null || image.length == 0) {
+            return null;
+        }
+
+        final String hash = CoverStore.hash(image);
+        if (isPlaceholder(hash, image.length)) {
+            logger.debug("Cover {} is a placeholder and stored as no cover", hash);
+            coverRepository.addReference(hash, image.length, true);
+            return null;
+        }
+
+        try {
+            coverStore.store(image);
+        } catch (CoverStoreException e) {
+            logger.error("Store Cover: {}", e.getMessage());
+            return null;
+        }
+
+        coverRepository.addReference(hash, image.length, false);
+        return hash;
+    }
+
+    /**
+     * Releases a reference to a stored cover that was not used after all.
+     * <p>
+     * The file itself is kept; once no book references it anymore, the consistency
+     * check removes it as an orphan.
+     * </p>
+     *
+     * @param hash the content hash of the cover, or {@code null} for no cover
+     */
+    @Transactional
+    public void releaseCover(final String hash) {
+        if (hash != null) {
+            coverRepository.decrementReferenceCount(hash);
+        }
+    }
+
+    /**
+     * Checks whether an image is a placeholder instead of real cover art.
+     * <p>
+     * An image is a placeholder if its hash is a known placeholder hash or if it is
+     * not larger than the configured placeholder size.
+     * </p>
+     *
+     * @param hash the content hash of the image
+     * @param size the size of the image in bytes
+     * @return {@code true} if the image is a placeholder
+     */
+    public boolean isPlaceholder(final String hash, final long size) {
+        return size <= placeholderMaxSize || placeholderHashes.contains(hash);
+    }
+
+    /**
+     * Creates a report of the storage used by covers and the storage saved by
+     * de-duplication and placeholder detection.
+     *
+     * @return the cover storage report
+     */
+    public CoverStorageReportDto createStorageReport() {
+        return coverRepository.createStorageReport();
+    }
+
+    /**
+     * Reads the cover image of a book.
+     * <p>
+     * Covers referenced by hash are mapped from the cover store; otherwise the legacy
+     * database column is used. In both cases the image bytes are not copied.
+     * </p>
+     *
+     * @param book the book whose cover should be read
+     * @return the cover image, or the empty cover image if the book has no cover
+     */
+    public CoverImage readCover(final Book book) {
+        if (book.getCoverHash() == null) {
+            return book.getCoverImage();
+        }
+
+        if (!coverStore.exists(book.getCoverHash())) {
+            logger.warn("Cover {} of book {} is missing in the cover store", book.getCoverHash(), book.getIsbn());
+            return CoverImage.empty();
+        }
+
+        return coverStore.map(book.getCoverHash());
+    }
+
+    /**
+     * Returns the cover cached for the given ISBN without accessing the database.
+     *
+     * @param isbn the ISBN the cover was requested for
+     * @return the cached cover, or {@code null} if it is not cached
+     */
+    public CachedCover findCachedCover(final String isbn) {
+        return coverCache.get(isbn);
+    }
+
+    /**
+     * Reads the cover of a book and adds it to the off-heap cover cache.
+     * <p>
+     * Covers from the cover store are cached as memory-mapped buffers, legacy covers
+     * from the database column are copied once into a direct buffer.
+     * </p>
+     *
+     * @param isbn the ISBN the cover was requested for, used as cache key
+     * @param book the book whose cover should be cached
+     * @return the cover to serve together with its entity tag
+     * @throws CoverNotFoundException if the book has no cover or the cover file is missing
+     */
+    public CachedCover cacheCover(final String isbn, final Book book) {
+        final CoverImage image = readCover(book);
+        if (image.isEmpty()) {
+            throw new CoverNotFoundException("Book (isbn: " + book.getIsbn() + ") has no cover");
+        }
+
+        return coverCache.put(isbn, coverETag(book), image);
+    }
+
+    /**
+     * Removes all covers from the cover cache, e.g. after cover references were repaired.
+     */
+    public void evictCachedCovers() {
+        coverCache.invalidateAll();
+    }
+
+    /**
+     * Returns the strong entity tag of a book's cover.
+     * <p>
+     * The content hash of the cover is used, so the tag changes exactly when the
+     * cover bytes change.
+     * </p>
+     *
+     * @param book the book whose cover entity tag should be returned
+     * @return the content hash of the cover
+     */
+    public String coverETag(final Book book) {
+        if (book.getCoverHash() != null) {
+            return book.getCoverHash();
+        }
+
+        return CoverStore.hash(book.getCoverImage().asByteBuffer());
+    }
+}
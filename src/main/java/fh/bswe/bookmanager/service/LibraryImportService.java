@@ -0,0 +1,434 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.LibraryImportConfig;
+import fh.bswe.bookmanager.dto.LibraryImportJobDto;
+import fh.bswe.bookmanager.dto.LibraryImportRowDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.exception.ImportJobNotFoundException;
+import fh.bswe.bookmanager.exception.ImportLimitExceededException;
+import fh.bswe.bookmanager.exception.ImportQueueFullException;
+import fh.bswe.bookmanager.exception.InvalidImportFileException;
+import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.ConstraintViolations;
+import fh.bswe.bookmanager.helper.LibraryCsvReader;
+import fh.bswe.bookmanager.helper.LibraryImportJob;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service class that imports uploaded library files into the library of a user in the background.
+ * <p>
+ * The upload is spooled to a temporary file and read row by row by a {@link LibraryCsvReader}.
+ * Every {@code libraryimport.batch-size} rows are imported together: their ISBNs are resolved
+ * against the catalog with one query, the missing books are fetched from OpenLibrary by a pool of
+ * {@code libraryimport.fetch-parallelism} threads shared by all imports, and the new entries are
+ * inserted with batched statements and added to the {@link BookStats} in one transaction on the
+ * shard of the user. Books already in the library are skipped, so an interrupted import can be
+ * uploaded again. Memory use depends on the batch size only, not on the size of the file.
+ * </p>
+ * <p>
+ * Imports are run by {@code libraryimport.max-concurrent-jobs} threads, and at most
+ * {@code libraryimport.queue-capacity} further imports wait for them. Uploads beyond that, or beyond
+ * {@code libraryimport.max-jobs-per-user} unfinished imports of a user, are rejected before the
+ * file is stored, so waiting uploads cannot fill the disk. Imports still unfinished
+ * {@code libraryimport.max-job-duration} after their upload are cancelled. The progress of an
+ * import is kept in memory of this instance for {@code libraryimport.retention} after it finished.
+ * </p>
+ */
+@Service
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class LibraryImportService {
+    /**
+     * Number of times a batch is written again after a concurrent change added one of its books.
+     */
+    public static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final Pattern NON_ISBN_CHARACTERS = Pattern.compile("[\\s\"=-]");
+    private static final Pattern ISBN = Pattern.compile("^[0-9]{10,13}$");
+    private static final Pattern RATING = Pattern.compile("^[0-5]$");
+
+    private final UserAccountRepository userAccountRepository;
+    private final UserBookRepository userBookRepository;
+    private final BookRepository bookRepository;
+    private final BookStatsRepository bookStatsRepository;
+    private final OpenLibraryService openLibraryService;
+    private final ShardLocator shardLocator;
+    private final LibraryImportConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ExecutorService fetchExecutor;
+    private final Map<UUID, LibraryImportJob> jobs = new ConcurrentHashMap<>();
+    private final ReentrantLock admission = new ReentrantLock();
+    private final Logger logger = LoggerFactory.getLogger(LibraryImportService.class);
+
+    /**
+     * Constructs a new {@code LibraryImportService}.
+     *
+     * @param userAccountRepository the repository for accessing {@link UserAccount} entities
+     * @param userBookRepository    the repository for inserting {@link UserBook} entities
+     * @param bookRepository        the repository for resolving {@link Book} entities by ISBN
+     * @param bookStatsRepository   the repository for maintaining {@link BookStats}
+     * @param openLibraryService    the service for fetching books missing from the catalog
+     * @param shardLocator          the mapping of users to the shards holding their entries
+     * @param config                the import configuration
+     * @param transactionManager    the transaction manager for writing each batch with its statistics
+     */
+    public LibraryImportService(final UserAccountRepository userAccountRepository,
+                                final UserBookRepository userBookRepository,
+                                final BookRepository bookRepository,
+                                final BookStatsRepository bookStatsRepository,
+                                final OpenLibraryService openLibraryService,
+                                final ShardLocator shardLocator,
+                                final LibraryImportConfig config,
+                                final PlatformTransactionManager transactionManager) {
+        this.userAccountRepository = userAccountRepository;
+        this.userBookRepository = userBookRepository;
+        this.bookRepository = bookRepository;
+        this.bookStatsRepository = bookStatsRepository;
+        this.openLibraryService = openLibraryService;
+        this.shardLocator = shardLocator;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        final int threads = Math.max(1, config.getMaxConcurrentJobs());
+        // imports are admitted by reserveJob; the queue also holds the ones not yet taken by idle threads
+        this.jobExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads + Math.max(1, config.getQueueCapacity())),
+                Thread.ofPlatform().name("library-import-", 0).factory());
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, config.getFetchParallelism()),
+                Thread.ofPlatform().name("library-import-fetch-", 0).factory());
+    }
+
+    /**
+     * Accepts a library file for the library of a user and starts importing it in the background.
+     * <p>
+     * A place for the import is reserved before the file is copied to a temporary file, so uploads
+     * beyond the limits are rejected without storing them. The header is checked before the import
+     * is queued, so files that cannot be imported at all are rejected right away.
+     * </p>
+     *
+     * @param username the username of the user whose library is imported into
+     * @param file     the uploaded CSV file
+     * @return the progress of the queued import, holding its ID
+     * @throws UserNotFoundException        if the user does not exist
+     * @throws ImportLimitExceededException if the user already has the maximum number of unfinished imports
+     * @throws ImportQueueFullException     if the maximum number of imports is already running or waiting
+     * @throws InvalidImportFileException   if the file is empty or has no ISBN column
+     * @throws IOException                  if the file cannot be stored
+     */
+    public LibraryImportJobDto startImport(final String username, final MultipartFile file)
+            throws UserNotFoundException, IOException {
+        final UserAccount userAccount = userAccountRepository.findByUsername(username)
+                .orElseThrow(UserNotFoundException::new);
+        removeExpiredJobs();
+        final LibraryImportJob job = reserveJob(username);
+
+        final Path spool;
+        try {
+            spool = spoolFile(file);
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+
+        try {
+            job.setTask(jobExecutor.submit(() -> runImport(job, userAccount, spool)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spool);
+            throw new ImportQueueFullException("Too many library imports are waiting, please try again later");
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Returns the progress of an import into the library of a user.
+     *
+     * @param username the username of the user whose library is imported into
+     * @param id       the ID of the import
+     * @return the progress of the import
+     * @throws ImportJobNotFoundException if the user has no import with this ID, or it expired
+     */
+    public LibraryImportJobDto findImport(final String username, final UUID id) {
+        removeExpiredJobs();
+        final LibraryImportJob job = jobs.get(id);
+        if (job == null || !job.getUsername().equals(username)) {
+            throw new ImportJobNotFoundException("The import %s of user %s does not exist".formatted(id, username));
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Periodically cancels overdue imports and forgets imports finished longer than the retention.
+     */
+    @Scheduled(initialDelayString = "${libraryimport.cleanup-interval:PT1M}",
+            fixedDelayString = "${libraryimport.cleanup-interval:PT1M}")
+    public void removeExpiredJobs() {
+        final Instant now = Instant.now();
+        for (final LibraryImportJob job : jobs.values()) {
+            if (job.isOverdue(now, config.getMaxJobDuration())) {
+                logger.warn("Library import {} of user {} is cancelled after {}", job.getId(), job.getUsername(),
+                        config.getMaxJobDuration());
+                job.cancel("The import did not finish within %s".formatted(config.getMaxJobDuration()));
+            }
+        }
+        jobs.values().removeIf(job -> job.isExpired(now, config.getRetention()));
+    }
+
+    /**
+     * Stops the running imports and fetches when the application shuts down.
+     * <p>
+     * Batches written so far are kept; the rest of an interrupted file can be uploaded again.
+     * </p>
+     */
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Registers a queued import for the user if neither the user nor the queue is at its limit.
+     */
+    private LibraryImportJob reserveJob(final String username) {
+        admission.lock();
+        try {
+            final List<LibraryImportJob> unfinished = jobs.values().stream()
+                    .filter(job -> !job.isFinished())
+                    .toList();
+            if (unfinished.stream().filter(job -> job.getUsername().equals(username)).count()
+                    >= config.getMaxJobsPerUser()) {
+                throw new ImportLimitExceededException("User %s already has %d unfinished imports"
+                        .formatted(username, config.getMaxJobsPerUser()));
+            }
+            if (unfinished.size() >= Math.max(1, config.getMaxConcurrentJobs())
+                    + Math.max(1, config.getQueueCapacity())) {
+                throw new ImportQueueFullException("Too many library imports are waiting, please try again later");
+            }
+            final LibraryImportJob job = new LibraryImportJob(username, config.getMaxErrors());
+            jobs.put(job.getId(), job);
+            return job;
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    /**
+     * Copies the upload to a temporary file and checks its header.
+     */
+    private static Path spoolFile(final MultipartFile file) throws IOException {
+        final Path spool = Files.createTempFile("library-import-", ".csv");
+        try {
+            file.transferTo(spool);
+            try (InputStream in = Files.newInputStream(spool); LibraryCsvReader header = new LibraryCsvReader(in)) {
+                // the reader rejects an empty file or a header without ISBN column on construction
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        return spool;
+    }
+
+    private void runImport(final LibraryImportJob job, final UserAccount userAccount, final Path spool) {
+        if (!job.start()) {
+            deleteSpool(job, spool);
+            return;
+        }
+        try (InputStream in = Files.newInputStream(spool); LibraryCsvReader reader = new LibraryCsvReader(in)) {
+            final Map<String, Entry> batch = new LinkedHashMap<>();
+            LibraryImportRowDto row = reader.next();
+            while (row != null && !job.isFinished()) {
+                job.rowRead();
+                final Entry entry = validate(job, row);
+                if (entry != null && batch.putIfAbsent(entry.isbn(), entry) != null) {
+                    job.skipped(1);
+                }
+                if (batch.size() == config.getBatchSize()) {
+                    importBatch(job, userAccount, batch);
+                    batch.clear();
+                }
+                row = reader.next();
+            }
+            if (!batch.isEmpty() && !job.isFinished()) {
+                importBatch(job, userAccount, batch);
+            }
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Library import {} of user {} stopped", job.getId(), job.getUsername(), e);
+            job.abort(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.abort("The import was interrupted");
+        } finally {
+            deleteSpool(job, spool);
+        }
+    }
+
+    private void deleteSpool(final LibraryImportJob job, final Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            logger.warn("Spool file {} of library import {} could not be deleted", spool, job.getId(), e);
+        }
+    }
+
+    /**
+     * Checks and normalizes a row, reporting it as failed if it cannot be imported.
+     */
+    private Entry validate(final LibraryImportJob job, final LibraryImportRowDto row) {
+        final String isbn = row.isbn() == null ? "" : NON_ISBN_CHARACTERS.matcher(row.isbn()).replaceAll("");
+        if (!ISBN.matcher(isbn).matches()) {
+            job.failed(row.line(), row.isbn(), "ISBN must be 10 or 13 digits and contain only digits");
+            return null;
+        }
+
+        final String rating = row.rating() == null ? "" : row.rating().trim();
+        if (!rating.isEmpty() && !RATING.matcher(rating).matches()) {
+            job.failed(row.line(), row.isbn(), "Rating must be between 1 and 5, or 0 or empty for none");
+            return null;
+        }
+
+        final String comment = row.comment() == null || row.comment().isBlank() ? null : row.comment();
+        if (comment != null && comment.length() > UserBook.COMMENT_LENGTH) {
+            job.failed(row.line(), row.isbn(), "Comment must be at most %d characters".formatted(UserBook.COMMENT_LENGTH));
+            return null;
+        }
+
+        final Integer stars = rating.isEmpty() || "0".equals(rating) ? null : Integer.valueOf(rating);
+        return new Entry(row.line(), row.isbn(), isbn, stars, comment);
+    }
+
+    /**
+     * Resolves the books of a batch, fetching missing ones in parallel, and adds the batch to the library.
+     */
+    private void importBatch(final LibraryImportJob job, final UserAccount userAccount,
+                             final Map<String, Entry> batch) throws InterruptedException {
+        final Map<String, Book> books = bookRepository.findByIsbnIn(batch.keySet()).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity(), (first, second) -> first, HashMap::new));
+
+        final List<String> missing = batch.keySet().stream().filter(isbn -> !books.containsKey(isbn)).toList();
+        final List<Callable<Book>> fetches = missing.stream()
+                .<Callable<Book>>map(isbn -> () -> openLibraryService.findAndStoreBookByIsbn(isbn))
+                .toList();
+        final List<Future<Book>> fetched = fetchExecutor.invokeAll(fetches);
+        for (int i = 0; i < missing.size(); i++) {
+            final Entry entry = batch.get(missing.get(i));
+            try {
+                books.put(entry.isbn(), fetched.get(i).get());
+            } catch (ExecutionException e) {
+                job.failed(entry.line(), entry.rawIsbn(), e.getCause().getMessage());
+            }
+        }
+
+        final List<Entry> entries = batch.values().stream().filter(entry -> books.containsKey(entry.isbn())).toList();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        final int written = writeBatch(userAccount, entries, books);
+        job.imported(written);
+        job.skipped(entries.size() - written);
+    }
+
+    /**
+     * Inserts the entries the user does not hold yet, retrying if a concurrent request added one of them.
+     */
+    private int writeBatch(final UserAccount userAccount, final List<Entry> entries, final Map<String, Book> books) {
+        final int shard = shardLocator.shardOf(userAccount.getId());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                final Integer written = ShardRouting.onShard(shard, () -> transactionTemplate.execute(status ->
+                        insertEntries(shard, userAccount, entries, books)));
+                return written == null ? 0 : written;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS || !ConstraintViolations.isViolated(e, UserBook.USER_BOOK_CONSTRAINT)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private int insertEntries(final int shard, final UserAccount userAccount, final List<Entry> entries,
+                              final Map<String, Book> books) {
+        if (shard != ShardRouting.REFERENCE_SHARD) {
+            userBookRepository.copyUserAccount(userAccount);
+            entries.forEach(entry -> userBookRepository.copyBook(books.get(entry.isbn())));
+        }
+        final Set<Integer> held = new HashSet<>(userBookRepository.findBookIdsByUserAccountIdAndBookIdIn(
+                userAccount.getId(), entries.stream().map(entry -> books.get(entry.isbn()).getId()).toList()));
+
+        final List<UserBook> userBooks = new ArrayList<>();
+        for (final Entry entry : entries) {
+            final Book book = books.get(entry.isbn());
+            if (held.add(book.getId())) {
+                final UserBook userBook = new UserBook();
+                userBook.setUser(userAccount);
+                userBook.setBook(book);
+                userBook.setRating(entry.rating());
+                userBook.setComment(entry.comment());
+                userBooks.add(userBook);
+            }
+        }
+        userBookRepository.saveAll(userBooks);
+        if (!userBooks.isEmpty()) {
+            bookStatsRepository.addEntries(userBooks.stream().map(UserBook::getId).toList());
+        }
+        return userBooks.size();
+    }
+
+    /**
+     * A validated row of an import.
+     *
+     * @param line    the line of the file the row starts on
+     * @param rawIsbn the ISBN as given in the file
+     * @param isbn    the normalized ISBN
+     * @param rating  the rating, or {@code null} if there is none
+     * @param comment the comment, or {@code null} if there is none
+     */
+    private record Entry(long line, String rawIsbn, String isbn, Integer rating, String comment) {
+    }
+}
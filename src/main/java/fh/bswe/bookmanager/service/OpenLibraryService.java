@@ -3,17 +3,26 @@ package fh.bswe.bookmanager.service;
 import fh.bswe.bookmanager.dto.BookDto;
 import fh.bswe.bookmanager.dto.OpenLibraryAuthorDto;
 import fh.bswe.bookmanager.dto.OpenLibraryBookDto;
+import fh.bswe.bookmanager.entity.Author;
 import fh.bswe.bookmanager.entity.Book;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.helper.ConstraintViolations;
 import fh.bswe.bookmanager.helper.Mapper;
 import fh.bswe.bookmanager.helper.OpenLibraryFetcher;
+import fh.bswe.bookmanager.repository.AuthorRepository;
 import fh.bswe.bookmanager.repository.BookRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class that integrates with the Open Library API to fetch book data by ISBN
@@ -23,24 +32,37 @@ import java.util.List;
 public class OpenLibraryService {
     private final BookService bookService;
     private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
     private final OpenLibraryFetcher openLibraryFetcher;
+    private final CoverService coverService;
     private final Logger logger = LoggerFactory.getLogger(OpenLibraryService.class);
 
     /**
      * Constructs a new {@code OpenLibraryService} with the given repository.
      *
      * @param bookService the book service for interaction with the book database
+     * @param bookRepository the repository for inserting fetched books
+     * @param authorRepository the repository for resolving and storing authors
      * @param openLibraryFetcher the OpenLibrary helper for using its API
+     * @param coverService the cover service for storing fetched covers
      */
-    public OpenLibraryService(final BookService bookService, final BookRepository bookRepository, final OpenLibraryFetcher openLibraryFetcher) {
+    public OpenLibraryService(final BookService bookService, final BookRepository bookRepository,
+                              final AuthorRepository authorRepository,
+                              final OpenLibraryFetcher openLibraryFetcher, final CoverService coverService) {
         this.bookService = bookService;
         this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
         this.openLibraryFetcher = openLibraryFetcher;
+        this.coverService = coverService;
     }
 
     /**
      * Finds a book by ISBN. If the book is not found in the database,
      * it attempts to fetch the book data and cover from the Open Library API and stores it.
+     * The cover is written to the cover store and referenced from the book by its hash.
+     * The book is inserted only if its ISBN is still absent, so concurrent lookups of the
+     * same ISBN return the same stored book instead of creating duplicates. Authors are
+     * resolved from the author table; only unknown authors are fetched from Open Library.
      *
      * @param isbn the ISBN of the book to look up
      * @return the found or newly stored Book entity
@@ -61,23 +83,53 @@ public class OpenLibraryService {
             logger.error("Fetch Cover: {}", e.getMessage());
         }
 
-        final Book book = mapToEntity(bookDto, fetchAllAuthors(bookDto), image);
+        final List<Author> authors = fetchAllAuthors(bookDto);
+        final Book book = mapToEntity(bookDto, authors, image);
 
-        return bookRepository.save(book);
+        return insertOrFindExisting(book, authors);
     }
 
     /**
      * Finds a book by ISBN. If the book is not found in the database,
      * it attempts to fetch the book data and cover from the Open Library API and stores it.
      *
-     * @param isbn the ISBN of the book to look up
+     * @param isbn         the ISBN of the book to look up
+     * @param includeCover whether the cover image bytes should be inlined into the DTO
      * @return the found or newly stored Book DTO
      */
-    public BookDto findAndStoreBookByIsbnToDto(final String isbn) {
-        return Mapper.mapToDto(findAndStoreBookByIsbn(isbn));
+    public BookDto findAndStoreBookByIsbnToDto(final String isbn, final boolean includeCover) {
+        final Book book = findAndStoreBookByIsbn(isbn);
+
+        if (includeCover) {
+            return Mapper.mapToDto(book, coverService.readCover(book));
+        }
+
+        return Mapper.mapToDto(book);
     }
 
-    private Book mapToEntity(final OpenLibraryBookDto bookDto, final String authors, final byte[] image) {
+    private Book insertOrFindExisting(final Book book, final List<Author> authors) {
+        int inserted;
+        try {
+            inserted = bookRepository.insertIfAbsent(book);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isViolated(e, Book.ISBN_CONSTRAINT)) {
+                throw e;
+            }
+            logger.debug("Book (isbn: {}) was inserted concurrently", book.getIsbn());
+            inserted = 0;
+        }
+
+        if (inserted == 0) {
+            coverService.releaseCover(book.getCoverHash());
+        } else if (!authors.isEmpty()) {
+            bookRepository.linkAuthors(book.getIsbn(), authors);
+        }
+
+        return bookRepository.findByIsbn(book.getIsbn())
+                .orElseThrow(() -> new BookNotFoundException("Book (isbn: " + book.getIsbn() + ") not found"));
+    }
+
+    private Book mapToEntity(final OpenLibraryBookDto bookDto, final List<Author> authors, final byte[] image) {
         final Book book = new Book();
 
         if (bookDto.getIsbn_13() != null && !bookDto.getIsbn_13().isEmpty()) {
@@ -86,51 +138,74 @@ public class OpenLibraryService {
             book.setIsbn(bookDto.getIsbn_10().getFirst());
         }
 
-        book.setTitle(bookDto.getTitle());
-        book.setAuthors(authors);
+        book.setTitle(truncate(book.getIsbn(), "title", bookDto.getTitle(), Book.TITLE_LENGTH));
+        book.setAuthors(truncate(book.getIsbn(), "authors",
+                authors.stream().map(Author::getName).collect(Collectors.joining(", ")), Book.AUTHORS_LENGTH));
         book.setLanguage(extractLanguage(bookDto));
         book.setPublishDate(bookDto.getPublish_date());
-        book.setPublishers(extractPublishers(bookDto));
+        book.setPublishers(truncate(book.getIsbn(), "publishers", extractPublishers(bookDto),
+                Book.PUBLISHERS_LENGTH));
         book.setCoverKey(extractCoverKey(bookDto));
-        book.setCoverLink(generateCoverLink(book.getCoverKey()));
-        book.setCoverImage(image);
+        book.setCoverLink(limitCoverLink(book.getIsbn(), generateCoverLink(book.getCoverKey())));
+        book.setCoverHash(coverService.storeCover(image));
 
         return book;
     }
 
-    private String fetchAllAuthors(final OpenLibraryBookDto bookDto) {
-        final List<String> authors = new ArrayList<>();
+    /**
+     * Resolves the authors of a book: known authors are read from the author table in one
+     * query, only unknown authors are fetched from Open Library and stored. Authors whose
+     * name cannot be fetched are skipped and fetched again with the next edition.
+     */
+    private List<Author> fetchAllAuthors(final OpenLibraryBookDto bookDto) {
+        final Set<String> authorKeys = new LinkedHashSet<>();
 
-        if (bookDto.getAuthors() != null && !bookDto.getAuthors().isEmpty()) {
+        if (bookDto.getAuthors() != null) {
             for (final OpenLibraryBookDto.Author author : bookDto.getAuthors()) {
                 if (author.getKey() != null && author.getKey().contains("/")) {
-                    final String authorKey = author.getKey()
-                            .substring(author
-                                    .getKey()
-                                    .lastIndexOf('/') + 1);
-
-                    authors.add(fetchAuthor(authorKey));
+                    authorKeys.add(author.getKey().substring(author.getKey().lastIndexOf('/') + 1));
                 }
             }
+        }
+
+        if (authorKeys.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<String, Author> known = authorRepository.findByAuthorKeyIn(authorKeys).stream()
+                .collect(Collectors.toMap(Author::getAuthorKey, Function.identity()));
+        final List<Author> authors = new ArrayList<>();
 
-            authors.removeIf(String::isEmpty);
-            if (!authors.isEmpty()) {
-                return String.join(", ", authors);
+        for (final String authorKey : authorKeys) {
+            Author author = known.get(authorKey);
+            if (author == null) {
+                author = fetchAuthor(authorKey);
+            }
+            if (author != null) {
+                authors.add(author);
             }
         }
 
-        return "";
+        return authors;
     }
 
-    private String fetchAuthor(final String authorKey) {
+    private Author fetchAuthor(final String authorKey) {
         try {
             final OpenLibraryAuthorDto authorDto = openLibraryFetcher.fetchAuthor(authorKey);
-            return authorDto.getName();
+            if (authorDto.getName() == null || authorDto.getName().isEmpty()) {
+                return null;
+            }
+
+            final Author author = new Author();
+            author.setAuthorKey(authorKey);
+            author.setName(authorDto.getName());
+            authorRepository.insertIfAbsent(author);
+            return author;
         } catch (Exception e) {
             logger.error("Fetch Author: {}", e.getMessage());
         }
 
-        return "";
+        return null;
     }
 
     private String extractLanguage(final OpenLibraryBookDto bookDto) {
@@ -152,6 +227,37 @@ public class OpenLibraryService {
         return "";
     }
 
+    /**
+     * Shortens a value to the length of its column, ending it with an ellipsis so the truncation
+     * stays visible. A surrogate pair is never split.
+     */
+    private String truncate(final String isbn, final String field, final String value, final int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+
+        int end = maxLength - 1;
+        if (Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        logger.info("The {} of book (isbn: {}) has {} characters and was truncated to {}",
+                field, isbn, value.length(), maxLength);
+        return value.substring(0, end) + '\u2026';
+    }
+
+    /**
+     * Drops a cover link longer than its column, as a shortened link would point nowhere.
+     */
+    private String limitCoverLink(final String isbn, final String coverLink) {
+        if (coverLink == null || coverLink.length() <= Book.COVER_LINK_LENGTH) {
+            return coverLink;
+        }
+
+        logger.info("The cover link of book (isbn: {}) has {} characters and was not stored",
+                isbn, coverLink.length());
+        return null;
+    }
+
     private String extractCoverKey(final OpenLibraryBookDto bookDto) {
         if (bookDto.getCovers() != null && !bookDto.getCovers().isEmpty()) {
             return String.valueOf(bookDto.getCovers().getFirst());
@@ -0,0 +1,38 @@
+package fh.bswe.bookmanager.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off job that rebalances the library entries over the shards at application startup.
+ * <p>
+ * The job only runs if {@code datasource.sharding.rebalance-on-startup} is {@code true}. It is meant
+ * for the first start after a shard was added, which maps some users to the new shard.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "datasource.sharding", name = "rebalance-on-startup", havingValue = "true")
+public class ShardRebalanceJob implements ApplicationRunner {
+    private final ShardRebalanceService shardRebalanceService;
+
+    /**
+     * Constructs a new {@code ShardRebalanceJob}.
+     *
+     * @param shardRebalanceService the service moving the library entries
+     */
+    public ShardRebalanceJob(final ShardRebalanceService shardRebalanceService) {
+        this.shardRebalanceService = shardRebalanceService;
+    }
+
+    /**
+     * Rebalances the library entries.
+     *
+     * @param args the application arguments, not used
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        shardRebalanceService.rebalance();
+    }
+}
@@ -0,0 +1,202 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.ShardingConfig;
+import fh.bswe.bookmanager.dto.ShardRebalanceReportDto;
+import fh.bswe.bookmanager.dto.UserBookRowDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class that moves library entries stored on another shard than the one of their user.
+ * <p>
+ * Entries end up on the wrong shard when a shard is added, as the {@link ShardLocator} then maps
+ * some users to the new shard. Every shard is scanned for such users, and their entries are moved
+ * in batches of {@code datasource.sharding.rebalance-batch-size}: each batch is copied to the target
+ * shard and added to its {@link BookStats} in one transaction, then subtracted and deleted on the
+ * source shard in another. Entries the target already holds are not copied again, so a move
+ * interrupted between the two transactions is completed by the next run.
+ * </p>
+ * <p>
+ * Entries keep their user-owned columns but get a new ID and version on the target shard.
+ * Requests for a user being moved may miss the entries that are still on the source shard,
+ * so shards should be added and rebalanced in a maintenance window.
+ * </p>
+ */
+@Service
+public class ShardRebalanceService {
+    private final UserBookRepository userBookRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final BookRepository bookRepository;
+    private final BookStatsRepository bookStatsRepository;
+    private final ShardLocator shardLocator;
+    private final ShardingConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(ShardRebalanceService.class);
+
+    /**
+     * Constructs a new {@code ShardRebalanceService}.
+     *
+     * @param userBookRepository    the repository for moving {@link UserBook} entities
+     * @param userAccountRepository the repository for reading {@link UserAccount} entities
+     * @param bookRepository        the repository for reading {@link Book} entities
+     * @param bookStatsRepository   the repository for maintaining {@link BookStats}
+     * @param shardLocator          the mapping of users to the shards holding their entries
+     * @param config                the sharding configuration
+     * @param transactionManager    the transaction manager for moving each batch with its statistics
+     */
+    public ShardRebalanceService(final UserBookRepository userBookRepository,
+                                 final UserAccountRepository userAccountRepository,
+                                 final BookRepository bookRepository,
+                                 final BookStatsRepository bookStatsRepository,
+                                 final ShardLocator shardLocator,
+                                 final ShardingConfig config,
+                                 final PlatformTransactionManager transactionManager) {
+        this.userBookRepository = userBookRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.bookRepository = bookRepository;
+        this.bookStatsRepository = bookStatsRepository;
+        this.shardLocator = shardLocator;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Moves the entries of all users stored on another shard than their own, and logs the result.
+     * <p>
+     * A user whose entries cannot be moved is logged and skipped; the other users are moved regardless.
+     * </p>
+     *
+     * @return a report of the moved users and entries
+     */
+    public ShardRebalanceReportDto rebalance() {
+        if (!shardLocator.isSharded()) {
+            return new ShardRebalanceReportDto(0, 0, 0);
+        }
+
+        final int batchSize = config.getRebalanceBatchSize();
+        int movedUsers = 0;
+        long movedEntries = 0;
+        int failedUsers = 0;
+        for (int shard = 0; shard < shardLocator.getShardCount(); shard++) {
+            final int source = shard;
+            Integer after = 0;
+            List<Integer> userAccountIds;
+            do {
+                final Integer from = after;
+                userAccountIds = ShardRouting.onShard(source,
+                        () -> userBookRepository.findUserAccountIdsAfter(from, Limit.of(batchSize)));
+                for (final Integer userAccountId : userAccountIds) {
+                    final int target = shardLocator.shardOf(userAccountId);
+                    if (target == source) {
+                        continue;
+                    }
+                    try {
+                        movedEntries += moveLibrary(userAccountId, source, target);
+                        movedUsers++;
+                    } catch (RuntimeException e) {
+                        failedUsers++;
+                        logger.warn("Library of user account {} could not be moved from shard {} to shard {}",
+                                userAccountId, source, target, e);
+                    }
+                }
+                if (!userAccountIds.isEmpty()) {
+                    after = userAccountIds.getLast();
+                }
+            } while (userAccountIds.size() == batchSize);
+        }
+
+        logger.info("Shards rebalanced: {} entries of {} users moved, {} users failed",
+                movedEntries, movedUsers, failedUsers);
+        return new ShardRebalanceReportDto(movedUsers, movedEntries, failedUsers);
+    }
+
+    private long moveLibrary(final Integer userAccountId, final int source, final int target) {
+        final UserAccount userAccount = userAccountRepository.findIncludingDeletedById(userAccountId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "User account %d is missing from the reference shard".formatted(userAccountId)));
+        final int batchSize = config.getRebalanceBatchSize();
+        long moved = 0;
+        List<UserBookRowDto> rows;
+        do {
+            rows = ShardRouting.onShard(source,
+                    () -> userBookRepository.findRowsByUserAccountId(userAccountId, Limit.of(batchSize)));
+            if (!rows.isEmpty()) {
+                moved += copyRows(userAccount, rows, target);
+                deleteRows(rows, source);
+            }
+        } while (rows.size() == batchSize);
+
+        if (source != ShardRouting.REFERENCE_SHARD) {
+            ShardRouting.onShard(source, () -> userBookRepository.deleteUserAccountCopy(userAccountId));
+        }
+        return moved;
+    }
+
+    private int copyRows(final UserAccount userAccount, final List<UserBookRowDto> rows, final int target) {
+        final Map<Integer, Book> books = bookRepository.findByIdIn(rows.stream().map(UserBookRowDto::bookId).toList())
+                .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        for (final UserBookRowDto row : rows) {
+            if (!books.containsKey(row.bookId())) {
+                throw new IllegalStateException("Book %d of entry %d is missing from the reference shard"
+                        .formatted(row.bookId(), row.id()));
+            }
+        }
+
+        final Integer copied = ShardRouting.onShard(target, () -> transactionTemplate.execute(status -> {
+            if (target != ShardRouting.REFERENCE_SHARD) {
+                userBookRepository.copyUserAccount(userAccount);
+                books.values().forEach(userBookRepository::copyBook);
+            }
+            final Set<Integer> held = new HashSet<>(
+                    userBookRepository.findBookIdsByUserAccountIdAndBookIdIn(userAccount.getId(), books.keySet()));
+
+            final List<UserBook> entries = new ArrayList<>();
+            for (final UserBookRowDto row : rows) {
+                if (held.add(row.bookId())) {
+                    final UserBook entry = new UserBook();
+                    entry.setUser(userAccount);
+                    entry.setBook(books.get(row.bookId()));
+                    entry.setRating(row.rating());
+                    entry.setComment(row.comment());
+                    entries.add(entry);
+                }
+            }
+            userBookRepository.saveAll(entries);
+            if (!entries.isEmpty()) {
+                bookStatsRepository.addEntries(entries.stream().map(UserBook::getId).toList());
+            }
+            return entries.size();
+        }));
+        return copied == null ? 0 : copied;
+    }
+
+    private void deleteRows(final List<UserBookRowDto> rows, final int source) {
+        final List<Long> ids = rows.stream().map(UserBookRowDto::id).toList();
+        ShardRouting.onShard(source, () -> transactionTemplate.execute(status -> {
+            bookStatsRepository.removeEntries(ids);
+            return userBookRepository.deleteByIdIn(ids);
+        }));
+    }
+}
@@ -0,0 +1,211 @@
+package fh.bswe.bookmanager.service;
+
+import fh.bswe.bookmanager.config.UserAccountPurgeConfig;
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service class that purges the {@link UserAccount}s marked as deleted in the background.
+ * <p>
+ * Deleting an account only marks it; the library of a deleted account is removed here in
+ * batches of {@code useraccounts.purge.batch-size} entries, each in its own short transaction
+ * that also subtracts the batch from the {@link BookStats}, and the account row last. A run
+ * handles at most one batch of accounts and removes at most
+ * {@code useraccounts.purge.max-batches-per-run} batches of entries; a library that is not removed
+ * completely is continued by the next run. So neither a single statement nor a single run grows
+ * with the size of a library or the number of deletions. The library is removed on the shard
+ * of the account, followed by the copy of the account on that shard.
+ * Progress is exported as Micrometer counters of purged accounts and entries and a gauge of
+ * the accounts waiting to be purged.
+ * </p>
+ */
+@Service
+public class UserAccountPurgeService implements MeterBinder {
+    private final UserAccountRepository userAccountRepository;
+    private final UserBookRepository userBookRepository;
+    private final BookStatsRepository bookStatsRepository;
+    private final UserAccountPurgeConfig config;
+    private final ShardLocator shardLocator;
+    private final TransactionTemplate transactionTemplate;
+    private final LongAdder purgedAccounts = new LongAdder();
+    private final LongAdder purgedEntries = new LongAdder();
+    private final AtomicLong pendingAccounts = new AtomicLong();
+    private final Logger logger = LoggerFactory.getLogger(UserAccountPurgeService.class);
+
+    /**
+     * Constructs a new {@code UserAccountPurgeService}.
+     *
+     * @param userAccountRepository the repository for accessing {@link UserAccount} entities
+     * @param userBookRepository    the repository for accessing {@link UserBook} entities
+     * @param bookStatsRepository   the repository for maintaining {@link BookStats}
+     * @param config                the purge configuration
+     * @param shardLocator          the mapping of users to the shards holding their entries
+     * @param transactionManager    the transaction manager for deleting each batch with its statistics
+     */
+    public UserAccountPurgeService(final UserAccountRepository userAccountRepository,
+                                   final UserBookRepository userBookRepository,
+                                   final BookStatsRepository bookStatsRepository,
+                                   final UserAccountPurgeConfig config,
+                                   final ShardLocator shardLocator,
+                                   final PlatformTransactionManager transactionManager) {
+        this.userAccountRepository = userAccountRepository;
+        this.userBookRepository = userBookRepository;
+        this.bookStatsRepository = bookStatsRepository;
+        this.config = config;
+        this.shardLocator = shardLocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Periodically purges deleted accounts and logs the progress.
+     */
+    @Scheduled(initialDelayString = "${useraccounts.purge.interval:PT1M}",
+            fixedDelayString = "${useraccounts.purge.interval:PT1M}")
+    public void scheduledPurge() {
+        final long purged = purgeDeleted();
+        if (purged > 0) {
+            logger.info("Purged {} deleted user accounts, {} waiting", purged, pendingAccounts.get());
+        }
+    }
+
+    /**
+     * Purges up to one batch of deleted accounts together with their libraries, removing at most
+     * {@code useraccounts.purge.max-batches-per-run} batches of library entries.
+     *
+     * @return the number of purged accounts
+     */
+    public long purgeDeleted() {
+        pendingAccounts.set(userAccountRepository.countByDeletedAtIsNotNull());
+
+        long purged = 0;
+        int batches = 0;
+        final int maxBatches = Math.max(1, config.getMaxBatchesPerRun());
+        final List<Integer> ids = userAccountRepository.findDeletedIds(Limit.of(config.getBatchSize()));
+        for (int i = 0; i < ids.size() && batches < maxBatches; i++) {
+            final LibraryPurge library = purgeLibrary(ids.get(i), maxBatches - batches);
+            batches += library.batches();
+            if (library.complete() && purgeAccount(ids.get(i))) {
+                purged++;
+                purgedAccounts.increment();
+                pendingAccounts.decrementAndGet();
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Returns the number of accounts purged since startup.
+     *
+     * @return the number of purged accounts
+     */
+    public long getPurgedAccounts() {
+        return purgedAccounts.sum();
+    }
+
+    /**
+     * Returns the number of library entries purged since startup.
+     *
+     * @return the number of purged library entries
+     */
+    public long getPurgedEntries() {
+        return purgedEntries.sum();
+    }
+
+    /**
+     * Returns the number of deleted accounts waiting to be purged, as of the last run.
+     *
+     * @return the number of pending accounts
+     */
+    public long getPendingAccounts() {
+        return pendingAccounts.get();
+    }
+
+    /**
+     * Registers the purge metrics with the given registry.
+     *
+     * @param registry the registry to bind the metrics to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("useraccounts.purge.accounts", purgedAccounts, LongAdder::sum)
+                .description("Deleted user accounts purged from the database")
+                .register(registry);
+        FunctionCounter.builder("useraccounts.purge.entries", purgedEntries, LongAdder::sum)
+                .description("Library entries of deleted user accounts purged from the database")
+                .register(registry);
+        Gauge.builder("useraccounts.purge.pending", pendingAccounts, AtomicLong::get)
+                .description("Deleted user accounts waiting to be purged")
+                .register(registry);
+    }
+
+    private boolean purgeAccount(final Integer id) {
+        try {
+            return userAccountRepository.purgeDeletedById(id) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // a book was added while the library was purged; the next run removes it
+            logger.warn("Deleted user account {} could not be purged yet", id, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes up to the given number of batches of the library of an account on its shard, and the
+     * copy of the account on that shard once the library is empty.
+     */
+    private LibraryPurge purgeLibrary(final Integer id, final int maxBatches) {
+        final int shard = shardLocator.shardOf(id);
+        return ShardRouting.onShard(shard, () -> {
+            final int batchSize = config.getBatchSize();
+            int batches = 0;
+            List<Long> entries = userBookRepository.findIdsByUserAccountId(id, Limit.of(batchSize));
+            while (!entries.isEmpty() && batches < maxBatches) {
+                final List<Long> batch = entries;
+                purgedEntries.add(transactionTemplate.execute(status -> {
+                    bookStatsRepository.removeEntries(batch);
+                    return userBookRepository.deleteByIdIn(batch);
+                }));
+                batches++;
+                entries = batch.size() < batchSize
+                        ? List.of()
+                        : userBookRepository.findIdsByUserAccountId(id, Limit.of(batchSize));
+            }
+
+            final boolean complete = entries.isEmpty();
+            if (complete && shard != ShardRouting.REFERENCE_SHARD) {
+                userBookRepository.deleteUserAccountCopy(id);
+            }
+            return new LibraryPurge(batches, complete);
+        });
+    }
+
+    /**
+     * The result of purging the library of an account in one run.
+     *
+     * @param batches  the number of batches of entries removed
+     * @param complete whether the library is empty now
+     */
+    private record LibraryPurge(int batches, boolean complete) {
+    }
+}
@@ -5,10 +5,14 @@ import fh.bswe.bookmanager.dto.UserAccountUpdateDto;
 import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.exception.UserExistsException;
 import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.ConstraintViolations;
 import fh.bswe.bookmanager.helper.Mapper;
 import fh.bswe.bookmanager.repository.UserAccountRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -38,6 +42,7 @@ public class UserAccountService {
      * @return the corresponding {@link UserAccountDto} if found
      * @throws UserNotFoundException if no user account with the given username exists
      */
+    @Transactional(readOnly = true)
     public UserAccountDto findUserAccountByUsername(final String username) throws UserNotFoundException {
         final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
 
@@ -49,9 +54,11 @@ public class UserAccountService {
     }
 
     /**
-     * Saves a new user account after checking for uniqueness.
+     * Saves a new user account.
      * <p>
-     * If a user with the given username already exists, a {@link UserExistsException} is thrown.
+     * The account is inserted directly; the unique username constraint detects existing users,
+     * also when the same username is created concurrently. In that case a
+     * {@link UserExistsException} is thrown.
      * </p>
      *
      * @param userAccountDto the user account data to save
@@ -59,18 +66,23 @@ public class UserAccountService {
      * @throws UserExistsException if a user with the same username already exists
      */
     public UserAccountDto save(final UserAccountDto userAccountDto) throws UserExistsException {
-        if (findUserByUsername(userAccountDto.getUsername()).isPresent()) {
-            throw new UserExistsException();
+        try {
+            return Mapper.mapToDto(userAccountRepository.save(Mapper.mapToEntity(userAccountDto)));
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, UserAccount.USERNAME_CONSTRAINT)) {
+                throw new UserExistsException(e);
+            }
+            throw e;
         }
-
-        return Mapper.mapToDto(userAccountRepository.save(Mapper.mapToEntity(userAccountDto)));
     }
 
     /**
      * Updates the firstname and lastname of an existing user account.
      * <p>
-     * Looks up the user by username. If found, the firstname and lastname
-     * are updated using the values from the given {@link UserAccountUpdateDto}.
+     * The names are written with a single update keyed by username, without loading the
+     * account; the affected-row count tells whether the user exists. The ID is read in the same
+     * transaction, while the update holds the row lock, so a concurrent deletion cannot turn a
+     * successful update into a {@link UserNotFoundException}.
      * </p>
      * <p>
      * Returns the updated user data as a {@link UserAccountDto}.
@@ -82,24 +94,28 @@ public class UserAccountService {
      * @return the updated {@link UserAccountDto}
      * @throws UserNotFoundException if no user with the given username exists
      */
+    @Transactional
     public UserAccountDto updateUserAccount(final String username, final UserAccountUpdateDto userAccountUpdateDto) throws UserNotFoundException {
-        final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
-
-        if (userAccount.isEmpty()) {
+        if (userAccountRepository.updateNamesByUsername(username,
+                userAccountUpdateDto.getFirstname(), userAccountUpdateDto.getLastname()) == 0) {
             throw new UserNotFoundException();
         }
 
-        userAccount.get().setFirstname(userAccountUpdateDto.getFirstname());
-        userAccount.get().setLastname(userAccountUpdateDto.getLastname());
-
-        return Mapper.mapToDto(userAccountRepository.save(userAccount.get()));
+        final UserAccountDto userAccountDto = new UserAccountDto();
+        userAccountDto.setId(userAccountRepository.findIdByUsername(username).orElseThrow(UserNotFoundException::new));
+        userAccountDto.setUsername(username);
+        userAccountDto.setFirstname(userAccountUpdateDto.getFirstname());
+        userAccountDto.setLastname(userAccountUpdateDto.getLastname());
+        return userAccountDto;
     }
 
     /**
      * Deletes a user account by its username.
      * <p>
-     * Searches for a {@link fh.bswe.bookmanager.entity.UserAccount} using the provided username.
-     * If the user exists, it is deleted from the repository. Otherwise, a
+     * The account is only marked as deleted, with a single statement that neither loads the
+     * account nor its library, so the time does not depend on the size of the library. From then
+     * on the account is hidden from all reads; the {@link UserAccountPurgeService} removes it
+     * and its library in the background. If no such user exists, a
      * {@link fh.bswe.bookmanager.exception.UserNotFoundException} is thrown.
      * </p>
      *
@@ -107,16 +123,8 @@ public class UserAccountService {
      * @throws UserNotFoundException if no user with the given username exists
      */
     public void deleteUserAccountByUsername(final String username) throws UserNotFoundException {
-        final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
-
-        if (userAccount.isEmpty()) {
+        if (userAccountRepository.markDeletedByUsername(username, Instant.now()) == 0) {
             throw new UserNotFoundException();
         }
-
-        userAccountRepository.delete(userAccount.get());
-    }
-
-    private Optional<UserAccount> findUserByUsername(final String username) {
-        return userAccountRepository.findByUsername(username);
     }
 }
@@ -1,37 +1,80 @@
 package fh.bswe.bookmanager.service;
 
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.LibraryExportFormat;
 import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookStateDto;
 import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.BookStats;
 import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.entity.UserBook;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.InvalidCursorException;
 import fh.bswe.bookmanager.exception.UserBookExistsException;
 import fh.bswe.bookmanager.exception.UserBookNotFoundException;
+import fh.bswe.bookmanager.exception.UserBookVersionConflictException;
 import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.ConstraintViolations;
+import fh.bswe.bookmanager.helper.LibraryCursor;
+import fh.bswe.bookmanager.helper.LibraryExportWriter;
 import fh.bswe.bookmanager.helper.Mapper;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
 import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
 import fh.bswe.bookmanager.repository.UserAccountRepository;
 import fh.bswe.bookmanager.repository.UserBookRepository;
-import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing the association between users and books.
  * <p>
  * Handles operations for storing a book in a user's library by checking user existence,
- * avoiding duplicates, and fetching book data via the OpenLibrary API.
+ * avoiding duplicates, and fetching book data via the OpenLibrary API. Every change of a
+ * library entry updates the {@link BookStats} of its book in the same transaction.
+ * <p>
+ * Users and books are read from the reference shard. The entries of a user, and their share of
+ * the statistics, are read and written on the shard of the user given by the {@link ShardLocator},
+ * in transactions started inside {@link ShardRouting#onShard}. Without configured shards this is
+ * the reference shard, and the user is not looked up just to find it.
+ * </p>
  */
 @Service
 public class UserBookService {
+    /**
+     * Maximum number of attempts of a rating update without expected version, and of a removal.
+     */
+    public static final int MAX_RATING_ATTEMPTS = 3;
+
+    /**
+     * Number of exported entries after which the export is flushed to the client.
+     */
+    public static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final UserBookRepository userBookRepository;
     private final UserAccountRepository userAccountRepository;
     private final BookRepository bookRepository;
+    private final BookStatsRepository bookStatsRepository;
     private final OpenLibraryService openLibraryService;
+    private final CoverService coverService;
+    private final ShardLocator shardLocator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     /**
      * Constructs a new {@code UserBookService} with the given repositories and OpenLibrary service.
@@ -43,30 +86,50 @@ public class UserBookService {
      * @param openLibraryService       the service for retrieving book data via the OpenLibrary API
      * @param bookRepository           the repository for accessing {@link Book} entities
      * @param userAccountRepository    the repository for accessing {@link UserAccount} entities
+     * @param coverService             the service for reading book covers
+     * @param bookStatsRepository      the repository for maintaining {@link BookStats}
+     * @param shardLocator             the mapping of users to the shards holding their entries
+     * @param transactionManager       the transaction manager for changing entries together with their statistics
      */
     public UserBookService(final UserBookRepository userBookRepository,
                            final OpenLibraryService openLibraryService,
                            final BookRepository bookRepository,
-                           final UserAccountRepository userAccountRepository) {
+                           final UserAccountRepository userAccountRepository,
+                           final CoverService coverService,
+                           final BookStatsRepository bookStatsRepository,
+                           final ShardLocator shardLocator,
+                           final PlatformTransactionManager transactionManager) {
         this.userBookRepository = userBookRepository;
         this.openLibraryService = openLibraryService;
         this.bookRepository = bookRepository;
         this.userAccountRepository = userAccountRepository;
+        this.coverService = coverService;
+        this.bookStatsRepository = bookStatsRepository;
+        this.shardLocator = shardLocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     /**
      * Associates a book with a user's library based on username and ISBN.
      * <p>
      * If the user does not exist, a {@link UserNotFoundException} is thrown.
-     * If the user already has this book, a {@link UserBookExistsException} is thrown.
+     * The entry is inserted directly; if the user already has this book, the unique
+     * user book constraint rejects it and a {@link UserBookExistsException} is thrown.
+     * The book is fetched outside of the transaction that inserts the entry and counts
+     * the new reader in the statistics of the book. On a shard other than the reference shard,
+     * this transaction first copies the user and the book, unless the shard already holds them.
      *
-     * @param username the username of the user
-     * @param isbn     the ISBN of the book to be added
+     * @param username     the username of the user
+     * @param isbn         the ISBN of the book to be added
+     * @param includeCover whether the cover image bytes should be inlined into the DTO
      * @return the stored book as {@link BookDto}
      * @throws UserNotFoundException   if the user could not be found
      * @throws UserBookExistsException if the book is already stored for the user
      */
-    public BookDto storeBookToUserLibrary(final String username, final String isbn) throws UserNotFoundException {
+    public BookDto storeBookToUserLibrary(final String username, final String isbn, final boolean includeCover)
+            throws UserNotFoundException {
         final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
 
         if (userAccount.isEmpty()) {
@@ -74,16 +137,31 @@ public class UserBookService {
         }
 
         final Book book = openLibraryService.findAndStoreBookByIsbn(isbn);
-
-        if (userBookRepository.existsByUserAccountAndBook(userAccount.get(), book)) {
-            throw new UserBookExistsException("The book %s was already added to user %s".formatted(isbn, username));
-        }
+        final int shard = shardLocator.shardOf(userAccount.get().getId());
 
         final UserBook userBook = new UserBook();
         userBook.setBook(book);
         userBook.setUser(userAccount.get());
 
-        userBookRepository.save(userBook);
+        try {
+            ShardRouting.onShard(shard, () -> transactionTemplate.execute(status -> {
+                if (shard != ShardRouting.REFERENCE_SHARD) {
+                    userBookRepository.copyUserAccount(userAccount.get());
+                    userBookRepository.copyBook(book);
+                }
+                userBookRepository.save(userBook);
+                return bookStatsRepository.applyChange(book.getId(), 1, null, null);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolated(e, UserBook.USER_BOOK_CONSTRAINT)) {
+                throw new UserBookExistsException("The book %s was already added to user %s".formatted(isbn, username), e);
+            }
+            throw e;
+        }
+
+        if (includeCover) {
+            return Mapper.mapToDto(book, coverService.readCover(book));
+        }
 
         return Mapper.mapToDto(book);
     }
@@ -91,9 +169,10 @@ public class UserBookService {
     /**
      * Removes a book from a user's personal library based on the given username and ISBN.
      * <p>
-     * This method first verifies that the user exists, the book exists in the database,
-     * and that the book is currently associated with the user's library. If any of these
-     * checks fail, the corresponding exception is thrown.
+     * The entry is read as projection and deleted by ID in the version read, and its rating is
+     * subtracted from the statistics of the book in the same transaction. If a concurrent rating
+     * changed the entry in between, it is read again, at most {@value #MAX_RATING_ATTEMPTS} times.
+     * Only if no entry exists, the user and the book are looked up to throw the matching exception.
      * </p>
      *
      * @param username the username of the user
@@ -101,71 +180,125 @@ public class UserBookService {
      * @throws UserNotFoundException     if the user does not exist in the database
      * @throws BookNotFoundException     if the book does not exist in the database
      * @throws UserBookNotFoundException if the book is not associated with the user's library
+     * @throws UserBookVersionConflictException if concurrent updates exhausted all attempts
      */
-    @Transactional
     public void removeBookFromUserLibrary(final String username, final String isbn) throws UserNotFoundException {
-        final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
+        final Boolean removed = ShardRouting.onShard(shardOf(username),
+                () -> transactionTemplate.execute(status -> removeEntry(username, isbn)));
 
-        if (userAccount.isEmpty()) {
-            throw new UserNotFoundException();
+        if (!Boolean.TRUE.equals(removed)) {
+            throw notFound(username, isbn, "The book %s is not in the user %s".formatted(isbn, username));
         }
+    }
 
-        final Optional<Book> book = bookRepository.findByIsbn(isbn);
+    /**
+     * Removes the entry within the current transaction, retrying on concurrent version changes.
+     *
+     * @param username the username of the user
+     * @param isbn     the ISBN of the book to remove
+     * @return {@code true} if the entry was removed, {@code false} if there is none
+     * @throws UserBookVersionConflictException if concurrent updates exhausted all attempts
+     */
+    private boolean removeEntry(final String username, final String isbn) {
+        for (int attempt = 1; attempt <= MAX_RATING_ATTEMPTS; attempt++) {
+            final Optional<UserBookStateDto> state = userBookRepository.findState(username, isbn);
 
-        if (book.isEmpty()) {
-            throw new BookNotFoundException("The book %s is not in the database.".formatted(isbn));
-        }
+            if (state.isEmpty()) {
+                return false;
+            }
 
-        if (!userBookRepository.existsByUserAccountAndBook(userAccount.get(), book.get())) {
-            throw new UserBookNotFoundException("The book %s is not in the user %s".formatted(isbn, username));
+            if (userBookRepository.deleteByIdAndVersion(state.get().id(), state.get().version()) == 1) {
+                bookStatsRepository.applyChange(state.get().bookId(), -1, state.get().rating(), null);
+                return true;
+            }
         }
 
-        userBookRepository.deleteByUserAccountAndBook(userAccount.get(), book.get());
+        throw new UserBookVersionConflictException(
+                "The book %s of user %s is being changed concurrently".formatted(isbn, username));
     }
 
     /**
-     * Retrieves a list of books from the library of a specific user.
-     * If a rating filter is applied, only those books will be shown.
+     * Retrieves one page of books from the library of a specific user.
+     * Only the books matching the given filter are returned, in the requested order.
      * <p>
      * This method looks up the user by their username. If the user exists,
-     * it retrieves all {@link UserBook} associations
-     * and maps them to {@link UserBookDto} representations.
+     * the page is read with a single projection query directly into {@link UserBookDto}
+     * representations; filtering, sorting and paging happen in the database. Pages are
+     * found by seeking past the cursor of the previous page, never by an offset.
      * </p>
      *
      * @param username  the username of the user whose book library is to be retrieved
-     * @param rating    the rating of the books to filter (1-5). If null no filter will be applied.
-     * @return a list of {@link UserBookDto} objects representing the user's books
-     * @throws UserNotFoundException if no {@link UserAccount} with the given username exists
+     * @param filter    the filters and sort order to apply
+     * @param cursor    the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit     the maximum number of books of the page
+     * @return the page of {@link UserBookDto} objects with the cursor of the next page, if any
+     * @throws UserNotFoundException  if no {@link UserAccount} with the given username exists
+     * @throws InvalidCursorException if the cursor is malformed or belongs to another sort order
      */
-    public List<UserBookDto> readUserBooks(final String username, final Integer rating) throws UserNotFoundException {
+    public UserBookPageDto readUserBooks(final String username, final UserBookFilterDto filter,
+                                         final String cursor, final int limit) throws UserNotFoundException {
+        final LibraryCursor after = cursor == null ? null
+                : LibraryCursor.decode(cursor, filter.sort(), filter.descending());
         final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
 
         if (userAccount.isEmpty()) {
             throw new UserNotFoundException();
         }
 
-        List<UserBook> userBooks = userBookRepository.findByUserAccount(userAccount.get());
+        return ShardRouting.onShard(shardLocator.shardOf(userAccount.get().getId()),
+                () -> readOnlyTransactionTemplate.execute(status ->
+                        userBookRepository.findLibraryPage(userAccount.get(), filter, after, limit)));
+    }
+
+    /**
+     * Writes the whole library of a user to the given stream, in insertion order.
+     * <p>
+     * The entries are streamed from the database within one read-only transaction on the shard of
+     * the user and written one by one, flushing the output every {@value #EXPORT_FLUSH_INTERVAL}
+     * entries, so the memory needed is the same for any size of library and the client receives
+     * the export while it is read. The stream is not closed.
+     * </p>
+     *
+     * @param username     the username of the user
+     * @param format       the format of the export
+     * @param outputStream the stream to write to
+     * @return the number of exported entries
+     * @throws UserNotFoundException if the user does not exist
+     * @throws IOException           if the export cannot be written
+     */
+    public long exportUserBooks(final String username, final LibraryExportFormat format,
+                                final OutputStream outputStream) throws UserNotFoundException, IOException {
+        final UserAccount userAccount = userAccountRepository.findByUsername(username)
+                .orElseThrow(UserNotFoundException::new);
+        final LibraryExportWriter writer = new LibraryExportWriter(outputStream, format, EXPORT_FLUSH_INTERVAL);
 
-        if (rating != null) {
-            userBooks = userBooks.stream()
-                    .filter(book -> rating.equals(book.getRating()))
-                    .toList();
+        try {
+            ShardRouting.onShard(shardLocator.shardOf(userAccount.getId()),
+                    () -> readOnlyTransactionTemplate.execute(status -> {
+                        try (Stream<UserBookDto> entries =
+                                     userBookRepository.streamLibraryByUserAccountId(userAccount.getId())) {
+                            final Iterator<UserBookDto> iterator = entries.iterator();
+                            while (iterator.hasNext()) {
+                                writer.write(iterator.next());
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
-        return userBooks.stream().map(Mapper::mapToDto).collect(Collectors.toList());
+        writer.flush();
+        return writer.getWritten();
     }
 
     /**
      * Adds or updates a rating and comment for a specific book in a user's library.
      * <p>
-     * The method performs the following steps:
-     * <ul>
-     *     <li>Validates if the user exists.</li>
-     *     <li>Checks if the book exists in the system.</li>
-     *     <li>Ensures that the book is already associated with the user.</li>
-     *     <li>Updates the rating and comment fields of the existing user-book mapping.</li>
-     *     <li>Persists the changes and returns the updated {@link UserBookDto}.</li>
-     * </ul>
+     * Equivalent to {@link #addRating(String, String, UserBookDto, Set)} without expected versions.
+     * </p>
      *
      * @param username the username of the user
      * @param isbn the ISBN of the book
@@ -174,31 +307,129 @@ public class UserBookService {
      * @throws UserNotFoundException if the user does not exist
      * @throws BookNotFoundException if the book is not found in the database
      * @throws UserBookNotFoundException if the user has not added the book yet
+     * @throws UserBookVersionConflictException if concurrent updates exhausted all attempts
      */
-    public UserBookDto addRating(final String username, final String isbn, final UserBookDto userBookDto) throws UserNotFoundException {
-        final Optional<UserAccount> userAccount = userAccountRepository.findByUsername(username);
+    public UserBookDto addRating(final String username, final String isbn, final UserBookDto userBookDto)
+            throws UserNotFoundException {
+        return addRating(username, isbn, userBookDto, null);
+    }
 
-        if (userAccount.isEmpty()) {
-            throw new UserNotFoundException();
+    /**
+     * Adds or updates a rating and comment for a specific book in a user's library.
+     * <p>
+     * Rating and comment are written with a single conditional update keyed by username, ISBN
+     * and version, and the updated entry is read back as projection, so neither the user nor
+     * the book are loaded and no row is locked while waiting. The update is based on the state
+     * read just before; with expected versions, it is rejected unless the entry still has one of
+     * these versions. Without, if a concurrent update wins in between, the state is read again
+     * and the update retried, at most {@value #MAX_RATING_ATTEMPTS} times. The statistics of
+     * the book are moved from the rating read to the new rating in the same transaction.
+     * Only if no entry exists, the user and the book are looked up to throw the matching exception.
+     * </p>
+     *
+     * @param username the username of the user
+     * @param isbn the ISBN of the book
+     * @param userBookDto the DTO containing the new rating and comment
+     * @param expectedVersions the versions the client accepts as base of the update, or {@code null} for any
+     * @return the updated {@link UserBookDto} with its new version
+     * @throws UserNotFoundException if the user does not exist
+     * @throws BookNotFoundException if the book is not found in the database
+     * @throws UserBookNotFoundException if the user has not added the book yet
+     * @throws UserBookVersionConflictException if the entry has none of the expected versions,
+     *                                          or concurrent updates exhausted all attempts
+     */
+    public UserBookDto addRating(final String username, final String isbn, final UserBookDto userBookDto,
+                                 final Set<Long> expectedVersions) throws UserNotFoundException {
+        final String notFoundMessage = "The book %s was not found for user %s".formatted(isbn, username);
+        final Optional<UserBookDto> updated = ShardRouting.onShard(shardOf(username),
+                () -> transactionTemplate.execute(status ->
+                        updateRating(username, isbn, userBookDto, expectedVersions, notFoundMessage)));
+
+        if (updated == null || updated.isEmpty()) {
+            throw notFound(username, isbn, notFoundMessage);
         }
+        return updated.get();
+    }
+
+    /**
+     * Updates the rating within the current transaction, retrying on concurrent version changes
+     * unless versions are expected.
+     *
+     * @param username        the username of the user
+     * @param isbn            the ISBN of the book
+     * @param userBookDto     the DTO containing the new rating and comment
+     * @param expectedVersions the versions the client accepts as base of the update, or {@code null} for any
+     * @param notFoundMessage  the message if the entry disappears after the update
+     * @return an {@link Optional} containing the updated entry, or empty if there is none
+     * @throws UserBookVersionConflictException if the entry has none of the expected versions,
+     *                                          or concurrent updates exhausted all attempts
+     */
+    private Optional<UserBookDto> updateRating(final String username, final String isbn,
+                                               final UserBookDto userBookDto, final Set<Long> expectedVersions,
+                                               final String notFoundMessage) {
+        for (int attempt = 1; attempt <= MAX_RATING_ATTEMPTS; attempt++) {
+            final Optional<UserBookStateDto> state = userBookRepository.findState(username, isbn);
 
-        final Optional<Book> book = bookRepository.findByIsbn(isbn);
+            if (state.isEmpty()) {
+                return Optional.empty();
+            }
 
-        if (book.isEmpty()) {
-            throw new BookNotFoundException("The book %s is not in the database.".formatted(isbn));
+            if (expectedVersions != null && !expectedVersions.contains(state.get().version())) {
+                throw new UserBookVersionConflictException(
+                        "The rating of book %s for user %s has version %d, not one of %s"
+                                .formatted(isbn, username, state.get().version(), new TreeSet<>(expectedVersions)));
+            }
+
+            if (userBookRepository.updateRatingByUsernameAndIsbn(username, isbn,
+                    userBookDto.getRating(), userBookDto.getComment(), state.get().version()) == 1) {
+                bookStatsRepository.applyChange(state.get().bookId(), 0, state.get().rating(),
+                        userBookDto.getRating());
+                return Optional.of(userBookRepository.findLibraryEntry(username, isbn)
+                        .orElseThrow(() -> new UserBookNotFoundException(notFoundMessage)));
+            }
         }
 
-        final Optional<UserBook> userBook = userBookRepository.findByUserAccountAndBook(userAccount.get(), book.get());
+        throw new UserBookVersionConflictException(
+                "The rating of book %s for user %s is being changed concurrently".formatted(isbn, username));
+    }
 
-        if (userBook.isEmpty()) {
-            throw new UserBookNotFoundException("The book %s was not found for user %s".formatted(isbn, username));
+    /**
+     * Determines the shard holding the library entries of the user with the given username.
+     * <p>
+     * Without configured shards, the user is not looked up; the entry queries find missing users.
+     * </p>
+     *
+     * @param username the username of the user
+     * @return the index of the shard
+     * @throws UserNotFoundException if entries are sharded and the user does not exist
+     */
+    private int shardOf(final String username) throws UserNotFoundException {
+        if (!shardLocator.isSharded()) {
+            return ShardRouting.REFERENCE_SHARD;
         }
+        return shardLocator.shardOf(userAccountRepository.findByUsername(username)
+                .orElseThrow(UserNotFoundException::new).getId());
+    }
 
-        userBook.get().setRating(userBookDto.getRating());
-        userBook.get().setComment(userBookDto.getComment());
+    /**
+     * Determines why no library entry matched the given username and ISBN.
+     *
+     * @param username the username of the user
+     * @param isbn     the ISBN of the book
+     * @param message  the message if both user and book exist
+     * @return the {@link BookNotFoundException} or {@link UserBookNotFoundException} to throw
+     * @throws UserNotFoundException if the user does not exist
+     */
+    private RuntimeException notFound(final String username, final String isbn, final String message)
+            throws UserNotFoundException {
+        if (!userAccountRepository.existsByUsername(username)) {
+            throw new UserNotFoundException();
+        }
 
-        final UserBook savedUserBook = userBookRepository.save(userBook.get());
+        if (!bookRepository.existsByIsbn(isbn)) {
+            return new BookNotFoundException("The book %s is not in the database.".formatted(isbn));
+        }
 
-        return Mapper.mapToDto(savedUserBook);
+        return new UserBookNotFoundException(message);
     }
 }
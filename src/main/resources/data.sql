@@ -1,18 +1,27 @@
-INSERT INTO user_account (username, firstname, lastname) VALUES
-    ('jdoe1', 'John', 'Doe'),
-    ('asmith', 'Alice', 'Smith'),
-    ('bwayne', 'Bruce', 'Wayne'),
-    ('stx85', 'Bruce', 'Wayne');
+INSERT INTO user_account (id, username, firstname, lastname, version) VALUES
+    (1, 'jdoe1', 'John', 'Doe', 0),
+    (2, 'asmith', 'Alice', 'Smith', 0),
+    (3, 'bwayne', 'Bruce', 'Wayne', 0),
+    (4, 'stx85', 'Bruce', 'Wayne', 0);
 
-INSERT INTO book (isbn, title, authors, publish_date, publishers, cover_link, cover_image, language) VALUES
-    ('9783161484100', 'Clean Code', 'Robert C. Martin', '2008', 'Prentice Hall', 'https://example.com/clean-code.jpg', NULL, 'en'),
-    ('9780134685991', 'Effective Java', 'Joshua Bloch', '2018', 'Addison-Wesley', 'https://example.com/effective-java.jpg', NULL, 'en'),
-    ('9780201633610', 'Design Patterns', 'Erich Gamma, Richard Helm, Ralph Johnson, John Vlissides', '1994', 'Addison-Wesley', 'https://example.com/design-patterns.jpg', NULL, 'en');
+INSERT INTO book (id, isbn, title, authors, publish_date, publish_year, publishers, cover_link, cover_image, language) VALUES
+    (1, '9783161484100', 'Clean Code', 'Robert C. Martin', '2008', 2008, 'Prentice Hall', 'https://example.com/clean-code.jpg', NULL, 'en'),
+    (2, '9780134685991', 'Effective Java', 'Joshua Bloch', '2018', 2018, 'Addison-Wesley', 'https://example.com/effective-java.jpg', NULL, 'en'),
+    (3, '9780201633610', 'Design Patterns', 'Erich Gamma, Richard Helm, Ralph Johnson, John Vlissides', '1994', 1994, 'Addison-Wesley', 'https://example.com/design-patterns.jpg', NULL, 'en');
 
-INSERT INTO user_book (user_account_id, book_id, rating, comment) VALUES
-    (1, 1, 5, 'Tolles Buch für Clean-Code-Prinzipien'),
-    (1, 2, 4, 'Sehr hilfreich, aber etwas fortgeschritten'),
-    (2, 3, 5, 'Ein Klassiker für Softwaredesign'),
-    (3, 1, 3, 'Guter Einstieg, aber etwas trocken'),
-    (4, 1, 3, 'Guter Einstieg, aber etwas trocken'),
-    (4, 2, 3, 'Guter Einstieg, aber etwas trocken');
\ No newline at end of file
+INSERT INTO user_book (id, user_account_id, book_id, rating, comment, version) VALUES
+    (1, 1, 1, 5, 'Tolles Buch für Clean-Code-Prinzipien', 0),
+    (2, 1, 2, 4, 'Sehr hilfreich, aber etwas fortgeschritten', 0),
+    (3, 2, 3, 5, 'Ein Klassiker für Softwaredesign', 0),
+    (4, 3, 1, 3, 'Guter Einstieg, aber etwas trocken', 0),
+    (5, 4, 1, 3, 'Guter Einstieg, aber etwas trocken', 0),
+    (6, 4, 2, 3, 'Guter Einstieg, aber etwas trocken', 0);
+
+INSERT INTO book_stats (book_id, readers, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) VALUES
+    (1, 3, 3, 11, 0, 0, 2, 0, 1),
+    (2, 2, 2, 7, 0, 0, 1, 1, 0),
+    (3, 1, 1, 5, 0, 0, 0, 0, 1);
+
+ALTER SEQUENCE user_account_seq RESTART WITH 5;
+ALTER SEQUENCE book_seq RESTART WITH 4;
+ALTER SEQUENCE user_book_seq RESTART WITH 7;
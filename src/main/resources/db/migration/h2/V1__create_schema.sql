@@ -0,0 +1,55 @@
+-- Initial schema of the book manager, matching the JPA mapping of the entities.
+-- IDs are allocated by Hibernate in pooled blocks of 50, so the sequences increment by 50.
+
+create sequence book_seq start with 1 increment by 50;
+create sequence user_account_seq start with 1 increment by 50;
+create sequence user_book_seq start with 1 increment by 50;
+
+create table book (
+    id integer not null,
+    isbn varchar(13) not null,
+    title clob,
+    authors clob,
+    publish_date varchar(30),
+    publish_year integer,
+    publishers clob,
+    cover_key varchar(30),
+    cover_link clob,
+    cover_image blob,
+    cover_hash varchar(64),
+    language varchar(10),
+    constraint pk_book primary key (id),
+    constraint uk_book_isbn unique (isbn)
+);
+
+create table cover (
+    hash varchar(64) not null,
+    size bigint not null,
+    reference_count integer not null,
+    placeholder boolean not null,
+    constraint pk_cover primary key (hash)
+);
+
+create table user_account (
+    id integer not null,
+    username varchar(20) not null,
+    firstname varchar(20) not null,
+    lastname varchar(20) not null,
+    constraint pk_user_account primary key (id),
+    constraint uk_user_account_username unique (username)
+);
+
+create table user_book (
+    id bigint not null,
+    user_account_id integer not null,
+    book_id integer not null,
+    rating integer,
+    comment clob,
+    constraint pk_user_book primary key (id),
+    constraint uk_user_book unique (user_account_id, book_id),
+    constraint fk_user_book_user_account foreign key (user_account_id) references user_account (id),
+    constraint fk_user_book_book foreign key (book_id) references book (id)
+);
+
+create index idx_user_book_user_rating on user_book (user_account_id, rating, book_id);
+create index idx_user_book_user_id on user_book (user_account_id, id);
@@ -0,0 +1,19 @@
+-- Authors keyed by their OpenLibrary author key, referenced by books through book_author.
+-- The joined names in book.authors are kept for display and filtering.
+
+create table author (
+    author_key varchar(20) not null,
+    name varchar(255) not null,
+    constraint pk_author primary key (author_key)
+);
+
+create table book_author (
+    book_id integer not null,
+    author_key varchar(20) not null,
+    author_order integer not null,
+    constraint pk_book_author primary key (book_id, author_order),
+    constraint fk_book_author_book foreign key (book_id) references book (id),
+    constraint fk_book_author_author foreign key (author_key) references author (author_key)
+);
+
+create index idx_book_author_author on book_author (author_key, book_id);
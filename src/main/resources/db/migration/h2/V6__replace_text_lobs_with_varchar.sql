@@ -0,0 +1,15 @@
+-- Bounded VARCHAR columns instead of CLOBs for the text of books and library entries, so the values
+-- are stored in the row. Longer texts are truncated first and end with an ellipsis, as at ingest;
+-- longer cover links are removed, as a shortened link would be invalid. The cover image stays a BLOB.
+
+update book set title = left(title, 499) || '…' where length(title) > 500;
+update book set authors = left(authors, 999) || '…' where length(authors) > 1000;
+update book set publishers = left(publishers, 499) || '…' where length(publishers) > 500;
+update book set cover_link = null where length(cover_link) > 255;
+update user_book set comment = left(comment, 1999) || '…' where length(comment) > 2000;
+
+alter table book alter column title set data type varchar(500);
+alter table book alter column authors set data type varchar(1000);
+alter table book alter column publishers set data type varchar(500);
+alter table book alter column cover_link set data type varchar(255);
+alter table user_book alter column comment set data type varchar(2000);
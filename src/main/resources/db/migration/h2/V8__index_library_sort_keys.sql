@@ -0,0 +1,10 @@
+-- Indexes matching the sort keys of library pages, which seek past the plain column and the entry ID.
+-- The rating index ends with the entry ID instead of the book ID, so a page sorted by rating is
+-- read from the index in order.
+
+drop index idx_user_book_user_rating;
+create index idx_user_book_user_rating on user_book (user_account_id, rating, id);
+
+create index idx_book_title on book (title);
+create index idx_book_authors on book (authors);
+create index idx_book_publish_year on book (publish_year);
@@ -0,0 +1,4 @@
+-- Version columns for optimistic concurrency control of user accounts and library entries.
+
+alter table user_account add column version bigint default 0 not null;
+alter table user_book add column version bigint default 0 not null;
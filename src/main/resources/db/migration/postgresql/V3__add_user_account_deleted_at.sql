@@ -0,0 +1,5 @@
+-- Soft-deletion of user accounts: deleted accounts are marked and purged in the background.
+
+alter table user_account add column deleted_at timestamp(6) with time zone;
+
+create index idx_user_account_deleted_at on user_account (deleted_at) where deleted_at is not null;
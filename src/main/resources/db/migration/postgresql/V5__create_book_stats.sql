@@ -0,0 +1,25 @@
+-- Per-book aggregates of readers and ratings, maintained with every change of user_book.
+-- No foreign key to book, so the statistics can be rebuilt independently of the books.
+
+create table book_stats (
+    book_id integer not null,
+    readers bigint not null,
+    rating_count bigint not null,
+    rating_sum bigint not null,
+    rating_1 bigint not null,
+    rating_2 bigint not null,
+    rating_3 bigint not null,
+    rating_4 bigint not null,
+    rating_5 bigint not null,
+    constraint pk_book_stats primary key (book_id)
+);
+
+insert into book_stats (book_id, readers, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5)
+select ub.book_id, count(*), count(ub.rating), coalesce(sum(ub.rating), 0),
+       sum(case when ub.rating = 1 then 1 else 0 end),
+       sum(case when ub.rating = 2 then 1 else 0 end),
+       sum(case when ub.rating = 3 then 1 else 0 end),
+       sum(case when ub.rating = 4 then 1 else 0 end),
+       sum(case when ub.rating = 5 then 1 else 0 end)
+from user_book ub
+group by ub.book_id;
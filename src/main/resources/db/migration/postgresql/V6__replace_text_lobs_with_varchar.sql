@@ -0,0 +1,42 @@
+-- Bounded VARCHAR columns instead of large objects for the text of books and library entries, so the
+-- values are stored in the row instead of in pg_largeobject. Longer texts are truncated and end with
+-- an ellipsis, as at ingest; longer cover links are removed, as a shortened link would be invalid. The
+-- large objects are unlinked after the conversion; the cover image stays a large object.
+
+create temporary table replaced_large_object (lo oid not null) on commit drop;
+
+insert into replaced_large_object (lo)
+select title from book where title is not null
+union all select authors from book where authors is not null
+union all select publishers from book where publishers is not null
+union all select cover_link from book where cover_link is not null
+union all select comment from user_book where comment is not null;
+
+create function pg_temp.lo_text(lo oid, max_length integer) returns varchar as $$
+    select case
+        when length(t) > max_length then left(t, max_length - 1) || '…'
+        else t
+    end
+    from (select convert_from(lo_get(lo), 'UTF8') as t) s
+$$ language sql;
+
+create function pg_temp.lo_link(lo oid, max_length integer) returns varchar as $$
+    select case
+        when length(t) > max_length then null
+        else t
+    end
+    from (select convert_from(lo_get(lo), 'UTF8') as t) s
+$$ language sql;
+
+alter table book
+    alter column title type varchar(500) using pg_temp.lo_text(title, 500),
+    alter column authors type varchar(1000) using pg_temp.lo_text(authors, 1000),
+    alter column publishers type varchar(500) using pg_temp.lo_text(publishers, 500),
+    alter column cover_link type varchar(255) using pg_temp.lo_link(cover_link, 255);
+
+alter table user_book
+    alter column comment type varchar(2000) using pg_temp.lo_text(comment, 2000);
+
+select lo_unlink(lo) from replaced_large_object;
+drop function pg_temp.lo_text(oid, integer);
+drop function pg_temp.lo_link(oid, integer);
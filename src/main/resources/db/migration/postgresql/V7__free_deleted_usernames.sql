@@ -0,0 +1,4 @@
+-- Usernames of deleted accounts are freed: the deletion replaces them by '#' and the ID, which no
+-- valid username can take, so they can be registered again before the account is purged.
+
+update user_account set username = '#' || id where deleted_at is not null;
@@ -0,0 +1,83 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.controller.AuthorController;
+import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.exception.AuthorNotFoundException;
+import fh.bswe.bookmanager.service.AuthorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the {@link AuthorController}, focusing on HTTP endpoint behavior.
+ * <p>
+ * The tests are performed using Spring's {@link WebMvcTest} setup and {@link MockMvc}
+ * to simulate HTTP requests and responses.
+ * </p>
+ */
+@WebMvcTest(AuthorController.class)
+public class AuthorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthorService authorService;
+
+    /**
+     * Tests reading the books of a known author.
+     * Expects HTTP 200 OK and the books in JSON format.
+     */
+    @Test
+    void testReadAuthorBooks() throws Exception {
+        BookDto bookDto = new BookDto();
+        bookDto.setIsbn("9780000044001");
+        bookDto.setTitle("Test Book");
+        bookDto.setAuthors("Known Author");
+
+        when(authorService.findBooksByAuthorKey("OL44001A")).thenReturn(List.of(bookDto));
+
+        mockMvc.perform(get("/api/authors/OL44001A/books"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].isbn").value("9780000044001"))
+                .andExpect(jsonPath("$[0].authors").value("Known Author"));
+    }
+
+    /**
+     * Tests reading the books of an unknown author.
+     * Expects HTTP 400 Bad Request.
+     */
+    @Test
+    void testReadAuthorBooksNotFound() throws Exception {
+        when(authorService.findBooksByAuthorKey("OL1A"))
+                .thenThrow(new AuthorNotFoundException("Author (key: OL1A) not found"));
+
+        mockMvc.perform(get("/api/authors/OL1A/books"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests reading the books with a malformed author key.
+     * Expects HTTP 422 Unprocessable Entity without calling the service.
+     */
+    @Test
+    void testReadAuthorBooksInvalidKey() throws Exception {
+        mockMvc.perform(get("/api/authors/author1/books"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verifyNoInteractions(authorService);
+    }
+}
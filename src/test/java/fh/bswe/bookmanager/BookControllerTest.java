@@ -3,22 +3,35 @@ package fh.bswe.bookmanager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fh.bswe.bookmanager.controller.BookController;
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.BookStatsDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
 import fh.bswe.bookmanager.exception.ConnectionErrorException;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.helper.CachedCover;
 import fh.bswe.bookmanager.service.BookService;
+import fh.bswe.bookmanager.service.BookStatsService;
+import fh.bswe.bookmanager.service.CoverService;
 import fh.bswe.bookmanager.service.OpenLibraryService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
+
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +51,12 @@ public class BookControllerTest {
     @MockitoBean
     private OpenLibraryService openLibraryService;
 
+    @MockitoBean
+    private CoverService coverService;
+
+    @MockitoBean
+    private BookStatsService bookStatsService;
+
     /**
      * Tests successful read book details with valid input.
      * Expects HTTP 200 OK and returns the book data in JSON format.
@@ -53,10 +72,10 @@ public class BookControllerTest {
         bookDto.setAuthors("Authors");
         bookDto.setCoverKey("Cover Key");
         bookDto.setCoverLink("Cover Link");
-        bookDto.setCoverImage(new byte[0]);
+        bookDto.setCoverImage(CoverImage.empty());
         bookDto.setLanguage("eng");
 
-        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789")).thenReturn(bookDto);
+        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789", false)).thenReturn(bookDto);
 
         mockMvc.perform(get("/api/books/0123456789"))
                 .andExpect(status().isOk())
@@ -68,9 +87,224 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.coverLink").value("Cover Link"))
                 .andExpect(jsonPath("$.language").value("eng"))
                 .andExpect(jsonPath("$.publishDate").value("2020"))
-                .andExpect(jsonPath("$.publishers").value("Publishers"));
+                .andExpect(jsonPath("$.publishers").value("Publishers"))
+                .andExpect(jsonPath("$.coverImage").doesNotExist());
+
+        verify(openLibraryService, times(1)).findAndStoreBookByIsbnToDto("0123456789", false);
+    }
+
+    /**
+     * Tests that the cover image is inlined as base64 if explicitly requested.
+     */
+    @Test
+    void testReadBookDetailsIncludeCover() throws Exception {
+        BookDto bookDto = new BookDto();
+        bookDto.setIsbn("0123456789");
+        bookDto.setCoverImage(CoverImage.wrap(new byte[]{1, 2, 3}));
+
+        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789", true)).thenReturn(bookDto);
+
+        mockMvc.perform(get("/api/books/0123456789").param("includeCover", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coverImage").value("AQID"));
+    }
+
+    /**
+     * Tests that the statistics of a stored book are returned with average and histogram.
+     */
+    @Test
+    void testReadBookStats() throws Exception {
+        when(bookStatsService.findStatsByIsbn("0123456789")).thenReturn(new BookStatsDto("0123456789", 3, 2, 4.5,
+                Map.of(1, 0L, 2, 0L, 3, 0L, 4, 1L, 5, 1L)));
+
+        mockMvc.perform(get("/api/books/0123456789/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value("0123456789"))
+                .andExpect(jsonPath("$.readers").value(3))
+                .andExpect(jsonPath("$.ratingCount").value(2))
+                .andExpect(jsonPath("$.averageRating").value(4.5))
+                .andExpect(jsonPath("$.histogram.5").value(1));
+
+        verifyNoInteractions(openLibraryService);
+    }
+
+    /**
+     * Tests that the statistics of an unknown book are rejected with HTTP 400.
+     */
+    @Test
+    void testReadBookStatsBookNotFound() throws Exception {
+        when(bookStatsService.findStatsByIsbn("0123456789"))
+                .thenThrow(new BookNotFoundException("The book 0123456789 is not in the database."));
+
+        mockMvc.perform(get("/api/books/0123456789/stats"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The book 0123456789 is not in the database."));
+    }
+
+    /**
+     * Tests that the cover is returned as JPEG with a strong ETag and a long cache lifetime.
+     */
+    @Test
+    void testReadBookCover() throws Exception {
+        Book book = new Book();
+        book.setIsbn("0123456789");
+
+        when(openLibraryService.findAndStoreBookByIsbn("0123456789")).thenReturn(book);
+        when(coverService.cacheCover("0123456789", book))
+                .thenReturn(new CachedCover("abc123", CoverImage.wrap(new byte[]{1, 2, 3})));
+
+        mockMvc.perform(get("/api/books/0123456789/cover"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=2592000, public"));
+    }
+
+    /**
+     * Tests that a cached cover is served without looking up the book.
+     */
+    @Test
+    void testReadBookCoverCached() throws Exception {
+        when(coverService.findCachedCover("0123456789"))
+                .thenReturn(new CachedCover("abc123", CoverImage.wrap(new byte[]{4, 5, 6})));
+
+        mockMvc.perform(get("/api/books/0123456789/cover"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{4, 5, 6}))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""));
+
+        verifyNoInteractions(openLibraryService);
+    }
+
+    /**
+     * Tests that a matching {@code If-None-Match} header results in 304 Not Modified without a body.
+     */
+    @Test
+    void testReadBookCoverNotModified() throws Exception {
+        when(coverService.findCachedCover("0123456789"))
+                .thenReturn(new CachedCover("abc123", CoverImage.wrap(new byte[]{1, 2, 3})));
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Tests that a single byte range is answered with 206 Partial Content and a {@code Content-Range}.
+     */
+    @Test
+    void testReadBookCoverRange() throws Exception {
+        mockCachedCover();
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "bytes=2-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(new byte[]{3, 4, 5}))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/6"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""));
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "bytes=-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(new byte[]{5, 6}))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-5/6"));
+    }
 
-        verify(openLibraryService, times(1)).findAndStoreBookByIsbnToDto("0123456789");
+    /**
+     * Tests that a range is only served if the {@code If-Range} validator matches the current cover.
+     */
+    @Test
+    void testReadBookCoverIfRange() throws Exception {
+        mockCachedCover();
+
+        mockMvc.perform(get("/api/books/0123456789/cover")
+                        .header(HttpHeaders.RANGE, "bytes=3-")
+                        .header(HttpHeaders.IF_RANGE, "\"abc123\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(new byte[]{4, 5, 6}));
+
+        mockMvc.perform(get("/api/books/0123456789/cover")
+                        .header(HttpHeaders.RANGE, "bytes=3-")
+                        .header(HttpHeaders.IF_RANGE, "\"outdated\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5, 6}))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE));
+    }
+
+    /**
+     * Tests that multi-part and malformed ranges are ignored and the full cover is served.
+     */
+    @Test
+    void testReadBookCoverIgnoredRange() throws Exception {
+        mockCachedCover();
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "bytes=0-1,3-4"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5, 6}));
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "pages=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    /**
+     * Tests that a range starting beyond the cover results in 416 Range Not Satisfiable.
+     */
+    @Test
+    void testReadBookCoverRangeNotSatisfiable() throws Exception {
+        mockCachedCover();
+
+        mockMvc.perform(get("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "bytes=6-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */6"));
+    }
+
+    /**
+     * Tests that a HEAD request returns the size and entity tag of the cover without a body.
+     */
+    @Test
+    void testReadBookCoverHead() throws Exception {
+        mockCachedCover();
+
+        mockMvc.perform(head("/api/books/0123456789/cover"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 6))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(head("/api/books/0123456789/cover").header(HttpHeaders.RANGE, "bytes=0-1"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 2))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Tests that a book without cover results in 404 Not Found.
+     */
+    @Test
+    void testReadBookCoverNotFound() throws Exception {
+        Book book = new Book();
+        book.setIsbn("0123456789");
+
+        when(openLibraryService.findAndStoreBookByIsbn("0123456789")).thenReturn(book);
+        when(coverService.cacheCover("0123456789", book)).thenThrow(new CoverNotFoundException("no cover"));
+
+        mockMvc.perform(get("/api/books/0123456789/cover"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Tests that an unknown book results in 400 Bad Request on the cover endpoint.
+     */
+    @Test
+    void testReadBookCoverBookNotFound() throws Exception {
+        when(openLibraryService.findAndStoreBookByIsbn("0123456789")).thenThrow(new BookNotFoundException("Book not found"));
+
+        mockMvc.perform(get("/api/books/0123456789/cover"))
+                .andExpect(status().isBadRequest());
     }
 
     /**
@@ -83,7 +317,7 @@ public class BookControllerTest {
      */
     @Test
     void testReadUserBooksLibraryUserNotFound() throws Exception {
-        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789")).thenThrow(new BookNotFoundException("Book not found"));
+        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789", false)).thenThrow(new BookNotFoundException("Book not found"));
 
         mockMvc.perform(get("/api/books/0123456789"))
                 .andExpect(status().isBadRequest());
@@ -113,9 +347,14 @@ public class BookControllerTest {
      */
     @Test
     void testReadUserBooksLibraryConnectionError() throws Exception {
-        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789")).thenThrow(new ConnectionErrorException("error"));
+        when(openLibraryService.findAndStoreBookByIsbnToDto("0123456789", false)).thenThrow(new ConnectionErrorException("error"));
 
         mockMvc.perform(get("/api/books/0123456789"))
                 .andExpect(status().isInternalServerError());
     }
+
+    private void mockCachedCover() {
+        when(coverService.findCachedCover("0123456789"))
+                .thenReturn(new CachedCover("abc123", CoverImage.wrap(new byte[]{1, 2, 3, 4, 5, 6})));
+    }
 }
@@ -1,18 +1,25 @@
 package fh.bswe.bookmanager;
 
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.entity.CoverImage;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Unit tests for the {@link BookDto} class.
  * <p>
  * This test class verifies the correct behavior of getters and setters,
- * especially with respect to defensive copying of the {@code coverImage} field.
+ * especially with respect to sharing the immutable {@code coverImage} field.
  */
 public class BookDtoTest {
 
@@ -34,7 +41,7 @@ public class BookDtoTest {
         dto.setCoverLink("http://example.com/cover.jpg");
         dto.setLanguage("en");
 
-        byte[] image = {1, 2, 3, 4};
+        CoverImage image = CoverImage.wrap(new byte[]{1, 2, 3, 4});
         dto.setCoverImage(image);
 
         assertEquals(1, dto.getId());
@@ -46,32 +53,30 @@ public class BookDtoTest {
         assertEquals("OL12345M", dto.getCoverKey());
         assertEquals("http://example.com/cover.jpg", dto.getCoverLink());
         assertEquals("en", dto.getLanguage());
-        assertArrayEquals(image, dto.getCoverImage());
+        assertEquals(image, dto.getCoverImage());
     }
 
     /**
-     * Tests that the {@code coverImage} field is defensively copied
-     * to protect the internal state of the {@link BookDto} instance.
+     * Tests that the {@code coverImage} field is shared without copying
+     * and cannot be modified through the {@link BookDto} instance.
      */
     @Test
-    void testCoverImageDefensiveCopy() {
+    void testCoverImageShared() {
         BookDto dto = new BookDto();
-        byte[] original = {1, 2, 3};
+        CoverImage original = CoverImage.wrap(new byte[]{1, 2, 3});
         dto.setCoverImage(original);
 
-        byte[] retrieved = dto.getCoverImage();
-        assertArrayEquals(original, retrieved);
-
-        original[0] = 99;
-        assertNotEquals(original[0], dto.getCoverImage()[0]);
+        assertSame(original, dto.getCoverImage());
+        assertThrows(ReadOnlyBufferException.class, () -> dto.getCoverImage().asByteBuffer().put((byte) 99));
 
+        byte[] retrieved = dto.getCoverImage().toByteArray();
         retrieved[1] = 88;
-        assertNotEquals(retrieved[1], dto.getCoverImage()[1]);
+        assertArrayEquals(new byte[]{1, 2, 3}, dto.getCoverImage().toByteArray());
     }
 
     /**
      * Tests that setting a {@code null} value for {@code coverImage}
-     * results in an empty array being stored and retrieved.
+     * results in the empty cover image being stored and retrieved.
      */
     @Test
     void testNullCoverImage() {
@@ -79,6 +84,22 @@ public class BookDtoTest {
         dto.setCoverImage(null);
 
         assertNotNull(dto.getCoverImage());
-        assertEquals(0, dto.getCoverImage().length);
+        assertEquals(0, dto.getCoverImage().size());
+    }
+
+    /**
+     * Tests that the cover image is serialized as Base64 string and omitted when empty.
+     */
+    @Test
+    void testCoverImageSerialization() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BookDto dto = new BookDto();
+        dto.setIsbn("9781234567890");
+
+        assertFalse(objectMapper.writeValueAsString(dto).contains("coverImage"));
+
+        dto.setCoverImage(CoverImage.wrap(ByteBuffer.allocateDirect(3).put(new byte[]{1, 2, 3}).flip()));
+
+        assertEquals("AQID", objectMapper.readTree(objectMapper.writeValueAsString(dto)).get("coverImage").asText());
     }
 }
@@ -0,0 +1,150 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.BookMergeReportDto;
+import fh.bswe.bookmanager.entity.Author;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.repository.AuthorRepository;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import fh.bswe.bookmanager.service.BookMergeService;
+import fh.bswe.bookmanager.service.BookStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests for the {@link BookMergeService} class.
+ * <p>
+ * Uses its own database, as the unique ISBN constraint is dropped to create duplicates.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:book-merge-test;DB_CLOSE_DELAY=-1")
+public class BookMergeServiceTest {
+
+    @Autowired
+    private BookMergeService bookMergeService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tests that duplicates are merged into the oldest book, user book entries and author links are
+     * moved or removed, the statistics follow the entries, and the unique constraint can be added
+     * again afterwards.
+     */
+    @Test
+    void testMergeDuplicates() {
+        jdbcTemplate.execute("alter table book drop constraint " + Book.ISBN_CONSTRAINT);
+
+        Author first = saveAuthor("OL9101A");
+        Author second = saveAuthor("OL9102A");
+        Author unrelated = saveAuthor("OL9103A");
+        Book kept = saveBook(null, first);
+        Book withCover = saveBook("merge-cover", first, second);
+        Book third = saveBook(null, unrelated);
+
+        UserAccount reader = saveUser("merge-reader");
+        UserAccount other = saveUser("merge-other");
+        saveUserBook(reader, kept, 4);
+        saveUserBook(reader, withCover, 2);
+        saveUserBook(other, third, 5);
+        bookStatsService.rebuild();
+
+        BookMergeReportDto report = bookMergeService.mergeDuplicates();
+
+        jdbcTemplate.execute("alter table book add constraint " + Book.ISBN_CONSTRAINT + " unique (isbn)");
+
+        assertEquals(List.of("5550000001"), report.duplicateIsbns());
+        assertEquals(2, report.removedBooks());
+        assertEquals(1, report.movedUserBooks());
+        assertEquals(1, report.removedUserBooks());
+
+        List<Book> books = bookRepository.findByIsbnOrderByIdAsc("5550000001");
+        assertEquals(1, books.size());
+        assertEquals(kept.getId(), books.getFirst().getId());
+        assertEquals("merge-cover", books.getFirst().getCoverHash());
+        assertEquals(1, userBookRepository.findRowsByUserAccountId(reader.getId(), Limit.unlimited()).size());
+        assertEquals(kept.getId(),
+                userBookRepository.findRowsByUserAccountId(other.getId(), Limit.unlimited()).getFirst().bookId());
+        assertEquals(List.of("OL9101A", "OL9102A"), jdbcTemplate.queryForList(
+                "select author_key from book_author where book_id = ? order by author_order", String.class,
+                kept.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from book_author where book_id in (?, ?)", Integer.class,
+                withCover.getId(), third.getId()));
+        assertEquals(List.of(2L, 2L, 9L), jdbcTemplate.queryForObject(
+                "select readers, rating_count, rating_sum from book_stats where book_id = ?",
+                (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3)), kept.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from book_stats where book_id in (?, ?)", Integer.class,
+                withCover.getId(), third.getId()));
+    }
+
+    /**
+     * Tests that nothing is changed if no ISBN is stored more than once.
+     */
+    @Test
+    void testMergeWithoutDuplicates() {
+        BookMergeReportDto report = bookMergeService.mergeDuplicates();
+
+        assertEquals(List.of(), report.duplicateIsbns());
+        assertEquals(0, report.removedBooks());
+    }
+
+    private Book saveBook(final String coverHash, final Author... authors) {
+        Book book = new Book();
+        book.setIsbn("5550000001");
+        book.setTitle("Duplicated Book");
+        book.setCoverHash(coverHash);
+        book.setAuthorList(new ArrayList<>(List.of(authors)));
+        return bookRepository.save(book);
+    }
+
+    private Author saveAuthor(final String authorKey) {
+        Author author = new Author();
+        author.setAuthorKey(authorKey);
+        author.setName("Author " + authorKey);
+        return authorRepository.save(author);
+    }
+
+    private UserAccount saveUser(final String username) {
+        UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setFirstname("firstname");
+        user.setLastname("lastname");
+        return userAccountRepository.save(user);
+    }
+
+    private void saveUserBook(final UserAccount user, final Book book, final int rating) {
+        UserBook userBook = new UserBook();
+        userBook.setUser(user);
+        userBook.setBook(book);
+        userBook.setRating(rating);
+        userBookRepository.save(userBook);
+    }
+}
@@ -67,15 +67,15 @@ public class BookServiceTest {
         book.setIsbn("123");
         book.setTitle("My Book");
 
-        when(bookRepository.findByIsbn("123")).thenReturn(Optional.empty());
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.insertIfAbsent(book)).thenReturn(1);
+        when(bookRepository.findByIsbn("123")).thenReturn(Optional.of(book));
 
         BookDto result = bookService.save(book);
 
         assertNotNull(result);
         assertEquals("123", result.getIsbn());
         assertEquals("My Book", result.getTitle());
-        verify(bookRepository).save(book);
+        verify(bookRepository).insertIfAbsent(book);
     }
 
     /**
@@ -86,7 +86,7 @@ public class BookServiceTest {
         Book book = new Book();
         book.setIsbn("123");
 
-        when(bookRepository.findByIsbn("123")).thenReturn(Optional.of(new Book()));
+        when(bookRepository.insertIfAbsent(book)).thenReturn(0);
 
         assertThrows(BookExistsException.class, () -> bookService.save(book));
     }
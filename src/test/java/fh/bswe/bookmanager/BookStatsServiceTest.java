@@ -0,0 +1,151 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.BookStatsDto;
+import fh.bswe.bookmanager.dto.BookStatsRebuildReportDto;
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.service.BookStatsService;
+import fh.bswe.bookmanager.service.OpenLibraryService;
+import fh.bswe.bookmanager.service.UserBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for the book statistics maintained by the {@link UserBookService}
+ * and rebuilt by the {@link BookStatsService}.
+ */
+@SpringBootTest(properties = {"bookstats.chunk-size=2", "bookstats.parallelism=3"})
+public class BookStatsServiceTest {
+
+    @MockitoBean
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private UserBookService userBookService;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private BookStatsRepository bookStatsRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    /**
+     * Tests that storing, rating and removing library entries updates the statistics of the book.
+     *
+     * @throws UserNotFoundException if a user cannot be found (not expected in this test)
+     */
+    @Test
+    void testStatsFollowLibraryChanges() throws UserNotFoundException {
+        final Book book = saveBook("9780000045001");
+        saveUser("stats_one");
+        saveUser("stats_two");
+        saveUser("stats_three");
+
+        userBookService.storeBookToUserLibrary("stats_one", book.getIsbn(), false);
+        userBookService.storeBookToUserLibrary("stats_two", book.getIsbn(), false);
+        userBookService.storeBookToUserLibrary("stats_three", book.getIsbn(), false);
+        userBookService.addRating("stats_one", book.getIsbn(), rating(5));
+        userBookService.addRating("stats_two", book.getIsbn(), rating(2));
+        userBookService.addRating("stats_two", book.getIsbn(), rating(4));
+
+        BookStatsDto stats = bookStatsService.findStatsByIsbn(book.getIsbn());
+        assertEquals(3, stats.readers());
+        assertEquals(2, stats.ratingCount());
+        assertEquals(4.5, stats.averageRating());
+        assertEquals(Map.of(1, 0L, 2, 0L, 3, 0L, 4, 1L, 5, 1L), stats.histogram());
+
+        userBookService.removeBookFromUserLibrary("stats_one", book.getIsbn());
+
+        stats = bookStatsService.findStatsByIsbn(book.getIsbn());
+        assertEquals(2, stats.readers());
+        assertEquals(1, stats.ratingCount());
+        assertEquals(4.0, stats.averageRating());
+        assertEquals(0L, stats.histogram().get(5));
+    }
+
+    /**
+     * Tests that a stored book without library entries has empty statistics
+     * and that an unknown book is rejected.
+     */
+    @Test
+    void testStatsOfBookWithoutReaders() {
+        saveBook("9780000045002");
+
+        final BookStatsDto stats = bookStatsService.findStatsByIsbn("9780000045002");
+
+        assertEquals(0, stats.readers());
+        assertEquals(0, stats.ratingCount());
+        assertNull(stats.averageRating());
+        assertEquals(0L, stats.histogram().get(1));
+        assertThrows(BookNotFoundException.class, () -> bookStatsService.findStatsByIsbn("9780000045099"));
+    }
+
+    /**
+     * Tests that the parallel rebuild restores drifted statistics and keeps the correct ones.
+     *
+     * @throws UserNotFoundException if a user cannot be found (not expected in this test)
+     */
+    @Test
+    void testRebuildRestoresDriftedStats() throws UserNotFoundException {
+        final Book book = saveBook("9780000045003");
+        saveUser("stats_rebuild");
+        userBookService.storeBookToUserLibrary("stats_rebuild", book.getIsbn(), false);
+        userBookService.addRating("stats_rebuild", book.getIsbn(), rating(3));
+        final BookStatsDto expected = bookStatsService.findStatsByIsbn(book.getIsbn());
+
+        bookStatsRepository.applyChange(book.getId(), 4, null, 1);
+        assertEquals(5, bookStatsService.findStatsByIsbn(book.getIsbn()).readers());
+
+        final BookStatsRebuildReportDto report = bookStatsService.rebuild();
+
+        assertEquals(0, report.failedChunks());
+        assertTrue(report.chunks() >= (bookRepository.findMaxId() + 1) / 2);
+        assertEquals(expected, bookStatsService.findStatsByIsbn(book.getIsbn()));
+        assertEquals(3.0, bookStatsService.findStatsByIsbn(book.getIsbn()).averageRating());
+    }
+
+    private Book saveBook(final String isbn) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Stats Book");
+        book = bookRepository.save(book);
+        when(openLibraryService.findAndStoreBookByIsbn(isbn)).thenReturn(book);
+        return book;
+    }
+
+    private void saveUser(final String username) {
+        final UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setFirstname("Stella");
+        user.setLastname("Stats");
+        userAccountRepository.save(user);
+    }
+
+    private static UserBookDto rating(final int rating) {
+        final UserBookDto userBookDto = new UserBookDto();
+        userBookDto.setRating(rating);
+        return userBookDto;
+    }
+}
@@ -2,18 +2,20 @@ package fh.bswe.bookmanager;
 
 import fh.bswe.bookmanager.dto.UserAccountDto;
 import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
 import fh.bswe.bookmanager.entity.UserBook;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ReadOnlyBufferException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
-import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BookTest {
     /**
@@ -31,7 +33,7 @@ public class BookTest {
         book.setCoverKey("cover_key");
         book.setCoverLink("http://cover.link");
         book.setLanguage("en");
-        byte[] coverImage = new byte[]{1, 2, 3};
+        CoverImage coverImage = CoverImage.wrap(new byte[]{1, 2, 3});
         book.setCoverImage(coverImage);
         List<UserBook> userBooks = List.of(new UserBook());
         book.setUserBooks(userBooks);
@@ -41,29 +43,51 @@ public class BookTest {
         assertEquals("Test Title", book.getTitle());
         assertEquals("Author A, Author B", book.getAuthors());
         assertEquals("2020", book.getPublishDate());
+        assertEquals(2020, book.getPublishYear());
         assertEquals("Test Publisher", book.getPublishers());
         assertEquals("cover_key", book.getCoverKey());
         assertEquals("http://cover.link", book.getCoverLink());
         assertEquals("en", book.getLanguage());
         assertEquals(userBooks, book.getUserBooks());
-        assertArrayEquals(coverImage, book.getCoverImage());
+        assertEquals(coverImage, book.getCoverImage());
     }
 
     /**
-     * Ensures that getCoverImage() returns a defensive copy.
+     * Verifies that the publication year is derived from free-text publication dates.
      */
     @Test
-    void testCoverImageDefensiveCopy() {
+    void testPublishYear() {
         Book book = new Book();
-        byte[] original = new byte[]{1, 2, 3};
+
+        book.setPublishDate("March 5, 2008");
+        assertEquals(2008, book.getPublishYear());
+
+        book.setPublishDate("1999-2001");
+        assertEquals(2001, book.getPublishYear());
+
+        book.setPublishDate("unknown");
+        assertNull(book.getPublishYear());
+
+        book.setPublishDate(null);
+        assertNull(book.getPublishYear());
+    }
+
+    /**
+     * Ensures that getCoverImage() shares the immutable cover instead of copying it.
+     */
+    @Test
+    void testCoverImageShared() {
+        Book book = new Book();
+        CoverImage original = CoverImage.wrap(new byte[]{1, 2, 3});
         book.setCoverImage(original);
-        byte[] retrieved = book.getCoverImage();
+        CoverImage retrieved = book.getCoverImage();
 
-        assertNotSame(original, retrieved);
-        assertArrayEquals(original, retrieved);
+        assertSame(original, retrieved);
+        assertThrows(ReadOnlyBufferException.class, () -> retrieved.asByteBuffer().put((byte) 9));
 
-        retrieved[0] = 9;
-        assertNotEquals(retrieved[0], book.getCoverImage()[0]);
+        byte[] copy = retrieved.toByteArray();
+        copy[0] = 9;
+        assertArrayEquals(new byte[]{1, 2, 3}, book.getCoverImage().toByteArray());
     }
 
     /**
@@ -73,7 +97,8 @@ public class BookTest {
     void testNullCoverImage() {
         Book book = new Book();
         book.setCoverImage(null);
-        assertArrayEquals(book.getCoverImage(), new byte[0]);
+        assertTrue(book.getCoverImage().isEmpty());
+        assertSame(CoverImage.empty(), book.getCoverImage());
     }
 
     /**
@@ -0,0 +1,146 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.helper.OpenLibraryFetcher;
+import fh.bswe.bookmanager.helper.QueryStatistics;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static fh.bswe.bookmanager.QueryCountAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the number of database statements per call of the endpoints of the
+ * {@link fh.bswe.bookmanager.controller.UserAccountController} and the
+ * {@link fh.bswe.bookmanager.controller.BookController}.
+ * <p>
+ * Unlike the controller tests, the endpoints run against the real services and an in-memory
+ * database filled with the demo data, so additional queries per entry fail these tests.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controller-query-count;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class ControllerQueryCountTest {
+    private static final String ISBN = "9783161484100";
+
+    @MockitoBean
+    private OpenLibraryFetcher openLibraryFetcher;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tests that a user is read with at most two statements.
+     */
+    @Test
+    void testReadUserAccountQueries() throws Exception {
+        assertMaxStatements(2, () -> mockMvc.perform(get("/api/users/jdoe1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("jdoe1")));
+    }
+
+    /**
+     * Tests that a library is read with the same small number of statements for a small and a
+     * large library, with one row per entry.
+     */
+    @Test
+    void testReadUserBooksQueriesIndependentOfSize() throws Exception {
+        saveLibrary("query_small", 5, 9_780_000_048_000L);
+        saveLibrary("query_large", 40, 9_780_000_048_100L);
+
+        final QueryStatistics small = readLibrary("query_small", 5);
+        final QueryStatistics large = readLibrary("query_large", 40);
+
+        assertEquals(small.getStatements(), large.getStatements());
+        assertTrue(small.getRows() >= 5, "rows " + small.getRows());
+        assertTrue(large.getRows() >= 40, "rows " + large.getRows());
+    }
+
+    /**
+     * Tests that a stored book is read with at most three statements and without calling OpenLibrary.
+     */
+    @Test
+    void testReadBookQueries() throws Exception {
+        assertMaxStatements(3, () -> mockMvc.perform(get("/api/books/" + ISBN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value(ISBN)));
+    }
+
+    /**
+     * Tests that the statistics of a book are read with at most three statements.
+     */
+    @Test
+    void testReadBookStatsQueries() throws Exception {
+        assertMaxStatements(3, () -> mockMvc.perform(get("/api/books/" + ISBN + "/stats"))
+                .andExpect(status().isOk()));
+    }
+
+    /**
+     * Tests that the statements of a request are exported as metric tagged with the URI pattern.
+     */
+    @Test
+    void testRequestStatisticsAreExported() throws Exception {
+        mockMvc.perform(get("/api/users/asmith")).andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("hibernate.request.statements")
+                .tags("method", "GET", "uri", "/api/users/{username}").summary().count() >= 1);
+        assertEquals(1, meterRegistry.find("hibernate.request.jdbc")
+                .tags("method", "GET", "uri", "/api/users/{username}").timers().size());
+    }
+
+    private void saveLibrary(final String username, final int size, final long firstIsbn) {
+        final UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setFirstname("Quentin");
+        user.setLastname("Count");
+        final UserAccount saved = userAccountRepository.save(user);
+        final List<UserBook> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Book book = new Book();
+            book.setIsbn("%013d".formatted(firstIsbn + i));
+            book.setTitle("Query Count " + i);
+            final UserBook entry = new UserBook();
+            entry.setUser(saved);
+            entry.setBook(bookRepository.save(book));
+            entry.setRating(i % 5 + 1);
+            entries.add(entry);
+        }
+        userBookRepository.saveAll(entries);
+    }
+
+    private QueryStatistics readLibrary(final String username, final int size) throws Exception {
+        return assertMaxStatements(3, () ->
+                mockMvc.perform(get("/api/users/" + username + "/books").param("limit", String.valueOf(size)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.length()").value(size)));
+    }
+}
@@ -0,0 +1,148 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.config.CoverCacheConfig;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.helper.CachedCover;
+import fh.bswe.bookmanager.helper.CoverCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CoverCache} class.
+ */
+public class CoverCacheTest {
+
+    /**
+     * Tests that heap covers are copied into a direct buffer and found again by key.
+     */
+    @Test
+    void testPutCopiesHeapCoverOffHeap() {
+        CoverCache coverCache = createCache(1024, 1);
+
+        CachedCover cover = coverCache.put("1111111111", "hash-1", CoverImage.wrap(new byte[]{1, 2, 3}));
+
+        assertTrue(cover.image().asByteBuffer().isDirect());
+        assertArrayEquals(new byte[]{1, 2, 3}, cover.image().toByteArray());
+        assertSame(cover, coverCache.get("1111111111"));
+        assertEquals(3, coverCache.getUsedBytes());
+        assertEquals(1, coverCache.size());
+    }
+
+    /**
+     * Tests that direct covers are cached without being copied again.
+     */
+    @Test
+    void testPutKeepsDirectCover() {
+        CoverCache coverCache = createCache(1024, 1);
+        CoverImage direct = CoverImage.wrap(ByteBuffer.allocateDirect(4));
+
+        assertSame(direct, coverCache.put("1111111111", "hash-1", direct).image());
+    }
+
+    /**
+     * Tests that the least recently used covers are evicted once the byte budget is exceeded.
+     */
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        CoverCache coverCache = createCache(300, 1);
+
+        coverCache.put("1", "hash-1", image(100));
+        coverCache.put("2", "hash-2", image(100));
+        coverCache.put("3", "hash-3", image(100));
+        coverCache.get("1");
+        coverCache.put("4", "hash-4", image(100));
+
+        assertNotNull(coverCache.get("1"));
+        assertNull(coverCache.get("2"));
+        assertNotNull(coverCache.get("3"));
+        assertNotNull(coverCache.get("4"));
+        assertEquals(300, coverCache.getUsedBytes());
+    }
+
+    /**
+     * Tests that the byte budget is shared equally between the stripes and never exceeded.
+     */
+    @Test
+    void testStripesStayWithinBudget() {
+        CoverCache coverCache = createCache(1600, 16);
+
+        for (int i = 0; i < 200; i++) {
+            coverCache.put(String.valueOf(1_000_000_000L + i), "hash-" + i, image(50));
+        }
+
+        assertEquals(1600, coverCache.getMaxBytes());
+        assertTrue(coverCache.getUsedBytes() <= coverCache.getMaxBytes());
+        assertTrue(coverCache.size() > 0);
+    }
+
+    /**
+     * Tests that covers larger than the entry size or a disabled cache are not cached.
+     */
+    @Test
+    void testDoesNotCacheLargeCoversOrWhenDisabled() {
+        CoverCache coverCache = createCache(1000, 1);
+
+        CachedCover large = coverCache.put("1", "hash-1", image(2000));
+
+        assertEquals("hash-1", large.hash());
+        assertNull(coverCache.get("1"));
+
+        CoverCacheConfig config = new CoverCacheConfig();
+        config.setEnabled(false);
+        CoverCache disabled = new CoverCache(config);
+        disabled.put("2", "hash-2", image(10));
+
+        assertNull(disabled.get("2"));
+        assertEquals(0, disabled.getUsedBytes());
+    }
+
+    /**
+     * Tests that off-heap usage and hit rates are exported as metrics.
+     */
+    @Test
+    void testMetrics() {
+        CoverCache coverCache = createCache(1024, 4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        coverCache.bindTo(registry);
+
+        coverCache.put("1", "hash-1", image(100));
+        coverCache.get("1");
+        coverCache.get("1");
+        coverCache.get("1");
+        coverCache.get("2");
+
+        assertEquals(3, registry.get("covercache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("covercache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("covercache.puts").functionCounter().count());
+        assertEquals(100, registry.get("covercache.offheap.used").gauge().value());
+        assertEquals(1024, registry.get("covercache.offheap.max").gauge().value());
+        assertEquals(1, registry.get("covercache.entries").gauge().value());
+        assertEquals(0.75, registry.get("covercache.hit.ratio").gauge().value());
+
+        coverCache.invalidateAll();
+
+        assertEquals(0, registry.get("covercache.offheap.used").gauge().value());
+    }
+
+    private static CoverCache createCache(final long maxBytes, final int stripes) {
+        CoverCacheConfig config = new CoverCacheConfig();
+        config.setMaxSize(DataSize.ofBytes(maxBytes));
+        config.setMaxEntrySize(DataSize.ofBytes(maxBytes));
+        config.setStripes(stripes);
+        return new CoverCache(config);
+    }
+
+    private static CoverImage image(final int size) {
+        return CoverImage.wrap(new byte[size]);
+    }
+}
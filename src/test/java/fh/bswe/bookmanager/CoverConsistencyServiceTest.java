@@ -0,0 +1,125 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.CoverConsistencyReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.helper.CoverStore;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import fh.bswe.bookmanager.service.CoverConsistencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link CoverConsistencyService} class.
+ * <p>
+ * Legacy covers are migrated in batches of two, so a few books already need several batches.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "coverstore.directory=${java.io.tmpdir}/bookmanager/consistency-test-covers",
+        "coverstore.orphan-grace-period=PT0S",
+        "coverstore.migration-batch-size=2"
+})
+public class CoverConsistencyServiceTest {
+
+    @Autowired
+    private CoverConsistencyService coverConsistencyService;
+
+    @Autowired
+    private CoverStore coverStore;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CoverRepository coverRepository;
+
+    /**
+     * Tests that missing and orphaned covers are reported without changes in check mode
+     * and repaired in repair mode, including reference counts and the migration of legacy database covers.
+     */
+    @Test
+    void testCheckAndRepair() {
+        String referencedHash = coverStore.store(new byte[]{1, 1, 1});
+        String orphanedHash = coverStore.store(new byte[]{2, 2, 2});
+        String missingHash = CoverStore.hash(new byte[]{3, 3, 3});
+        byte[] legacyImage = new byte[2048];
+        Arrays.fill(legacyImage, (byte) 4);
+
+        Book referenced = saveBook("1111111111", referencedHash, null);
+        Book missing = saveBook("2222222222", missingHash, null);
+        Book legacy = saveBook("3333333333", null, legacyImage);
+
+        CoverConsistencyReportDto report = coverConsistencyService.check(false);
+
+        assertFalse(report.repaired());
+        assertFalse(report.isConsistent());
+        assertTrue(report.missingCovers().contains(missingHash));
+        assertTrue(report.orphanedCovers().contains(orphanedHash));
+        assertFalse(report.orphanedCovers().contains(referencedHash));
+        assertTrue(report.wrongReferenceCounts() >= 1);
+        assertTrue(report.migratedCovers() >= 1);
+        assertTrue(coverStore.exists(orphanedHash));
+
+        CoverConsistencyReportDto repairReport = coverConsistencyService.check(true);
+
+        assertTrue(repairReport.repaired());
+        assertFalse(coverStore.exists(orphanedHash));
+        assertTrue(coverStore.exists(referencedHash));
+        assertNull(bookRepository.findByIsbn(missing.getIsbn()).orElseThrow().getCoverHash());
+        assertEquals(referencedHash, bookRepository.findByIsbn(referenced.getIsbn()).orElseThrow().getCoverHash());
+
+        Book migrated = bookRepository.findByIsbn(legacy.getIsbn()).orElseThrow();
+        assertEquals(CoverStore.hash(legacyImage), migrated.getCoverHash());
+        assertTrue(migrated.getCoverImage().isEmpty());
+        assertArrayEquals(legacyImage, coverStore.read(migrated.getCoverHash()));
+
+        assertEquals(1, coverRepository.findById(referencedHash).orElseThrow().getReferenceCount());
+        assertEquals(1, coverRepository.findById(migrated.getCoverHash()).orElseThrow().getReferenceCount());
+
+        assertTrue(coverConsistencyService.check(false).isConsistent());
+    }
+
+    /**
+     * Tests that legacy covers spanning several batches are all moved into the cover store.
+     */
+    @Test
+    void testMigrateLegacyCoversInBatches() {
+        for (int i = 0; i < 5; i++) {
+            byte[] legacyImage = new byte[2048];
+            Arrays.fill(legacyImage, (byte) (20 + i));
+            saveBook("44444444" + i + "0", null, legacyImage);
+        }
+
+        CoverConsistencyReportDto report = coverConsistencyService.check(true);
+
+        assertTrue(report.migratedCovers() >= 5);
+        assertEquals(0, bookRepository.countByCoverHashIsNullAndCoverImageIsNotNull());
+        for (int i = 0; i < 5; i++) {
+            Book migrated = bookRepository.findByIsbn("44444444" + i + "0").orElseThrow();
+            assertTrue(coverStore.exists(migrated.getCoverHash()));
+            assertTrue(migrated.getCoverImage().isEmpty());
+        }
+    }
+
+    private Book saveBook(final String isbn, final String coverHash, final byte[] coverImage) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Book " + isbn);
+        book.setCoverHash(coverHash);
+        if (coverImage != null) {
+            book.setCoverImage(CoverImage.wrap(coverImage));
+        }
+        return bookRepository.save(book);
+    }
+}
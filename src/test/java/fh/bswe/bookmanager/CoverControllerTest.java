@@ -0,0 +1,60 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.controller.CoverController;
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.service.CoverService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the {@link CoverController}, focusing on HTTP endpoint behavior.
+ */
+@WebMvcTest(CoverController.class)
+public class CoverControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CoverService coverService;
+
+    /**
+     * Tests that the cover storage report is returned as JSON.
+     * Expects HTTP 200 OK.
+     */
+    @Test
+    void testReadStorageReport() throws Exception {
+        when(coverService.createStorageReport()).thenReturn(new CoverStorageReportDto(2, 300, 5, 4, 1200, 900));
+
+        mockMvc.perform(get("/api/covers/report"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.storedCovers").value(2))
+                .andExpect(jsonPath("$.storedBytes").value(300))
+                .andExpect(jsonPath("$.coverReferences").value(5))
+                .andExpect(jsonPath("$.placeholderReferences").value(4))
+                .andExpect(jsonPath("$.savedBytes").value(900));
+    }
+
+    /**
+     * Tests that unexpected errors while creating the report result in HTTP 500.
+     */
+    @Test
+    void testReadStorageReportError() throws Exception {
+        when(coverService.createStorageReport()).thenThrow(new IllegalStateException("Database unavailable"));
+
+        mockMvc.perform(get("/api/covers/report"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string("Database unavailable"));
+    }
+}
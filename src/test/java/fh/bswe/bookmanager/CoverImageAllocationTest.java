@@ -0,0 +1,124 @@
+package fh.bswe.bookmanager;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fh.bswe.bookmanager.config.CoverStoreConfig;
+import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.helper.CoverStore;
+import fh.bswe.bookmanager.helper.Mapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation benchmark for the cover handling of {@link Book}, {@link BookDto} and {@link Mapper}.
+ * <p>
+ * Measures the bytes allocated by the current thread while a cover passes through the
+ * request path (entity, mapper, DTO and JSON serialization). The total allocation of all
+ * iterations must stay below the size of a single cover, which proves that no per-request
+ * copy of the image is made.
+ * </p>
+ */
+public class CoverImageAllocationTest {
+    private static final int COVER_SIZE = 1024 * 1024;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 100;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    private final OutputStream discard = OutputStream.nullOutputStream();
+
+    @TempDir
+    private Path directory;
+
+    private Book book;
+    private byte[] image;
+
+    @BeforeEach
+    void setUp() {
+        image = new byte[COVER_SIZE];
+        new Random(42).nextBytes(image);
+
+        book = new Book();
+        book.setIsbn("9781234567890");
+        book.setTitle("Allocation Benchmark");
+        book.setCoverImage(CoverImage.wrap(image));
+    }
+
+    /**
+     * Tests that reading the cover from the entity and mapping it into the DTO does not copy it.
+     */
+    @Test
+    void testMappingDoesNotCopyCover() {
+        long allocated = measure(() -> Mapper.mapToDto(book, book.getCoverImage()).getCoverImage().size());
+
+        assertTrue(allocated < COVER_SIZE, "Mapping allocated " + allocated + " bytes for " + ITERATIONS
+                + " requests with a cover of " + COVER_SIZE + " bytes");
+    }
+
+    /**
+     * Tests that serializing a DTO with a heap cover streams the Base64 encoding without copying the cover.
+     */
+    @Test
+    void testSerializationDoesNotCopyCover() {
+        long allocated = measure(() -> {
+            objectMapper.writeValue(discard, Mapper.mapToDto(book, book.getCoverImage()));
+            return 0;
+        });
+
+        assertTrue(allocated < COVER_SIZE, "Serialization allocated " + allocated + " bytes for " + ITERATIONS
+                + " requests with a cover of " + COVER_SIZE + " bytes");
+    }
+
+    /**
+     * Tests that serializing a DTO with a cover mapped from the cover store does not load it onto the heap.
+     */
+    @Test
+    void testMappedCoverDoesNotCopyCover() {
+        CoverStoreConfig config = new CoverStoreConfig();
+        config.setDirectory(directory.toString());
+        CoverStore coverStore = new CoverStore(config);
+        String hash = coverStore.store(image);
+
+        long allocated = measure(() -> {
+            objectMapper.writeValue(discard, Mapper.mapToDto(book, coverStore.map(hash)));
+            return 0;
+        });
+
+        assertTrue(allocated < COVER_SIZE, "Mapped serialization allocated " + allocated + " bytes for "
+                + ITERATIONS + " requests with a cover of " + COVER_SIZE + " bytes");
+    }
+
+    private long measure(final Request request) {
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                request.run();
+            }
+
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                request.run();
+            }
+            return threadMXBean.getCurrentThreadAllocatedBytes() - before;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,198 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.CoverStorageReportDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.Cover;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.helper.CachedCover;
+import fh.bswe.bookmanager.helper.CoverStore;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import fh.bswe.bookmanager.service.CoverService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@link CoverService} class.
+ */
+@SpringBootTest(properties = {
+        "coverstore.directory=${java.io.tmpdir}/bookmanager/cover-service-test-covers",
+        "coverstore.placeholder-hashes=f68ba6dd708ac513c7c16736d7d0320e209a447283139c4250d8e97f35a26e0b"
+})
+public class CoverServiceTest {
+
+    @Autowired
+    private CoverService coverService;
+
+    @Autowired
+    private CoverStore coverStore;
+
+    @Autowired
+    private CoverRepository coverRepository;
+
+    /**
+     * Tests that identical covers are stored once and reference counted.
+     */
+    @Test
+    void testStoreCoverDeduplicates() {
+        byte[] image = image(11);
+
+        String first = coverService.storeCover(image);
+        String second = coverService.storeCover(image.clone());
+
+        assertEquals(first, second);
+        assertTrue(coverStore.exists(first));
+        Cover cover = coverRepository.findById(first).orElseThrow();
+        assertEquals(2, cover.getReferenceCount());
+        assertEquals(image.length, cover.getSize());
+        assertFalse(cover.isPlaceholder());
+    }
+
+    /**
+     * Tests that concurrent first ingests of the same cover all succeed and are all counted.
+     *
+     * @throws Exception if a thread fails or is interrupted
+     */
+    @Test
+    void testStoreCoverConcurrently() throws Exception {
+        final int threads = 8;
+        byte[] image = image(19);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                hashes.add(executor.submit(() -> {
+                    start.await();
+                    return coverService.storeCover(image.clone());
+                }));
+            }
+            start.countDown();
+
+            for (Future<String> hash : hashes) {
+                assertEquals(CoverStore.hash(image), hash.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Cover cover = coverRepository.findById(CoverStore.hash(image)).orElseThrow();
+        assertEquals(threads, cover.getReferenceCount());
+        assertTrue(coverStore.exists(cover.getHash()));
+    }
+
+    /**
+     * Tests that tiny images are recognised as placeholders and stored as "no cover".
+     */
+    @Test
+    void testStoreCoverSkipsTinyPlaceholder() {
+        byte[] placeholder = new byte[]{71, 73, 70, 56, 57, 97, 1};
+
+        assertNull(coverService.storeCover(placeholder));
+
+        String hash = CoverStore.hash(placeholder);
+        assertFalse(coverStore.exists(hash));
+        assertTrue(coverRepository.findById(hash).orElseThrow().isPlaceholder());
+    }
+
+    /**
+     * Tests that images with a known placeholder hash are stored as "no cover" regardless of their size.
+     */
+    @Test
+    void testStoreCoverSkipsKnownPlaceholderHash() {
+        byte[] placeholder = image(9);
+
+        assertNull(coverService.storeCover(placeholder));
+        assertNull(coverService.storeCover(placeholder));
+
+        Cover cover = coverRepository.findById(CoverStore.hash(placeholder)).orElseThrow();
+        assertTrue(cover.isPlaceholder());
+        assertEquals(2, cover.getReferenceCount());
+        assertFalse(coverStore.exists(cover.getHash()));
+    }
+
+    /**
+     * Tests that the storage report accounts for de-duplicated covers and placeholders.
+     */
+    @Test
+    void testCreateStorageReport() {
+        CoverStorageReportDto before = coverService.createStorageReport();
+
+        byte[] image = image(13);
+        coverService.storeCover(image);
+        coverService.storeCover(image);
+        coverService.storeCover(image);
+        coverService.storeCover(new byte[]{1, 2, 3, 4});
+
+        CoverStorageReportDto after = coverService.createStorageReport();
+
+        assertEquals(1, after.storedCovers() - before.storedCovers());
+        assertEquals(image.length, after.storedBytes() - before.storedBytes());
+        assertEquals(3, after.coverReferences() - before.coverReferences());
+        assertEquals(1, after.placeholderReferences() - before.placeholderReferences());
+        assertEquals(3L * image.length + 4, after.referencedBytes() - before.referencedBytes());
+        assertEquals(2L * image.length + 4, after.savedBytes() - before.savedBytes());
+    }
+
+    /**
+     * Tests that a stored cover is cached off-heap and found again by ISBN.
+     */
+    @Test
+    void testCacheCover() {
+        Book book = new Book();
+        book.setIsbn("8888888888");
+        book.setCoverHash(coverService.storeCover(image(17)));
+
+        assertNull(coverService.findCachedCover("8888888888"));
+
+        CachedCover cover = coverService.cacheCover("8888888888", book);
+
+        assertEquals(book.getCoverHash(), cover.hash());
+        assertTrue(cover.image().asByteBuffer().isDirect());
+        assertArrayEquals(image(17), cover.image().toByteArray());
+        assertSame(cover, coverService.findCachedCover("8888888888"));
+    }
+
+    /**
+     * Tests that legacy covers are cached from the database column,
+     * and that a book without any cover fails with {@link CoverNotFoundException}.
+     */
+    @Test
+    void testCacheLegacyCover() {
+        Book book = new Book();
+        book.setIsbn("9999999999");
+        book.setCoverImage(CoverImage.wrap(new byte[]{5, 6, 7}));
+
+        CachedCover cover = coverService.cacheCover("9999999999", book);
+
+        assertEquals(CoverStore.hash(new byte[]{5, 6, 7}), cover.hash());
+        assertArrayEquals(new byte[]{5, 6, 7}, cover.image().toByteArray());
+
+        Book withoutCover = new Book();
+        withoutCover.setIsbn("7777777777");
+        assertThrows(CoverNotFoundException.class, () -> coverService.cacheCover("7777777777", withoutCover));
+    }
+
+    private static byte[] image(final int fill) {
+        byte[] image = new byte[2048];
+        Arrays.fill(image, (byte) fill);
+        return image;
+    }
+}
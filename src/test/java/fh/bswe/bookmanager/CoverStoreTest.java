@@ -0,0 +1,153 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.config.CoverStoreConfig;
+import fh.bswe.bookmanager.entity.CoverImage;
+import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.helper.CoverStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CoverStore} class.
+ */
+public class CoverStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private CoverStore coverStore;
+
+    @BeforeEach
+    void setUp() {
+        CoverStoreConfig config = new CoverStoreConfig();
+        config.setDirectory(directory.toString());
+        config.setShardLevels(2);
+        coverStore = new CoverStore(config);
+    }
+
+    /**
+     * Tests that a stored cover is written to a sharded path named after its SHA-256 hash.
+     */
+    @Test
+    void testStoreWritesShardedFile() {
+        byte[] image = new byte[]{1, 2, 3};
+
+        String hash = coverStore.store(image);
+
+        assertEquals("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81", hash);
+        assertTrue(Files.isRegularFile(directory.resolve("03").resolve("90").resolve(hash)));
+        assertTrue(coverStore.exists(hash));
+        assertEquals(3, coverStore.size(hash));
+        assertArrayEquals(image, coverStore.read(hash));
+    }
+
+    /**
+     * Tests that storing identical content twice results in a single file.
+     */
+    @Test
+    void testStoreIdenticalContentOnce() {
+        String first = coverStore.store(new byte[]{4, 5, 6});
+        String second = coverStore.store(new byte[]{4, 5, 6});
+
+        assertEquals(first, second);
+        assertEquals(1, coverStore.listCovers().size());
+    }
+
+    /**
+     * Tests that a region of a cover is transferred through a channel.
+     */
+    @Test
+    void testTransferTo() {
+        String hash = coverStore.store(new byte[]{10, 11, 12, 13, 14});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = coverStore.transferTo(hash, 1, 3, Channels.newChannel(out));
+
+        assertEquals(3, transferred);
+        assertArrayEquals(new byte[]{11, 12, 13}, out.toByteArray());
+    }
+
+    /**
+     * Tests that a transfer beyond the end of the file is truncated to the file size.
+     */
+    @Test
+    void testTransferToBeyondEnd() {
+        String hash = coverStore.store(new byte[]{10, 11, 12});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = coverStore.transferTo(hash, 2, 100, Channels.newChannel(out));
+
+        assertEquals(1, transferred);
+        assertArrayEquals(new byte[]{12}, out.toByteArray());
+    }
+
+    /**
+     * Tests that a stored cover can be served as file resource and resource region.
+     */
+    @Test
+    void testLoadAndLoadRegion() throws Exception {
+        String hash = coverStore.store(new byte[]{7, 8, 9});
+
+        Resource resource = coverStore.load(hash);
+        ResourceRegion region = coverStore.loadRegion(hash, 1, 2);
+
+        assertEquals(3, resource.contentLength());
+        assertEquals(1, region.getPosition());
+        assertEquals(2, region.getCount());
+    }
+
+    /**
+     * Tests that a stored cover can be mapped into memory as read-only cover image.
+     */
+    @Test
+    void testMap() {
+        String hash = coverStore.store(new byte[]{5, 6, 7});
+
+        CoverImage coverImage = coverStore.map(hash);
+
+        assertEquals(3, coverImage.size());
+        assertArrayEquals(new byte[]{5, 6, 7}, coverImage.toByteArray());
+        assertTrue(coverImage.asByteBuffer().isReadOnly());
+        assertEquals(hash, CoverStore.hash(coverImage.asByteBuffer()));
+    }
+
+    /**
+     * Tests that reading an unknown or malformed hash fails with {@link CoverNotFoundException}.
+     */
+    @Test
+    void testUnknownAndInvalidHash() {
+        String unknown = CoverStore.hash(new byte[]{42});
+
+        assertFalse(coverStore.exists(unknown));
+        assertFalse(coverStore.exists("../../etc/passwd"));
+        assertThrows(CoverNotFoundException.class, () -> coverStore.read(unknown));
+        assertThrows(CoverNotFoundException.class, () -> coverStore.load("../../etc/passwd"));
+    }
+
+    /**
+     * Tests that a deleted cover is no longer listed.
+     */
+    @Test
+    void testDelete() {
+        String hash = coverStore.store(new byte[]{1});
+
+        assertTrue(coverStore.delete(hash));
+        assertFalse(coverStore.exists(hash));
+        assertTrue(coverStore.listCovers().isEmpty());
+        assertFalse(coverStore.delete(hash));
+    }
+}
@@ -0,0 +1,231 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.OpenLibraryBookDto;
+import fh.bswe.bookmanager.helper.DataSourceRouting;
+import fh.bswe.bookmanager.helper.OpenLibraryFetcher;
+import fh.bswe.bookmanager.helper.ReadYourWritesFilter;
+import fh.bswe.bookmanager.helper.ReplicaLagMonitor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the read/write routing between a primary and a replica database.
+ * <p>
+ * Two separate in-memory H2 databases stand in for the primary and the replica. Only the
+ * replica contains the table {@code replica_lag}, which tells the databases apart and
+ * simulates the replica lag measured by the {@link ReplicaLagMonitor}.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.max-lag=PT5S",
+        "datasource.replica.lag-query=select coalesce(max(seconds), 0) from replica_lag",
+        "datasource.replica.lag-check-interval=PT1H"
+})
+@AutoConfigureMockMvc
+public class DataSourceRoutingTest {
+    private static final String ON_REPLICA =
+            "select count(*) from information_schema.tables where lower(table_name) = 'replica_lag'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OpenLibraryFetcher openLibraryFetcher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void createReplicaLagTable() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists replica_lag (seconds int)");
+        replica.update("delete from replica_lag");
+        replicaLagMonitor.refresh();
+    }
+
+    @AfterEach
+    void resetReplicaLag() {
+        new JdbcTemplate(replicaDataSource).update("delete from replica_lag");
+        replicaLagMonitor.refresh();
+    }
+
+    /**
+     * Tests that read-only transactions are sent to the replica.
+     */
+    @Test
+    void testReadOnlyTransactionUsesReplica() {
+        assertTrue(isOnReplica(true));
+    }
+
+    /**
+     * Tests that read-write transactions are sent to the primary.
+     */
+    @Test
+    void testReadWriteTransactionUsesPrimary() {
+        assertFalse(isOnReplica(false));
+    }
+
+    /**
+     * Tests that read-only transactions inside {@link DataSourceRouting#onPrimary} are sent to the primary.
+     */
+    @Test
+    void testOnPrimaryOverridesReadOnly() {
+        assertFalse(DataSourceRouting.onPrimary(() -> isOnReplica(true)));
+        assertTrue(isOnReplica(true));
+    }
+
+    /**
+     * Tests that reads fall back to the primary while the replica lags more than tolerated.
+     */
+    @Test
+    void testLaggingReplicaIsNotUsed() {
+        new JdbcTemplate(replicaDataSource).update("insert into replica_lag (seconds) values (60)");
+        replicaLagMonitor.refresh();
+
+        assertEquals(Duration.ofSeconds(60), replicaLagMonitor.getLag());
+        assertFalse(isOnReplica(true));
+
+        new JdbcTemplate(replicaDataSource).update("delete from replica_lag");
+        replicaLagMonitor.refresh();
+
+        assertTrue(isOnReplica(true));
+    }
+
+    /**
+     * Tests that writing requests mark the client, and that requests of marked clients are routed to the primary.
+     *
+     * @throws Exception if the filter fails
+     */
+    @Test
+    void testReadYourWritesFilter() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        AtomicBoolean primaryForced = new AtomicBoolean();
+        FilterChain chain = (request, response) -> primaryForced.set(DataSourceRouting.isPrimaryForced());
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/users/jdoe1"), writeResponse, chain);
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+
+        MockHttpServletRequest readAfterWrite = new MockHttpServletRequest("GET", "/api/users/jdoe1");
+        readAfterWrite.setCookies(cookie);
+        filter.doFilter(readAfterWrite, new MockHttpServletResponse(), chain);
+        assertTrue(primaryForced.get());
+
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/jdoe1"), readResponse, chain);
+        assertFalse(primaryForced.get());
+        assertNull(readResponse.getCookie(ReadYourWritesFilter.COOKIE));
+        assertFalse(DataSourceRouting.isPrimaryForced());
+    }
+
+    /**
+     * Tests that a request reads the library from the replica, although the user is looked up
+     * in a read-write transaction first.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testRequestReadsLibraryFromReplica() throws Exception {
+        copyPrimaryToReplica();
+        new JdbcTemplate(replicaDataSource).update("update book set title = 'Replica Title' where id = 1");
+
+        mockMvc.perform(get("/api/users/jdoe1/books"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Replica Title"));
+    }
+
+    /**
+     * Tests that a request storing an unknown book writes to the primary, although the book
+     * is looked up in a read-only transaction on the replica first.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testRequestStoresUnknownBookOnPrimary() throws Exception {
+        copyPrimaryToReplica();
+        OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
+        bookDto.setTitle("Routed Book");
+        bookDto.setIsbn_10(List.of("1000000041"));
+        bookDto.setPublish_date("2020");
+        when(openLibraryFetcher.fetchBook("1000000041")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchCover("1000000041")).thenReturn(new byte[] {1, 2, 3});
+
+        mockMvc.perform(get("/api/books/1000000041"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Routed Book"));
+
+        assertEquals(1, countBooks(primaryDataSource, "1000000041"));
+        assertEquals(0, countBooks(replicaDataSource, "1000000041"));
+    }
+
+    /**
+     * Replaces the replica database with a copy of the primary database and the lag table.
+     */
+    private void copyPrimaryToReplica() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        new JdbcTemplate(primaryDataSource).queryForList("script", String.class).forEach(replica::execute);
+        replica.execute("create table replica_lag (seconds int)");
+    }
+
+    private static int countBooks(final DataSource dataSource, final String isbn) {
+        Integer books = new JdbcTemplate(dataSource)
+                .queryForObject("select count(*) from book where isbn = ?", Integer.class, isbn);
+        return books == null ? 0 : books;
+    }
+
+    private boolean isOnReplica(final boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        Integer tables = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(ON_REPLICA, Integer.class));
+        return tables != null && tables == 1;
+    }
+}
@@ -0,0 +1,237 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.LibraryImportErrorDto;
+import fh.bswe.bookmanager.dto.LibraryImportJobDto;
+import fh.bswe.bookmanager.dto.LibraryImportStatus;
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.BookStats;
+import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.ImportJobNotFoundException;
+import fh.bswe.bookmanager.exception.ImportLimitExceededException;
+import fh.bswe.bookmanager.exception.ImportQueueFullException;
+import fh.bswe.bookmanager.exception.InvalidImportFileException;
+import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.LibraryImportJob;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import fh.bswe.bookmanager.service.LibraryImportService;
+import fh.bswe.bookmanager.service.OpenLibraryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the {@link LibraryImportService} against an in-memory database filled with the demo data.
+ * <p>
+ * OpenLibrary is replaced by a mock storing the fetched books directly. Small batches make the
+ * imports span several batches, and a single import thread with one waiting place makes the limits
+ * easy to reach.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:library-import;DB_CLOSE_DELAY=-1",
+        "libraryimport.batch-size=3",
+        "libraryimport.max-errors=2",
+        "libraryimport.max-concurrent-jobs=1",
+        "libraryimport.queue-capacity=1"
+})
+public class LibraryImportServiceTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @MockitoBean
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private LibraryImportService libraryImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private BookStatsRepository bookStatsRepository;
+
+    /**
+     * Tests that an import adds new books with rating and comment, skips books already in the
+     * library or the file, fetches missing books and reports rows that cannot be imported.
+     */
+    @Test
+    void testImportLibrary() throws Exception {
+        when(openLibraryService.findAndStoreBookByIsbn("9780306406157")).thenAnswer(invocation -> {
+            Book book = new Book();
+            book.setIsbn("9780306406157");
+            book.setTitle("Fetched Book");
+            return bookRepository.save(book);
+        });
+        when(openLibraryService.findAndStoreBookByIsbn("9999999999"))
+                .thenThrow(new BookNotFoundException("Book 9999999999 was not found"));
+        String csv = """
+                isbn,title,author,rating,comment
+                9783161484100,Clean Code,,4,"Great, really"
+                978-0-13-468599-1,,,,
+                9780201633610,,,5,
+                9783161484100,,,2,
+                9780306406157,,,3,
+                9999999999,,,,
+                abc,,,,
+                9780134685991,,,7,
+                """;
+
+        LibraryImportJobDto job = awaitImport("asmith", libraryImportService.startImport("asmith", csvFile(csv)));
+
+        assertEquals(LibraryImportStatus.COMPLETED, job.status());
+        assertEquals(8, job.rowsRead());
+        assertEquals(3, job.imported());
+        assertEquals(2, job.skipped());
+        assertEquals(3, job.failed());
+        assertEquals(2, job.errors().size());
+        assertEquals(new LibraryImportErrorDto(7, "9999999999", "Book 9999999999 was not found"), job.errors().get(0));
+        assertEquals(8, job.errors().get(1).line());
+        assertNull(job.message());
+
+        UserBookDto cleanCode = userBookRepository.findLibraryEntry("asmith", "9783161484100").orElseThrow();
+        assertEquals(4, cleanCode.getRating());
+        assertEquals("Great, really", cleanCode.getComment());
+        assertNull(userBookRepository.findLibraryEntry("asmith", "9780134685991").orElseThrow().getRating());
+        assertTrue(userBookRepository.findLibraryEntry("asmith", "9780306406157").isPresent());
+
+        BookStats stats = bookStatsRepository.findById(1).orElseThrow();
+        assertEquals(4, stats.getReaders());
+        assertEquals(4, stats.getRatingCount());
+        assertEquals(15, stats.getRatingSum());
+    }
+
+    /**
+     * Tests that importing the same file again skips all of its books.
+     */
+    @Test
+    void testImportLibraryAgainSkipsEntries() throws Exception {
+        String csv = """
+                isbn,rating
+                9780201633610,4
+                9780134685991,4
+                """;
+
+        LibraryImportJobDto first = awaitImport("stx85", libraryImportService.startImport("stx85", csvFile(csv)));
+        LibraryImportJobDto second = awaitImport("stx85", libraryImportService.startImport("stx85", csvFile(csv)));
+
+        assertEquals(1, first.imported());
+        assertEquals(1, first.skipped());
+        assertEquals(0, second.imported());
+        assertEquals(2, second.skipped());
+    }
+
+    /**
+     * Tests that files without ISBN column and unknown users are rejected before an import starts.
+     */
+    @Test
+    void testStartImportRejected() {
+        assertThrows(InvalidImportFileException.class,
+                () -> libraryImportService.startImport("jdoe1", csvFile("title,rating\nClean Code,5\n")));
+        assertThrows(InvalidImportFileException.class,
+                () -> libraryImportService.startImport("jdoe1", csvFile("")));
+        assertThrows(UserNotFoundException.class,
+                () -> libraryImportService.startImport("missinguser", csvFile("isbn\n9783161484100\n")));
+    }
+
+    /**
+     * Tests that an import can only be polled by the user it belongs to.
+     */
+    @Test
+    void testFindImportOfOtherUser() throws Exception {
+        LibraryImportJobDto job = libraryImportService.startImport("bwayne", csvFile("isbn\n9783161484100\n"));
+
+        assertThrows(ImportJobNotFoundException.class, () -> libraryImportService.findImport("jdoe1", job.id()));
+        assertThrows(ImportJobNotFoundException.class,
+                () -> libraryImportService.findImport("bwayne", UUID.randomUUID()));
+        assertEquals(job.id(), awaitImport("bwayne", job).id());
+    }
+
+    /**
+     * Tests that a second unfinished import of a user and an import beyond the queue are rejected
+     * before they are stored, and that uploads are accepted again once the imports finished.
+     */
+    @Test
+    void testStartImportBeyondLimits() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(openLibraryService.findAndStoreBookByIsbn("9780451524935")).thenAnswer(invocation -> {
+            release.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            throw new BookNotFoundException("Book 9780451524935 was not found");
+        });
+
+        LibraryImportJobDto running = libraryImportService.startImport("jdoe1", csvFile("isbn\n9780451524935\n"));
+        LibraryImportJobDto queued;
+        try {
+            queued = libraryImportService.startImport("asmith", csvFile("isbn\n9783161484100\n"));
+            assertThrows(ImportLimitExceededException.class,
+                    () -> libraryImportService.startImport("jdoe1", csvFile("isbn\n9783161484100\n")));
+            assertThrows(ImportQueueFullException.class,
+                    () -> libraryImportService.startImport("bwayne", csvFile("isbn\n9783161484100\n")));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(LibraryImportStatus.COMPLETED, awaitImport("jdoe1", running).status());
+        assertEquals(LibraryImportStatus.COMPLETED, awaitImport("asmith", queued).status());
+        assertEquals(LibraryImportStatus.COMPLETED, awaitImport("bwayne",
+                libraryImportService.startImport("bwayne", csvFile("isbn\n9783161484100\n"))).status());
+    }
+
+    /**
+     * Tests that an import unfinished beyond its maximum duration is cancelled, and that a
+     * cancelled import does not run once it leaves the queue.
+     */
+    @Test
+    void testOverdueImportIsCancelled() {
+        LibraryImportJob job = new LibraryImportJob("jdoe1", 2);
+        Instant later = Instant.now().plus(Duration.ofHours(3));
+
+        assertFalse(job.isOverdue(Instant.now(), Duration.ofHours(2)));
+        assertTrue(job.isOverdue(later, Duration.ofHours(2)));
+
+        job.cancel("The import did not finish within PT2H");
+
+        assertFalse(job.start());
+        assertTrue(job.isFinished());
+        assertFalse(job.isOverdue(later, Duration.ofHours(2)));
+        assertEquals(LibraryImportStatus.FAILED, job.toDto().status());
+        assertEquals("The import did not finish within PT2H", job.toDto().message());
+    }
+
+    private static MockMultipartFile csvFile(final String content) {
+        return new MockMultipartFile("file", "library.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private LibraryImportJobDto awaitImport(final String username, final LibraryImportJobDto started)
+            throws InterruptedException {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        LibraryImportJobDto job = libraryImportService.findImport(username, started.id());
+        while (List.of(LibraryImportStatus.QUEUED, LibraryImportStatus.RUNNING).contains(job.status())) {
+            assertTrue(Instant.now().isBefore(deadline), "import did not finish in time");
+            Thread.sleep(20);
+            job = libraryImportService.findImport(username, started.id());
+        }
+        return job;
+    }
+}
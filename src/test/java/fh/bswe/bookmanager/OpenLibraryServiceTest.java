@@ -1,12 +1,17 @@
 package fh.bswe.bookmanager;
 
+import fh.bswe.bookmanager.dto.BookDto;
 import fh.bswe.bookmanager.dto.OpenLibraryAuthorDto;
 import fh.bswe.bookmanager.dto.OpenLibraryBookDto;
 import fh.bswe.bookmanager.entity.Book;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
 import fh.bswe.bookmanager.exception.CoverNotFoundException;
+import fh.bswe.bookmanager.helper.CoverStore;
 import fh.bswe.bookmanager.helper.OpenLibraryFetcher;
+import fh.bswe.bookmanager.repository.AuthorRepository;
 import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.CoverRepository;
+import fh.bswe.bookmanager.service.AuthorService;
 import fh.bswe.bookmanager.service.BookService;
 import fh.bswe.bookmanager.service.OpenLibraryService;
 import org.junit.jupiter.api.Test;
@@ -14,12 +19,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -29,6 +39,11 @@ import static org.mockito.Mockito.when;
  */
 @SpringBootTest
 public class OpenLibraryServiceTest {
+    private static final byte[] COVER = new byte[2048];
+
+    static {
+        Arrays.fill(COVER, (byte) 7);
+    }
 
     @MockitoBean
     private BookService bookService;
@@ -42,6 +57,18 @@ public class OpenLibraryServiceTest {
     @Autowired
     private OpenLibraryService openLibraryService;
 
+    @Autowired
+    private CoverStore coverStore;
+
+    @Autowired
+    private CoverRepository coverRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private AuthorService authorService;
+
     /**
      * Tests that an existing book is returned without fetching from Open Library.
      */
@@ -68,11 +95,11 @@ public class OpenLibraryServiceTest {
         OpenLibraryBookDto.Author author = new OpenLibraryBookDto.Author();
         author.setKey("/authors/OL1A");
 
-        when(bookService.findBookByIsbn("1234567890")).thenThrow(new BookNotFoundException("Not found"));
+        when(bookService.findBookByIsbn("1000000001")).thenThrow(new BookNotFoundException("Not found"));
 
         OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
         bookDto.setTitle("Test Book");
-        bookDto.setIsbn_10(List.of("1234567890"));
+        bookDto.setIsbn_10(List.of("1000000001"));
         bookDto.setAuthors(List.of(author));
         bookDto.setLanguages(null);
         bookDto.setPublish_date("2020");
@@ -82,21 +109,23 @@ public class OpenLibraryServiceTest {
         OpenLibraryAuthorDto authorDto = new OpenLibraryAuthorDto();
         authorDto.setName("Test Author");
 
-        when(openLibraryFetcher.fetchBook("1234567890")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchBook("1000000001")).thenReturn(bookDto);
         when(openLibraryFetcher.fetchAuthor("OL1A")).thenReturn(null);
-        when(openLibraryFetcher.fetchCover("1234567890")).thenReturn(new byte[]{1, 2, 3});
+        when(openLibraryFetcher.fetchCover("1000000001")).thenReturn(COVER);
 
-        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1234567890");
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1000000001");
 
         assertNotNull(savedBook);
         assertEquals("Test Book", savedBook.getTitle());
         assertEquals("", savedBook.getAuthors());
-        assertEquals("1234567890", savedBook.getIsbn());
+        assertEquals("1000000001", savedBook.getIsbn());
         assertEquals("2020", savedBook.getPublishDate());
         assertEquals("", savedBook.getLanguage());
         assertEquals("", savedBook.getPublishers());
         assertEquals("", savedBook.getCoverKey());
-        assertArrayEquals(new byte[]{1, 2, 3}, savedBook.getCoverImage());
+        assertEquals(CoverStore.hash(COVER), savedBook.getCoverHash());
+        assertArrayEquals(COVER, coverStore.read(savedBook.getCoverHash()));
+        assertTrue(savedBook.getCoverImage().isEmpty());
     }
 
     /**
@@ -108,12 +137,12 @@ public class OpenLibraryServiceTest {
      */
     @Test
     void shouldFetchAndSaveBookTestPattern2() {
-        when(bookService.findBookByIsbn("1234567890")).thenThrow(new BookNotFoundException("Not found"));
+        when(bookService.findBookByIsbn("1000000002")).thenThrow(new BookNotFoundException("Not found"));
 
         OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
         bookDto.setTitle("Test Book");
         bookDto.setIsbn_13(List.of());
-        bookDto.setIsbn_10(List.of("1234567890"));
+        bookDto.setIsbn_10(List.of("1000000002"));
         bookDto.setAuthors(null);
         bookDto.setLanguages(List.of());
         bookDto.setPublish_date("2020");
@@ -123,21 +152,22 @@ public class OpenLibraryServiceTest {
         OpenLibraryAuthorDto authorDto = new OpenLibraryAuthorDto();
         authorDto.setName("Test Author");
 
-        when(openLibraryFetcher.fetchBook("1234567890")).thenReturn(bookDto);
-        when(openLibraryFetcher.fetchCover("1234567890")).thenThrow(new CoverNotFoundException("Cover not found"));
+        when(openLibraryFetcher.fetchBook("1000000002")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchCover("1000000002")).thenThrow(new CoverNotFoundException("Cover not found"));
         when(openLibraryFetcher.fetchAuthor("OL1A")).thenThrow(new CoverNotFoundException("Cover not found"));
 
-        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1234567890");
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1000000002");
 
         assertNotNull(savedBook);
         assertEquals("Test Book", savedBook.getTitle());
         assertEquals("", savedBook.getAuthors());
-        assertEquals("1234567890", savedBook.getIsbn());
+        assertEquals("1000000002", savedBook.getIsbn());
         assertEquals("2020", savedBook.getPublishDate());
         assertEquals("", savedBook.getLanguage());
         assertEquals("", savedBook.getPublishers());
         assertEquals("", savedBook.getCoverKey());
-        assertArrayEquals(new byte[0], savedBook.getCoverImage());
+        assertNull(savedBook.getCoverHash());
+        assertTrue(savedBook.getCoverImage().isEmpty());
     }
 
     /**
@@ -152,32 +182,34 @@ public class OpenLibraryServiceTest {
         OpenLibraryBookDto.Language language = new OpenLibraryBookDto.Language();
         language.setKey("/languages/eng");
 
-        when(bookService.findBookByIsbn("1234567890")).thenThrow(new BookNotFoundException("Not found"));
+        when(bookService.findBookByIsbn("9780000000003")).thenThrow(new BookNotFoundException("Not found"));
 
         OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
         bookDto.setTitle("Test Book");
-        bookDto.setIsbn_13(List.of("1234567890"));
+        bookDto.setIsbn_13(List.of("9780000000003"));
         bookDto.setAuthors(List.of());
         bookDto.setLanguages(List.of(language));
         bookDto.setPublish_date("2020");
         bookDto.setPublishers(null);
         bookDto.setCovers(null);
 
-        when(openLibraryFetcher.fetchBook("1234567890")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchBook("9780000000003")).thenReturn(bookDto);
         when(openLibraryFetcher.fetchAuthor("OL1A")).thenReturn(null);
-        when(openLibraryFetcher.fetchCover("1234567890")).thenReturn(new byte[]{1, 2, 3});
+        when(openLibraryFetcher.fetchCover("9780000000003")).thenReturn(COVER);
 
-        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1234567890");
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("9780000000003");
 
         assertNotNull(savedBook);
         assertEquals("Test Book", savedBook.getTitle());
         assertEquals("", savedBook.getAuthors());
-        assertEquals("1234567890", savedBook.getIsbn());
+        assertEquals("9780000000003", savedBook.getIsbn());
         assertEquals("2020", savedBook.getPublishDate());
         assertEquals("eng", savedBook.getLanguage());
         assertEquals("", savedBook.getPublishers());
         assertEquals("", savedBook.getCoverKey());
-        assertArrayEquals(new byte[]{1, 2, 3}, savedBook.getCoverImage());
+        assertEquals(CoverStore.hash(COVER), savedBook.getCoverHash());
+        assertArrayEquals(COVER, coverStore.read(savedBook.getCoverHash()));
+        assertTrue(savedBook.getCoverImage().isEmpty());
     }
 
     /**
@@ -195,31 +227,139 @@ public class OpenLibraryServiceTest {
         OpenLibraryBookDto.Language language = new OpenLibraryBookDto.Language();
         language.setKey("languageseng");
 
-        when(bookService.findBookByIsbn("1234567890")).thenThrow(new BookNotFoundException("Not found"));
+        when(bookService.findBookByIsbn("9780000000004")).thenThrow(new BookNotFoundException("Not found"));
 
         OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
         bookDto.setTitle("Test Book");
-        bookDto.setIsbn_13(List.of("1234567890"));
+        bookDto.setIsbn_13(List.of("9780000000004"));
         bookDto.setAuthors(List.of(author));
         bookDto.setLanguages(List.of(language));
         bookDto.setPublish_date("2020");
         bookDto.setPublishers(null);
         bookDto.setCovers(null);
 
-        when(openLibraryFetcher.fetchBook("1234567890")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchBook("9780000000004")).thenReturn(bookDto);
         when(openLibraryFetcher.fetchAuthor("OL1A")).thenReturn(null);
-        when(openLibraryFetcher.fetchCover("1234567890")).thenReturn(new byte[]{1, 2, 3});
+        when(openLibraryFetcher.fetchCover("9780000000004")).thenReturn(COVER);
 
-        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1234567890");
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("9780000000004");
 
         assertNotNull(savedBook);
         assertEquals("Test Book", savedBook.getTitle());
         assertEquals("", savedBook.getAuthors());
-        assertEquals("1234567890", savedBook.getIsbn());
+        assertEquals("9780000000004", savedBook.getIsbn());
         assertEquals("2020", savedBook.getPublishDate());
         assertEquals("", savedBook.getLanguage());
         assertEquals("", savedBook.getPublishers());
         assertEquals("", savedBook.getCoverKey());
-        assertArrayEquals(new byte[]{1, 2, 3}, savedBook.getCoverImage());
+        assertEquals(CoverStore.hash(COVER), savedBook.getCoverHash());
+        assertArrayEquals(COVER, coverStore.read(savedBook.getCoverHash()));
+        assertTrue(savedBook.getCoverImage().isEmpty());
+    }
+
+    /**
+     * Tests that a placeholder image returned instead of a cover is stored as "no cover".
+     */
+    @Test
+    void shouldStorePlaceholderAsNoCover() {
+        when(bookService.findBookByIsbn("1234567891")).thenThrow(new BookNotFoundException("Not found"));
+
+        OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
+        bookDto.setTitle("Book Without Art");
+        bookDto.setIsbn_10(List.of("1234567891"));
+
+        byte[] placeholder = new byte[]{71, 73, 70, 56, 57, 97};
+        when(openLibraryFetcher.fetchBook("1234567891")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchCover("1234567891")).thenReturn(placeholder);
+
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1234567891");
+
+        assertNull(savedBook.getCoverHash());
+        assertFalse(coverStore.exists(CoverStore.hash(placeholder)));
+    }
+
+    /**
+     * Tests that a book stored concurrently under the same ISBN is returned instead of inserting a
+     * duplicate, and that the reference to the fetched cover is released again.
+     */
+    @Test
+    void shouldReturnConcurrentlyStoredBook() {
+        Book stored = new Book();
+        stored.setIsbn("1000000009");
+        stored.setTitle("Stored Book");
+        stored = bookRepository.save(stored);
+
+        when(bookService.findBookByIsbn("1000000009")).thenThrow(new BookNotFoundException("Not found"));
+
+        OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
+        bookDto.setTitle("Fetched Book");
+        bookDto.setIsbn_10(List.of("1000000009"));
+
+        byte[] cover = new byte[2048];
+        Arrays.fill(cover, (byte) 9);
+        when(openLibraryFetcher.fetchBook("1000000009")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchCover("1000000009")).thenReturn(cover);
+
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("1000000009");
+
+        assertEquals(stored.getId(), savedBook.getId());
+        assertEquals("Stored Book", savedBook.getTitle());
+        assertEquals(1, bookRepository.findByIsbnOrderByIdAsc("1000000009").size());
+        assertEquals(0, coverRepository.findById(CoverStore.hash(cover)).orElseThrow().getReferenceCount());
+    }
+
+    /**
+     * Tests that the author of a second edition is resolved from the author table instead of
+     * being fetched again, and that both editions are found by the author key.
+     */
+    @Test
+    void shouldResolveKnownAuthorsFromDatabase() {
+        OpenLibraryBookDto.Author author = new OpenLibraryBookDto.Author();
+        author.setKey("/authors/OL44001A");
+        OpenLibraryAuthorDto authorDto = new OpenLibraryAuthorDto();
+        authorDto.setName("Known Author");
+
+        when(bookService.findBookByIsbn(any())).thenThrow(new BookNotFoundException("Not found"));
+        when(openLibraryFetcher.fetchAuthor("OL44001A")).thenReturn(authorDto);
+        when(openLibraryFetcher.fetchCover(any())).thenReturn(new byte[0]);
+
+        for (String isbn : List.of("9780000044001", "9780000044002")) {
+            OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
+            bookDto.setTitle("Edition " + isbn);
+            bookDto.setIsbn_13(List.of(isbn));
+            bookDto.setAuthors(List.of(author));
+            when(openLibraryFetcher.fetchBook(isbn)).thenReturn(bookDto);
+
+            assertEquals("Known Author", openLibraryService.findAndStoreBookByIsbn(isbn).getAuthors());
+        }
+
+        verify(openLibraryFetcher, times(1)).fetchAuthor("OL44001A");
+        assertEquals("Known Author", authorRepository.findById("OL44001A").orElseThrow().getName());
+        assertEquals(List.of("9780000044001", "9780000044002"),
+                authorService.findBooksByAuthorKey("OL44001A").stream().map(BookDto::getIsbn).toList());
+    }
+
+    /**
+     * Tests that a title and publishers longer than their columns are stored truncated,
+     * ending with an ellipsis.
+     */
+    @Test
+    void shouldTruncateValuesLongerThanTheirColumns() {
+        when(bookService.findBookByIsbn("9780000047001")).thenThrow(new BookNotFoundException("Not found"));
+
+        OpenLibraryBookDto bookDto = new OpenLibraryBookDto();
+        bookDto.setTitle("T".repeat(Book.TITLE_LENGTH + 100));
+        bookDto.setIsbn_13(List.of("9780000047001"));
+        bookDto.setPublishers(List.of("P".repeat(Book.PUBLISHERS_LENGTH), "Second Publisher"));
+
+        when(openLibraryFetcher.fetchBook("9780000047001")).thenReturn(bookDto);
+        when(openLibraryFetcher.fetchCover("9780000047001")).thenReturn(new byte[0]);
+
+        Book savedBook = openLibraryService.findAndStoreBookByIsbn("9780000047001");
+
+        assertEquals(Book.TITLE_LENGTH, savedBook.getTitle().length());
+        assertTrue(savedBook.getTitle().endsWith("\u2026"));
+        assertEquals(Book.PUBLISHERS_LENGTH, savedBook.getPublishers().length());
+        assertTrue(savedBook.getPublishers().startsWith("PPP"));
     }
 }
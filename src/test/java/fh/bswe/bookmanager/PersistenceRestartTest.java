@@ -0,0 +1,143 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the {@code local} profile with a file-based database.
+ * <p>
+ * The application is started, stopped and started again on the same database file,
+ * to verify that the schema is created by the migrations and that the data survives restarts.
+ * Data written by an older schema is migrated without starting the application.
+ * </p>
+ */
+public class PersistenceRestartTest {
+    private static final String ISBN = "9780000039001";
+    private static final String USERNAME = "restart-user";
+
+    /**
+     * Tests that users and books stored before a restart are still present afterwards,
+     * that the migrations are not applied twice and that the ID sequences continue.
+     *
+     * @param directory the temporary directory holding the database file and covers
+     */
+    @Test
+    void testStateSurvivesRestart(@TempDir final Path directory) {
+        final Integer userId;
+
+        try (ConfigurableApplicationContext context = start(directory)) {
+            assertEquals(8, context.getBean(Flyway.class).info().applied().length);
+
+            userId = context.getBean(UserAccountRepository.class).save(user(USERNAME)).getId();
+            assertEquals(1, context.getBean(BookRepository.class).insertIfAbsent(book()));
+        }
+
+        try (ConfigurableApplicationContext context = start(directory)) {
+            assertEquals(8, context.getBean(Flyway.class).info().applied().length);
+
+            final UserAccountRepository userAccountRepository = context.getBean(UserAccountRepository.class);
+            final BookRepository bookRepository = context.getBean(BookRepository.class);
+
+            assertEquals(userId, userAccountRepository.findByUsername(USERNAME).orElseThrow().getId());
+            assertEquals("Restarted", bookRepository.findByIsbn(ISBN).orElseThrow().getTitle());
+            assertEquals(0, bookRepository.insertIfAbsent(book()));
+            assertTrue(userAccountRepository.save(user("restart-next")).getId() > userId);
+        }
+    }
+
+    /**
+     * Tests that the conversion of the text columns truncates a long title with an ellipsis but
+     * removes a long cover link instead of storing a shortened, invalid link.
+     *
+     * @param directory the temporary directory holding the database file
+     * @throws SQLException if the database cannot be accessed
+     */
+    @Test
+    void testTextConversionDropsLongCoverLinks(@TempDir final Path directory) throws SQLException {
+        final String url = "jdbc:h2:file:" + directory.resolve("bookmanager");
+        final String coverLink = "https://covers.openlibrary.org/b/id/" + "1".repeat(Book.COVER_LINK_LENGTH) + "-L.jpg";
+        migrate(url, "5");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement insert = connection.prepareStatement(
+                     "insert into book (id, isbn, title, cover_link) values (1, ?, ?, ?), (2, ?, ?, ?)")) {
+            insert.setString(1, ISBN);
+            insert.setString(2, "T".repeat(Book.TITLE_LENGTH + 1));
+            insert.setString(3, coverLink);
+            insert.setString(4, "9780000039002");
+            insert.setString(5, "Short");
+            insert.setString(6, "https://covers.openlibrary.org/b/id/1-L.jpg");
+            insert.executeUpdate();
+        }
+        migrate(url, "6");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet books = statement.executeQuery("select title, cover_link from book order by id")) {
+            assertTrue(books.next());
+            assertEquals("T".repeat(Book.TITLE_LENGTH - 1) + "\u2026", books.getString("title"));
+            assertNull(books.getString("cover_link"));
+            assertTrue(books.next());
+            assertEquals("Short", books.getString("title"));
+            assertEquals("https://covers.openlibrary.org/b/id/1-L.jpg", books.getString("cover_link"));
+            assertFalse(books.next());
+        }
+    }
+
+    private static void migrate(final String url, final String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static ConfigurableApplicationContext start(final Path directory) {
+        return new SpringApplicationBuilder(BookManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("local")
+                .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("bookmanager")
+                                + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--coverstore.directory=" + directory.resolve("covers"));
+    }
+
+    private static UserAccount user(final String username) {
+        final UserAccount userAccount = new UserAccount();
+        userAccount.setUsername(username);
+        userAccount.setFirstname("Rita");
+        userAccount.setLastname("Restart");
+        return userAccount;
+    }
+
+    private static Book book() {
+        final Book book = new Book();
+        book.setIsbn(ISBN);
+        book.setTitle("Restarted");
+        book.setAuthors("Rita Restart");
+        book.setPublishDate("2024");
+        book.setLanguage("en");
+        return book;
+    }
+}
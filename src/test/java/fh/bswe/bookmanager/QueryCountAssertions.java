@@ -0,0 +1,54 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.helper.QueryStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test support for asserting the number of database statements of a call, e.g. of an endpoint
+ * performed with {@code MockMvc}, so N+1 queries fail a test instead of showing up in production.
+ * <p>
+ * The statements are measured with {@link QueryStatistics} on the calling thread, so the call must
+ * run synchronously against the real persistence layer, not against mocked services.
+ * </p>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Performs the call and asserts that it executed at most the given number of statements.
+     *
+     * @param maxStatements the maximum number of JDBC statements and batches
+     * @param call          the call to measure
+     * @return the statistics of the call, e.g. to assert the fetched rows
+     * @throws Exception if the call fails
+     */
+    public static QueryStatistics assertMaxStatements(final int maxStatements, final Call call) throws Exception {
+        final QueryStatistics statistics = QueryStatistics.start();
+        try {
+            call.perform();
+        } finally {
+            statistics.close();
+        }
+
+        assertTrue(statistics.getStatements() <= maxStatements,
+                () -> "Expected at most %d statements, but %d were executed fetching %d rows".formatted(
+                        maxStatements, statistics.getStatements(), statistics.getRows()));
+        return statistics;
+    }
+
+    /**
+     * A call whose statements are measured.
+     */
+    @FunctionalInterface
+    public interface Call {
+        /**
+         * Performs the call.
+         *
+         * @throws Exception if the call fails
+         */
+        void perform() throws Exception;
+    }
+}
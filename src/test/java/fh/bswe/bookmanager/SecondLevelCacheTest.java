@@ -0,0 +1,95 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the second-level and natural ID caches of {@link Book} and {@link UserAccount}.
+ */
+@SpringBootTest
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Tests that a repeated lookup by ISBN is served from the caches without any statement.
+     */
+    @Test
+    void testFindByIsbnIsCached() {
+        Book book = new Book();
+        book.setIsbn("9780000040001");
+        book.setTitle("Cached Book");
+        bookRepository.save(book);
+        bookRepository.findByIsbn("9780000040001").orElseThrow();
+
+        Statistics statistics = statistics();
+        Book cached = bookRepository.findByIsbn("9780000040001").orElseThrow();
+
+        assertEquals("Cached Book", cached.getTitle());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 1);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+    }
+
+    /**
+     * Tests that a repeated lookup by username is served from the caches without any statement.
+     */
+    @Test
+    void testFindByUsernameIsCached() {
+        UserAccount user = new UserAccount();
+        user.setUsername("cached_user");
+        user.setFirstname("Cathy");
+        user.setLastname("Cache");
+        userAccountRepository.save(user);
+        userAccountRepository.findByUsername("cached_user").orElseThrow();
+
+        Statistics statistics = statistics();
+        UserAccount cached = userAccountRepository.findByUsername("cached_user").orElseThrow();
+
+        assertEquals("Cathy", cached.getFirstname());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 1);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+    }
+
+    /**
+     * Tests that renaming a user with a bulk update evicts the cached account.
+     */
+    @Test
+    void testUpdateNamesEvictsCachedUser() {
+        UserAccount user = new UserAccount();
+        user.setUsername("evicted_user");
+        user.setFirstname("Old");
+        user.setLastname("Name");
+        userAccountRepository.save(user);
+        userAccountRepository.findByUsername("evicted_user").orElseThrow();
+
+        userAccountRepository.updateNamesByUsername("evicted_user", "New", "Name");
+
+        assertEquals("New", userAccountRepository.findByUsername("evicted_user").orElseThrow().getFirstname());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
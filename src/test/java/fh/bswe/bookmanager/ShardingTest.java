@@ -0,0 +1,277 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.config.UserAccountPurgeConfig;
+import fh.bswe.bookmanager.dto.ShardRebalanceReportDto;
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.helper.ShardRouting;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import fh.bswe.bookmanager.service.BookStatsService;
+import fh.bswe.bookmanager.service.OpenLibraryService;
+import fh.bswe.bookmanager.service.ShardRebalanceService;
+import fh.bswe.bookmanager.service.UserAccountPurgeService;
+import fh.bswe.bookmanager.service.UserAccountService;
+import fh.bswe.bookmanager.service.UserBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for the sharding of library entries by user.
+ * <p>
+ * Three separate in-memory H2 databases stand in for the reference shard and two additional shards.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-reference;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[0].url=jdbc:h2:mem:sharding-shard1;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[0].username=sa",
+        "datasource.sharding.shards[1].url=jdbc:h2:mem:sharding-shard2;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[1].username=sa",
+        "datasource.sharding.rebalance-batch-size=2"
+})
+public class ShardingTest {
+    private static final String COUNT_ENTRIES = "select count(*) from user_book where user_account_id = ?";
+
+    @MockitoBean
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private UserBookService userBookService;
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private ShardRebalanceService shardRebalanceService;
+
+    @Autowired
+    private ShardLocator shardLocator;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookStatsRepository bookStatsRepository;
+
+    @Autowired
+    private UserAccountPurgeConfig purgeConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Tests that growing the number of shards moves keys only to the new shard, and only about
+     * one in {@code n} of them.
+     */
+    @Test
+    void testJumpHashMovesKeysOnlyToNewShard() {
+        int moved = 0;
+        for (int key = 1; key <= 10_000; key++) {
+            final int before = ShardLocator.jumpHash(key, 3);
+            final int after = ShardLocator.jumpHash(key, 4);
+            assertTrue(before >= 0 && before < 3);
+            if (before != after) {
+                assertEquals(3, after);
+                moved++;
+            }
+        }
+        assertTrue(moved > 2000 && moved < 3000, "moved " + moved);
+        assertEquals(3, shardLocator.getShardCount());
+    }
+
+    /**
+     * Tests that the entries of users are stored, read, rated and removed on their own shard,
+     * and that the statistics are summed over all shards.
+     *
+     * @throws UserNotFoundException if a user cannot be found (not expected in this test)
+     */
+    @Test
+    void testLibraryOperationsUseShardOfUser() throws UserNotFoundException {
+        final Book book = saveBook("9780000046001");
+        final List<UserAccount> users = saveUsersOnEveryShard("shard_ops_");
+
+        for (final UserAccount user : users) {
+            userBookService.storeBookToUserLibrary(user.getUsername(), book.getIsbn(), false);
+        }
+
+        for (final UserAccount user : users) {
+            final int shard = shardLocator.shardOf(user.getId());
+            for (int other = 0; other < shardLocator.getShardCount(); other++) {
+                assertEquals(other == shard ? 1 : 0, countEntries(other, user.getId()));
+            }
+        }
+
+        final UserAccount user = users.get(2);
+        userBookService.addRating(user.getUsername(), book.getIsbn(), rating(4));
+        final List<UserBookDto> library = userBookService.readUserBooks(user.getUsername(),
+                UserBookFilterDto.none(), null, 10).items();
+        assertEquals(1, library.size());
+        assertEquals(book.getIsbn(), library.getFirst().getIsbn());
+        assertEquals(4, library.getFirst().getRating());
+
+        assertEquals(3, bookStatsService.findStatsByIsbn(book.getIsbn()).readers());
+        assertEquals(4.0, bookStatsService.findStatsByIsbn(book.getIsbn()).averageRating());
+
+        userBookService.removeBookFromUserLibrary(user.getUsername(), book.getIsbn());
+
+        assertEquals(0, countEntries(shardLocator.shardOf(user.getId()), user.getId()));
+        assertEquals(2, bookStatsService.findStatsByIsbn(book.getIsbn()).readers());
+        assertEquals(0, bookStatsService.findStatsByIsbn(book.getIsbn()).ratingCount());
+    }
+
+    /**
+     * Tests that the rebalancing moves entries stored on the reference shard to the shard of their user,
+     * together with their statistics, and that a second run finds nothing to move.
+     *
+     * @throws UserNotFoundException if a user cannot be found (not expected in this test)
+     */
+    @Test
+    void testRebalanceMovesMisplacedEntries() throws UserNotFoundException {
+        final UserAccount user = saveUsersOnEveryShard("shard_move_").get(1);
+        final int shard = shardLocator.shardOf(user.getId());
+        final List<Book> books = List.of(saveBook("9780000046011"), saveBook("9780000046012"),
+                saveBook("9780000046013"));
+        for (final Book book : books) {
+            saveEntryOnReferenceShard(user, book);
+        }
+        assertEquals(3, countEntries(ShardRouting.REFERENCE_SHARD, user.getId()));
+
+        final ShardRebalanceReportDto report = shardRebalanceService.rebalance();
+
+        assertEquals(0, report.failedUsers());
+        assertTrue(report.movedEntries() >= 3);
+        assertEquals(0, countEntries(ShardRouting.REFERENCE_SHARD, user.getId()));
+        assertEquals(3, countEntries(shard, user.getId()));
+        assertEquals(3, userBookService.readUserBooks(user.getUsername(), UserBookFilterDto.none(), null, 10)
+                .items().size());
+        assertEquals(1, bookStatsService.findStatsByIsbn("9780000046011").readers());
+        assertEquals(2.0, bookStatsService.findStatsByIsbn("9780000046011").averageRating());
+        assertEquals(new ShardRebalanceReportDto(0, 0, 0), shardRebalanceService.rebalance());
+    }
+
+    /**
+     * Tests that purging a deleted user removes the library and the account copy from the shard of the user.
+     *
+     * @throws UserNotFoundException if a user cannot be found (not expected in this test)
+     */
+    @Test
+    void testPurgeRemovesLibraryFromShard() throws UserNotFoundException {
+        final UserAccount user = saveUsersOnEveryShard("shard_purge_").get(2);
+        final int shard = shardLocator.shardOf(user.getId());
+        final Book book = saveBook("9780000046021");
+        userBookService.storeBookToUserLibrary(user.getUsername(), book.getIsbn(), false);
+        userAccountService.deleteUserAccountByUsername(user.getUsername());
+
+        final UserAccountPurgeService purgeService = new UserAccountPurgeService(userAccountRepository,
+                userBookRepository, bookStatsRepository, purgeConfig, shardLocator, transactionManager);
+        while (userAccountRepository.countByDeletedAtIsNotNull() > 0) {
+            purgeService.purgeDeleted();
+        }
+
+        assertEquals(0, countEntries(shard, user.getId()));
+        assertEquals(0, ShardRouting.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "select count(*) from user_account where id = ?", Integer.class, user.getId())));
+        assertEquals(0, bookStatsService.findStatsByIsbn(book.getIsbn()).readers());
+    }
+
+    /**
+     * Tests that the shard cannot be switched while a transaction is active.
+     */
+    @Test
+    void testShardCannotChangeWithinTransaction() {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                ShardRouting.onShard(1, () -> jdbcTemplate.queryForObject("select 1", Integer.class))));
+        assertEquals(1, transactionTemplate.execute(status ->
+                ShardRouting.onShard(ShardRouting.REFERENCE_SHARD,
+                        () -> jdbcTemplate.queryForObject("select 1", Integer.class))));
+    }
+
+    /**
+     * Saves users until each shard holds one of them.
+     *
+     * @param prefix the prefix of the usernames
+     * @return one user per shard, ordered by shard
+     */
+    private List<UserAccount> saveUsersOnEveryShard(final String prefix) {
+        final UserAccount[] users = new UserAccount[shardLocator.getShardCount()];
+        int found = 0;
+        for (int i = 0; found < users.length; i++) {
+            UserAccount user = new UserAccount();
+            user.setUsername(prefix + i);
+            user.setFirstname("Sheila");
+            user.setLastname("Shard");
+            user = userAccountRepository.save(user);
+            final int shard = shardLocator.shardOf(user.getId());
+            if (users[shard] == null) {
+                users[shard] = user;
+                found++;
+            }
+        }
+        return List.of(users);
+    }
+
+    private void saveEntryOnReferenceShard(final UserAccount user, final Book book) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            final UserBook userBook = new UserBook();
+            userBook.setUser(user);
+            userBook.setBook(book);
+            userBook.setRating(2);
+            userBookRepository.save(userBook);
+            bookStatsRepository.applyChange(book.getId(), 1, null, 2);
+        });
+    }
+
+    private int countEntries(final int shard, final Integer userAccountId) {
+        return ShardRouting.onShard(shard,
+                () -> jdbcTemplate.queryForObject(COUNT_ENTRIES, Integer.class, userAccountId));
+    }
+
+    private Book saveBook(final String isbn) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Sharded Book");
+        book = bookRepository.save(book);
+        when(openLibraryService.findAndStoreBookByIsbn(isbn)).thenReturn(book);
+        return book;
+    }
+
+    private static UserBookDto rating(final int rating) {
+        final UserBookDto userBookDto = new UserBookDto();
+        userBookDto.setRating(rating);
+        return userBookDto;
+    }
+}
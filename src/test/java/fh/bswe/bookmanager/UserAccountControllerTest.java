@@ -3,34 +3,62 @@ package fh.bswe.bookmanager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fh.bswe.bookmanager.controller.UserAccountController;
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.LibraryExportFormat;
+import fh.bswe.bookmanager.dto.LibraryImportErrorDto;
+import fh.bswe.bookmanager.dto.LibraryImportJobDto;
+import fh.bswe.bookmanager.dto.LibraryImportStatus;
 import fh.bswe.bookmanager.dto.UserAccountDto;
 import fh.bswe.bookmanager.dto.UserAccountUpdateDto;
 import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
 import fh.bswe.bookmanager.exception.ConnectionErrorException;
+import fh.bswe.bookmanager.exception.ImportJobNotFoundException;
+import fh.bswe.bookmanager.exception.InvalidCursorException;
+import fh.bswe.bookmanager.exception.ImportLimitExceededException;
+import fh.bswe.bookmanager.exception.ImportQueueFullException;
+import fh.bswe.bookmanager.exception.InvalidImportFileException;
 import fh.bswe.bookmanager.exception.UserBookExistsException;
 import fh.bswe.bookmanager.exception.UserBookNotFoundException;
+import fh.bswe.bookmanager.exception.UserBookVersionConflictException;
 import fh.bswe.bookmanager.exception.UserExistsException;
 import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.service.LibraryImportService;
 import fh.bswe.bookmanager.service.UserAccountService;
 import fh.bswe.bookmanager.service.UserBookService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -38,6 +66,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 /**
  * Unit tests for the {@link UserAccountController}, focusing on HTTP endpoint behavior.
@@ -71,6 +101,9 @@ public class UserAccountControllerTest {
     @MockitoBean
     private UserBookService userBookService;
 
+    @MockitoBean
+    private LibraryImportService libraryImportService;
+
     /**
      * Tests successful user creation with valid input.
      * Expects HTTP 201 Created and returns the user data in JSON format.
@@ -401,7 +434,7 @@ public class UserAccountControllerTest {
         response.setTitle("Test title");
         response.setIsbn("0123456789");
 
-        when(userBookService.storeBookToUserLibrary("validuser", "0123456789")).thenReturn(response);
+        when(userBookService.storeBookToUserLibrary("validuser", "0123456789", false)).thenReturn(response);
 
         mockMvc.perform(post("/api/users/validuser/books/0123456789"))
                 .andExpect(status().isCreated())
@@ -422,7 +455,7 @@ public class UserAccountControllerTest {
      */
     @Test
     void testAddBookToUserLibraryUserNotFound() throws Exception {
-        when(userBookService.storeBookToUserLibrary("validuser", "0123456789")).thenThrow(new UserNotFoundException());
+        when(userBookService.storeBookToUserLibrary("validuser", "0123456789", false)).thenThrow(new UserNotFoundException());
 
         mockMvc.perform(post("/api/users/validuser/books/0123456789"))
                 .andExpect(status().isBadRequest());
@@ -438,7 +471,7 @@ public class UserAccountControllerTest {
      */
     @Test
     void testAddBookToUserLibraryBookNotFound() throws Exception {
-        when(userBookService.storeBookToUserLibrary("validuser", "0123456789")).thenThrow(new BookNotFoundException("not found"));
+        when(userBookService.storeBookToUserLibrary("validuser", "0123456789", false)).thenThrow(new BookNotFoundException("not found"));
 
         mockMvc.perform(post("/api/users/validuser/books/0123456789"))
                 .andExpect(status().isBadRequest());
@@ -454,7 +487,7 @@ public class UserAccountControllerTest {
      */
     @Test
     void testAddBookToUserLibraryUserBookExists() throws Exception {
-        when(userBookService.storeBookToUserLibrary("validuser", "0123456789")).thenThrow(new UserBookExistsException("already exists"));
+        when(userBookService.storeBookToUserLibrary("validuser", "0123456789", false)).thenThrow(new UserBookExistsException("already exists"));
 
         mockMvc.perform(post("/api/users/validuser/books/0123456789"))
                 .andExpect(status().isConflict());
@@ -470,7 +503,7 @@ public class UserAccountControllerTest {
      */
     @Test
     void testAddBookToUserLibraryConnectionError() throws Exception {
-        when(userBookService.storeBookToUserLibrary("validuser", "0123456789")).thenThrow(new ConnectionErrorException("connection error"));
+        when(userBookService.storeBookToUserLibrary("validuser", "0123456789", false)).thenThrow(new ConnectionErrorException("connection error"));
 
         mockMvc.perform(post("/api/users/validuser/books/0123456789"))
                 .andExpect(status().isInternalServerError());
@@ -550,6 +583,20 @@ public class UserAccountControllerTest {
         verify(userBookService, times(1)).removeBookFromUserLibrary("validuser", "0123456789");
     }
 
+    /**
+     * Tests that a removal losing against concurrent updates of the entry is answered with HTTP 409 (Conflict).
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testRemoveBookFromUserLibraryConflict() throws Exception {
+        doThrow(new UserBookVersionConflictException("Changed concurrently"))
+                .when(userBookService).removeBookFromUserLibrary("validuser", "0123456789");
+
+        mockMvc.perform(delete("/api/users/validuser/books/0123456789"))
+                .andExpect(status().isConflict());
+    }
+
     /**
      * Tests successful retrieval of a user's book library.
      * <p>
@@ -567,7 +614,8 @@ public class UserAccountControllerTest {
         book1.setRating(5);
         book1.setComment("Excellent!");
 
-        when(userBookService.readUserBooks("validuser", null)).thenReturn(List.of(book1));
+        when(userBookService.readUserBooks("validuser", UserBookFilterDto.none(), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(book1), null));
 
         mockMvc.perform(get("/api/users/validuser/books"))
                 .andExpect(status().isOk())
@@ -596,7 +644,8 @@ public class UserAccountControllerTest {
         book1.setRating(5);
         book1.setComment("Excellent!");
 
-        when(userBookService.readUserBooks("validuser", 5)).thenReturn(List.of(book1));
+        when(userBookService.readUserBooks("validuser", UserBookFilterDto.ofRating(5), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(book1), null));
 
         mockMvc.perform(get("/api/users/validuser/books?rating=5"))
                 .andExpect(status().isOk())
@@ -608,6 +657,86 @@ public class UserAccountControllerTest {
                 .andExpect(jsonPath("$[0].comment").value("Excellent!"));
     }
 
+    /**
+     * Tests that all filter and sort query parameters are passed to the service.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testReadUserBooksLibraryFilterAndSort() throws Exception {
+        UserBookFilterDto filter = new UserBookFilterDto(null, 3, 5, "en", 2008, "clean", "martin",
+                UserBookSort.TITLE, true);
+        when(userBookService.readUserBooks("validuser", filter, null, 50))
+                .thenReturn(new UserBookPageDto(List.of(), null));
+
+        mockMvc.perform(get("/api/users/validuser/books?minRating=3&maxRating=5&language=en&publishYear=2008"
+                        + "&title=clean&author=martin&sort=title&direction=desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(userBookService).readUserBooks("validuser", filter, null, 50);
+    }
+
+    /**
+     * Tests that a page with more entries carries a {@code Link} header to the next page
+     * that keeps the query parameters and replaces the cursor.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testReadUserBooksLibraryNextLink() throws Exception {
+        UserBookDto book1 = new UserBookDto("0123456789", "Test Book", "Test Author", 5, null);
+        when(userBookService.readUserBooks("validuser", UserBookFilterDto.ofRating(5), "previous", 1))
+                .thenReturn(new UserBookPageDto(List.of(book1), "next"));
+
+        mockMvc.perform(get("/api/users/validuser/books?rating=5&limit=1&cursor=previous"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "<http://localhost/api/users/validuser/books?rating=5&limit=1&cursor=next>; rel=\"next\""))
+                .andExpect(jsonPath("$[0].isbn").value("0123456789"));
+    }
+
+    /**
+     * Tests that the last page has no {@code Link} header and that an invalid cursor is rejected.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testReadUserBooksLibraryLastPageAndInvalidCursor() throws Exception {
+        when(userBookService.readUserBooks("validuser", UserBookFilterDto.none(), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(), null));
+        when(userBookService.readUserBooks("validuser", UserBookFilterDto.none(), "broken", 50))
+                .thenThrow(new InvalidCursorException("The cursor is malformed."));
+
+        mockMvc.perform(get("/api/users/validuser/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"));
+        mockMvc.perform(get("/api/users/validuser/books?cursor=broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that the page size is capped.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testReadUserBooksLibraryLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/api/users/validuser/books?limit=101"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * Tests that an unknown sort order fails validation.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void testReadUserBooksLibraryInvalidSort() throws Exception {
+        mockMvc.perform(get("/api/users/validuser/books?sort=isbn"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     /**
      * Tests behavior when the specified user is not found.
      * <p>
@@ -618,7 +747,8 @@ public class UserAccountControllerTest {
      */
     @Test
     void testReadUserBooksLibraryUserNotFound() throws Exception {
-        when(userBookService.readUserBooks("unknownuser", null)).thenThrow(new UserNotFoundException());
+        when(userBookService.readUserBooks("unknownuser", UserBookFilterDto.none(), null, 50))
+                .thenThrow(new UserNotFoundException());
 
         mockMvc.perform(get("/api/users/unknownuser/books"))
                 .andExpect(status().isBadRequest());
@@ -657,16 +787,151 @@ public class UserAccountControllerTest {
         response.setTitle("Some Title");
         response.setAuthor("Author X");
         response.setIsbn("1234567890");
+        response.setVersion(4L);
 
-        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class)))
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class), isNull()))
                 .thenReturn(response);
 
         mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                 .andExpect(jsonPath("$.rating").value(5))
-                .andExpect(jsonPath("$.comment").value("Great book!"));
+                .andExpect(jsonPath("$.comment").value("Great book!"))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    /**
+     * Tests case where the comment is longer than its column.
+     * Expects 422 Unprocessable Entity with the validation message.
+     */
+    @Test
+    void testAddRatingCommentTooLong() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(5);
+        request.setComment("x".repeat(2001));
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.comment").value("Comment must be at most 2000 characters"));
+    }
+
+    /**
+     * Tests that the version of an {@code If-Match} header is passed to the service.
+     * Expects 200 OK with the new version as ETag.
+     */
+    @Test
+    void testAddRatingWithIfMatch() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        UserBookDto response = new UserBookDto("1234567890", "Some Title", "Author X", 3, null, 4L);
+
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class), eq(Set.of(3L))))
+                .thenReturn(response);
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    /**
+     * Tests case where the entry no longer has the version of the {@code If-Match} header.
+     * Expects 412 Precondition Failed.
+     */
+    @Test
+    void testAddRatingIfMatchConflict() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class), eq(Set.of(3L))))
+                .thenThrow(new UserBookVersionConflictException("Version mismatch"));
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Tests case where the {@code If-Match} header is no version.
+     * Expects 412 Precondition Failed.
+     */
+    @Test
+    void testAddRatingInvalidIfMatch() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Tests case where the {@code If-Match} header holds a weak tag, which never matches in the
+     * strong comparison. Expects 412 Precondition Failed without an update.
+     */
+    @Test
+    void testAddRatingWeakIfMatch() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(userBookService);
+    }
+
+    /**
+     * Tests that all strong versions of an {@code If-Match} list are passed to the service,
+     * leaving out weak tags and tags that are no version. Expects 200 OK.
+     */
+    @Test
+    void testAddRatingIfMatchList() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        UserBookDto response = new UserBookDto("1234567890", "Some Title", "Author X", 3, null, 5L);
+
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class),
+                eq(Set.of(3L, 4L)))).thenReturn(response);
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .header(HttpHeaders.IF_MATCH, "\"abc\", W/\"2\", \"3\", \"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    /**
+     * Tests case where concurrent updates exhausted all retries.
+     * Expects 409 Conflict.
+     */
+    @Test
+    void testAddRatingRetriesExhausted() throws Exception {
+        UserBookDto request = new UserBookDto();
+        request.setRating(3);
+
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class), isNull()))
+                .thenThrow(new UserBookVersionConflictException("Changed concurrently"));
+
+        mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
     }
 
     /**
@@ -678,7 +943,7 @@ public class UserAccountControllerTest {
         UserBookDto request = new UserBookDto();
         request.setRating(4);
 
-        when(userBookService.addRating(eq("notfound"), eq("1234567890"), any(UserBookDto.class)))
+        when(userBookService.addRating(eq("notfound"), eq("1234567890"), any(UserBookDto.class), isNull()))
                 .thenThrow(new UserNotFoundException());
 
         mockMvc.perform(patch("/api/users/notfound/books/1234567890/rating")
@@ -696,7 +961,7 @@ public class UserAccountControllerTest {
         UserBookDto request = new UserBookDto();
         request.setRating(4);
 
-        when(userBookService.addRating(eq("validuser"), eq("0000000000"), any(UserBookDto.class)))
+        when(userBookService.addRating(eq("validuser"), eq("0000000000"), any(UserBookDto.class), isNull()))
                 .thenThrow(new BookNotFoundException("Book not found"));
 
         mockMvc.perform(patch("/api/users/validuser/books/0000000000/rating")
@@ -714,7 +979,7 @@ public class UserAccountControllerTest {
         UserBookDto request = new UserBookDto();
         request.setRating(4);
 
-        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class)))
+        when(userBookService.addRating(eq("validuser"), eq("1234567890"), any(UserBookDto.class), isNull()))
                 .thenThrow(new UserBookNotFoundException("UserBook relation does not exist"));
 
         mockMvc.perform(patch("/api/users/validuser/books/1234567890/rating")
@@ -737,4 +1002,166 @@ public class UserAccountControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnprocessableEntity());
     }
+
+    /**
+     * Tests that the library is streamed as CSV attachment by default.
+     */
+    @Test
+    void testExportUserBooksLibraryCsv() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("isbn,title,author,rating,comment\r\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        }).when(userBookService).exportUserBooks(eq("validuser"), eq(LibraryExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/validuser/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"validuser-library.csv\""))
+                .andExpect(content().string("isbn,title,author,rating,comment\r\n"));
+    }
+
+    /**
+     * Tests that the library is streamed as NDJSON if requested.
+     */
+    @Test
+    void testExportUserBooksLibraryNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/validuser/books/export?format=ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"validuser-library.ndjson\""));
+        verify(userBookService).exportUserBooks(eq("validuser"), eq(LibraryExportFormat.NDJSON), any(OutputStream.class));
+    }
+
+    /**
+     * Tests that exporting the library of an unknown user returns 400 without starting the stream.
+     */
+    @Test
+    void testExportUserBooksLibraryUserNotFound() throws Exception {
+        when(userAccountService.findUserAccountByUsername("notfound"))
+                .thenThrow(new UserNotFoundException());
+
+        mockMvc.perform(get("/api/users/notfound/books/export"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(userBookService);
+    }
+
+    /**
+     * Tests that an unknown export format returns 422.
+     */
+    @Test
+    void testExportUserBooksLibraryInvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/users/validuser/books/export?format=xml"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * Tests that an uploaded library file is accepted for import with the URL of its progress.
+     */
+    @Test
+    void testImportUserBooksLibrary() throws Exception {
+        UUID id = UUID.fromString("3f2b8c1e-9d4a-4b6e-8f1a-2c5d7e9b0a13");
+        MockMultipartFile file = new MockMultipartFile("file", "library.csv", "text/csv",
+                "isbn\n9783161484100\n".getBytes(StandardCharsets.UTF_8));
+        when(libraryImportService.startImport(eq("validuser"), any(MultipartFile.class)))
+                .thenReturn(new LibraryImportJobDto(id, "validuser", LibraryImportStatus.QUEUED, 0, 0, 0, 0,
+                        List.of(), null, Instant.parse("2025-01-01T00:00:00Z"), null));
+
+        mockMvc.perform(multipart("/api/users/validuser/books/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION,
+                        "http://localhost/api/users/validuser/books/import/" + id))
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    /**
+     * Tests that a file without ISBN column is rejected with 400.
+     */
+    @Test
+    void testImportUserBooksLibraryInvalidFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "library.csv", "text/csv",
+                "title\nClean Code\n".getBytes(StandardCharsets.UTF_8));
+        when(libraryImportService.startImport(eq("validuser"), any(MultipartFile.class)))
+                .thenThrow(new InvalidImportFileException("The header has no isbn column"));
+
+        mockMvc.perform(multipart("/api/users/validuser/books/import").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The header has no isbn column"));
+    }
+
+    /**
+     * Tests that an import beyond the limit of the user is rejected with 429 and one beyond the
+     * queue with 503.
+     */
+    @Test
+    void testImportUserBooksLibraryLimits() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "library.csv", "text/csv",
+                "isbn\n9783161484100\n".getBytes(StandardCharsets.UTF_8));
+        when(libraryImportService.startImport(eq("validuser"), any(MultipartFile.class)))
+                .thenThrow(new ImportLimitExceededException("User validuser already has 1 unfinished imports"))
+                .thenThrow(new ImportQueueFullException("Too many library imports are waiting, please try again later"));
+
+        mockMvc.perform(multipart("/api/users/validuser/books/import").file(file))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().string("User validuser already has 1 unfinished imports"));
+        mockMvc.perform(multipart("/api/users/validuser/books/import").file(file))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * Tests that importing into the library of an unknown user is rejected with 400.
+     */
+    @Test
+    void testImportUserBooksLibraryUserNotFound() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "library.csv", "text/csv",
+                "isbn\n9783161484100\n".getBytes(StandardCharsets.UTF_8));
+        when(libraryImportService.startImport(eq("notfound"), any(MultipartFile.class)))
+                .thenThrow(new UserNotFoundException());
+
+        mockMvc.perform(multipart("/api/users/notfound/books/import").file(file))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that the progress of an import is returned.
+     */
+    @Test
+    void testReadUserBooksImport() throws Exception {
+        UUID id = UUID.fromString("3f2b8c1e-9d4a-4b6e-8f1a-2c5d7e9b0a13");
+        when(libraryImportService.findImport("validuser", id))
+                .thenReturn(new LibraryImportJobDto(id, "validuser", LibraryImportStatus.RUNNING, 1200, 900, 250, 50,
+                        List.of(new LibraryImportErrorDto(17, "abc", "ISBN must be 10 or 13 digits and contain only digits")),
+                        null, Instant.parse("2025-01-01T00:00:00Z"), null));
+
+        mockMvc.perform(get("/api/users/validuser/books/import/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.rowsRead").value(1200))
+                .andExpect(jsonPath("$.imported").value(900))
+                .andExpect(jsonPath("$.errors[0].line").value(17));
+    }
+
+    /**
+     * Tests that an unknown import returns 404.
+     */
+    @Test
+    void testReadUserBooksImportNotFound() throws Exception {
+        UUID id = UUID.fromString("3f2b8c1e-9d4a-4b6e-8f1a-2c5d7e9b0a13");
+        when(libraryImportService.findImport("validuser", id))
+                .thenThrow(new ImportJobNotFoundException("The import does not exist"));
+
+        mockMvc.perform(get("/api/users/validuser/books/import/" + id))
+                .andExpect(status().isNotFound());
+    }
 }
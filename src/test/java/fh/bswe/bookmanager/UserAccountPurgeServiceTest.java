@@ -0,0 +1,214 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.config.UserAccountPurgeConfig;
+import fh.bswe.bookmanager.dto.UserAccountDto;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.exception.UserExistsException;
+import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.ShardLocator;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import fh.bswe.bookmanager.service.BookStatsService;
+import fh.bswe.bookmanager.service.UserAccountPurgeService;
+import fh.bswe.bookmanager.service.UserAccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the soft-deletion of user accounts and the {@link UserAccountPurgeService}.
+ * <p>
+ * The purge service under test is created with a batch size of two, so a library of
+ * five books is removed in several batches.
+ * </p>
+ */
+@SpringBootTest
+public class UserAccountPurgeServiceTest {
+    private static final int BATCH_SIZE = 2;
+
+    @Autowired
+    private UserAccountService userAccountService;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookStatsRepository bookStatsRepository;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private ShardLocator shardLocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Tests that a deleted user is hidden from all reads while the account and its library
+     * are still stored.
+     *
+     * @throws UserNotFoundException if the user cannot be deleted (not expected in this test)
+     */
+    @Test
+    void testDeletedUserIsHidden() throws UserNotFoundException {
+        final UserAccount user = saveUserWithLibrary("hidden_user", "97800000430", 1);
+
+        userAccountService.deleteUserAccountByUsername("hidden_user");
+
+        assertTrue(userAccountRepository.findByUsername("hidden_user").isEmpty());
+        assertFalse(userAccountRepository.existsByUsername("hidden_user"));
+        assertTrue(userAccountRepository.findIdByUsername("hidden_user").isEmpty());
+        assertTrue(userBookRepository.findLibraryEntry("hidden_user", "9780000043000").isEmpty());
+        assertEquals(0, userAccountRepository.updateNamesByUsername("hidden_user", "New", "Name"));
+        assertThrows(UserNotFoundException.class, () -> userAccountService.deleteUserAccountByUsername("hidden_user"));
+
+        assertTrue(userAccountRepository.findDeletedIds(Limit.unlimited()).contains(user.getId()));
+        assertEquals(1, userBookRepository.findIdsByUserAccountId(user.getId(), Limit.of(BATCH_SIZE)).size());
+    }
+
+    /**
+     * Tests that the purge removes the library of a deleted user in batches, then the account,
+     * subtracts the library from the book statistics and reports its progress, while other
+     * users are not affected.
+     *
+     * @throws UserNotFoundException if the user cannot be deleted (not expected in this test)
+     */
+    @Test
+    void testPurgeDeletedUser() throws UserNotFoundException {
+        final UserAccount deleted = saveUserWithLibrary("purged_user", "97800000431", 5);
+        final UserAccount kept = saveUserWithLibrary("kept_user", "97800000432", 1);
+        userAccountService.deleteUserAccountByUsername("purged_user");
+        bookStatsService.rebuild();
+        assertEquals(1, bookStatsService.findStatsByIsbn("9780000043100").readers());
+
+        final UserAccountPurgeConfig config = new UserAccountPurgeConfig();
+        config.setBatchSize(BATCH_SIZE);
+        final UserAccountPurgeService purgeService =
+                new UserAccountPurgeService(userAccountRepository, userBookRepository, bookStatsRepository, config,
+                        shardLocator, transactionManager);
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        purgeService.bindTo(registry);
+
+        while (userAccountRepository.countByDeletedAtIsNotNull() > 0) {
+            purgeService.purgeDeleted();
+        }
+
+        assertFalse(userAccountRepository.findDeletedIds(Limit.unlimited()).contains(deleted.getId()));
+        assertTrue(userBookRepository.findIdsByUserAccountId(deleted.getId(), Limit.of(BATCH_SIZE)).isEmpty());
+        assertTrue(purgeService.getPurgedAccounts() >= 1);
+        assertTrue(purgeService.getPurgedEntries() >= 5);
+        assertEquals(0, purgeService.getPendingAccounts());
+        assertEquals((double) purgeService.getPurgedEntries(),
+                registry.get("useraccounts.purge.entries").functionCounter().count());
+
+        assertTrue(userAccountRepository.findByUsername("kept_user").isPresent());
+        assertEquals(1, userBookRepository.findIdsByUserAccountId(kept.getId(), Limit.of(BATCH_SIZE)).size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bookStatsService.findStatsByIsbn("97800000431%02d".formatted(i)).readers());
+        }
+        assertEquals(1, bookStatsService.findStatsByIsbn("9780000043200").readers());
+    }
+
+    /**
+     * Tests that a run removes at most the configured number of library batches, so a large
+     * library is purged over several runs and the account only once its library is gone.
+     *
+     * @throws UserNotFoundException if the user cannot be deleted (not expected in this test)
+     */
+    @Test
+    void testPurgeIsBoundedPerRun() throws UserNotFoundException {
+        final UserAccount deleted = saveUserWithLibrary("bounded_user", "97800000433", 5);
+        userAccountService.deleteUserAccountByUsername("bounded_user");
+
+        final UserAccountPurgeConfig config = new UserAccountPurgeConfig();
+        config.setBatchSize(BATCH_SIZE);
+        config.setMaxBatchesPerRun(1);
+        final UserAccountPurgeService purgeService =
+                new UserAccountPurgeService(userAccountRepository, userBookRepository, bookStatsRepository, config,
+                        shardLocator, transactionManager);
+
+        purgeService.purgeDeleted();
+
+        assertTrue(purgeService.getPurgedEntries() <= BATCH_SIZE);
+        assertTrue(userBookRepository.findIdsByUserAccountId(deleted.getId(), Limit.unlimited()).size()
+                >= 5 - BATCH_SIZE);
+        assertTrue(userAccountRepository.findDeletedIds(Limit.unlimited()).contains(deleted.getId()));
+
+        int runs = 1;
+        while (userAccountRepository.findDeletedIds(Limit.unlimited()).contains(deleted.getId())) {
+            purgeService.purgeDeleted();
+            runs++;
+        }
+
+        assertTrue(runs >= 3, "runs " + runs);
+        assertTrue(userBookRepository.findIdsByUserAccountId(deleted.getId(), Limit.unlimited()).isEmpty());
+    }
+
+    /**
+     * Tests that the username of a deleted account can be registered again before the account
+     * is purged, and that the new account does not see the library of the deleted one.
+     *
+     * @throws UserNotFoundException if the user cannot be deleted (not expected in this test)
+     * @throws UserExistsException   if the username is still taken
+     */
+    @Test
+    void testDeletedUsernameCanBeReused() throws UserNotFoundException, UserExistsException {
+        final UserAccount deleted = saveUserWithLibrary("reused_user", "97800000434", 1);
+        userAccountService.deleteUserAccountByUsername("reused_user");
+
+        final UserAccountDto userAccountDto = new UserAccountDto();
+        userAccountDto.setUsername("reused_user");
+        userAccountDto.setFirstname("Rita");
+        userAccountDto.setLastname("Reuse");
+        final UserAccountDto created = userAccountService.save(userAccountDto);
+
+        assertNotEquals(deleted.getId(), created.getId());
+        assertEquals(created.getId(), userAccountRepository.findByUsername("reused_user").orElseThrow().getId());
+        assertEquals("#" + deleted.getId(),
+                userAccountRepository.findIncludingDeletedById(deleted.getId()).orElseThrow().getUsername());
+        assertTrue(userBookRepository.findLibraryEntry("reused_user", "9780000043400").isEmpty());
+        assertTrue(userAccountRepository.findDeletedIds(Limit.unlimited()).contains(deleted.getId()));
+    }
+
+    private UserAccount saveUserWithLibrary(final String username, final String isbnPrefix, final int books) {
+        UserAccount user = new UserAccount();
+        user.setUsername(username);
+        user.setFirstname("Paul");
+        user.setLastname("Purge");
+        user = userAccountRepository.save(user);
+
+        for (int i = 0; i < books; i++) {
+            Book book = new Book();
+            book.setIsbn(isbnPrefix + "%02d".formatted(i));
+            book.setTitle("Purge Book " + i);
+            book = bookRepository.save(book);
+
+            final UserBook userBook = new UserBook();
+            userBook.setUser(user);
+            userBook.setBook(book);
+            userBookRepository.save(userBook);
+        }
+        return user;
+    }
+}
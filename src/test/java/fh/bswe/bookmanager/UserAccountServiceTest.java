@@ -8,16 +8,21 @@ import fh.bswe.bookmanager.exception.UserNotFoundException;
 import fh.bswe.bookmanager.repository.UserAccountRepository;
 import fh.bswe.bookmanager.service.UserAccountService;
 import net.bytebuddy.dynamic.DynamicType;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -70,8 +75,6 @@ public class UserAccountServiceTest {
         userAccountDto.setFirstname("John");
         userAccountDto.setLastname("Doe");
 
-        when(userAccountRepository.findByUsername("newuser")).thenReturn(Optional.empty());
-
         UserAccount savedUserAccount = new UserAccount();
         savedUserAccount.setId(1);
         savedUserAccount.setUsername("newuser");
@@ -94,8 +97,8 @@ public class UserAccountServiceTest {
      * <p>
      * Ensures that:
      * <ul>
-     *     <li>The repository detects the existing username.</li>
-     *     <li>No call to {@code save} is made.</li>
+     *     <li>The unique username constraint rejects the insert.</li>
+     *     <li>No lookup by username is made beforehand.</li>
      * </ul>
      * </p>
      */
@@ -104,11 +107,12 @@ public class UserAccountServiceTest {
         UserAccountDto dto = new UserAccountDto();
         dto.setUsername("existinguser");
 
-        when(userAccountRepository.findByUsername("existinguser"))
-                .thenReturn(Optional.of(new UserAccount()));
+        when(userAccountRepository.save(any(UserAccount.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_USER_ACCOUNT_USERNAME_INDEX_2")));
 
         assertThrows(UserExistsException.class, () -> userAccountService.save(dto));
-        verify(userAccountRepository, never()).save(any());
+        verify(userAccountRepository, never()).findByUsername(any());
     }
 
     /**
@@ -176,25 +180,12 @@ public class UserAccountServiceTest {
      */
     @Test
     void testUpdateUserAccount() throws UserNotFoundException {
-        UserAccount storedUserAccount = new UserAccount();
-        storedUserAccount.setId(1);
-        storedUserAccount.setUsername("olduser");
-        storedUserAccount.setFirstname("John");
-        storedUserAccount.setLastname("Doe");
-
-        when(userAccountRepository.findByUsername("olduser")).thenReturn(Optional.of(storedUserAccount));
-
-        UserAccount savedUserAccount = new UserAccount();
-        savedUserAccount.setId(1);
-        savedUserAccount.setUsername("olduser");
-        savedUserAccount.setFirstname("John");
-        savedUserAccount.setLastname("Smith");
-
         UserAccountUpdateDto userAccountUpdateDto = new UserAccountUpdateDto();
         userAccountUpdateDto.setFirstname("John");
         userAccountUpdateDto.setLastname("Smith");
 
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(savedUserAccount);
+        when(userAccountRepository.updateNamesByUsername("olduser", "John", "Smith")).thenReturn(1);
+        when(userAccountRepository.findIdByUsername("olduser")).thenReturn(Optional.of(1));
 
         UserAccountDto result = userAccountService.updateUserAccount("olduser", userAccountUpdateDto);
 
@@ -202,68 +193,58 @@ public class UserAccountServiceTest {
         assertEquals("John", result.getFirstname());
         assertEquals("Smith", result.getLastname());
         assertEquals(1, result.getId());
-        verify(userAccountRepository, times(1)).save(any(UserAccount.class));
+        verify(userAccountRepository, never()).findByUsername(any());
+        verify(userAccountRepository, never()).save(any(UserAccount.class));
     }
 
     /**
      * Tests the service behavior when trying to update a non-existent user account.
      * <p>
      * Expects that a {@link fh.bswe.bookmanager.exception.UserNotFoundException} is thrown
-     * when the user is not found in the repository.
+     * when the update affects no account.
      * </p>
      *
      * @throws UserNotFoundException expected exception
      */
     @Test
     void testUpdateUserAccountNotFound() throws UserNotFoundException {
-        when(userAccountRepository.findByUsername("olduser")).thenReturn(Optional.empty());
+        when(userAccountRepository.updateNamesByUsername("olduser", "John", "Smith")).thenReturn(0);
 
         UserAccountUpdateDto userAccountUpdateDto = new UserAccountUpdateDto();
         userAccountUpdateDto.setFirstname("John");
         userAccountUpdateDto.setLastname("Smith");
 
         assertThrows(UserNotFoundException.class, () -> userAccountService.updateUserAccount("olduser", userAccountUpdateDto));
-        verify(userAccountRepository, times(1)).findByUsername("olduser");
-        verify(userAccountRepository, never()).save(any());
+        verify(userAccountRepository, times(1)).updateNamesByUsername("olduser", "John", "Smith");
+        verify(userAccountRepository, never()).findIdByUsername(any());
     }
 
     /**
      * Tests successful deletion of an existing user account by username.
      * <p>
      * This test ensures that when a user with the given username exists,
-     * the service method {@code deleteUserAccountByUsername} retrieves the user and
-     * invokes the repository's {@code delete} method exactly once with the correct user.
+     * the service method {@code deleteUserAccountByUsername} marks the account as deleted
+     * with a single update, without loading or deleting the account itself.
      * </p>
      *
      * @throws UserNotFoundException if the user is not found (not expected in this test)
      */
     @Test
     void testDeleteUserAccount() throws UserNotFoundException {
-        UserAccount storedUserAccount = new UserAccount();
-        storedUserAccount.setId(1);
-        storedUserAccount.setUsername("olduser");
-        storedUserAccount.setFirstname("John");
-        storedUserAccount.setLastname("Doe");
-
-        Optional<UserAccount> userAccount = Optional.of(storedUserAccount);
-        when(userAccountRepository.findByUsername("olduser")).thenReturn(userAccount);
+        when(userAccountRepository.markDeletedByUsername(eq("olduser"), any(Instant.class))).thenReturn(1);
 
         userAccountService.deleteUserAccountByUsername("olduser");
 
-        UserAccount deleteUserAccount = new UserAccount();
-        deleteUserAccount.setId(1);
-        deleteUserAccount.setUsername("olduser");
-        deleteUserAccount.setFirstname("John");
-        deleteUserAccount.setLastname("Doe");
-
-        verify(userAccountRepository, times(1)).delete(deleteUserAccount);
+        verify(userAccountRepository, times(1)).markDeletedByUsername(eq("olduser"), any(Instant.class));
+        verify(userAccountRepository, never()).findByUsername(any());
+        verify(userAccountRepository, never()).delete(any());
     }
 
     /**
      * Tests the behavior when attempting to delete a non-existent user account.
      * <p>
      * Ensures that the service method {@code deleteUserAccountByUsername} throws
-     * a {@link fh.bswe.bookmanager.exception.UserNotFoundException} if the user is not found.
+     * a {@link fh.bswe.bookmanager.exception.UserNotFoundException} if no account was marked.
      * </p>
      * <p>
      * Verifies that {@code delete()} is never called on the repository in this case.
@@ -273,10 +254,10 @@ public class UserAccountServiceTest {
      */
     @Test
     void testDeleteUserAccountNotFound() throws UserNotFoundException {
-        when(userAccountRepository.findByUsername("olduser")).thenReturn(Optional.empty());
+        when(userAccountRepository.markDeletedByUsername(eq("olduser"), any(Instant.class))).thenReturn(0);
 
         assertThrows(UserNotFoundException.class, () -> userAccountService.deleteUserAccountByUsername("olduser"));
-        verify(userAccountRepository, times(1)).findByUsername("olduser");
-        verify(userAccountRepository, never()).save(any());
+        verify(userAccountRepository, times(1)).markDeletedByUsername(eq("olduser"), any(Instant.class));
+        verify(userAccountRepository, never()).delete(any());
     }
 }
@@ -0,0 +1,186 @@
+package fh.bswe.bookmanager;
+
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
+import fh.bswe.bookmanager.entity.Book;
+import fh.bswe.bookmanager.entity.UserAccount;
+import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.UserAccountRepository;
+import fh.bswe.bookmanager.repository.UserBookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark of a bulk import of {@link UserBook} rows through JPA, and of the latency of book lookups
+ * and library pages.
+ * <p>
+ * The benchmark is not part of {@code gradle test}, so the duration of the regular build does not
+ * depend on it; {@code gradle benchmark} imports 100k rows and fails if the throughput is below
+ * {@code benchmark.min-rows-per-second}. The latencies of lookups and library pages are logged to
+ * compare row layouts, e.g. before and after a change of column types, and fail the benchmark above
+ * {@code benchmark.max-lookup-micros} and {@code benchmark.max-page-micros}. Sizes and thresholds
+ * can be set as system properties.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-book-import-benchmark;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class UserBookImportBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+    private static final int MIN_ROWS_PER_SECOND = Integer.getInteger("benchmark.min-rows-per-second", 5_000);
+    private static final int BOOKS = 100;
+    private static final int FLUSH_INTERVAL = 1_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_LOOKUP_MICROS = Integer.getInteger("benchmark.max-lookup-micros", 5_000);
+    private static final int MAX_PAGE_MICROS = Integer.getInteger("benchmark.max-page-micros", 20_000);
+
+    private final Logger logger = LoggerFactory.getLogger(UserBookImportBenchmarkTest.class);
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Imports one user book row for every combination of benchmark users and books and checks
+     * that the rows were written with far fewer statements than rows, at the minimum throughput.
+     */
+    @Test
+    void testImportUserBooks() {
+        List<Integer> userIds = IntStream.range(0, ROWS / BOOKS).mapToObj(this::saveUser).toList();
+        List<Integer> bookIds = IntStream.range(0, BOOKS).mapToObj(this::saveBook).toList();
+        long before = userBookRepository.count();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int imported = 0;
+            for (Integer userId : userIds) {
+                for (Integer bookId : bookIds) {
+                    UserBook userBook = new UserBook();
+                    userBook.setUser(entityManager.getReference(UserAccount.class, userId));
+                    userBook.setBook(entityManager.getReference(Book.class, bookId));
+                    userBook.setRating(imported % 5 + 1);
+                    entityManager.persist(userBook);
+
+                    if (++imported % FLUSH_INTERVAL == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            }
+        });
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long statements = statistics.getPrepareStatementCount();
+        logger.info("Imported {} user books in {} ms: {} rows/s, {} JDBC statements",
+                ROWS, millis, ROWS * 1000L / millis, statements);
+
+        assertEquals(ROWS, userBookRepository.count() - before);
+        assertTrue(statements < ROWS / 10, "Inserts were not batched: " + statements + " statements");
+        assertTrue(ROWS * 1000L / millis >= MIN_ROWS_PER_SECOND,
+                "Imported %d rows/s, expected at least %d".formatted(ROWS * 1000L / millis, MIN_ROWS_PER_SECOND));
+    }
+
+    /**
+     * Looks up books by ISBN bypassing the second-level cache, and lists pages of a library sorted by title,
+     * and checks the average latency of both against the thresholds.
+     */
+    @Test
+    void testLookupAndListLatency() {
+        List<Integer> bookIds = IntStream.range(BOOKS, 2 * BOOKS).mapToObj(this::saveBook).toList();
+        Integer userId = saveUser(ROWS);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Integer bookId : bookIds) {
+                UserBook userBook = new UserBook();
+                userBook.setUser(entityManager.getReference(UserAccount.class, userId));
+                userBook.setBook(entityManager.getReference(Book.class, bookId));
+                userBook.setRating(bookId % 5 + 1);
+                userBook.setComment("A comment of a benchmark reader on book " + bookId + ". ".repeat(20));
+                entityManager.persist(userBook);
+            }
+        });
+        UserAccount user = userAccountRepository.findById(userId).orElseThrow();
+        UserBookFilterDto byTitle = new UserBookFilterDto(null, null, null, null, null, null, null,
+                UserBookSort.TITLE, false);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManagerFactory.getCache().evictAll();
+            assertTrue(bookRepository.findByIsbn(isbn(BOOKS + i % BOOKS)).isPresent());
+        }
+        long lookupMicros = (System.nanoTime() - start) / 1_000 / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            UserBookPageDto page = userBookRepository.findLibraryPage(user, byTitle, null, PAGE_SIZE);
+            assertEquals(PAGE_SIZE, page.items().size());
+        }
+        long listMicros = (System.nanoTime() - start) / 1_000 / ITERATIONS;
+
+        logger.info("Book lookup by ISBN: {} µs, library page of {} sorted by title: {} µs (average of {})",
+                lookupMicros, PAGE_SIZE, listMicros, ITERATIONS);
+        assertTrue(lookupMicros <= MAX_LOOKUP_MICROS,
+                "Book lookup took %d µs, expected at most %d".formatted(lookupMicros, MAX_LOOKUP_MICROS));
+        assertTrue(listMicros <= MAX_PAGE_MICROS,
+                "Library page took %d µs, expected at most %d".formatted(listMicros, MAX_PAGE_MICROS));
+    }
+
+    private Integer saveUser(final int index) {
+        UserAccount user = new UserAccount();
+        user.setUsername("bench" + index);
+        user.setFirstname("Bench");
+        user.setLastname("User");
+        return userAccountRepository.save(user).getId();
+    }
+
+    private Integer saveBook(final int index) {
+        Book book = new Book();
+        book.setIsbn(isbn(index));
+        book.setTitle("Benchmark Book " + index + ": A Title of Typical Length with a Subtitle");
+        book.setAuthors("Benchmark Author, Second Benchmark Author");
+        book.setPublishers("Benchmark Publishing House");
+        return bookRepository.save(book).getId();
+    }
+
+    private static String isbn(final int index) {
+        return "%010d".formatted(7_700_000_000L + index);
+    }
+}
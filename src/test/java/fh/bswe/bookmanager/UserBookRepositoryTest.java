@@ -1,24 +1,38 @@
 package fh.bswe.bookmanager;
 
+import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
 import fh.bswe.bookmanager.entity.Book;
 import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.entity.UserBook;
+import fh.bswe.bookmanager.helper.ConstraintViolations;
+import fh.bswe.bookmanager.helper.LibraryCursor;
 import fh.bswe.bookmanager.repository.BookRepository;
 import fh.bswe.bookmanager.repository.UserAccountRepository;
 import fh.bswe.bookmanager.repository.UserBookRepository;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
 public class UserBookRepositoryTest {
 
     @Autowired
@@ -30,188 +44,226 @@ public class UserBookRepositoryTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
-     * Tests that {@code existsByUserAccountAndBook} returns {@code true}
-     * when a {@link UserBook} entry exists.
+     * Tests that {@link UserBookRepository#updateRatingByUsernameAndIsbn(String, String, Integer, String, long)}
+     * only updates the entry of the given user and book in the expected version, that the version
+     * is incremented, and that the entry is read back as projection.
      */
     @Test
-    void testExistsByUserAccountAndBookExists() {
+    void testUpdateRatingByUsernameAndIsbn() {
         UserAccount user = new UserAccount();
-        user.setUsername("testuser");
+        user.setUsername("ratingtest");
         user.setFirstname("firstname");
         user.setLastname("lastname");
         user = userAccountRepository.save(user);
 
-        Book book = new Book();
-        book.setIsbn("1234567890");
-        book.setTitle("Test Book");
-        book = bookRepository.save(book);
-
-        UserBook userBook = new UserBook();
-        userBook.setUser(user);
-        userBook.setBook(book);
-        userBookRepository.save(userBook);
-
-        boolean exists = userBookRepository.existsByUserAccountAndBook(user, book);
-        assertTrue(exists);
+        saveLibraryEntry(user, "6660000001", "Rated Book", "Rated Author", "2001", "en", 1);
+        saveLibraryEntry(user, "6660000002", "Other Book", "Other Author", "2002", "en", 1);
+
+        assertEquals(0L, userBookRepository.findState("ratingtest", "6660000001").orElseThrow().version());
+        assertEquals(1, userBookRepository.updateRatingByUsernameAndIsbn("ratingtest", "6660000001", 4, "Good", 0L));
+        assertEquals(0, userBookRepository.updateRatingByUsernameAndIsbn("ratingtest", "6660000001", 2, "Stale", 0L));
+        assertEquals(0, userBookRepository.updateRatingByUsernameAndIsbn("ratingtest", "0000000000", 4, "Good", 0L));
+        assertEquals(0, userBookRepository.updateRatingByUsernameAndIsbn("missing_user", "6660000001", 4, "Good", 0L));
+        assertTrue(userBookRepository.findState("ratingtest", "0000000000").isEmpty());
+
+        Optional<UserBookDto> rated = userBookRepository.findLibraryEntry("ratingtest", "6660000001");
+        assertTrue(rated.isPresent());
+        assertEquals("Rated Book", rated.get().getTitle());
+        assertEquals("Rated Author", rated.get().getAuthor());
+        assertEquals(4, rated.get().getRating());
+        assertEquals("Good", rated.get().getComment());
+        assertEquals(1L, rated.get().getVersion());
+        assertEquals(1, userBookRepository.findLibraryEntry("ratingtest", "6660000002").orElseThrow().getRating());
     }
 
     /**
-     * Tests that {@code existsByUserAccountAndBook} returns {@code false}
-     * when no {@link UserBook} entry exists for the given user and book.
+     * Tests that {@link UserAccountRepository#updateNamesByUsername(String, String, String)} updates
+     * the names of the given user only and reports unknown users by an affected-row count of zero.
      */
     @Test
-    void testExistsByUserAccountAndBookDoesNotExist() {
+    void testUpdateNamesByUsername() {
         UserAccount user = new UserAccount();
-        user.setUsername("newuser");
-        user.setFirstname("firstname");
-        user.setLastname("lastname");
+        user.setUsername("renametest");
+        user.setFirstname("Old");
+        user.setLastname("Name");
         user = userAccountRepository.save(user);
 
-        Book book = new Book();
-        book.setIsbn("9876543210");
-        book.setTitle("New Book");
-        book = bookRepository.save(book);
+        assertEquals(1, userAccountRepository.updateNamesByUsername("renametest", "New", "Person"));
+        assertEquals(0, userAccountRepository.updateNamesByUsername("missing_user", "New", "Person"));
 
-        boolean exists = userBookRepository.existsByUserAccountAndBook(user, book);
-        assertFalse(exists);
+        UserAccount renamed = userAccountRepository.findByUsername("renametest").orElseThrow();
+        assertEquals("New", renamed.getFirstname());
+        assertEquals("Person", renamed.getLastname());
+        assertEquals(Optional.of(user.getId()), userAccountRepository.findIdByUsername("renametest"));
     }
 
     /**
-     * Tests that {@link UserBookRepository#deleteByUserAccountAndBook(UserAccount, Book)}
-     * successfully deletes the mapping between user and book.
+     * Tests that {@link UserBookRepository#findLibraryPage(UserAccount, UserBookFilterDto, LibraryCursor, int)}
+     * applies rating, language, year and text filters as well as the requested sort order.
      */
-    @Transactional
     @Test
-    void testDeleteByUserAccountAndBook() {
+    void testFindLibraryFilterAndSort() {
         UserAccount user = new UserAccount();
-        user.setUsername("deletetest");
-        user.setFirstname("firstname");
-        user.setLastname("lastname");
-        userAccountRepository.save(user);
-
-        Book book = new Book();
-        book.setIsbn("1112223334");
-        bookRepository.save(book);
-
-        UserBook userBook = new UserBook();
-        userBook.setUser(user);
-        userBook.setBook(book);
-        userBookRepository.save(userBook);
-
-        assertTrue(userBookRepository.existsByUserAccountAndBook(user, book));
-
-        userBookRepository.deleteByUserAccountAndBook(user, book);
+        user.setUsername("filter_reader");
+        user.setFirstname("Fiona");
+        user.setLastname("Filter");
+        user = userAccountRepository.save(user);
 
-        assertFalse(userBookRepository.existsByUserAccountAndBook(user, book));
+        saveLibraryEntry(user, "4440000001", "The Pragmatic Programmer", "Andrew Hunt", "1999", "en", 5);
+        saveLibraryEntry(user, "4440000002", "Refactoring", "Martin Fowler", "Nov 20, 2018", "en", 4);
+        saveLibraryEntry(user, "4440000003", "Entwurfsmuster_100%", "Erich Gamma", "2015", "de", 2);
+
+        assertEquals(List.of("4440000001", "4440000002", "4440000003"),
+                readLibrary(user, UserBookFilterDto.none()));
+        assertEquals(List.of("4440000002", "4440000001"), readLibrary(user,
+                new UserBookFilterDto(null, 3, 5, null, null, null, null, UserBookSort.RATING, false)));
+        assertEquals(List.of("4440000002"), readLibrary(user,
+                new UserBookFilterDto(null, null, null, "en", 2018, null, null, null, false)));
+        assertEquals(List.of("4440000003"), readLibrary(user,
+                new UserBookFilterDto(null, null, null, null, null, "_100%", "GAMMA", null, false)));
+        assertEquals(List.of("4440000001", "4440000002", "4440000003"), readLibrary(user,
+                new UserBookFilterDto(null, null, null, null, null, null, null, UserBookSort.TITLE, true)));
+        assertTrue(readLibrary(user, UserBookFilterDto.ofRating(1)).isEmpty());
     }
 
     /**
-     * Tests that {@link UserBookRepository#findByUserAccount(UserAccount)} returns the correct
-     * list of {@link UserBook} entries associated with the given {@link UserAccount}.
-     * <p>
-     * This test verifies the query behavior with one user and two associated books.
+     * Tests that following the cursors returns every entry exactly once in sort order,
+     * with one statement per page and no cursor after the last page.
      */
     @Test
-    void testFindByUserAccountCorrectEntries() {
+    void testFindLibraryPageKeyset() {
         UserAccount user = new UserAccount();
-        user.setUsername("reader1");
-        user.setFirstname("Alice");
-        user.setLastname("Smith");
+        user.setUsername("page_reader");
+        user.setFirstname("Paul");
+        user.setLastname("Pager");
         user = userAccountRepository.save(user);
 
-        Book book1 = new Book();
-        book1.setIsbn("1111111111");
-        book1.setTitle("Book One");
-        book1 = bookRepository.save(book1);
-
-        Book book2 = new Book();
-        book2.setIsbn("2222222222");
-        book2.setTitle("Book Two");
-        book2 = bookRepository.save(book2);
-
-        UserBook userBook1 = new UserBook();
-        userBook1.setUser(user);
-        userBook1.setBook(book1);
-        userBookRepository.save(userBook1);
-
-        UserBook userBook2 = new UserBook();
-        userBook2.setUser(user);
-        userBook2.setBook(book2);
-        userBookRepository.save(userBook2);
-
-        List<UserBook> result = userBookRepository.findByUserAccount(user);
-
-        assertEquals(2, result.size());
-        assertTrue(result.stream().anyMatch(ub -> ub.getBook().getIsbn().equals("1111111111")));
-        assertTrue(result.stream().anyMatch(ub -> ub.getBook().getIsbn().equals("2222222222")));
+        int[] ratings = {3, 5, 3, 1, 5, 3, 2};
+        for (int i = 0; i < ratings.length; i++) {
+            saveLibraryEntry(user, "555000000" + i, "Page Book " + i, "Author", "2000", "en", ratings[i]);
+        }
+        UserBookFilterDto filter = new UserBookFilterDto(null, null, null, null, null, null, null,
+                UserBookSort.RATING, true);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<String> read = new ArrayList<>();
+        LibraryCursor cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            UserBookPageDto page = userBookRepository.findLibraryPage(user, filter, cursor, 3);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            read.addAll(isbns(page.items()));
+            cursor = page.nextCursor() == null ? null
+                    : LibraryCursor.decode(page.nextCursor(), UserBookSort.RATING, true);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("5550000004", "5550000001", "5550000005", "5550000002", "5550000000",
+                "5550000006", "5550000003"), read);
     }
 
     /**
-     * Tests that {@link UserBookRepository#findByUserAccount(UserAccount)} returns
-     * an empty list when the user has no associated books.
+     * Tests that entries without a sort key are paged as a block of their own, last in ascending
+     * and first in descending order, and that the cursors seek past them.
      */
     @Test
-    void testFindByUserAccountEmptyList() {
+    void testFindLibraryPageKeysetWithMissingKeys() {
         UserAccount user = new UserAccount();
-        user.setUsername("xnewuser");
-        user.setFirstname("Bob");
-        user.setLastname("Brown");
+        user.setUsername("null_pager");
+        user.setFirstname("Nora");
+        user.setLastname("Null");
         user = userAccountRepository.save(user);
 
-        List<UserBook> result = userBookRepository.findByUserAccount(user);
+        Integer[] ratings = {3, null, 5, null, 1};
+        for (int i = 0; i < ratings.length; i++) {
+            saveLibraryEntry(user, "556000000" + i, "Null Book " + i, "Author", "2000", "en", ratings[i]);
+        }
 
-        assertTrue(result.isEmpty());
+        assertEquals(List.of("5560000004", "5560000000", "5560000002", "5560000001", "5560000003"),
+                readAllPages(user, UserBookSort.RATING, false));
+        assertEquals(List.of("5560000003", "5560000001", "5560000002", "5560000000", "5560000004"),
+                readAllPages(user, UserBookSort.RATING, true));
     }
 
     /**
-     * Tests that a UserBook entity is correctly found by user account and book.
+     * Tests that the unique constraints reject a second entry for the same user and book
+     * and a second user with the same username, and that the violations are recognised.
      */
     @Test
-    void testFindByUserAccountAndBookFound() {
+    void testUniqueConstraints() {
         UserAccount user = new UserAccount();
-        user.setUsername("john_doe");
-        user.setFirstname("John");
-        user.setLastname("Doe");
+        user.setUsername("unique_user");
+        user.setFirstname("firstname");
+        user.setLastname("lastname");
         user = userAccountRepository.save(user);
 
         Book book = new Book();
-        book.setIsbn("1234567890");
-        book.setTitle("Test Book");
+        book.setIsbn("5550000002");
+        book.setTitle("Unique Book");
+        book = bookRepository.save(book);
+
+        UserBook first = new UserBook();
+        first.setUser(user);
+        first.setBook(book);
+        userBookRepository.save(first);
+
+        UserBook second = new UserBook();
+        second.setUser(user);
+        second.setBook(book);
+        DataIntegrityViolationException userBookViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> userBookRepository.save(second));
+        assertTrue(ConstraintViolations.isViolated(userBookViolation, UserBook.USER_BOOK_CONSTRAINT));
+
+        UserAccount duplicate = new UserAccount();
+        duplicate.setUsername("unique_user");
+        duplicate.setFirstname("other");
+        duplicate.setLastname("other");
+        DataIntegrityViolationException userViolation =
+                assertThrows(DataIntegrityViolationException.class, () -> userAccountRepository.save(duplicate));
+        assertTrue(ConstraintViolations.isViolated(userViolation, UserAccount.USERNAME_CONSTRAINT));
+        assertFalse(ConstraintViolations.isViolated(userViolation, UserBook.USER_BOOK_CONSTRAINT));
+    }
+
+    private void saveLibraryEntry(final UserAccount user, final String isbn, final String title, final String authors,
+                                  final String publishDate, final String language, final Integer rating) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthors(authors);
+        book.setPublishDate(publishDate);
+        book.setLanguage(language);
         book = bookRepository.save(book);
 
         UserBook userBook = new UserBook();
         userBook.setUser(user);
         userBook.setBook(book);
-        userBook.setRating(5);
-        userBook.setComment("Great book!");
+        userBook.setRating(rating);
         userBookRepository.save(userBook);
-
-        Optional<UserBook> result = userBookRepository.findByUserAccountAndBook(user, book);
-
-        assertTrue(result.isPresent());
-        assertEquals("Great book!", result.get().getComment());
-        assertEquals(5, result.get().getRating());
     }
 
-    /**
-     * Tests that an empty result is returned when no UserBook entry matches the given user and book.
-     */
-    @Test
-    void testFindByUserAccountAndBookNotFound() {
-        UserAccount user = new UserAccount();
-        user.setUsername("jane_doe");
-        user.setFirstname("Jane");
-        user.setLastname("Doe");
-        user = userAccountRepository.save(user);
-
-        Book book = new Book();
-        book.setIsbn("9876543210");
-        book.setTitle("Another Book");
-        book = bookRepository.save(book);
+    private List<String> readLibrary(final UserAccount user, final UserBookFilterDto filter) {
+        return isbns(userBookRepository.findLibraryPage(user, filter, null, 100).items());
+    }
 
-        Optional<UserBook> result = userBookRepository.findByUserAccountAndBook(user, book);
+    private List<String> readAllPages(final UserAccount user, final UserBookSort sort, final boolean descending) {
+        UserBookFilterDto filter = new UserBookFilterDto(null, null, null, null, null, null, null, sort, descending);
+        List<String> read = new ArrayList<>();
+        LibraryCursor cursor = null;
+        do {
+            UserBookPageDto page = userBookRepository.findLibraryPage(user, filter, cursor, 2);
+            read.addAll(isbns(page.items()));
+            cursor = page.nextCursor() == null ? null : LibraryCursor.decode(page.nextCursor(), sort, descending);
+        } while (cursor != null);
+        return read;
+    }
 
-        assertTrue(result.isEmpty());
+    private static List<String> isbns(final List<UserBookDto> userBooks) {
+        return userBooks.stream().map(UserBookDto::getIsbn).toList();
     }
 }
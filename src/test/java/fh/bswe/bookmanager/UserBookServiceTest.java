@@ -1,35 +1,54 @@
 package fh.bswe.bookmanager;
 
 import fh.bswe.bookmanager.dto.BookDto;
+import fh.bswe.bookmanager.dto.LibraryExportFormat;
 import fh.bswe.bookmanager.dto.UserBookDto;
+import fh.bswe.bookmanager.dto.UserBookFilterDto;
+import fh.bswe.bookmanager.dto.UserBookPageDto;
+import fh.bswe.bookmanager.dto.UserBookSort;
+import fh.bswe.bookmanager.dto.UserBookStateDto;
 import fh.bswe.bookmanager.entity.Book;
 import fh.bswe.bookmanager.entity.UserAccount;
 import fh.bswe.bookmanager.entity.UserBook;
 import fh.bswe.bookmanager.exception.BookNotFoundException;
+import fh.bswe.bookmanager.exception.InvalidCursorException;
 import fh.bswe.bookmanager.exception.UserBookExistsException;
 import fh.bswe.bookmanager.exception.UserBookNotFoundException;
+import fh.bswe.bookmanager.exception.UserBookVersionConflictException;
 import fh.bswe.bookmanager.exception.UserNotFoundException;
+import fh.bswe.bookmanager.helper.LibraryCursor;
 import fh.bswe.bookmanager.repository.BookRepository;
+import fh.bswe.bookmanager.repository.BookStatsRepository;
 import fh.bswe.bookmanager.repository.UserAccountRepository;
 import fh.bswe.bookmanager.repository.UserBookRepository;
 import fh.bswe.bookmanager.service.OpenLibraryService;
 import fh.bswe.bookmanager.service.UserBookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -51,6 +70,9 @@ public class UserBookServiceTest {
     @MockitoBean
     private BookRepository bookRepository;
 
+    @MockitoBean
+    private BookStatsRepository bookStatsRepository;
+
     @Autowired
     private UserBookService userBookService;
 
@@ -75,13 +97,13 @@ public class UserBookServiceTest {
     void storeBookToUserLibraryUserAndBookAreValid() throws UserNotFoundException {
         when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(openLibraryService.findAndStoreBookByIsbn("1234567890")).thenReturn(book);
-        when(userBookRepository.existsByUserAccountAndBook(user, book)).thenReturn(false);
 
-        BookDto result = userBookService.storeBookToUserLibrary("testuser", "1234567890");
+        BookDto result = userBookService.storeBookToUserLibrary("testuser", "1234567890", false);
 
         assertNotNull(result);
         assertEquals("1234567890", result.getIsbn());
         verify(userBookRepository).save(any(UserBook.class));
+        verify(bookStatsRepository).applyChange(1, 1, null, null);
     }
 
     /**
@@ -92,7 +114,7 @@ public class UserBookServiceTest {
         when(userAccountRepository.findByUsername("missinguser")).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class,
-                () -> userBookService.storeBookToUserLibrary("missinguser", "1234567890"));
+                () -> userBookService.storeBookToUserLibrary("missinguser", "1234567890", false));
 
         verify(userAccountRepository).findByUsername("missinguser");
         verifyNoInteractions(openLibraryService);
@@ -100,18 +122,32 @@ public class UserBookServiceTest {
     }
 
     /**
-     * Tests exception is thrown if the book is already in the user's library.
+     * Tests exception is thrown if the unique user book constraint rejects the entry.
      */
     @Test
     void storeBookToUserLibraryBookAlreadyAdded() {
         when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(openLibraryService.findAndStoreBookByIsbn("1234567890")).thenReturn(book);
-        when(userBookRepository.existsByUserAccountAndBook(user, book)).thenReturn(true);
+        when(userBookRepository.save(any(UserBook.class)))
+                .thenThrow(violation("PUBLIC.UK_USER_BOOK_INDEX_9"));
 
         assertThrows(UserBookExistsException.class,
-                () -> userBookService.storeBookToUserLibrary("testuser", "1234567890"));
+                () -> userBookService.storeBookToUserLibrary("testuser", "1234567890", false));
 
-        verify(userBookRepository, never()).save(any());
+        verify(bookStatsRepository, never()).applyChange(any(), anyInt(), any(), any());
+    }
+
+    /**
+     * Tests that violations of other constraints are not reported as an existing entry.
+     */
+    @Test
+    void storeBookToUserLibraryOtherViolation() {
+        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(openLibraryService.findAndStoreBookByIsbn("1234567890")).thenReturn(book);
+        when(userBookRepository.save(any(UserBook.class))).thenThrow(violation("FK_USER_BOOK_BOOK"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userBookService.storeBookToUserLibrary("testuser", "1234567890", false));
     }
 
     /**
@@ -121,7 +157,8 @@ public class UserBookServiceTest {
      */
     @Test
     void testRemoveBookFromUserLibraryUserNotFound() {
-        when(userAccountRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        when(userBookRepository.findState("unknown", "1234567890")).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("unknown")).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () ->
                 userBookService.removeBookFromUserLibrary("unknown", "1234567890"));
@@ -134,9 +171,9 @@ public class UserBookServiceTest {
      */
     @Test
     void testRemoveBookFromUserLibraryBookNotFound() {
-        UserAccount user = new UserAccount();
-        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn("unknown")).thenReturn(Optional.empty());
+        when(userBookRepository.findState("testuser", "unknown")).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("testuser")).thenReturn(true);
+        when(bookRepository.existsByIsbn("unknown")).thenReturn(false);
 
         assertThrows(BookNotFoundException.class, () ->
                 userBookService.removeBookFromUserLibrary("testuser", "unknown"));
@@ -145,16 +182,13 @@ public class UserBookServiceTest {
     /**
      * Tests behavior when the book is not associated with the user's library.
      * <p>
-     * Expects {@link UserBookExistsException} to be thrown.
+     * Expects {@link UserBookNotFoundException} to be thrown.
      */
     @Test
     void testRemoveBookFromUserLibraryNotAssociated() {
-        UserAccount user = new UserAccount();
-        Book book = new Book();
-
-        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn("1234567890")).thenReturn(Optional.of(book));
-        when(userBookRepository.existsByUserAccountAndBook(user, book)).thenReturn(false);
+        when(userBookRepository.findState("testuser", "1234567890")).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("testuser")).thenReturn(true);
+        when(bookRepository.existsByIsbn("1234567890")).thenReturn(true);
 
         assertThrows(UserBookNotFoundException.class, () ->
                 userBookService.removeBookFromUserLibrary("testuser", "1234567890"));
@@ -163,21 +197,37 @@ public class UserBookServiceTest {
     /**
      * Tests behavior when the book is associated with the user's library.
      * <p>
-     * Expects to delete association
+     * Expects the association to be deleted by ID and version, its rating to be subtracted
+     * from the book statistics, and no lookups.
      */
     @Test
     void testRemoveBookFromUserLibraryAssociated() throws UserNotFoundException {
-        UserAccount user = new UserAccount();
-        Book book = new Book();
+        when(userBookRepository.findState("testuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, 4, 2L)));
+        when(userBookRepository.deleteByIdAndVersion(7L, 2L)).thenReturn(1);
 
-        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn("1234567890")).thenReturn(Optional.of(book));
-        when(userBookRepository.existsByUserAccountAndBook(user, book)).thenReturn(true);
-        doNothing().when(userBookRepository).deleteByUserAccountAndBook(user, book);
+        userBookService.removeBookFromUserLibrary("testuser", "1234567890");
+
+        verify(userBookRepository, times(1)).deleteByIdAndVersion(7L, 2L);
+        verify(bookStatsRepository).applyChange(1, -1, 4, null);
+        verifyNoInteractions(userAccountRepository, bookRepository);
+    }
+
+    /**
+     * Tests that a removal losing against a concurrent rating is retried with the new rating.
+     */
+    @Test
+    void testRemoveBookFromUserLibraryRetriesOnConflict() throws UserNotFoundException {
+        when(userBookRepository.findState("testuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, null, 0L)),
+                        Optional.of(new UserBookStateDto(7L, 1, 5, 1L)));
+        when(userBookRepository.deleteByIdAndVersion(7L, 0L)).thenReturn(0);
+        when(userBookRepository.deleteByIdAndVersion(7L, 1L)).thenReturn(1);
 
         userBookService.removeBookFromUserLibrary("testuser", "1234567890");
 
-        verify(userBookRepository, times(1)).deleteByUserAccountAndBook(user, book);
+        verify(bookStatsRepository, times(1)).applyChange(any(), anyInt(), any(), any());
+        verify(bookStatsRepository).applyChange(1, -1, 5, null);
     }
 
     /**
@@ -188,23 +238,14 @@ public class UserBookServiceTest {
         UserAccount user = new UserAccount();
         user.setUsername("testuser");
 
-        Book book = new Book();
-        book.setTitle("Test Book");
-        book.setIsbn("1234567890");
-        book.setAuthors("Author Name");
-
-        UserBook userBook = new UserBook();
-        userBook.setUser(user);
-        userBook.setBook(book);
-        userBook.setRating(5);
-        userBook.setComment("Nice read");
+        UserBookDto userBook = new UserBookDto("1234567890", "Test Book", "Author Name", 5, "Nice read");
 
         when(userAccountRepository.findByUsername("testuser"))
                 .thenReturn(Optional.of(user));
-        when(userBookRepository.findByUserAccount(user))
-                .thenReturn(List.of(userBook));
+        when(userBookRepository.findLibraryPage(user, UserBookFilterDto.none(), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(userBook), null));
 
-        List<UserBookDto> result = userBookService.readUserBooks("testuser", null);
+        List<UserBookDto> result = userBookService.readUserBooks("testuser", UserBookFilterDto.none(), null, 50).items();
 
         assertEquals(1, result.size());
         assertEquals("Test Book", result.get(0).getTitle());
@@ -215,41 +256,21 @@ public class UserBookServiceTest {
     }
 
     /**
-     * Tests that the method returns a list of rating filtered {@link UserBookDto} for a valid username.
+     * Tests that the rating filter is passed to the repository and its result is returned as is.
      */
     @Test
     void testReadUserBooksRating() throws UserNotFoundException {
         UserAccount user = new UserAccount();
         user.setUsername("testuser");
 
-        Book book1 = new Book();
-        book1.setTitle("Test Book");
-        book1.setIsbn("1234567890");
-        book1.setAuthors("Author Name");
-
-        UserBook userBook1 = new UserBook();
-        userBook1.setUser(user);
-        userBook1.setBook(book1);
-        userBook1.setRating(5);
-        userBook1.setComment("Nice read");
-
-        Book book2 = new Book();
-        book2.setTitle("Test Book 2");
-        book2.setIsbn("1234564323");
-        book2.setAuthors("Author Name 2");
-
-        UserBook userBook2 = new UserBook();
-        userBook2.setUser(user);
-        userBook2.setBook(book2);
-        userBook2.setRating(3);
-        userBook2.setComment("Nice read");
+        UserBookDto userBook = new UserBookDto("1234567890", "Test Book", "Author Name", 5, "Nice read");
 
         when(userAccountRepository.findByUsername("testuser"))
                 .thenReturn(Optional.of(user));
-        when(userBookRepository.findByUserAccount(user))
-                .thenReturn(List.of(userBook1, userBook2));
+        when(userBookRepository.findLibraryPage(user, UserBookFilterDto.ofRating(5), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(userBook), null));
 
-        List<UserBookDto> result = userBookService.readUserBooks("testuser", 5);
+        List<UserBookDto> result = userBookService.readUserBooks("testuser", UserBookFilterDto.ofRating(5), null, 50).items();
 
         assertEquals(1, result.size());
         assertEquals("Test Book", result.get(0).getTitle());
@@ -267,7 +288,7 @@ public class UserBookServiceTest {
         when(userAccountRepository.findByUsername("nonexistent"))
                 .thenReturn(Optional.empty());
 
-        assertThrows(UserNotFoundException.class, () -> userBookService.readUserBooks("nonexistent", null));
+        assertThrows(UserNotFoundException.class, () -> userBookService.readUserBooks("nonexistent", UserBookFilterDto.none(), null, 50));
     }
 
     /**
@@ -280,15 +301,41 @@ public class UserBookServiceTest {
 
         when(userAccountRepository.findByUsername("emptyuser"))
                 .thenReturn(Optional.of(user));
-        when(userBookRepository.findByUserAccount(user))
-                .thenReturn(List.of());
+        when(userBookRepository.findLibraryPage(user, UserBookFilterDto.none(), null, 50))
+                .thenReturn(new UserBookPageDto(List.of(), null));
 
-        List<UserBookDto> result = userBookService.readUserBooks("emptyuser", null);
+        List<UserBookDto> result = userBookService.readUserBooks("emptyuser", UserBookFilterDto.none(), null, 50).items();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
 
+    /**
+     * Tests that the cursor of the previous page is decoded and passed to the repository,
+     * and that a cursor of another sort order is rejected before any query is run.
+     */
+    @Test
+    void testReadUserBooksCursor() throws UserNotFoundException {
+        UserAccount user = new UserAccount();
+        user.setUsername("testuser");
+        LibraryCursor cursor = new LibraryCursor(UserBookSort.ADDED, false, 42L, "");
+
+        when(userAccountRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(user));
+        when(userBookRepository.findLibraryPage(user, UserBookFilterDto.none(), cursor, 10))
+                .thenReturn(new UserBookPageDto(List.of(), null));
+
+        userBookService.readUserBooks("testuser", UserBookFilterDto.none(), cursor.encode(), 10);
+
+        verify(userBookRepository).findLibraryPage(user, UserBookFilterDto.none(), cursor, 10);
+        UserBookFilterDto byTitle = new UserBookFilterDto(null, null, null, null, null, null, null,
+                UserBookSort.TITLE, false);
+        assertThrows(InvalidCursorException.class,
+                () -> userBookService.readUserBooks("testuser", byTitle, cursor.encode(), 10));
+        assertThrows(InvalidCursorException.class,
+                () -> userBookService.readUserBooks("testuser", UserBookFilterDto.none(), "not a cursor", 10));
+    }
+
     /**
      * Tests the successful update of a rating and comment for a user-book entry.
      */
@@ -297,29 +344,86 @@ public class UserBookServiceTest {
         String username = "testuser";
         String isbn = "1234567890";
 
-        UserAccount user = new UserAccount();
-        user.setUsername(username);
-
-        Book book = new Book();
-        book.setIsbn(isbn);
-
-        UserBook userBook = new UserBook();
-        userBook.setBook(book);
-        userBook.setUser(user);
-
         UserBookDto userBookDto = new UserBookDto();
         userBookDto.setRating(5);
         userBookDto.setComment("Excellent!");
 
-        when(userAccountRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn(isbn)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserAccountAndBook(user, book)).thenReturn(Optional.of(userBook));
-        when(userBookRepository.save(userBook)).thenReturn(userBook);
+        when(userBookRepository.findState(username, isbn))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, 3, 2L)));
+        when(userBookRepository.updateRatingByUsernameAndIsbn(username, isbn, 5, "Excellent!", 2L)).thenReturn(1);
+        when(userBookRepository.findLibraryEntry(username, isbn))
+                .thenReturn(Optional.of(new UserBookDto(isbn, "Title", "Author", 5, "Excellent!", 3L)));
 
         UserBookDto result = userBookService.addRating(username, isbn, userBookDto);
 
         assertEquals(5, result.getRating());
         assertEquals("Excellent!", result.getComment());
+        assertEquals("Title", result.getTitle());
+        assertEquals(3L, result.getVersion());
+        verify(bookStatsRepository).applyChange(1, 0, 3, 5);
+        verifyNoInteractions(userAccountRepository, bookRepository);
+    }
+
+    /**
+     * Tests that a rating update losing against a concurrent update is retried with the new version.
+     */
+    @Test
+    void testAddRatingRetriesOnConflict() throws UserNotFoundException {
+        UserBookDto userBookDto = new UserBookDto();
+        userBookDto.setRating(4);
+
+        when(userBookRepository.findState("retryuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, null, 1L)),
+                        Optional.of(new UserBookStateDto(7L, 1, 2, 2L)));
+        when(userBookRepository.updateRatingByUsernameAndIsbn("retryuser", "1234567890", 4, null, 1L)).thenReturn(0);
+        when(userBookRepository.updateRatingByUsernameAndIsbn("retryuser", "1234567890", 4, null, 2L)).thenReturn(1);
+        when(userBookRepository.findLibraryEntry("retryuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookDto("1234567890", "Title", "Author", 4, null, 3L)));
+
+        UserBookDto result = userBookService.addRating("retryuser", "1234567890", userBookDto);
+
+        assertEquals(3L, result.getVersion());
+        verify(userBookRepository, times(2)).updateRatingByUsernameAndIsbn(any(), any(), any(), any(), anyLong());
+        verify(bookStatsRepository, times(1)).applyChange(any(), anyInt(), any(), any());
+        verify(bookStatsRepository).applyChange(1, 0, 2, 4);
+    }
+
+    /**
+     * Tests that a {@link UserBookVersionConflictException} is thrown once all attempts lost against
+     * concurrent updates.
+     */
+    @Test
+    void testAddRatingRetriesExhausted() {
+        UserBookDto userBookDto = new UserBookDto();
+        userBookDto.setRating(4);
+
+        when(userBookRepository.findState("retryuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, null, 1L)));
+        when(userBookRepository.updateRatingByUsernameAndIsbn("retryuser", "1234567890", 4, null, 1L)).thenReturn(0);
+
+        assertThrows(UserBookVersionConflictException.class,
+                () -> userBookService.addRating("retryuser", "1234567890", userBookDto));
+        verify(userBookRepository, times(UserBookService.MAX_RATING_ATTEMPTS))
+                .updateRatingByUsernameAndIsbn(any(), any(), any(), any(), anyLong());
+        verify(userBookRepository, never()).findLibraryEntry(any(), any());
+        verifyNoInteractions(bookStatsRepository);
+    }
+
+    /**
+     * Tests that an update with an outdated expected version is rejected without retry.
+     */
+    @Test
+    void testAddRatingExpectedVersionMismatch() {
+        UserBookDto userBookDto = new UserBookDto();
+        userBookDto.setRating(4);
+
+        when(userBookRepository.findState("ifmatchuser", "1234567890"))
+                .thenReturn(Optional.of(new UserBookStateDto(7L, 1, 3, 2L)));
+
+        assertThrows(UserBookVersionConflictException.class,
+                () -> userBookService.addRating("ifmatchuser", "1234567890", userBookDto, Set.of(1L)));
+        verify(userBookRepository, never()).updateRatingByUsernameAndIsbn(any(), any(), any(), any(), anyLong());
+        verifyNoInteractions(userAccountRepository, bookRepository, bookStatsRepository);
     }
 
     /**
@@ -327,7 +431,7 @@ public class UserBookServiceTest {
      */
     @Test
     void testAddRatingUserNotFound() {
-        when(userAccountRepository.findByUsername("missing")).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("missing")).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () ->
                 userBookService.addRating("missing", "1234567890", new UserBookDto()));
@@ -338,11 +442,8 @@ public class UserBookServiceTest {
      */
     @Test
     void testAddRatingBookNotFound() {
-        UserAccount user = new UserAccount();
-        user.setUsername("test");
-
-        when(userAccountRepository.findByUsername("test")).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn("9999999999")).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("test")).thenReturn(true);
+        when(bookRepository.existsByIsbn("9999999999")).thenReturn(false);
 
         assertThrows(BookNotFoundException.class, () ->
                 userBookService.addRating("test", "9999999999", new UserBookDto()));
@@ -353,17 +454,102 @@ public class UserBookServiceTest {
      */
     @Test
     void testAddRatingUserBookNotFound() {
-        UserAccount user = new UserAccount();
-        user.setUsername("test");
-
-        Book book = new Book();
-        book.setIsbn("123");
-
-        when(userAccountRepository.findByUsername("test")).thenReturn(Optional.of(user));
-        when(bookRepository.findByIsbn("123")).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserAccountAndBook(user, book)).thenReturn(Optional.empty());
+        when(userAccountRepository.existsByUsername("test")).thenReturn(true);
+        when(bookRepository.existsByIsbn("123")).thenReturn(true);
 
         assertThrows(UserBookNotFoundException.class, () ->
                 userBookService.addRating("test", "123", new UserBookDto()));
+        verify(userBookRepository, never()).findLibraryEntry(any(), any());
+    }
+
+    private static DataIntegrityViolationException violation(final String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate", new SQLException(), constraint));
+    }
+
+    /**
+     * Tests that the library is exported as CSV with a header, quoting fields containing separators.
+     */
+    @Test
+    void testExportUserBooksCsv() throws Exception {
+        user.setId(7);
+        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userBookRepository.streamLibraryByUserAccountId(7)).thenReturn(Stream.of(
+                new UserBookDto("1234567890", "Test Book", "Author Name", 5, "Nice read"),
+                new UserBookDto("0987654321", "Commas, \"Quotes\"", null, null, "line\nbreak")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = userBookService.exportUserBooks("testuser", LibraryExportFormat.CSV, out);
+
+        assertEquals(2, written);
+        assertEquals("isbn,title,author,rating,comment\r\n"
+                + "1234567890,Test Book,Author Name,5,Nice read\r\n"
+                + "0987654321,\"Commas, \"\"Quotes\"\"\",,,\"line\nbreak\"\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that the library is exported as one JSON object per line.
+     */
+    @Test
+    void testExportUserBooksNdjson() throws Exception {
+        user.setId(7);
+        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userBookRepository.streamLibraryByUserAccountId(7)).thenReturn(Stream.of(
+                new UserBookDto("1234567890", "Test Book", "Author Name", 5, "Nice read"),
+                new UserBookDto("0987654321", "Other Book", null, null, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = userBookService.exportUserBooks("testuser", LibraryExportFormat.NDJSON, out);
+
+        assertEquals(2, written);
+        assertEquals("{\"isbn\":\"1234567890\",\"title\":\"Test Book\",\"author\":\"Author Name\","
+                + "\"rating\":5,\"comment\":\"Nice read\"}\n"
+                + "{\"isbn\":\"0987654321\",\"title\":\"Other Book\",\"author\":null,"
+                + "\"rating\":null,\"comment\":null}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a library larger than one flush interval is exported completely and flushed
+     * every {@value UserBookService#EXPORT_FLUSH_INTERVAL} entries while it is written.
+     */
+    @Test
+    void testExportUserBooksFlushesInBatches() throws Exception {
+        int entries = UserBookService.EXPORT_FLUSH_INTERVAL * 2 + 1;
+        user.setId(7);
+        when(userAccountRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userBookRepository.streamLibraryByUserAccountId(7)).thenReturn(IntStream.range(0, entries)
+                .mapToObj(i -> new UserBookDto("978%010d".formatted(i), "Book " + i, null, null, null)));
+        List<Long> flushedLines = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushedLines.add(toString(StandardCharsets.UTF_8).lines().count());
+            }
+        };
+
+        long written = userBookService.exportUserBooks("testuser", LibraryExportFormat.CSV, out);
+
+        assertEquals(entries, written);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(entries + 1, lines.size());
+        assertEquals("9780000001000,Book 1000,,,", lines.get(1001));
+        assertEquals(List.of(501L, 1001L, (long) entries + 1), flushedLines);
+    }
+
+    /**
+     * Tests that exporting the library of an unknown user fails before anything is written.
+     */
+    @Test
+    void testExportUserBooksUserDoesNotExist() {
+        when(userAccountRepository.findByUsername("missinguser")).thenReturn(Optional.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(UserNotFoundException.class,
+                () -> userBookService.exportUserBooks("missinguser", LibraryExportFormat.CSV, out));
+
+        assertEquals(0, out.size());
+        verifyNoInteractions(userBookRepository);
     }
 }